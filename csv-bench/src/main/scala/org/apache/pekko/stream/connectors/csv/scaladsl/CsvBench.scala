@@ -21,6 +21,11 @@ import scala.concurrent.duration.Duration
 /**
  * Measures the time to parse a 1 MB CSV file, consuming the first field of each row.
  *
+ * `parse` uses the byte-wise `lineScanner`, `parseFast` the `fastLineScanner` which skips
+ * over field content eight bytes at a time.
+ *
+ * [[CsvShapesBench]] covers further row shapes, charsets and the map conversion and formatting flows.
+ *
  * ==Using Oracle Flight Recorder==
  * To record a Flight Recorder file from a JMH run, run it using the jmh.extras.JFR profiler:
  * > csv-bench/jmh:run -prof jmh.extras.JFR -t1 -f1 -wi 5 -i 10 .*CsvBench
@@ -84,6 +89,18 @@ class CsvBench {
     Await.result(futureDone, Duration.Inf)
   }
 
+  @Benchmark
+  def parseFast(bh: Blackhole): Unit = {
+    val futureDone = {
+      source
+        .via(CsvParsing.fastLineScanner())
+        .runForeach { fields =>
+          bh.consume(fields.head.utf8String)
+        }
+    }
+    Await.result(futureDone, Duration.Inf)
+  }
+
   @TearDown
   def tearDown(): Unit = {
     mat.shutdown()
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.scaladsl
+
+import java.nio.file.{ Files, Paths }
+
+import org.openjdk.jmh.profile.GCProfiler
+import org.openjdk.jmh.results.format.ResultFormatType
+import org.openjdk.jmh.runner.Runner
+import org.openjdk.jmh.runner.options.{ CommandLineOptions, OptionsBuilder }
+
+/**
+ * Runs the CSV benchmarks with the GC profiler and writes the results as JSON, to be kept
+ * for comparison across releases (e.g. with https://jmh.morethan.io).
+ *
+ * Any JMH command line options may be given and take precedence, by default all benchmarks
+ * in this package are run and results go to `target/csv-bench-results.json`.
+ *
+ * {{{
+ * > csv-bench/jmh:runMain org.apache.pekko.stream.connectors.csv.scaladsl.CsvBenchRunner
+ * > csv-bench/jmh:runMain org.apache.pekko.stream.connectors.csv.scaladsl.CsvBenchRunner
+ *     -rff results-1.1.0.json .*CsvShapesBench
+ * }}}
+ */
+object CsvBenchRunner {
+
+  val DefaultResultFile = "target/csv-bench-results.json"
+
+  def main(args: Array[String]): Unit = {
+    val commandLine = new CommandLineOptions(args: _*)
+    val builder = new OptionsBuilder()
+      .parent(commandLine)
+      .addProfiler(classOf[GCProfiler])
+      .resultFormat(ResultFormatType.JSON)
+    if (commandLine.getIncludes.isEmpty) builder.include(getClass.getPackage.getName + ".*")
+    if (!commandLine.getResult.hasValue) {
+      Files.createDirectories(Paths.get(DefaultResultFile).getParent)
+      builder.result(DefaultResultFile)
+    }
+    new Runner(builder.build()).run()
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.scaladsl
+
+import java.util.concurrent.TimeUnit
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl.Source
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.collection.immutable
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures formatting 25000 rows one ByteString per row via `CsvFormatting.format`
+ * and in 64 KiB chunks via `CsvFormatting.formatBatched`.
+ *
+ * {{{
+ * > csv-bench/jmh:run -t1 -f1 -wi 5 -i 10 .*CsvFormattingBench
+ * }}}
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class CsvFormattingBench {
+
+  implicit val system = ActorSystem()
+
+  var stringRows: immutable.Seq[List[String]] = _
+  var numericRows: immutable.Seq[List[Any]] = _
+
+  @Benchmark
+  def format(bh: Blackhole): Unit = {
+    val futureDone =
+      Source(stringRows)
+        .via(CsvFormatting.format())
+        .runForeach(bs => bh.consume(bs))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def formatBatched(bh: Blackhole): Unit = {
+    val futureDone =
+      Source(stringRows)
+        .via(CsvFormatting.formatBatched())
+        .runForeach(bs => bh.consume(bs))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def formatBatchedNumbers(bh: Blackhole): Unit = {
+    val futureDone =
+      Source(numericRows)
+        .via(CsvFormatting.formatBatched())
+        .runForeach(bs => bh.consume(bs))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Setup
+  def setup(): Unit = {
+    stringRows = (1 to 25000).map(i => List(i.toString, s"SYM${i % 100}", s"${i % 1000}.${i % 100}", "a, quoted field"))
+    numericRows = (1 to 25000).map(i => List[Any](i.toLong, s"SYM${i % 100}", (i % 1000) + (i % 100) / 100.0, i % 5000))
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    system.terminate()
+}
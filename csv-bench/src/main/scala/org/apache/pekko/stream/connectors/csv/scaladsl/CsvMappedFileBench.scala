@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.scaladsl
+
+import java.nio.file.{ Files, Path }
+import java.util.concurrent.TimeUnit
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl.FileIO
+import pekko.util.ByteString
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures the time to parse a 64 MiB CSV file from local disk, consuming the first field of each row.
+ *
+ * `fileIO` reads the file with `FileIO.fromPath` and parses it with `lineScanner`, `fileIOFast` with
+ * `fastLineScanner`; `mapped` uses `fromMappedFile`.
+ *
+ * {{{
+ * > csv-bench/jmh:run -t1 -f1 -wi 5 -i 10 -prof gc .*CsvMappedFileBench
+ * }}}
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx1g", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class CsvMappedFileBench {
+
+  implicit val system = ActorSystem()
+
+  var file: Path = _
+
+  @Benchmark
+  def fileIO(bh: Blackhole): Unit = {
+    val futureDone =
+      FileIO
+        .fromPath(file)
+        .via(CsvParsing.lineScanner())
+        .runForeach { fields =>
+          bh.consume(fields.head.utf8String)
+        }
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def fileIOFast(bh: Blackhole): Unit = {
+    val futureDone =
+      FileIO
+        .fromPath(file)
+        .via(CsvParsing.fastLineScanner())
+        .runForeach { fields =>
+          bh.consume(fields.head.utf8String)
+        }
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def mapped(bh: Blackhole): Unit = {
+    val futureDone =
+      CsvParsing
+        .fromMappedFile(file)
+        .runForeach { fields =>
+          bh.consume(fields.head.utf8String)
+        }
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Setup
+  def setup(): Unit = {
+    val row = ByteString(('a' to 'h').map(_.toString * 100).mkString("", ",", "\n"))
+    file = Files.createTempFile("csv-mapped-file-bench", ".csv")
+    val out = Files.newOutputStream(file)
+    try {
+      val bytes = row.toArray
+      (1 to 64 * 1024 * 1024 / bytes.length).foreach(_ => out.write(bytes))
+    } finally out.close()
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    Files.deleteIfExists(file)
+    system.terminate()
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.scaladsl
+
+import java.nio.charset.{ Charset, StandardCharsets }
+import java.util.concurrent.TimeUnit
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.actor.ActorSystem
+import pekko.stream.connectors.csv.impl.CsvFormatter
+import pekko.stream.connectors.text.scaladsl.TextFlow
+import pekko.stream.scaladsl.{ Flow, Source }
+import pekko.util.ByteString
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.collection.immutable
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures parsing, conversion to maps and formatting of about 1 MiB of CSV data per operation,
+ * for several row shapes, input charsets and with or without Byte Order Mark.
+ *
+ * Row shapes (see [[CsvShapesBench.rows]]):
+ *  - `numeric`: 24 short integer and decimal fields
+ *  - `text`: 8 unquoted fields of 100 characters
+ *  - `quoted`: 6 fields, half of them quoted, containing delimiters, line breaks and doubled quotes
+ *  - `mixed`: identifiers, names, amounts, dates and an occasionally quoted comment
+ *
+ * `UTF-16LE` input is transcoded to UTF-8 with `TextFlow.transcoding` before parsing, as CSV parsing
+ * requires an ASCII-compatible encoding.
+ *
+ * Use `-prof gc` to report the allocation rate, or run all CSV benchmarks with [[CsvBenchRunner]]
+ * which enables it and writes JSON results.
+ *
+ * {{{
+ * > csv-bench/jmh:run -t1 -f1 -wi 5 -i 10 -prof gc .*CsvShapesBench
+ * > csv-bench/jmh:run -t1 -f1 -wi 5 -i 10 -p shape=quoted -p charset=UTF-8 .*CsvShapesBench.parse
+ * }}}
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class CsvShapesBench {
+
+  implicit val system = ActorSystem()
+
+  @Param(Array("numeric", "text", "quoted", "mixed"))
+  var shape: String = _
+
+  @Param(Array("UTF-8", "UTF-16LE"))
+  var charset: String = _
+
+  @Param(Array("false", "true"))
+  var byteOrderMark: Boolean = _
+
+  var source: Source[ByteString, NotUsed] = _
+  var rows: immutable.Seq[List[String]] = _
+
+  private def decoded: Flow[ByteString, ByteString, NotUsed] =
+    if (charset == "UTF-8") Flow[ByteString]
+    else TextFlow.transcoding(inputCharset, StandardCharsets.UTF_8)
+
+  /**
+   * With a BOM, UTF-16 is decoded by the charset detecting the byte order from it.
+   */
+  private def inputCharset: Charset =
+    if (charset == "UTF-8") StandardCharsets.UTF_8
+    else if (byteOrderMark) StandardCharsets.UTF_16
+    else Charset.forName(charset)
+
+  @Benchmark
+  def parse(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(decoded)
+        .via(CsvParsing.lineScanner())
+        .runForeach(fields => bh.consume(fields))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def parseToMap(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(decoded)
+        .via(CsvParsing.lineScanner())
+        .via(CsvToMap.toMap())
+        .runForeach(map => bh.consume(map))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def parseToMapAsStrings(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(decoded)
+        .via(CsvParsing.lineScanner())
+        .via(CsvToMap.toMapAsStrings())
+        .runForeach(map => bh.consume(map))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def format(bh: Blackhole): Unit = {
+    val futureDone =
+      Source(rows)
+        .via(CsvFormatting.format(charset = Charset.forName(charset), byteOrderMark = bom))
+        .runForeach(bs => bh.consume(bs))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def formatBatched(bh: Blackhole): Unit = {
+    val futureDone =
+      Source(rows)
+        .via(CsvFormatting.formatBatched(charset = Charset.forName(charset), byteOrderMark = bom))
+        .runForeach(bs => bh.consume(bs))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  private def bom: Option[ByteString] =
+    if (!byteOrderMark) None
+    else if (charset == "UTF-8") Some(ByteOrderMark.UTF_8)
+    else Some(ByteOrderMark.UTF_16_LE)
+
+  @Setup
+  def setup(): Unit = {
+    rows = CsvShapesBench.rows(shape)
+    val formatter = new CsvFormatter(',', '"', '\\', "\n", CsvQuotingStyle.Required, Charset.forName(charset))
+    val data = bom.getOrElse(ByteString.empty) ++ rows.map(formatter.toCsv).reduce(_ ++ _)
+    // 8 KiB chunks as delivered by most sources; compact as parsing indexes into the bytes
+    val allChunks = data.grouped(8192).map(_.compact).toIndexedSeq
+    source = Source.fromIterator(() => allChunks.iterator)
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    system.terminate()
+}
+
+object CsvShapesBench {
+
+  /**
+   * A header line followed by rows of the given shape, about 1 MiB in UTF-8.
+   */
+  def rows(shape: String): immutable.Seq[List[String]] = {
+    val row: Int => List[String] = shape match {
+      case "numeric" =>
+        i => List.tabulate(24)(c => if (c % 2 == 0) (i * 31 + c).toString else s"${i % 997}.${c * 7 % 100}")
+      case "text" =>
+        _ => ('a' to 'h').map(_.toString * 100).toList
+      case "quoted" =>
+        i =>
+          List(i.toString,
+            s"""she said "hello, $i" twice""",
+            "plain",
+            s"line one\nline two of $i",
+            "another plain field",
+            s"""a "quoted", comma-separated value""")
+      case "mixed" =>
+        i =>
+          List(i.toString,
+            s"customer-${i % 5000}",
+            s"Surname$i, Givenname",
+            s"${i % 100000}.${i % 100}",
+            s"2023-${i % 12 + 1}-${i % 28 + 1}",
+            if (i % 10 == 0) s"""comment with "quotes" on $i""" else "")
+      case other => throw new IllegalArgumentException(s"unknown row shape $other")
+    }
+    val header = row(0).indices.map(c => s"column$c").toList
+    val rowLength = row(1).map(_.length + 1).sum
+    header :: (1 to 1024 * 1024 / rowLength).map(row).toList
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.scaladsl
+
+import java.time.LocalDate
+import java.util.concurrent.TimeUnit
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.actor.ActorSystem
+import pekko.stream.connectors.csv.CsvColumn
+import pekko.stream.scaladsl.Source
+import pekko.util.ByteString
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+/**
+ * Measures decoding 1 MiB of CSV lines with numeric and date columns into case classes,
+ * via `CsvToMap.toMapAsStrings` and manual conversion, and via `CsvToTyped`.
+ *
+ * {{{
+ * > csv-bench/jmh:run -t1 -f1 -wi 5 -i 10 .*CsvToTypedBench
+ * }}}
+ */
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(jvmArgsAppend = Array("-Xmx350m", "-XX:+HeapDumpOnOutOfMemoryError"), value = 1)
+@State(Scope.Benchmark)
+class CsvToTypedBench {
+  import CsvToTypedBench.Trade
+
+  implicit val system = ActorSystem()
+
+  var source: Source[ByteString, NotUsed] = _
+
+  @Benchmark
+  def toMapAndConvert(bh: Blackhole): Unit = {
+    val futureDone =
+      source
+        .via(CsvParsing.lineScanner())
+        .via(CsvToMap.toMapAsStrings())
+        .map { m =>
+          Trade(m("id").toLong,
+            m("symbol"),
+            m("price").toDouble,
+            m("quantity").toInt,
+            LocalDate.parse(m("day")))
+        }
+        .runForeach(trade => bh.consume(trade))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Benchmark
+  def toTyped(bh: Blackhole): Unit = {
+    val columns = List(
+      CsvColumn.ofLong("id"),
+      CsvColumn.ofString("symbol"),
+      CsvColumn.ofDouble("price"),
+      CsvColumn.ofInt("quantity"),
+      CsvColumn.ofDate("day"))
+    val futureDone =
+      source
+        .via(CsvParsing.lineScanner())
+        .via(CsvToTyped.fromHeaderLine(columns) { r =>
+          Trade(r.getLong(0), r.getString(1), r.getDouble(2), r.getInt(3), r.getDate(4))
+        })
+        .runForeach(trade => bh.consume(trade))
+    Await.result(futureDone, Duration.Inf)
+  }
+
+  @Setup
+  def setup(): Unit = {
+    val header = ByteString("id,symbol,price,quantity,day\n")
+    val rows = Iterator
+      .from(1)
+      .map(i => ByteString(s"$i,SYM${i % 100},${i % 1000}.${i % 100},${i % 5000},2023-0${i % 9 + 1}-1${i % 10}\n"))
+      .take(1024 * 1024 / 40)
+      .reduce(_ ++ _)
+    val allChunks = (header ++ rows).grouped(8192).map(_.compact).toIndexedSeq
+    source = Source.fromIterator(() => allChunks.iterator)
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    system.terminate()
+}
+
+object CsvToTypedBench {
+  final case class Trade(id: Long, symbol: String, price: Double, quantity: Int, day: LocalDate)
+}
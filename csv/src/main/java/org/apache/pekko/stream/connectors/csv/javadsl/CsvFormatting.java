@@ -25,6 +25,7 @@ import scala.collection.immutable.List;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 
 /**
@@ -89,4 +90,76 @@ public class CsvFormatting {
         .map(c -> JavaConverters.collectionAsScalaIterableConverter(c).asScala().toList())
         .via(formattingFlow);
   }
+
+  /**
+   * Generates standard CSV format (with commas), emitting the formatted rows in chunks of about
+   * {@code targetChunkSize} bytes instead of one {@code ByteString} per row.
+   *
+   * @param targetChunkSize A chunk is emitted once it reaches this size
+   * @param <T> Any collection implementation
+   * @return The formatting flow
+   */
+  public static <T extends Collection<?>> Flow<T, ByteString, NotUsed> formatBatched(
+      int targetChunkSize) {
+    return formatBatched(
+        targetChunkSize,
+        COMMA,
+        DOUBLE_QUOTE,
+        BACKSLASH,
+        CR_LF,
+        CsvQuotingStyle.REQUIRED,
+        StandardCharsets.UTF_8,
+        Optional.empty());
+  }
+
+  /**
+   * Generates CSV with the specified special characters and character set, emitting the formatted
+   * rows in chunks of about {@code targetChunkSize} bytes instead of one {@code ByteString} per row.
+   *
+   * <p>Fields of type {@code Integer}, {@code Long}, {@code Short}, {@code Byte}, {@code Double},
+   * {@code Float}, {@code BigDecimal} and {@code BigInteger} are written without searching for
+   * characters requiring quotes; all other fields are written via {@code toString}.
+   *
+   * @param targetChunkSize A chunk is emitted once it reaches this size
+   * @param delimiter Delimiter between columns
+   * @param quoteChar Quoting character
+   * @param escapeChar Escape character
+   * @param endOfLine End of line character sequence
+   * @param quotingStyle Quote all values or as required
+   * @param charset Character set to be used
+   * @param <T> Any collection implementation
+   * @return The formatting flow
+   */
+  public static <T extends Collection<?>> Flow<T, ByteString, NotUsed> formatBatched(
+      int targetChunkSize,
+      char delimiter,
+      char quoteChar,
+      char escapeChar,
+      String endOfLine,
+      CsvQuotingStyle quotingStyle,
+      Charset charset,
+      Optional<ByteString> byteOrderMark) {
+    org.apache.pekko.stream.connectors.csv.scaladsl.CsvQuotingStyle qs =
+        CsvQuotingStyle$.MODULE$.asScala(quotingStyle);
+    Option<ByteString> byteOrderMarkScala =
+        byteOrderMark.<Option<ByteString>>map(Some::apply).orElse(Option.empty());
+    org.apache.pekko.stream.scaladsl.Flow<List<Object>, ByteString, NotUsed> formattingFlow =
+        org.apache.pekko.stream.connectors.csv.scaladsl.CsvFormatting.formatBatched(
+            targetChunkSize,
+            delimiter,
+            quoteChar,
+            escapeChar,
+            endOfLine,
+            qs,
+            charset,
+            byteOrderMarkScala);
+    return Flow.<T>create()
+        .map(
+            c ->
+                JavaConverters.collectionAsScalaIterableConverter(
+                        Collections.<Object>unmodifiableCollection(c))
+                    .asScala()
+                    .toList())
+        .via(formattingFlow);
+  }
 }
@@ -14,11 +14,18 @@
 package org.apache.pekko.stream.connectors.csv.javadsl;
 
 import org.apache.pekko.NotUsed;
+import org.apache.pekko.stream.connectors.csv.CsvDialect;
+import org.apache.pekko.stream.connectors.csv.CsvLine;
+import org.apache.pekko.stream.connectors.csv.CsvRows;
 import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.stream.javadsl.Source;
 import org.apache.pekko.util.ByteString;
 import scala.collection.JavaConverters;
+import scala.compat.java8.FutureConverters;
 
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.concurrent.CompletionStage;
 
 public class CsvParsing {
 
@@ -29,6 +36,7 @@ public class CsvParsing {
   public static final byte TAB = '\t';
   public static final byte DOUBLE_QUOTE = '"';
   public static final int MAXIMUM_LINE_LENGTH_DEFAULT = 10 * 1024;
+  public static final int SAMPLE_BYTES_DEFAULT = 64 * 1024;
 
   public static Flow<ByteString, Collection<ByteString>, NotUsed> lineScanner() {
     return lineScanner(COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
@@ -47,4 +55,126 @@ public class CsvParsing {
         .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection())
         .mapMaterializedValue(m -> NotUsed.getInstance());
   }
+
+  public static Flow<ByteString, CsvLine, NotUsed> lineScannerWithOffsets() {
+    return lineScannerWithOffsets(
+        COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT, 0L, 1L);
+  }
+
+  /**
+   * Creates a CSV parsing flow emitting each line with its byte offset and line number.
+   *
+   * <p>To resume parsing after a line was processed, read the input starting at the line's {@code
+   * getNextByteOffset()} and pass that offset as {@code startOffset} and the following line number
+   * as {@code startLineNumber}.
+   */
+  public static Flow<ByteString, CsvLine, NotUsed> lineScannerWithOffsets(
+      byte delimiter,
+      byte quoteChar,
+      byte escapeChar,
+      int maximumLineLength,
+      long startOffset,
+      long startLineNumber) {
+    return org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing.lineScannerWithOffsets(
+            delimiter, quoteChar, escapeChar, maximumLineLength, startOffset, startLineNumber)
+        .asJava();
+  }
+
+  public static Flow<ByteString, Collection<ByteString>, NotUsed> fastLineScanner() {
+    return fastLineScanner(COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  public static Flow<ByteString, Collection<ByteString>, NotUsed> fastLineScanner(
+      byte delimiter, byte quoteChar, byte escapeChar) {
+    return fastLineScanner(delimiter, quoteChar, escapeChar, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  /**
+   * Creates a CSV parsing flow emitting the same lines as {@link #lineScanner(byte, byte, byte,
+   * int)}, which skips over field content eight bytes at a time.
+   */
+  public static Flow<ByteString, Collection<ByteString>, NotUsed> fastLineScanner(
+      byte delimiter, byte quoteChar, byte escapeChar, int maximumLineLength) {
+    return org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing.fastLineScanner(
+            delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava()
+        .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection())
+        .mapMaterializedValue(m -> NotUsed.getInstance());
+  }
+
+  public static Flow<ByteString, CsvRows, NotUsed> columnarScanner() {
+    return columnarScanner(COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  public static Flow<ByteString, CsvRows, NotUsed> columnarScanner(
+      byte delimiter, byte quoteChar, byte escapeChar) {
+    return columnarScanner(delimiter, quoteChar, escapeChar, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  /**
+   * Creates a CSV parsing flow that emits all lines completed by an incoming {@link ByteString} as
+   * one {@link CsvRows} batch, which gives access to fields by row and column index.
+   */
+  public static Flow<ByteString, CsvRows, NotUsed> columnarScanner(
+      byte delimiter, byte quoteChar, byte escapeChar, int maximumLineLength) {
+    return org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing.columnarScanner(
+            delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava();
+  }
+
+  public static Source<Collection<ByteString>, NotUsed> parallelScanner(Path path, int parallelism) {
+    return parallelScanner(
+        path, parallelism, COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  /**
+   * Creates a source which reads CSV lines from a local file, parsing separate ranges of the file
+   * on up to {@code parallelism} threads. Lines are emitted in file order.
+   */
+  public static Source<Collection<ByteString>, NotUsed> parallelScanner(
+      Path path,
+      int parallelism,
+      byte delimiter,
+      byte quoteChar,
+      byte escapeChar,
+      int maximumLineLength) {
+    return org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing.parallelScanner(
+            path, parallelism, delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava()
+        .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection());
+  }
+
+  public static Source<Collection<ByteString>, NotUsed> fromMappedFile(Path path) {
+    return fromMappedFile(path, COMMA, DOUBLE_QUOTE, BACKSLASH, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  /**
+   * Creates a source which reads CSV lines from a local file through memory-mapped windows, avoiding
+   * the intermediate buffers of {@code FileIO.fromPath}.
+   */
+  public static Source<Collection<ByteString>, NotUsed> fromMappedFile(
+      Path path, byte delimiter, byte quoteChar, byte escapeChar, int maximumLineLength) {
+    return org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing.fromMappedFile(
+            path, delimiter, quoteChar, escapeChar, maximumLineLength)
+        .asJava()
+        .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection());
+  }
+
+  public static Flow<ByteString, Collection<ByteString>, CompletionStage<CsvDialect>> autoScanner() {
+    return autoScanner(SAMPLE_BYTES_DEFAULT, MAXIMUM_LINE_LENGTH_DEFAULT);
+  }
+
+  /**
+   * Creates a CSV parsing flow that detects the delimiter, quote and escape characters from the
+   * first {@code sampleBytes} bytes of the stream and then reads CSV lines with those characters.
+   * The detected dialect is the materialized value.
+   */
+  public static Flow<ByteString, Collection<ByteString>, CompletionStage<CsvDialect>> autoScanner(
+      int sampleBytes, int maximumLineLength) {
+    return org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing.autoScanner(
+            sampleBytes, maximumLineLength)
+        .asJava()
+        .map(c -> JavaConverters.asJavaCollectionConverter(c).asJavaCollection())
+        .mapMaterializedValue(FutureConverters::<CsvDialect>toJava);
+  }
 }
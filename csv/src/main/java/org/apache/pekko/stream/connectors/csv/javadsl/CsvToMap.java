@@ -25,6 +25,12 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Provides flows converting CSV lines into maps from column name to value.
+ *
+ * <p>The emitted maps are {@link org.apache.pekko.stream.connectors.csv.JavaIndexedRow}s which share
+ * the column names of the header.
+ */
 public class CsvToMap {
 
   /**
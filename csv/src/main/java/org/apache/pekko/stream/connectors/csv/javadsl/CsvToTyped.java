@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.javadsl;
+
+import org.apache.pekko.NotUsed;
+import org.apache.pekko.stream.connectors.csv.CsvColumn;
+import org.apache.pekko.stream.connectors.csv.CsvRecord;
+import org.apache.pekko.stream.connectors.csv.impl.CsvToTypedJavaStage;
+import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.util.ByteString;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+public class CsvToTyped {
+
+  /**
+   * A flow decoding the given columns of incoming {@link Collection<ByteString>} into a {@link
+   * CsvRecord} and emitting what {@code binder} creates from it. The stream's first element is read
+   * as header line to resolve columns referenced by name. The header line is decoded as UTF-8.
+   *
+   * @param columns the columns to decode, their order defines the positions in {@link CsvRecord}
+   * @param binder creates an element from the decoded values, must not retain the record
+   */
+  public static <T> Flow<Collection<ByteString>, T, NotUsed> fromHeaderLine(
+      List<CsvColumn<?>> columns, Function<CsvRecord, T> binder) {
+    return fromHeaderLine(columns, StandardCharsets.UTF_8, binder);
+  }
+
+  /**
+   * A flow decoding the given columns of incoming {@link Collection<ByteString>} into a {@link
+   * CsvRecord} and emitting what {@code binder} creates from it. The stream's first element is read
+   * as header line to resolve columns referenced by name.
+   *
+   * @param columns the columns to decode, their order defines the positions in {@link CsvRecord}
+   * @param charset the charset to decode the header line
+   * @param binder creates an element from the decoded values, must not retain the record
+   */
+  public static <T> Flow<Collection<ByteString>, T, NotUsed> fromHeaderLine(
+      List<CsvColumn<?>> columns, Charset charset, Function<CsvRecord, T> binder) {
+    return Flow.fromGraph(new CsvToTypedJavaStage<>(columns, true, charset, binder));
+  }
+
+  /**
+   * A flow decoding the given columns of incoming {@link Collection<ByteString>} into a {@link
+   * CsvRecord} and emitting what {@code binder} creates from it. All columns must be referenced by
+   * index.
+   *
+   * @param columns the columns to decode, their order defines the positions in {@link CsvRecord}
+   * @param binder creates an element from the decoded values, must not retain the record
+   */
+  public static <T> Flow<Collection<ByteString>, T, NotUsed> withoutHeaderLine(
+      List<CsvColumn<?>> columns, Function<CsvRecord, T> binder) {
+    return Flow.fromGraph(
+        new CsvToTypedJavaStage<>(columns, false, StandardCharsets.UTF_8, binder));
+  }
+}
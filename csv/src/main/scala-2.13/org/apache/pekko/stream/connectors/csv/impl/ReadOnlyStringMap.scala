@@ -0,0 +1,29 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import org.apache.pekko.annotation.InternalApi
+
+import scala.collection.immutable
+
+/**
+ * INTERNAL API
+ *
+ * Base for immutable maps with String keys which implement lookup and iteration themselves.
+ * Adding or removing keys copies the entries into a regular immutable map.
+ */
+@InternalApi abstract class ReadOnlyStringMap[+V] extends immutable.AbstractMap[String, V] {
+
+  override def updated[V1 >: V](key: String, value: V1): immutable.Map[String, V1] =
+    immutable.HashMap.from(this).updated(key, value)
+
+  override def removed(key: String): immutable.Map[String, V] =
+    immutable.HashMap.from(this).removed(key)
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.nio.charset.{ Charset, StandardCharsets }
+import java.time.LocalDate
+import java.time.format.DateTimeFormatter
+import java.util.Optional
+
+import org.apache.pekko
+import pekko.stream.connectors.csv.impl.FieldDecoding
+import pekko.util.ByteString
+
+/**
+ * A column to be decoded by [[pekko.stream.connectors.csv.scaladsl.CsvToTyped]], referenced either by
+ * its name in the header line or by its index. Use the factory methods in the companion object.
+ *
+ * Numbers and ISO dates are parsed directly from the field's bytes.
+ */
+sealed abstract class CsvColumn[A] private[csv] (val name: Option[String], val index: Int) {
+
+  /**
+   * Java API
+   */
+  def getName: Optional[String] = name.fold(Optional.empty[String]())(n => Optional.of(n))
+
+  /**
+   * Java API
+   */
+  def getIndex: Int = index
+
+  private[csv] def decodeInto(field: ByteString, record: CsvRecord, position: Int): Unit
+
+  /**
+   * Value for empty or missing fields.
+   */
+  private[csv] def emptyValue: AnyRef = null
+
+  override def toString: String = name.fold(s"column $index")(n => s"column '$n'")
+}
+
+object CsvColumn {
+
+  private final class IntColumn(name: Option[String], index: Int) extends CsvColumn[Int](name, index) {
+    override private[csv] def decodeInto(field: ByteString, record: CsvRecord, position: Int): Unit =
+      record.longs(position) = FieldDecoding.parseInt(field)
+  }
+
+  private final class LongColumn(name: Option[String], index: Int) extends CsvColumn[Long](name, index) {
+    override private[csv] def decodeInto(field: ByteString, record: CsvRecord, position: Int): Unit =
+      record.longs(position) = FieldDecoding.parseLong(field)
+  }
+
+  private final class DoubleColumn(name: Option[String], index: Int) extends CsvColumn[Double](name, index) {
+    override private[csv] def decodeInto(field: ByteString, record: CsvRecord, position: Int): Unit =
+      record.doubles(position) = FieldDecoding.parseDouble(field)
+  }
+
+  private final class DecimalColumn(name: Option[String], index: Int)
+      extends CsvColumn[java.math.BigDecimal](name, index) {
+    override private[csv] def decodeInto(field: ByteString, record: CsvRecord, position: Int): Unit =
+      record.objects(position) = FieldDecoding.parseBigDecimal(field)
+  }
+
+  private final class DateColumn(name: Option[String], index: Int, formatter: Option[DateTimeFormatter])
+      extends CsvColumn[LocalDate](name, index) {
+    override private[csv] def decodeInto(field: ByteString, record: CsvRecord, position: Int): Unit =
+      record.objects(position) = formatter match {
+        case None    => FieldDecoding.parseIsoLocalDate(field)
+        case Some(f) => LocalDate.parse(field.utf8String, f)
+      }
+  }
+
+  private final class StringColumn(name: Option[String], index: Int, charset: Charset)
+      extends CsvColumn[String](name, index) {
+    override private[csv] def decodeInto(field: ByteString, record: CsvRecord, position: Int): Unit =
+      record.objects(position) = field.decodeString(charset)
+
+    override private[csv] def emptyValue: AnyRef = ""
+  }
+
+  def ofInt(name: String): CsvColumn[Int] = new IntColumn(Some(name), -1)
+  def ofInt(index: Int): CsvColumn[Int] = new IntColumn(None, checked(index))
+
+  def ofLong(name: String): CsvColumn[Long] = new LongColumn(Some(name), -1)
+  def ofLong(index: Int): CsvColumn[Long] = new LongColumn(None, checked(index))
+
+  def ofDouble(name: String): CsvColumn[Double] = new DoubleColumn(Some(name), -1)
+  def ofDouble(index: Int): CsvColumn[Double] = new DoubleColumn(None, checked(index))
+
+  def ofDecimal(name: String): CsvColumn[java.math.BigDecimal] = new DecimalColumn(Some(name), -1)
+  def ofDecimal(index: Int): CsvColumn[java.math.BigDecimal] = new DecimalColumn(None, checked(index))
+
+  /**
+   * A date column in ISO format (`yyyy-MM-dd`).
+   */
+  def ofDate(name: String): CsvColumn[LocalDate] = new DateColumn(Some(name), -1, None)
+  def ofDate(index: Int): CsvColumn[LocalDate] = new DateColumn(None, checked(index), None)
+  def ofDate(name: String, formatter: DateTimeFormatter): CsvColumn[LocalDate] =
+    new DateColumn(Some(name), -1, Some(formatter))
+  def ofDate(index: Int, formatter: DateTimeFormatter): CsvColumn[LocalDate] =
+    new DateColumn(None, checked(index), Some(formatter))
+
+  /**
+   * A string column decoded as UTF-8. Empty fields result in empty strings.
+   */
+  def ofString(name: String): CsvColumn[String] = new StringColumn(Some(name), -1, StandardCharsets.UTF_8)
+  def ofString(index: Int): CsvColumn[String] = new StringColumn(None, checked(index), StandardCharsets.UTF_8)
+  def ofString(name: String, charset: Charset): CsvColumn[String] = new StringColumn(Some(name), -1, charset)
+  def ofString(index: Int, charset: Charset): CsvColumn[String] = new StringColumn(None, checked(index), charset)
+
+  private def checked(index: Int): Int = {
+    require(index >= 0, s"column index must not be negative, was $index")
+    index
+  }
+}
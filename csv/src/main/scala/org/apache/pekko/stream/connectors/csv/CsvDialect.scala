@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.util.Optional
+
+import org.apache.pekko.util.ByteString
+
+/**
+ * The special characters of a CSV stream as detected by
+ * [[org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing.autoScanner]].
+ *
+ * @param delimiter field delimiter
+ * @param quoteChar quote character
+ * @param escapeChar escape character, equal to `quoteChar` if no escape character was seen in the sample
+ * @param lineEnding the most frequent line ending within the sample (`"\n"`, `"\r\n"` or `"\r"`)
+ * @param byteOrderMark the Byte Order Mark the stream starts with, if any
+ */
+final class CsvDialect private[csv] (val delimiter: Byte,
+    val quoteChar: Byte,
+    val escapeChar: Byte,
+    val lineEnding: String,
+    val byteOrderMark: Option[ByteString]) {
+
+  /** Java API */
+  def getDelimiter: Byte = delimiter
+
+  /** Java API */
+  def getQuoteChar: Byte = quoteChar
+
+  /** Java API */
+  def getEscapeChar: Byte = escapeChar
+
+  /** Java API */
+  def getLineEnding: String = lineEnding
+
+  /** Java API */
+  def getByteOrderMark: Optional[ByteString] = byteOrderMark.fold(Optional.empty[ByteString]())(b => Optional.of(b))
+
+  override def equals(other: Any): Boolean = other match {
+    case that: CsvDialect =>
+      delimiter == that.delimiter && quoteChar == that.quoteChar && escapeChar == that.escapeChar &&
+      lineEnding == that.lineEnding && byteOrderMark == that.byteOrderMark
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    java.util.Objects.hash(Byte.box(delimiter), Byte.box(quoteChar), Byte.box(escapeChar), lineEnding, byteOrderMark)
+
+  override def toString: String = {
+    val lineEndingEscaped = lineEnding.replace("\r", "\\r").replace("\n", "\\n")
+    s"CsvDialect(delimiter=${delimiter.toChar}, quoteChar=${quoteChar.toChar}, escapeChar=${escapeChar.toChar}, " +
+    s"lineEnding=$lineEndingEscaped, byteOrderMark=$byteOrderMark)"
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.{ util => ju }
+
+import org.apache.pekko
+import pekko.util.ByteString
+import pekko.util.ccompat.JavaConverters._
+
+/**
+ * A CSV line emitted by [[pekko.stream.connectors.csv.scaladsl.CsvParsing.lineScannerWithOffsets]] together with
+ * its position in the input.
+ *
+ * To resume parsing after this line, read the input from `nextByteOffset` and pass `nextByteOffset` and
+ * `lineNumber + 1` to `lineScannerWithOffsets`.
+ *
+ * @param fields the line's fields
+ * @param byteOffset offset of the line's first byte within the input
+ * @param nextByteOffset offset of the first byte after the line's line ending
+ * @param lineNumber number of the line, starting at 1; quoted fields containing line breaks do not
+ *                   increase the line number
+ */
+final class CsvLine private[csv] (val fields: List[ByteString],
+    val byteOffset: Long,
+    val nextByteOffset: Long,
+    val lineNumber: Long) {
+
+  /** Java API */
+  def getFields: ju.List[ByteString] = fields.asJava
+
+  /** Java API */
+  def getByteOffset: Long = byteOffset
+
+  /** Java API */
+  def getNextByteOffset: Long = nextByteOffset
+
+  /** Java API */
+  def getLineNumber: Long = lineNumber
+
+  override def equals(other: Any): Boolean = other match {
+    case that: CsvLine =>
+      fields == that.fields && byteOffset == that.byteOffset && nextByteOffset == that.nextByteOffset &&
+      lineNumber == that.lineNumber
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    ju.Objects.hash(fields, Long.box(byteOffset), Long.box(nextByteOffset), Long.box(lineNumber))
+
+  override def toString: String =
+    s"CsvLine(fields=$fields, byteOffset=$byteOffset, nextByteOffset=$nextByteOffset, lineNumber=$lineNumber)"
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.time.LocalDate
+
+/**
+ * The decoded values of one CSV line, passed to the row binder of
+ * [[org.apache.pekko.stream.connectors.csv.scaladsl.CsvToTyped]].
+ *
+ * Values are accessed by the position of their [[CsvColumn]] in the list of columns given to `CsvToTyped`,
+ * independent of the column's position in the CSV data. Primitive values are stored without boxing,
+ * so `getInt` must be used for `ofInt` columns, `getDouble` for `ofDouble` columns, and so on.
+ *
+ * The same instance is reused for every line, it must not be retained after the row binder returns.
+ */
+final class CsvRecord private[csv] (columnCount: Int) {
+
+  private[csv] val longs = new Array[Long](columnCount)
+  private[csv] val doubles = new Array[Double](columnCount)
+  private[csv] val objects = new Array[AnyRef](columnCount)
+  private[csv] val empty = new Array[Boolean](columnCount)
+
+  /**
+   * Whether the field of this column is empty or missing on the current line.
+   * Numeric values of empty fields are `0`, object values are `null` (or the empty string for string columns).
+   */
+  def isEmpty(position: Int): Boolean = empty(position)
+
+  def getInt(position: Int): Int = longs(position).toInt
+
+  def getLong(position: Int): Long = longs(position)
+
+  def getDouble(position: Int): Double = doubles(position)
+
+  def getDecimal(position: Int): java.math.BigDecimal = objects(position).asInstanceOf[java.math.BigDecimal]
+
+  def getDate(position: Int): LocalDate = objects(position).asInstanceOf[LocalDate]
+
+  def getString(position: Int): String = objects(position).asInstanceOf[String]
+
+  private[csv] def setEmpty(position: Int, emptyValue: AnyRef): Unit = {
+    empty(position) = true
+    longs(position) = 0L
+    doubles(position) = 0.0
+    objects(position) = emptyValue
+  }
+}
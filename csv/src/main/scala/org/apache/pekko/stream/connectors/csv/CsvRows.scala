@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.nio.charset.{ Charset, StandardCharsets }
+
+import org.apache.pekko
+import pekko.util.ByteString
+
+/**
+ * A batch of parsed CSV lines as emitted by
+ * [[pekko.stream.connectors.csv.scaladsl.CsvParsing.columnarScanner]].
+ *
+ * The (unescaped) field contents of all rows are stored back to back in a single byte array,
+ * and fields are located via a table of end offsets. Reading fields by index does not allocate
+ * unless a [[pekko.util.ByteString]] or `String` is requested for them.
+ *
+ * Instances are immutable and may be passed on freely.
+ */
+final class CsvRows private[csv] (bytes: Array[Byte],
+    fieldEnds: Array[Int],
+    rowEnds: Array[Int],
+    val rowCount: Int) {
+
+  /**
+   * Java API: Number of lines in this batch.
+   */
+  def getRowCount: Int = rowCount
+
+  /**
+   * Number of fields on line `row`.
+   */
+  def fieldCount(row: Int): Int = rowEnds(checkRow(row)) - firstField(row)
+
+  /**
+   * Offset into [[data]] of the first byte of a field.
+   */
+  def fieldStart(row: Int, column: Int): Int = {
+    val field = fieldIndex(row, column)
+    if (field == 0) 0 else fieldEnds(field - 1)
+  }
+
+  /**
+   * Offset into [[data]] after the last byte of a field.
+   */
+  def fieldEnd(row: Int, column: Int): Int = fieldEnds(fieldIndex(row, column))
+
+  def fieldLength(row: Int, column: Int): Int = fieldEnd(row, column) - fieldStart(row, column)
+
+  /**
+   * Byte `index` within a field.
+   */
+  def byteAt(row: Int, column: Int, index: Int): Byte = {
+    if (index < 0 || index >= fieldLength(row, column))
+      throw new IndexOutOfBoundsException(s"byte $index of column $column on row $row")
+    bytes(fieldStart(row, column) + index)
+  }
+
+  /**
+   * Copies a field into `dest` at `destPos`.
+   *
+   * @return the number of bytes copied
+   */
+  def copyField(row: Int, column: Int, dest: Array[Byte], destPos: Int): Int = {
+    val start = fieldStart(row, column)
+    val length = fieldEnd(row, column) - start
+    System.arraycopy(bytes, start, dest, destPos, length)
+    length
+  }
+
+  /**
+   * A field as [[pekko.util.ByteString]], sharing the batch's bytes.
+   */
+  def field(row: Int, column: Int): ByteString = {
+    val start = fieldStart(row, column)
+    data.slice(start, fieldEnd(row, column))
+  }
+
+  def fieldString(row: Int, column: Int, charset: Charset): String = {
+    val start = fieldStart(row, column)
+    new String(bytes, start, fieldEnd(row, column) - start, charset)
+  }
+
+  def fieldUtf8String(row: Int, column: Int): String = fieldString(row, column, StandardCharsets.UTF_8)
+
+  /**
+   * A line as list of fields, just as [[pekko.stream.connectors.csv.scaladsl.CsvParsing.lineScanner]] would emit it.
+   */
+  def row(row: Int): List[ByteString] = List.tabulate(fieldCount(row))(field(row, _))
+
+  /**
+   * All field contents of this batch, without any delimiters.
+   */
+  lazy val data: ByteString = ByteString.fromArrayUnsafe(bytes, 0, if (rowCount == 0) 0 else lastByte)
+
+  private def lastByte: Int = {
+    val lastField = rowEnds(rowCount - 1) - 1
+    if (lastField < 0) 0 else fieldEnds(lastField)
+  }
+
+  private def firstField(row: Int): Int = if (row == 0) 0 else rowEnds(row - 1)
+
+  private def checkRow(row: Int): Int = {
+    if (row < 0 || row >= rowCount) throw new IndexOutOfBoundsException(s"row $row of $rowCount")
+    row
+  }
+
+  private def fieldIndex(row: Int, column: Int): Int = {
+    val first = firstField(checkRow(row))
+    if (column < 0 || first + column >= rowEnds(row))
+      throw new IndexOutOfBoundsException(s"column $column on row $row")
+    first + column
+  }
+
+  override def toString: String = s"CsvRows(rowCount=$rowCount)"
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.{ util => ju }
+
+import org.apache.pekko
+import pekko.stream.connectors.csv.impl.{ ReadOnlyStringMap, RowKeys }
+
+/**
+ * A CSV line emitted by [[pekko.stream.connectors.csv.scaladsl.CsvToMap]], readable as an immutable map from
+ * column name to value.
+ *
+ * The column names are stored once per header and shared by all rows, so a row only holds its values.
+ * Besides lookup by name, values can be read by their field index.
+ */
+final class IndexedRow[V] private[csv] (keys: RowKeys, values: Array[Any], val fieldCount: Int)
+    extends ReadOnlyStringMap[V] {
+
+  /**
+   * The value of the field at `index`.
+   * @throws IndexOutOfBoundsException if `index` is not below `fieldCount`
+   */
+  def get(index: Int): V = {
+    if (index < 0 || index >= fieldCount) throw new IndexOutOfBoundsException(s"$index, fieldCount: $fieldCount")
+    values(index).asInstanceOf[V]
+  }
+
+  /**
+   * The column name of the field at `index`.
+   */
+  def name(index: Int): String = {
+    if (index < 0 || index >= fieldCount) throw new IndexOutOfBoundsException(s"$index, fieldCount: $fieldCount")
+    keys.names(index)
+  }
+
+  /**
+   * The field index of the column, or -1 if there is no such column in this row.
+   */
+  def indexOf(name: String): Int = keys.indexOf(name, fieldCount)
+
+  override def get(key: String): Option[V] = {
+    val index = indexOf(key)
+    if (index < 0) None else Some(values(index).asInstanceOf[V])
+  }
+
+  override def apply(key: String): V = {
+    val index = indexOf(key)
+    if (index < 0) default(key) else values(index).asInstanceOf[V]
+  }
+
+  override def contains(key: String): Boolean = indexOf(key) >= 0
+
+  override def size: Int = keys.size(fieldCount)
+
+  override def iterator: Iterator[(String, V)] =
+    new scala.collection.AbstractIterator[(String, V)] {
+      private[this] var index = nextVisible(0)
+
+      private def nextVisible(from: Int): Int = {
+        var i = from
+        while (i < fieldCount && !keys.isVisible(i, fieldCount)) i += 1
+        i
+      }
+
+      override def hasNext: Boolean = index < fieldCount
+
+      override def next(): (String, V) = {
+        if (!hasNext) throw new NoSuchElementException("next on empty iterator")
+        val entry = (keys.names(index), values(index).asInstanceOf[V])
+        index = nextVisible(index + 1)
+        entry
+      }
+    }
+
+  /**
+   * Java API: A `java.util.Map` view sharing this row's values until it is changed.
+   */
+  def asJava: JavaIndexedRow[V] =
+    new JavaIndexedRow[V](keys, values, fieldCount)
+}
+
+/**
+ * Java API: A CSV line emitted by [[pekko.stream.connectors.csv.javadsl.CsvToMap]], readable as a
+ * `java.util.Map` from column name to value.
+ *
+ * The column names are stored once per header and shared by all rows, so a row only holds its values.
+ * Besides lookup by name, values can be read by their field index.
+ *
+ * The map may be changed like the `java.util.HashMap`s emitted before: its first change copies it into a
+ * `java.util.HashMap` which is used from then on. The field index accessors and [[asScala]] keep reading the
+ * line as it was parsed.
+ */
+final class JavaIndexedRow[V] private[csv] (keys: RowKeys, values: Array[Any], fieldCount: Int)
+    extends ju.AbstractMap[String, V] {
+
+  // set on the first change to the map
+  private[this] var changed: ju.HashMap[String, V] = _
+
+  def getFieldCount: Int = fieldCount
+
+  /**
+   * The value of the field at `index`.
+   * @throws IndexOutOfBoundsException if `index` is not below `getFieldCount`
+   */
+  def get(index: Int): V = {
+    if (index < 0 || index >= fieldCount) throw new IndexOutOfBoundsException(s"$index, fieldCount: $fieldCount")
+    values(index).asInstanceOf[V]
+  }
+
+  /**
+   * The column name of the field at `index`.
+   */
+  def getName(index: Int): String = {
+    if (index < 0 || index >= fieldCount) throw new IndexOutOfBoundsException(s"$index, fieldCount: $fieldCount")
+    keys.names(index)
+  }
+
+  /**
+   * The field index of the column, or -1 if there is no such column in this row.
+   */
+  def indexOf(name: String): Int = keys.indexOf(name, fieldCount)
+
+  override def get(key: Any): V =
+    if (changed ne null) changed.get(key)
+    else
+      key match {
+        case name: String =>
+          val index = indexOf(name)
+          if (index < 0) null.asInstanceOf[V] else values(index).asInstanceOf[V]
+        case _ => null.asInstanceOf[V]
+      }
+
+  override def containsKey(key: Any): Boolean =
+    if (changed ne null) changed.containsKey(key)
+    else
+      key match {
+        case name: String => indexOf(name) >= 0
+        case _            => false
+      }
+
+  override def size(): Int = if (changed ne null) changed.size() else keys.size(fieldCount)
+
+  override def put(key: String, value: V): V = change().put(key, value)
+
+  override def remove(key: Any): V = change().remove(key)
+
+  override def clear(): Unit = change().clear()
+
+  private def change(): ju.HashMap[String, V] = {
+    if (changed eq null) {
+      val copy = new ju.HashMap[String, V](math.max(2 * fieldCount, 16))
+      var i = 0
+      while (i < fieldCount) {
+        if (keys.isVisible(i, fieldCount)) copy.put(keys.names(i), values(i).asInstanceOf[V])
+        i += 1
+      }
+      changed = copy
+    }
+    changed
+  }
+
+  override def entrySet(): ju.Set[ju.Map.Entry[String, V]] =
+    if (changed ne null) changed.entrySet()
+    else
+      new ju.AbstractSet[ju.Map.Entry[String, V]] {
+        override def size(): Int = JavaIndexedRow.this.size()
+
+        override def iterator(): ju.Iterator[ju.Map.Entry[String, V]] =
+          new ju.Iterator[ju.Map.Entry[String, V]] {
+            private[this] var index = nextVisible(0)
+            private[this] var last = -1
+
+            private def nextVisible(from: Int): Int = {
+              var i = from
+              while (i < fieldCount && !keys.isVisible(i, fieldCount)) i += 1
+              i
+            }
+
+            override def hasNext: Boolean = index < fieldCount
+
+            override def next(): ju.Map.Entry[String, V] = {
+              if (!hasNext) throw new ju.NoSuchElementException()
+              val entry = new RowEntry(keys.names(index), values(index).asInstanceOf[V])
+              last = index
+              index = nextVisible(index + 1)
+              entry
+            }
+
+            override def remove(): Unit = {
+              if (last < 0) throw new IllegalStateException()
+              JavaIndexedRow.this.remove(keys.names(last))
+              last = -1
+            }
+          }
+      }
+
+  private final class RowEntry(key: String, value: V) extends ju.AbstractMap.SimpleEntry[String, V](key, value) {
+    override def setValue(value: V): V = {
+      put(getKey, value)
+      super.setValue(value)
+    }
+  }
+
+  /**
+   * Scala API: An immutable Scala `Map` sharing this row's values, as they were parsed.
+   */
+  def asScala: IndexedRow[V] = new IndexedRow[V](keys, values, fieldCount)
+}
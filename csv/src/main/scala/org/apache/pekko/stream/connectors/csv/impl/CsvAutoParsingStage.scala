@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.event.Logging
+import pekko.stream.connectors.csv.CsvDialect
+import pekko.stream.stage.{ GraphStageLogic, GraphStageWithMaterializedValue, InHandler, OutHandler }
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.util.ByteString
+
+import scala.annotation.tailrec
+import scala.concurrent.{ Future, Promise }
+import scala.util.control.NonFatal
+
+/**
+ * Internal API: Use [[pekko.stream.connectors.csv.scaladsl.CsvParsing.autoScanner]] instead.
+ *
+ * Collects the first `sampleBytes` bytes (or all bytes of a shorter stream), detects the dialect from them and
+ * then parses with a [[CsvParser]] for that dialect, starting with the collected bytes.
+ */
+@InternalApi private[csv] class CsvAutoParsingStage(sampleBytes: Int, maximumLineLength: Int)
+    extends GraphStageWithMaterializedValue[FlowShape[ByteString, List[ByteString]], Future[CsvDialect]] {
+
+  require(sampleBytes > 0, "sampleBytes must be positive")
+
+  private val in = Inlet[ByteString](Logging.simpleName(this) + ".in")
+  private val out = Outlet[List[ByteString]](Logging.simpleName(this) + ".out")
+  override val shape = FlowShape(in, out)
+
+  override protected def initialAttributes: Attributes = Attributes.name("CsvAutoParsing")
+
+  override def createLogicAndMaterializedValue(
+      inheritedAttributes: Attributes): (GraphStageLogic, Future[CsvDialect]) = {
+    val dialectPromise = Promise[CsvDialect]()
+    val logic = new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] var sample = ByteString.empty
+      private[this] var buffer: CsvParser = _
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        val chunk = grab(in)
+        if (buffer ne null) buffer.offer(chunk)
+        else {
+          sample ++= chunk
+          if (sample.length >= sampleBytes) startParsing()
+        }
+        if (buffer ne null) tryPollBuffer()
+        else pull(in)
+      }
+
+      override def onPull(): Unit =
+        if (buffer ne null) tryPollBuffer()
+        else pull(in)
+
+      override def onUpstreamFinish(): Unit = {
+        if (buffer eq null) startParsing()
+        try {
+          emitRemaining()
+          completeStage()
+        } catch {
+          case NonFatal(ex) => failStage(ex)
+        }
+      }
+
+      override def onUpstreamFailure(ex: Throwable): Unit = {
+        dialectPromise.tryFailure(ex)
+        super.onUpstreamFailure(ex)
+      }
+
+      override def postStop(): Unit =
+        dialectPromise.tryFailure(new IllegalStateException("Stream stopped before the CSV dialect was detected"))
+
+      /**
+       * The sample is handed to the parser as is, the parser skips an UTF-8 Byte Order Mark itself.
+       */
+      private def startParsing(): Unit = {
+        val dialect = CsvDialectSniffer.detect(sample.take(sampleBytes))
+        dialectPromise.success(dialect)
+        buffer = new CsvParser(dialect.delimiter, dialect.quoteChar, dialect.escapeChar, maximumLineLength)
+        buffer.offer(sample)
+        sample = ByteString.empty
+      }
+
+      private def tryPollBuffer() =
+        try buffer.poll(requireLineEnd = true) match {
+            case Some(csvLine) => push(out, csvLine)
+            case _ =>
+              if (isClosed(in)) {
+                emitRemaining()
+                completeStage()
+              } else pull(in)
+          }
+        catch {
+          case NonFatal(ex) => failStage(ex)
+        }
+
+      @tailrec private def emitRemaining(): Unit =
+        buffer.poll(requireLineEnd = false) match {
+          case Some(csvLine) =>
+            emit(out, csvLine)
+            emitRemaining()
+          case _ =>
+        }
+    }
+    (logic, dialectPromise.future)
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.event.Logging
+import pekko.stream.connectors.csv.CsvRows
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.util.ByteString
+
+import scala.util.control.NonFatal
+
+/**
+ * Internal API: Use [[pekko.stream.connectors.csv.scaladsl.CsvParsing.columnarScanner]] instead.
+ *
+ * Emits all lines completed by an incoming chunk as a single [[CsvRows]] batch.
+ */
+@InternalApi private[csv] class CsvColumnarParsingStage(delimiter: Byte,
+    quoteChar: Byte,
+    escapeChar: Byte,
+    maximumLineLength: Int)
+    extends GraphStage[FlowShape[ByteString, CsvRows]] {
+
+  private val in = Inlet[ByteString](Logging.simpleName(this) + ".in")
+  private val out = Outlet[CsvRows](Logging.simpleName(this) + ".out")
+  override val shape = FlowShape(in, out)
+
+  override protected def initialAttributes: Attributes = Attributes.name("CsvColumnarParsing")
+
+  override def createLogic(inheritedAttributes: Attributes) =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val rows = new CsvRowsBuilder()
+      private[this] val parser =
+        new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true, rows = rows)
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        parser.offer(grab(in))
+        tryPushRows()
+      }
+
+      override def onPull(): Unit =
+        tryPushRows()
+
+      override def onUpstreamFinish(): Unit = {
+        emitRemaining()
+        completeStage()
+      }
+
+      private def tryPushRows(): Unit =
+        try {
+          while (parser.pollRow(requireLineEnd = true)) {}
+          if (rows.nonEmpty) push(out, rows.result())
+          else if (isClosed(in)) {
+            emitRemaining()
+            completeStage()
+          } else pull(in)
+        } catch {
+          case NonFatal(ex) => failStage(ex)
+        }
+
+      private def emitRemaining(): Unit = {
+        while (parser.pollRow(requireLineEnd = false)) {}
+        if (rows.nonEmpty) emit(out, rows.result())
+      }
+
+    }
+}
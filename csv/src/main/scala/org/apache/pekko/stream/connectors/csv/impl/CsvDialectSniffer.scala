@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.connectors.csv.CsvDialect
+import pekko.stream.connectors.csv.scaladsl.ByteOrderMark
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Guesses the dialect of CSV data from a sample of its first bytes.
+ *
+ *  - The quote character is the candidate which most often starts or ends a field.
+ *  - The delimiter is the candidate occurring the same number of times (outside of quotes) on most lines,
+ *    preferring higher counts on ties.
+ *  - A backslash is taken as escape character if it precedes a quote, a delimiter or another backslash.
+ *    Otherwise the quote character is used, meaning quotes within quoted fields are doubled.
+ */
+@InternalApi private[csv] object CsvDialectSniffer {
+
+  private final val LF: Byte = '\n'
+  private final val CR: Byte = '\r'
+  private final val Backslash: Byte = '\\'
+
+  /** Candidates in order of preference on ties. */
+  private val Delimiters: Array[Byte] = Array(',', ';', '\t', '|', ':').map(_.toByte)
+  private val Quotes: Array[Byte] = Array('"', '\'').map(_.toByte)
+
+  /** UTF-32 LE needs to be checked before UTF-16 LE, which it starts with. */
+  private val ByteOrderMarks = List(ByteOrderMark.UTF_8,
+    ByteOrderMark.UTF_32_BE,
+    ByteOrderMark.UTF_32_LE,
+    ByteOrderMark.UTF_16_BE,
+    ByteOrderMark.UTF_16_LE)
+
+  def detect(sample: ByteString): CsvDialect = {
+    val byteOrderMark = ByteOrderMarks.find(sample.startsWith(_))
+    val bytes = sample.drop(byteOrderMark.fold(0)(_.length)).toArray
+    val quoteChar = detectQuoteChar(bytes)
+    val delimiter = detectDelimiter(bytes, quoteChar)
+    new CsvDialect(delimiter,
+      quoteChar,
+      detectEscapeChar(bytes, quoteChar, delimiter),
+      detectLineEnding(bytes, quoteChar),
+      byteOrderMark)
+  }
+
+  private def isDelimiterCandidate(b: Byte): Boolean = Delimiters.contains(b)
+
+  private def isBoundary(bytes: Array[Byte], i: Int): Boolean =
+    i < 0 || i >= bytes.length || bytes(i) == LF || bytes(i) == CR || isDelimiterCandidate(bytes(i))
+
+  private def detectQuoteChar(bytes: Array[Byte]): Byte = {
+    val scores = Quotes.map { quote =>
+      var score = 0
+      var i = 0
+      while (i < bytes.length) {
+        if (bytes(i) == quote && (isBoundary(bytes, i - 1) || isBoundary(bytes, i + 1))) score += 1
+        i += 1
+      }
+      score
+    }
+    val best = scores.indexOf(scores.max)
+    Quotes(best)
+  }
+
+  /**
+   * Counts the occurrences of each delimiter candidate outside of quotes per line.
+   * The last line is only included if it is the only one, as the sample may have cut it off.
+   */
+  private def detectDelimiter(bytes: Array[Byte], quoteChar: Byte): Byte = {
+    val lines = new java.util.ArrayList[Array[Int]]()
+    var current = new Array[Int](Delimiters.length)
+    var quoted = false
+    var i = 0
+    while (i < bytes.length) {
+      val b = bytes(i)
+      if (quoted) {
+        if (b == Backslash && quoteChar != Backslash) i += 1
+        else if (b == quoteChar) quoted = false
+      } else if (b == quoteChar) quoted = true
+      else if (b == LF || b == CR) {
+        if (b == CR && i + 1 < bytes.length && bytes(i + 1) == LF) i += 1
+        lines.add(current)
+        current = new Array[Int](Delimiters.length)
+      } else {
+        val candidate = Delimiters.indexOf(b)
+        if (candidate >= 0) current(candidate) += 1
+      }
+      i += 1
+    }
+    if (lines.isEmpty) lines.add(current)
+
+    var best = 0
+    var bestConsistency = 0.0
+    var bestCount = 0
+    var candidate = 0
+    while (candidate < Delimiters.length) {
+      val counts = Array.tabulate(lines.size())(line => lines.get(line)(candidate))
+      java.util.Arrays.sort(counts)
+      // most frequent non-zero count, the higher one on ties
+      var mode = 0
+      var modeLines = 0
+      var from = 0
+      while (from < counts.length) {
+        var until = from + 1
+        while (until < counts.length && counts(until) == counts(from)) until += 1
+        if (counts(from) > 0 && until - from >= modeLines) {
+          mode = counts(from)
+          modeLines = until - from
+        }
+        from = until
+      }
+      val consistency = modeLines.toDouble / lines.size()
+      if (mode > 0 && (consistency > bestConsistency || (consistency == bestConsistency && mode > bestCount))) {
+        best = candidate
+        bestConsistency = consistency
+        bestCount = mode
+      }
+      candidate += 1
+    }
+    Delimiters(best)
+  }
+
+  private def detectEscapeChar(bytes: Array[Byte], quoteChar: Byte, delimiter: Byte): Byte = {
+    var i = 0
+    var escaping = false
+    while (!escaping && i + 1 < bytes.length) {
+      if (bytes(i) == Backslash) {
+        val next = bytes(i + 1)
+        escaping = next == quoteChar || next == delimiter || next == Backslash
+      }
+      i += 1
+    }
+    if (escaping) Backslash else quoteChar
+  }
+
+  private def detectLineEnding(bytes: Array[Byte], quoteChar: Byte): String = {
+    var lf = 0
+    var crLf = 0
+    var cr = 0
+    var quoted = false
+    var i = 0
+    while (i < bytes.length) {
+      val b = bytes(i)
+      if (b == quoteChar) quoted = !quoted
+      else if (!quoted) {
+        if (b == LF) lf += 1
+        else if (b == CR) {
+          if (i + 1 < bytes.length && bytes(i + 1) == LF) {
+            crLf += 1
+            i += 1
+          } else if (i + 1 < bytes.length) cr += 1
+        }
+      }
+      i += 1
+    }
+    if (crLf >= lf && crLf >= cr && crLf > 0) "\r\n"
+    else if (cr > lf) "\r"
+    else "\n"
+  }
+}
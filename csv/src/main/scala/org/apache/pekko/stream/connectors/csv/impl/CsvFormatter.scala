@@ -18,13 +18,28 @@ import java.nio.charset.{ Charset, StandardCharsets }
 import org.apache.pekko
 import pekko.annotation.InternalApi
 import pekko.stream.connectors.csv.scaladsl.CsvQuotingStyle
-import pekko.util.ByteString
+import pekko.util.{ ByteString, ByteStringBuilder }
 
 import scala.collection.immutable
 
 /**
  * Internal API
  */
+@InternalApi private[csv] object CsvFormatter {
+
+  /**
+   * All characters the `toString` representations of numbers may contain.
+   */
+  private val NumberChars = "0123456789+-.EINaInfinity"
+
+  private val MinLongBytes = Long.MinValue.toString.getBytes(StandardCharsets.US_ASCII)
+}
+
+/**
+ * Internal API
+ *
+ * Stateless, so a single instance may be shared by several materializations.
+ */
 @InternalApi private[csv] class CsvFormatter(delimiter: Char,
     quoteChar: Char,
     escapeChar: Char,
@@ -32,81 +47,125 @@ import scala.collection.immutable
     quotingStyle: CsvQuotingStyle,
     charset: Charset = StandardCharsets.UTF_8) {
 
-  private[this] val charsetName = charset.name()
+  import CsvFormatter._
 
-  private[this] val delimiterBs = ByteString(String.valueOf(delimiter), charsetName)
-  private[this] val quoteBs = ByteString(String.valueOf(quoteChar), charsetName)
-  private[this] val duplicatedQuote = ByteString(String.valueOf(Array(quoteChar, quoteChar)), charsetName)
-  private[this] val duplicatedEscape = ByteString(String.valueOf(Array(escapeChar, escapeChar)), charsetName)
-  private[this] val endOfLineBs = ByteString(endOfLine, charsetName)
+  private[this] val delimiterBytes = String.valueOf(delimiter).getBytes(charset)
+  private[this] val quoteBytes = String.valueOf(quoteChar).getBytes(charset)
+  private[this] val duplicatedQuote = String.valueOf(Array(quoteChar, quoteChar)).getBytes(charset)
+  private[this] val duplicatedEscape = String.valueOf(Array(escapeChar, escapeChar)).getBytes(charset)
+  private[this] val endOfLineBytes = endOfLine.getBytes(charset)
+  private[this] val endOfLineBs = ByteString(endOfLineBytes)
+
+  /**
+   * Numbers are written as ASCII without checking for characters requiring quotes
+   * if the charset encodes them as ASCII and none of them is a special character.
+   */
+  private[this] val numbersVerbatim =
+    quotingStyle == CsvQuotingStyle.Required &&
+    java.util.Arrays.equals(NumberChars.getBytes(charset), NumberChars.getBytes(StandardCharsets.US_ASCII)) &&
+    !NumberChars.exists(c => c == delimiter || c == quoteChar || c == escapeChar)
 
   def toCsv(fields: immutable.Iterable[Any]): ByteString =
-    if (fields.nonEmpty) nonEmptyToCsv(fields)
-    else endOfLineBs
-
-  private def nonEmptyToCsv(fields: immutable.Iterable[Any]) = {
-    val builder = ByteString.createBuilder
-
-    def splitAndDuplicateQuotesAndEscapes(field: String, splitAt: Int) = {
-
-      @inline def indexOfQuoteOrEscape(lastIndex: Int) = {
-        var index = lastIndex
-        var found = -1
-        while (index < field.length && found == -1) {
-          val char = field(index)
-          if (char == quoteChar || char == escapeChar) found = index
-          index += 1
-        }
-        found
+    if (fields.nonEmpty) {
+      val builder = ByteString.newBuilder
+      appendCsv(fields, builder)
+      builder.result()
+    } else endOfLineBs
+
+  /**
+   * Appends the CSV representation of `fields` including the line end to `builder`.
+   *
+   * `Int`, `Long`, `Short` and `Byte` values are written without calling `toString`,
+   * other numbers skip the check for characters requiring quotes.
+   */
+  def appendCsv(fields: immutable.Iterable[Any], builder: ByteStringBuilder): Unit = {
+    val iterator = fields.iterator
+    var hasNext = iterator.hasNext
+    while (hasNext) {
+      iterator.next() match {
+        case null                        =>
+        case i: Int if numbersVerbatim   => putLong(builder, i)
+        case l: Long if numbersVerbatim  => putLong(builder, l)
+        case s: Short if numbersVerbatim => putLong(builder, s)
+        case b: Byte if numbersVerbatim  => putLong(builder, b)
+        case n @ (_: Double | _: Float | _: BigDecimal | _: BigInt | _: java.math.BigDecimal | _: java.math.BigInteger)
+            if numbersVerbatim =>
+          putAscii(builder, n.toString)
+        case other => append(builder, other.toString)
       }
+      hasNext = iterator.hasNext
+      if (hasNext) {
+        builder.putBytes(delimiterBytes)
+      }
+    }
+    builder.putBytes(endOfLineBytes)
+  }
 
-      var lastIndex = 0
-      var index = splitAt
-      while (index > -1) {
-        builder ++= ByteString.apply(field.substring(lastIndex, index), charsetName)
-        val char = field.charAt(index)
-        if (char == quoteChar) {
-          builder ++= duplicatedQuote
-        } else {
-          builder ++= duplicatedEscape
-        }
-        lastIndex = index + 1
-        index = indexOfQuoteOrEscape(lastIndex)
+  private def append(builder: ByteStringBuilder, field: String): Unit = {
+    val (quoteIt, splitAt) = requiresQuotesOrSplit(field)
+    if (quoteIt || quotingStyle == CsvQuotingStyle.Always) {
+      builder.putBytes(quoteBytes)
+      if (splitAt != -1) {
+        splitAndDuplicateQuotesAndEscapes(builder, field, splitAt)
+      } else {
+        builder.putBytes(field.getBytes(charset))
       }
-      if (lastIndex < field.length) {
-        builder ++= ByteString(field.substring(lastIndex), charsetName)
+      builder.putBytes(quoteBytes)
+    } else {
+      builder.putBytes(field.getBytes(charset))
+    }
+  }
+
+  private def splitAndDuplicateQuotesAndEscapes(builder: ByteStringBuilder, field: String, splitAt: Int): Unit = {
+
+    @inline def indexOfQuoteOrEscape(lastIndex: Int) = {
+      var index = lastIndex
+      var found = -1
+      while (index < field.length && found == -1) {
+        val char = field(index)
+        if (char == quoteChar || char == escapeChar) found = index
+        index += 1
       }
+      found
     }
 
-    def append(field: String) = {
-      val (quoteIt, splitAt) = requiresQuotesOrSplit(field)
-      if (quoteIt || quotingStyle == CsvQuotingStyle.Always) {
-        builder ++= quoteBs
-        if (splitAt != -1) {
-          splitAndDuplicateQuotesAndEscapes(field, splitAt)
-        } else {
-          builder ++= ByteString(field, charsetName)
-        }
-        builder ++= quoteBs
+    var lastIndex = 0
+    var index = splitAt
+    while (index > -1) {
+      builder.putBytes(field.substring(lastIndex, index).getBytes(charset))
+      val char = field.charAt(index)
+      if (char == quoteChar) {
+        builder.putBytes(duplicatedQuote)
       } else {
-        builder ++= ByteString(field, charsetName)
+        builder.putBytes(duplicatedEscape)
       }
+      lastIndex = index + 1
+      index = indexOfQuoteOrEscape(lastIndex)
     }
+    if (lastIndex < field.length) {
+      builder.putBytes(field.substring(lastIndex).getBytes(charset))
+    }
+  }
 
-    val iterator = fields.iterator
-    var hasNext = iterator.hasNext
-    while (hasNext) {
-      val next = iterator.next()
-      if (next != null) {
-        append(next.toString)
-      }
-      hasNext = iterator.hasNext
-      if (hasNext) {
-        builder ++= delimiterBs
+  private def putLong(builder: ByteStringBuilder, value: Long): Unit =
+    if (value == Long.MinValue) builder.putBytes(MinLongBytes)
+    else {
+      if (value < 0) builder.putByte('-')
+      val abs = math.abs(value)
+      var divisor = 1L
+      while (divisor <= abs / 10) divisor *= 10
+      while (divisor > 0) {
+        builder.putByte(('0' + (abs / divisor) % 10).toByte)
+        divisor /= 10
       }
     }
-    builder ++= endOfLineBs
-    builder.result()
+
+  private def putAscii(builder: ByteStringBuilder, s: String): Unit = {
+    var i = 0
+    while (i < s.length) {
+      builder.putByte(s.charAt(i).toByte)
+      i += 1
+    }
   }
 
   private def requiresQuotesOrSplit(field: String): (Boolean, Int) = {
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.event.Logging
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.util.ByteString
+
+import scala.collection.immutable
+import scala.util.control.NonFatal
+
+/**
+ * Internal API: Use [[pekko.stream.connectors.csv.scaladsl.CsvFormatting.formatBatched]] instead.
+ *
+ * Formats incoming rows into a single builder per materialization and emits its content
+ * once it reaches `targetChunkSize` bytes, and on upstream completion.
+ */
+@InternalApi private[csv] class CsvFormattingBatchedStage[T <: immutable.Iterable[Any]](formatter: CsvFormatter,
+    targetChunkSize: Int,
+    byteOrderMark: Option[ByteString])
+    extends GraphStage[FlowShape[T, ByteString]] {
+
+  require(targetChunkSize > 0, "targetChunkSize must be positive")
+
+  private val in = Inlet[T](Logging.simpleName(this) + ".in")
+  private val out = Outlet[ByteString](Logging.simpleName(this) + ".out")
+  override val shape = FlowShape(in, out)
+
+  override protected def initialAttributes: Attributes = Attributes.name("CsvFormatting")
+
+  override def createLogic(inheritedAttributes: Attributes) =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val builder = ByteString.newBuilder
+
+      byteOrderMark.foreach(builder ++= _)
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit =
+        try {
+          formatter.appendCsv(grab(in), builder)
+          if (builder.length >= targetChunkSize) push(out, flush())
+          else pull(in)
+        } catch {
+          case NonFatal(ex) => failStage(ex)
+        }
+
+      override def onPull(): Unit = pull(in)
+
+      override def onUpstreamFinish(): Unit = {
+        if (builder.length > 0) emit(out, flush())
+        completeStage()
+      }
+
+      private def flush(): ByteString = {
+        val chunk = builder.result()
+        builder.clear()
+        chunk
+      }
+    }
+}
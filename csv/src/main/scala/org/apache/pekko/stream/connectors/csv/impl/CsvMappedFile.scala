@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{ Path, StandardOpenOption }
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.stream.scaladsl.Source
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API: Use [[pekko.stream.connectors.csv.scaladsl.CsvParsing.fromMappedFile]] instead.
+ *
+ * Reads a file through memory-mapped windows of up to `windowSize` bytes, so that files larger than 2 GiB
+ * can be read, and parses the chunks read from them.
+ *
+ * Each chunk is copied once from the mapping into the array of its [[pekko.util.ByteString]], as
+ * `ByteString` can't wrap off-heap memory. Fields are slices of these chunks unless they contain escapes.
+ */
+@InternalApi private[csv] object CsvMappedFile {
+
+  val DefaultWindowSize: Int = 256 * 1024 * 1024
+  val DefaultChunkSize: Int = 1024 * 1024
+
+  def source(path: Path,
+      windowSize: Int,
+      chunkSize: Int,
+      delimiter: Byte,
+      quoteChar: Byte,
+      escapeChar: Byte,
+      maximumLineLength: Int): Source[List[ByteString], NotUsed] =
+    chunks(path, windowSize, chunkSize)
+      .via(new CsvParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true))
+
+  def chunks(path: Path, windowSize: Int, chunkSize: Int): Source[ByteString, NotUsed] = {
+    require(windowSize > 0, "windowSize must be greater than 0")
+    require(chunkSize > 0, "chunkSize must be greater than 0")
+    Source.unfoldResource[ByteString, MappedWindows](() => new MappedWindows(path, windowSize),
+      _.read(chunkSize),
+      _.close())
+  }
+
+  private final class MappedWindows(path: Path, windowSize: Int) {
+    private[this] val channel = FileChannel.open(path, StandardOpenOption.READ)
+    private[this] val size = channel.size()
+    private[this] var windowEnd = 0L
+    private[this] var window: MappedByteBuffer = _
+
+    def read(chunkSize: Int): Option[ByteString] = {
+      if ((window eq null) || !window.hasRemaining) mapNext()
+      if (window.hasRemaining) {
+        val bytes = new Array[Byte](math.min(chunkSize, window.remaining()))
+        window.get(bytes)
+        Some(ByteString.fromArrayUnsafe(bytes))
+      } else None
+    }
+
+    /**
+     * Maps the next window, which is empty at the end of the file.
+     */
+    private def mapNext(): Unit = {
+      val start = windowEnd
+      windowEnd = math.min(size, start + windowSize)
+      window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowEnd - start)
+    }
+
+    def close(): Unit = channel.close()
+  }
+}
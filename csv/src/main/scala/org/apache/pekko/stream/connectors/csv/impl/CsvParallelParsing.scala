@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import java.io.EOFException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{ Path, StandardOpenOption }
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.dispatch.Dispatchers
+import pekko.stream.scaladsl.Source
+import pekko.util.ByteString
+
+import scala.collection.immutable
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.util.control.NonFatal
+
+/**
+ * INTERNAL API: Use [[pekko.stream.connectors.csv.scaladsl.CsvParsing.parallelScanner]] instead.
+ *
+ * Splits a file into ranges of roughly `rangeSize` bytes and parses them concurrently.
+ *
+ * Every range but the first is speculated to start right after the first line feed following its nominal start.
+ * That guess is wrong if the line feed is part of a quoted field. Ranges are verified in file order: a speculated
+ * start is confirmed if the previous range was parsed into complete lines up to its very last byte. Otherwise the
+ * speculative result is discarded and the range is parsed again from the actual start of the incomplete line.
+ */
+@InternalApi private[csv] object CsvParallelParsing {
+
+  val DefaultRangeSize: Int = 8 * 1024 * 1024
+
+  private val ProbeSize = 8 * 1024
+  private val LF: Byte = '\n'
+
+  final case class Range(start: Long, end: Long, last: Boolean) {
+    def length: Int = (end - start).toInt
+  }
+
+  final class RangeResult(val range: Range,
+      val lines: Vector[List[ByteString]],
+      val consumed: Long,
+      val failure: Throwable) {
+    def complete: Boolean = consumed == range.length
+  }
+
+  def source(path: Path,
+      parallelism: Int,
+      rangeSize: Int,
+      delimiter: Byte,
+      quoteChar: Byte,
+      escapeChar: Byte,
+      maximumLineLength: Int): Source[List[ByteString], NotUsed] = {
+    require(parallelism > 0, "parallelism must be greater than 0")
+    require(rangeSize > 0, "rangeSize must be greater than 0")
+
+    def parse(range: Range): RangeResult =
+      parseRange(path, range, delimiter, quoteChar, escapeChar, maximumLineLength)
+
+    Source
+      .fromMaterializer { (mat, _) =>
+        implicit val ec = mat.system.dispatchers.lookup(Dispatchers.DefaultBlockingDispatcherId)
+        Source
+          .future(Future(ranges(path, rangeSize)))
+          .mapConcat(identity)
+          .mapAsync(parallelism)(range => Future(parse(range)))
+          .mapAsync(1)(new Verifier(parse))
+          .mapConcat(identity)
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
+  /**
+   * Passes on lines of ranges in file order, parsing a range again if its speculated start was wrong.
+   *
+   * Keeps state across ranges, so it must be used with `mapAsync(1)`. Ranges are parsed again on `ec`, which is the
+   * blocking dispatcher.
+   */
+  private final class Verifier(parse: Range => RangeResult)(implicit ec: ExecutionContext)
+      extends (RangeResult => Future[Vector[List[ByteString]]]) {
+
+    /**
+     * Start of a line which was not completed by the previous range, or -1.
+     */
+    private var carry = -1L
+
+    def apply(speculative: RangeResult): Future[Vector[List[ByteString]]] = {
+      val result =
+        if (carry < 0) Future.successful(speculative)
+        else Future(parse(speculative.range.copy(start = carry)))
+      result.map { verified =>
+        if (verified.failure ne null) throw verified.failure
+        carry = if (verified.complete) -1L else verified.range.start + verified.consumed
+        verified.lines
+      }
+    }
+  }
+
+  def ranges(path: Path, rangeSize: Int): immutable.Seq[Range] = {
+    val channel = FileChannel.open(path, StandardOpenOption.READ)
+    try {
+      val size = channel.size()
+      val boundaries = Vector.newBuilder[Long]
+      boundaries += 0L
+      var nominal = rangeSize.toLong
+      var previous = 0L
+      while (nominal < size) {
+        val boundary = nextLineStart(channel, nominal, size)
+        if (boundary > previous && boundary < size) {
+          boundaries += boundary
+          previous = boundary
+        }
+        nominal += rangeSize
+      }
+      if (size > 0) boundaries += size
+      val bs = boundaries.result()
+      (0 until bs.length - 1).map(i => Range(bs(i), bs(i + 1), last = i == bs.length - 2))
+    } finally channel.close()
+  }
+
+  /**
+   * Position after the first line feed at or after `from - 1`, or `size` if there is none.
+   */
+  private def nextLineStart(channel: FileChannel, from: Long, size: Long): Long = {
+    val probe = ByteBuffer.allocate(ProbeSize)
+    var position = from - 1
+    while (position < size) {
+      probe.clear()
+      val read = channel.read(probe, position)
+      if (read < 0) return size
+      var i = 0
+      while (i < read) {
+        if (probe.get(i) == LF) return position + i + 1
+        i += 1
+      }
+      position += read
+    }
+    size
+  }
+
+  def parseRange(path: Path,
+      range: Range,
+      delimiter: Byte,
+      quoteChar: Byte,
+      escapeChar: Byte,
+      maximumLineLength: Int): RangeResult =
+    try {
+      val parser = new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true)
+      if (range.start > 0) parser.skipByteOrderMarkCheck()
+      parser.offer(read(path, range))
+      val lines = Vector.newBuilder[List[ByteString]]
+      var line = parser.poll(requireLineEnd = true)
+      while (line.nonEmpty) {
+        lines += line.get
+        line = parser.poll(requireLineEnd = true)
+      }
+      if (range.last) {
+        line = parser.poll(requireLineEnd = false)
+        while (line.nonEmpty) {
+          lines += line.get
+          line = parser.poll(requireLineEnd = false)
+        }
+      }
+      new RangeResult(range, lines.result(), parser.currentLineOffset, failure = null)
+    } catch {
+      case NonFatal(e) => new RangeResult(range, Vector.empty, 0L, e)
+    }
+
+  private def read(path: Path, range: Range): ByteString = {
+    val bytes = new Array[Byte](range.length)
+    val buffer = ByteBuffer.wrap(bytes)
+    val channel = FileChannel.open(path, StandardOpenOption.READ)
+    try {
+      while (buffer.hasRemaining) {
+        if (channel.read(buffer, range.start + buffer.position()) < 0)
+          throw new EOFException(s"$path ended before ${range.end}")
+      }
+    } finally channel.close()
+    ByteString.fromArrayUnsafe(bytes)
+  }
+}
@@ -13,6 +13,7 @@
 
 package org.apache.pekko.stream.connectors.csv.impl
 
+import java.nio.{ ByteBuffer, ByteOrder }
 import java.nio.charset.UnsupportedCharsetException
 
 import org.apache.pekko
@@ -46,14 +47,26 @@ import scala.collection.mutable
 
 /**
  * INTERNAL API: Use [[pekko.stream.connectors.csv.scaladsl.CsvParsing]] instead.
+ *
+ * @param fastScan skip runs of plain field content with [[SwarScanner]] instead of stepping through
+ *                 the state machine byte by byte
+ * @param rows if given, fields are appended to it and lines are read with [[pollRow()]] instead of [[poll()]]
  */
 @InternalApi private[csv] final class CsvParser(delimiter: Byte,
     quoteChar: Byte,
     escapeChar: Byte,
-    maximumLineLength: Int) {
+    maximumLineLength: Int,
+    fastScan: Boolean = false,
+    rows: CsvRowsBuilder = null) {
 
   import CsvParser._
 
+  private[this] val delimiterPattern = SwarScanner.broadcast(delimiter)
+  private[this] val quoteCharPattern = SwarScanner.broadcast(quoteChar)
+  private[this] val escapeCharPattern = SwarScanner.broadcast(escapeChar)
+  private[this] val lfPattern = SwarScanner.broadcast(LF)
+  private[this] val crPattern = SwarScanner.broadcast(CR)
+
   /**
    * Concatenated input chunks,
    * appended to by [[offer()]] and dropped from by [[dropReadBuffer()]].
@@ -99,6 +112,16 @@ import scala.collection.mutable
   private[this] var fieldStart = 0
   private[this] var currentLineNo = 1L
 
+  /**
+   * Number of bytes dropped from [[buffer]] since the start of the input.
+   */
+  private[this] var bytesDropped = 0L
+
+  /**
+   * Offset within the input of the first byte of the current line.
+   */
+  private[this] var lineStart = 0L
+
   /**
    * Reset after each row.
    */
@@ -116,25 +139,84 @@ import scala.collection.mutable
    */
   private[this] var current: ByteIterator = ByteString.empty.iterator
 
+  /**
+   * Little-endian view of the chunk [[current]] iterates over, only set if [[fastScan]] is enabled.
+   *
+   * [[pekko.util.ByteString.ByteString1C]] and [[pekko.util.ByteString.ByteString1]] chunks are wrapped without copying.
+   */
+  private[this] var chunk: ByteBuffer = _
+
+  /**
+   * Position within [[buffer]] of the first byte of [[chunk]].
+   */
+  private[this] var chunkStart = 0
+
   def offer(next: ByteString): Unit =
     if (next.nonEmpty) {
       require(current.isEmpty, "offer(ByteString) may not be called before all buffered input is parsed.")
       buffer ++= next
       current = next.iterator
+      if (fastScan) {
+        chunk = next.asByteBuffer.order(ByteOrder.LITTLE_ENDIAN)
+        chunkStart = buffer.length - next.length
+      }
     }
 
-  def poll(requireLineEnd: Boolean): Option[List[ByteString]] = {
+  /**
+   * Offset within the input of the first byte of the line to be parsed next.
+   * After all complete lines are polled, this is the number of bytes they span.
+   */
+  def currentLineOffset: Long = lineStart
+
+  /**
+   * For input starting within a stream, where no Byte Order Mark may occur.
+   */
+  def skipByteOrderMarkCheck(): Unit = firstData = false
+
+  /**
+   * Number of the line to be parsed next, starting at 1. Quoted fields containing line breaks do not
+   * increase the line number.
+   */
+  def currentLineNumber: Long = currentLineNo
+
+  /**
+   * For input starting at `offset` within a stream, which was recorded via [[currentLineOffset]] together with
+   * `lineNumber` from [[currentLineNumber]]. Must be called before the first [[offer()]].
+   */
+  def resumeAt(offset: Long, lineNumber: Long): Unit = {
+    require(bytesDropped == 0L && buffer.isEmpty, "resumeAt may only be called before parsing starts")
+    bytesDropped = offset
+    lineStart = offset
+    currentLineNo = lineNumber
+    if (offset > 0L) skipByteOrderMarkCheck()
+  }
+
+  def poll(requireLineEnd: Boolean): Option[List[ByteString]] =
+    if (pollLine(requireLineEnd)) {
+      val line = columns.toList
+      columns.clear()
+      Some(line)
+    } else None
+
+  /**
+   * Parses the next line into [[rows]], to be used instead of [[poll()]] when a [[CsvRowsBuilder]] is given.
+   *
+   * @return whether a line was completed
+   */
+  def pollRow(requireLineEnd: Boolean): Boolean = pollLine(requireLineEnd)
+
+  private[this] def pollLine(requireLineEnd: Boolean): Boolean = {
     if (buffer.nonEmpty) parseLine()
-    val line = maybeExtractLine(requireLineEnd)
-    if (line.nonEmpty) {
+    val complete = maybeCompleteLine(requireLineEnd)
+    if (complete) {
       currentLineNo += 1
       if (state == LineEnd || !requireLineEnd) {
         state = LineStart
       }
       resetLine()
-      columns.clear()
+      lineStart = bytesDropped
     }
-    line
+    complete
   }
 
   private[this] def advance(n: Int = 1): Unit = {
@@ -150,6 +232,8 @@ import scala.collection.mutable
   private[this] def dropReadBuffer() = {
     buffer = buffer.drop(pos)
     lineBytesDropped += pos
+    bytesDropped += pos
+    chunkStart -= pos
     pos = 0
     fieldStart = 0
   }
@@ -178,12 +262,24 @@ import scala.collection.mutable
     @inline def add(x: Byte): Unit =
       if (useBuilder) builder += x
 
+    @inline def addAll(from: Int, until: Int): Unit =
+      if (useBuilder) builder ++= buffer.slice(from, until)
+
     @inline def result(pos: Int): ByteString =
       if (useBuilder) {
         useBuilder = false
         builder.result()
       } else buffer.slice(fieldStart, pos)
 
+    /**
+     * Copies the field into `rows` without creating a [[ByteString]] for it, unless escaping was used.
+     */
+    @inline def appendTo(rows: CsvRowsBuilder, pos: Int): Unit =
+      if (useBuilder) {
+        useBuilder = false
+        rows.addField(builder.result())
+      } else rows.addField(buffer, fieldStart, pos)
+
   }
 
   private[this] def noCharEscaped() =
@@ -217,6 +313,21 @@ import scala.collection.mutable
     churn()
   }
 
+  /**
+   * Advances over all bytes of the current chunk which are none of the given special bytes,
+   * stopping early where the line would exceed [[maximumLineLength]] so that the regular check reports it.
+   */
+  private[this] def skipPlainBytes(a: Long, b: Long, c: Long, d: Long): Unit = {
+    val from = pos - chunkStart
+    // the remaining line length is taken first as adding it to the offset may overflow
+    val until = math.min(chunk.limit() - from, maximumLineLength - lineLength) + from
+    val n = SwarScanner.indexOfAny(chunk, from, until, a, b, c, d) - from
+    if (n > 0) {
+      fieldBuilder.addAll(pos, pos + n)
+      advance(n)
+    }
+  }
+
   private[this] def churn(): Unit = {
     while (state != LineEnd && pos < buffer.length) {
       if (lineLength >= maximumLineLength)
@@ -238,17 +349,17 @@ import scala.collection.mutable
               advance()
               fieldStart = pos
             case `delimiter` =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterDelimiter
               advance()
               fieldStart = pos
             case LF =>
-              columns += ByteString.empty
+              addEmptyField()
               state = LineEnd
               advance()
               fieldStart = pos
             case CR =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterCr
               advance()
               fieldStart = pos
@@ -256,6 +367,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinField
               advance()
+              if (fastScan) skipPlainBytes(escapeCharPattern, delimiterPattern, lfPattern, crPattern)
           }
 
         case AfterDelimiter =>
@@ -270,17 +382,17 @@ import scala.collection.mutable
               advance()
               fieldStart = pos
             case `delimiter` =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterDelimiter
               advance()
               fieldStart = pos
             case LF =>
-              columns += ByteString.empty
+              addEmptyField()
               state = LineEnd
               advance()
               fieldStart = pos
             case CR =>
-              columns += ByteString.empty
+              addEmptyField()
               state = AfterCr
               advance()
               fieldStart = pos
@@ -288,26 +400,27 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinField
               advance()
+              if (fastScan) skipPlainBytes(escapeCharPattern, delimiterPattern, lfPattern, crPattern)
           }
 
         case WithinField =>
           byte match {
-            case `escapeChar` =>
+            case `escapeChar` if escapeChar != quoteChar =>
               fieldBuilder.init()
               state = WithinFieldEscaped
               advance()
             case `delimiter` =>
-              columns += fieldBuilder.result(pos)
+              addField(pos)
               state = AfterDelimiter
               advance()
               dropReadBuffer()
             case LF =>
-              columns += fieldBuilder.result(pos)
+              addField(pos)
               state = LineEnd
               advance()
               dropReadBuffer()
             case CR =>
-              columns += fieldBuilder.result(pos)
+              addField(pos)
               state = AfterCr
               advance()
               dropReadBuffer()
@@ -315,6 +428,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinField
               advance()
+              if (fastScan) skipPlainBytes(escapeCharPattern, delimiterPattern, lfPattern, crPattern)
           }
 
         case WithinFieldEscaped =>
@@ -350,6 +464,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinQuotedField
               advance()
+              if (fastScan) skipPlainBytes(quoteCharPattern, escapeCharPattern, quoteCharPattern, escapeCharPattern)
           }
 
         case WithinQuotedField =>
@@ -366,6 +481,7 @@ import scala.collection.mutable
               fieldBuilder.add(b)
               state = WithinQuotedField
               advance()
+              if (fastScan) skipPlainBytes(quoteCharPattern, escapeCharPattern, quoteCharPattern, escapeCharPattern)
           }
 
         case WithinQuotedFieldEscaped =>
@@ -405,37 +521,45 @@ import scala.collection.mutable
       }
     }
   }
-  private[this] def maybeExtractLine(requireLineEnd: Boolean): Option[List[ByteString]] =
-    if (requireLineEnd) {
-      state match {
-        case LineEnd =>
-          Some(columns.toList)
-        case _ =>
-          None
-      }
-    } else {
-      state match {
-        case AfterDelimiter =>
-          columns += ByteString.empty
-          Some(columns.toList)
-        case WithinQuotedField =>
-          throw new MalformedCsvException(
-            currentLineNo,
-            lineLength,
-            s"unclosed quote at end of input $currentLineNo:$lineLength, no matching quote found")
-        case WithinField =>
-          columns += fieldBuilder.result(pos)
-          Some(columns.toList)
-        case WithinQuotedFieldQuote =>
-          columns += fieldBuilder.result(pos - 1)
-          Some(columns.toList)
-        case WithinFieldEscaped | WithinQuotedFieldEscaped =>
-          noCharEscaped()
-        case _ if columns.nonEmpty =>
-          Some(columns.toList)
-        case _ =>
-          None
+  private[this] def addField(end: Int): Unit =
+    if (rows eq null) columns += fieldBuilder.result(end)
+    else fieldBuilder.appendTo(rows, end)
+
+  private[this] def addEmptyField(): Unit =
+    if (rows eq null) columns += ByteString.empty
+    else rows.addEmptyField()
+
+  private[this] def lineHasFields: Boolean =
+    if (rows eq null) columns.nonEmpty
+    else rows.hasPendingFields
+
+  private[this] def maybeCompleteLine(requireLineEnd: Boolean): Boolean = {
+    val complete =
+      if (requireLineEnd) state == LineEnd
+      else {
+        state match {
+          case AfterDelimiter =>
+            addEmptyField()
+            true
+          case WithinQuotedField =>
+            throw new MalformedCsvException(
+              currentLineNo,
+              lineLength,
+              s"unclosed quote at end of input $currentLineNo:$lineLength, no matching quote found")
+          case WithinField =>
+            addField(pos)
+            true
+          case WithinQuotedFieldQuote =>
+            addField(pos - 1)
+            true
+          case WithinFieldEscaped | WithinQuotedFieldEscaped =>
+            noCharEscaped()
+          case _ =>
+            lineHasFields
+        }
       }
-    }
+    if (complete && (rows ne null)) rows.endRow()
+    complete
+  }
 
 }
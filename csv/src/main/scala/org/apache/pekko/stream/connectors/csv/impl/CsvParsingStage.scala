@@ -29,7 +29,8 @@ import scala.util.control.NonFatal
 @InternalApi private[csv] class CsvParsingStage(delimiter: Byte,
     quoteChar: Byte,
     escapeChar: Byte,
-    maximumLineLength: Int)
+    maximumLineLength: Int,
+    fastScan: Boolean = false)
     extends GraphStage[FlowShape[ByteString, List[ByteString]]] {
 
   private val in = Inlet[ByteString](Logging.simpleName(this) + ".in")
@@ -40,7 +41,7 @@ import scala.util.control.NonFatal
 
   override def createLogic(inheritedAttributes: Attributes) =
     new GraphStageLogic(shape) with InHandler with OutHandler {
-      private[this] val buffer = new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength)
+      private[this] val buffer = new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan)
 
       setHandlers(in, out, this)
 
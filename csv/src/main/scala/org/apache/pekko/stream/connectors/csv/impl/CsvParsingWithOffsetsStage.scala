@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.event.Logging
+import pekko.stream.connectors.csv.CsvLine
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.util.ByteString
+
+import scala.annotation.tailrec
+import scala.util.control.NonFatal
+
+/**
+ * Internal API: Use [[pekko.stream.connectors.csv.scaladsl.CsvParsing.lineScannerWithOffsets]] instead.
+ *
+ * @param startOffset offset within the whole input of the first incoming byte
+ * @param startLineNumber number of the first incoming line
+ */
+@InternalApi private[csv] class CsvParsingWithOffsetsStage(delimiter: Byte,
+    quoteChar: Byte,
+    escapeChar: Byte,
+    maximumLineLength: Int,
+    startOffset: Long,
+    startLineNumber: Long)
+    extends GraphStage[FlowShape[ByteString, CsvLine]] {
+
+  require(startOffset >= 0L, "startOffset must not be negative")
+  require(startLineNumber >= 1L, "startLineNumber must be positive")
+
+  private val in = Inlet[ByteString](Logging.simpleName(this) + ".in")
+  private val out = Outlet[CsvLine](Logging.simpleName(this) + ".out")
+  override val shape = FlowShape(in, out)
+
+  override protected def initialAttributes: Attributes = Attributes.name("CsvParsingWithOffsets")
+
+  override def createLogic(inheritedAttributes: Attributes) =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val buffer = new CsvParser(delimiter, quoteChar, escapeChar, maximumLineLength)
+      buffer.resumeAt(startOffset, startLineNumber)
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        buffer.offer(grab(in))
+        tryPollBuffer()
+      }
+
+      override def onPull(): Unit =
+        tryPollBuffer()
+
+      override def onUpstreamFinish(): Unit = {
+        emitRemaining()
+        completeStage()
+      }
+
+      private def poll(requireLineEnd: Boolean): Option[CsvLine] = {
+        val offset = buffer.currentLineOffset
+        val lineNumber = buffer.currentLineNumber
+        buffer.poll(requireLineEnd).map(fields => new CsvLine(fields, offset, buffer.currentLineOffset, lineNumber))
+      }
+
+      private def tryPollBuffer() =
+        try poll(requireLineEnd = true) match {
+            case Some(csvLine) => push(out, csvLine)
+            case _ =>
+              if (isClosed(in)) {
+                emitRemaining()
+                completeStage()
+              } else pull(in)
+          }
+        catch {
+          case NonFatal(ex) => failStage(ex)
+        }
+
+      @tailrec private def emitRemaining(): Unit =
+        poll(requireLineEnd = false) match {
+          case Some(csvLine) =>
+            emit(out, csvLine)
+            emitRemaining()
+          case _ =>
+        }
+
+    }
+}
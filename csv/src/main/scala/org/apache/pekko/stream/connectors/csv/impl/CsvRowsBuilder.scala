@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import java.util.Arrays
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.connectors.csv.CsvRows
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Collects field contents and field/row end offsets for [[CsvRows]], filled by [[CsvParser]].
+ *
+ * Fields of a line which is not completed yet are carried over into the next batch by [[result()]]. As the arrays
+ * of a batch are handed out with it, the next batch gets new ones, sized by what the last batch filled.
+ */
+@InternalApi private[csv] final class CsvRowsBuilder(initialByteCapacity: Int = 8 * 1024,
+    initialFieldCapacity: Int = 256) {
+
+  import CsvRowsBuilder._
+
+  private[this] var bytes = new Array[Byte](initialByteCapacity)
+  private[this] var byteCount = 0
+  private[this] var fieldEnds = new Array[Int](initialFieldCapacity)
+  private[this] var fieldCount = 0
+  private[this] var rowEnds = new Array[Int](16)
+  private[this] var rowCount = 0
+
+  def nonEmpty: Boolean = rowCount > 0
+
+  /**
+   * Whether fields were added since the last completed row.
+   */
+  def hasPendingFields: Boolean = fieldCount > completedFields
+
+  def addField(src: ByteString, from: Int, until: Int): Unit = {
+    val length = until - from
+    if (length > 0) {
+      ensureByteCapacity(length)
+      // copied byte by byte rather than through a slice, which would be allocated for every field
+      var i = 0
+      while (i < length) {
+        bytes(byteCount + i) = src(from + i)
+        i += 1
+      }
+      byteCount += length
+    }
+    addFieldEnd()
+  }
+
+  def addField(src: ByteString): Unit = addField(src, 0, src.length)
+
+  def addEmptyField(): Unit = addFieldEnd()
+
+  def endRow(): Unit = {
+    if (rowCount == rowEnds.length) rowEnds = Arrays.copyOf(rowEnds, rowCount * 2)
+    rowEnds(rowCount) = fieldCount
+    rowCount += 1
+  }
+
+  /**
+   * Hands out all completed rows and starts a new batch with the fields of the pending row.
+   */
+  def result(): CsvRows = {
+    val rows = new CsvRows(bytes, fieldEnds, rowEnds, rowCount)
+    val pendingFrom = completedFields
+    val pendingFields = fieldCount - pendingFrom
+    val bytesFrom = if (pendingFrom == 0) 0 else fieldEnds(pendingFrom - 1)
+    val pendingBytes = byteCount - bytesFrom
+
+    val nextBytes = new Array[Byte](math.max(byteCount, MinCapacity))
+    System.arraycopy(bytes, bytesFrom, nextBytes, 0, pendingBytes)
+    val nextFieldEnds = new Array[Int](math.max(fieldCount, MinCapacity))
+    var i = 0
+    while (i < pendingFields) {
+      nextFieldEnds(i) = fieldEnds(pendingFrom + i) - bytesFrom
+      i += 1
+    }
+    bytes = nextBytes
+    byteCount = pendingBytes
+    fieldEnds = nextFieldEnds
+    fieldCount = pendingFields
+    rowEnds = new Array[Int](math.max(rowCount, MinCapacity))
+    rowCount = 0
+    rows
+  }
+
+  private[this] def completedFields: Int = if (rowCount == 0) 0 else rowEnds(rowCount - 1)
+
+  private[this] def addFieldEnd(): Unit = {
+    if (fieldCount == fieldEnds.length) fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2)
+    fieldEnds(fieldCount) = byteCount
+    fieldCount += 1
+  }
+
+  private[this] def ensureByteCapacity(additional: Int): Unit =
+    if (byteCount + additional > bytes.length) {
+      bytes = Arrays.copyOf(bytes, math.max(bytes.length * 2, byteCount + additional))
+    }
+}
+
+@InternalApi private[csv] object CsvRowsBuilder {
+  private final val MinCapacity = 16
+}
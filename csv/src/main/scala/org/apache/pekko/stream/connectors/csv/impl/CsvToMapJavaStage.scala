@@ -18,6 +18,7 @@ import java.util.stream.Collectors
 import java.{ util => ju }
 import org.apache.pekko
 import pekko.annotation.InternalApi
+import pekko.stream.connectors.csv.JavaIndexedRow
 import pekko.stream._
 import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
 import pekko.util.ByteString
@@ -25,6 +26,8 @@ import pekko.util.ByteString
 /**
  * Internal Java API: Converts incoming {@link Collection}<{@link ByteString}> to {@link java.util.Map}<String, ByteString>.
  *
+ * Emits [[JavaIndexedRow]]s sharing the column names of the header.
+ *
  * @param columnNames If given, these names are used as map keys; if not first stream element is used
  * @param charset Character set used to convert header line ByteString to String
  * @param combineAll If true, placeholder elements will be used to extend the shorter collection to the length of the longer.
@@ -46,7 +49,7 @@ import pekko.util.ByteString
 
   val fieldValuePlaceholder: V
 
-  protected def transformElements(elements: ju.Collection[ByteString]): ju.Collection[V]
+  protected def transformElement(element: ByteString): V
 
   private final val decodeByteString = new java.util.function.Function[ByteString, String]() {
     override def apply(t: ByteString): String = t.decodeString(charset)
@@ -55,77 +58,60 @@ import pekko.util.ByteString
   protected def decode(elem: ju.Collection[ByteString]): ju.List[String] =
     elem.stream().map[String](decodeByteString).collect(Collectors.toList())
 
+  private def rowKeys(names: ju.Collection[String]): RowKeys = new RowKeys(names.toArray(new Array[String](0)))
+
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) {
-      private[this] var headers = columnNames
+      private[this] var keys: RowKeys = if (columnNames.isPresent) rowKeys(columnNames.get) else null
+      private[this] var paddedKeys: RowKeys = _
 
       setHandler(
         in,
         new InHandler {
           override def onPush(): Unit = {
             val elem = grab(in)
-            if (combineAll) {
-              process(elem, zipAllWithHeaders)
+            if (keys ne null) {
+              push(out, if (combineAll) zipAllWithHeaders(elem) else zipWithHeaders(elem))
             } else {
-              process(elem, zipWithHeaders)
+              keys = rowKeys(decode(elem))
+              pull(in)
             }
           }
         })
 
-      private def process(elem: ju.Collection[ByteString], combine: ju.Collection[V] => ju.Map[String, V]) = {
-        if (headers.isPresent) {
-          val map = combine(transformElements(elem))
-          push(out, map)
-        } else {
-          headers = ju.Optional.of(decode(elem))
-          pull(in)
-        }
-      }
-
       setHandler(out,
         new OutHandler {
           override def onPull(): Unit = pull(in)
         })
 
-      private def zipWithHeaders(elem: ju.Collection[V]): ju.Map[String, V] = {
-        val map = new ju.HashMap[String, V]()
-        val hIter = headers.get.iterator()
+      private def zipWithHeaders(elem: ju.Collection[ByteString]): ju.Map[String, V] = {
+        val values = new Array[Any](keys.length)
         val colIter = elem.iterator()
-        while (hIter.hasNext && colIter.hasNext) {
-          map.put(hIter.next(), colIter.next())
+        var count = 0
+        while (count < values.length && colIter.hasNext) {
+          values(count) = transformElement(colIter.next())
+          count += 1
         }
-        map
+        new JavaIndexedRow[V](keys, values, count)
       }
 
-      private def zipAllWithHeaders(elem: ju.Collection[V]): ju.Map[String, V] = {
-        val map = new ju.HashMap[String, V]()
-        val hIter = headers.get.iterator()
+      private def zipAllWithHeaders(elem: ju.Collection[ByteString]): ju.Map[String, V] = {
+        val count = math.max(keys.length, elem.size())
+        val values = new Array[Any](count)
         val colIter = elem.iterator()
-        if (headers.get.size() > elem.size()) {
-          while (hIter.hasNext) {
-            if (colIter.hasNext) {
-              map.put(hIter.next(), colIter.next())
-            } else {
-              map.put(hIter.next(), customFieldValuePlaceholder.orElse(fieldValuePlaceholder))
-            }
-          }
-        } else if (elem.size() > headers.get.size()) {
-          var index = 0
-          while (colIter.hasNext) {
-            if (hIter.hasNext) {
-              map.put(hIter.next(), colIter.next())
-            } else {
-              map.put(headerPlaceholder.orElse("MissingHeader") + index, colIter.next())
-              index = index + 1
-            }
-          }
-
-        } else {
-          while (hIter.hasNext && colIter.hasNext) {
-            map.put(hIter.next(), colIter.next())
-          }
+        var index = 0
+        while (colIter.hasNext) {
+          values(index) = transformElement(colIter.next())
+          index += 1
+        }
+        val placeholder = customFieldValuePlaceholder.orElse(fieldValuePlaceholder)
+        while (index < count) {
+          values(index) = placeholder
+          index += 1
         }
-        map
+        if ((paddedKeys eq null) || paddedKeys.length != count)
+          paddedKeys = keys.padded(count, headerPlaceholder.orElse("MissingHeader"))
+        new JavaIndexedRow[V](paddedKeys, values, count)
       }
 
     }
@@ -148,8 +134,7 @@ import pekko.util.ByteString
 
   override val fieldValuePlaceholder: ByteString = ByteString("")
 
-  override protected def transformElements(elements: ju.Collection[ByteString]): ju.Collection[ByteString] =
-    elements
+  override protected def transformElement(element: ByteString): ByteString = element
 }
 
 /**
@@ -168,6 +153,6 @@ import pekko.util.ByteString
 
   override val fieldValuePlaceholder: String = ""
 
-  override protected def transformElements(elements: ju.Collection[ByteString]): ju.Collection[String] =
-    decode(elements)
+  override protected def transformElement(element: ByteString): String =
+    element.decodeString(charset)
 }
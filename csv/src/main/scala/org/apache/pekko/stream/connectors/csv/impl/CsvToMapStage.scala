@@ -16,6 +16,7 @@ package org.apache.pekko.stream.connectors.csv.impl
 import java.nio.charset.Charset
 import org.apache.pekko
 import pekko.annotation.InternalApi
+import pekko.stream.connectors.csv.IndexedRow
 import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
 import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
 import pekko.util.ByteString
@@ -25,6 +26,8 @@ import scala.collection.immutable
 /**
  * Internal API: Converts incoming [[List[ByteString]]] to [[Map[String, ByteString]]].
  *
+ * Emits [[IndexedRow]]s sharing the column names of the header.
+ *
  * @see org.apache.pekko.stream.connectors.csv.impl.CsvToMapJavaStage
  * @param columnNames If given, these names are used as map keys; if not first stream element is used
  * @param charset Character set used to convert header line ByteString to String
@@ -41,70 +44,83 @@ import scala.collection.immutable
 
   override protected def initialAttributes: Attributes = Attributes.name("CsvToMap")
 
-  private type Headers = Option[Seq[String]]
-
   private val in = Inlet[immutable.Seq[ByteString]]("CsvToMap.in")
   private val out = Outlet[Map[String, V]]("CsvToMap.out")
   override val shape = FlowShape.of(in, out)
 
   val fieldValuePlaceholder: V
 
-  protected def transformElements(elements: immutable.Seq[ByteString]): immutable.Seq[V]
+  protected def transformElement(element: ByteString): V
+
+  private val missingHeader = headerPlaceholder.getOrElse("MissingHeader")
+
+  private def isMissingHeader(key: String): Boolean =
+    headerPlaceholder.map(_.equalsIgnoreCase(key)).fold(key.equalsIgnoreCase("MissingHeader"))(identity)
 
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) with InHandler with OutHandler {
-      private var headers = columnNames
+      private[this] var keys: RowKeys = columnNames.map(names => new RowKeys(names.toArray)).orNull
+      private[this] var combinedKeys: RowKeys = _
 
       setHandlers(in, out, this)
 
       override def onPush(): Unit = {
         val elem = grab(in)
-        if (combineAll) {
-          process(elem, combineUsingPlaceholder(elem))
-        } else {
-          process(elem, headers => headers.get.zip(transformElements(elem)).toMap)
-        }
-      }
-
-      private def process(elem: immutable.Seq[ByteString], combine: => Headers => Map[String, V]): Unit = {
-        if (headers.isDefined) {
-          push(out, combine(headers))
+        if (keys ne null) {
+          push(out, if (combineAll) combineUsingPlaceholder(elem) else zipWithKeys(elem))
         } else {
-          headers = Some(elem.map(_.decodeString(charset)))
+          keys = new RowKeys(elem.map(_.decodeString(charset)).toArray)
           pull(in)
         }
       }
 
       override def onPull(): Unit = pull(in)
-    }
 
-  private def combineUsingPlaceholder(elem: immutable.Seq[ByteString]): Headers => Map[String, V] = headers => {
-    val combined = headers.get
-      .zipAll(transformElements(elem),
-        headerPlaceholder.getOrElse("MissingHeader"),
-        customFieldValuePlaceholder.getOrElse(fieldValuePlaceholder))
-    val filtering: String => Boolean = key =>
-      headerPlaceholder.map(_.equalsIgnoreCase(key)).fold(key.equalsIgnoreCase("MissingHeader"))(identity)
-    val missingHeadersContent =
-      combined
-        .filter {
-          case (key, _) => filtering(key)
+      private def zipWithKeys(elem: immutable.Seq[ByteString]): IndexedRow[V] = {
+        val values = new Array[Any](keys.length)
+        val it = elem.iterator
+        var count = 0
+        while (count < values.length && it.hasNext) {
+          values(count) = transformElement(it.next())
+          count += 1
+        }
+        new IndexedRow[V](keys, values, count)
+      }
+
+      private def combineUsingPlaceholder(elem: immutable.Seq[ByteString]): IndexedRow[V] = {
+        val count = math.max(keys.length, elem.size)
+        val values = new Array[Any](count)
+        val it = elem.iterator
+        var index = 0
+        while (it.hasNext) {
+          values(index) = transformElement(it.next())
+          index += 1
         }
-        .zipWithIndex
-        .map {
-          case (content, index) =>
-            val (key, value) = content
-            (s"$key$index", value)
+        val placeholder = customFieldValuePlaceholder.getOrElse(fieldValuePlaceholder)
+        while (index < count) {
+          values(index) = placeholder
+          index += 1
         }
-    val contentWithPredefinedHeaders =
-      combined
-        .filterNot {
-          case (key, _) =>
-            filtering(key)
+        if ((combinedKeys eq null) || combinedKeys.length != count) combinedKeys = combineKeys(count)
+        new IndexedRow[V](combinedKeys, values, count)
+      }
+
+      /**
+       * Names the fields beyond the header with the header placeholder; all keys matching the placeholder
+       * get their index among them appended.
+       */
+      private def combineKeys(count: Int): RowKeys = {
+        var missing = 0
+        val names = Array.tabulate(count) { i =>
+          val key = if (i < keys.length) keys.names(i) else missingHeader
+          if (isMissingHeader(key)) {
+            missing += 1
+            s"$key${missing - 1}"
+          } else key
         }
-    val all = contentWithPredefinedHeaders ++ missingHeadersContent
-    all.toMap
-  }
+        new RowKeys(names)
+      }
+    }
 }
 
 /**
@@ -123,7 +139,7 @@ import scala.collection.immutable
 
   override val fieldValuePlaceholder: ByteString = ByteString("")
 
-  override protected def transformElements(elements: immutable.Seq[ByteString]): immutable.Seq[ByteString] = elements
+  override protected def transformElement(element: ByteString): ByteString = element
 
 }
 
@@ -140,6 +156,6 @@ import scala.collection.immutable
 
   override val fieldValuePlaceholder: String = ""
 
-  override protected def transformElements(elements: immutable.Seq[ByteString]): immutable.Seq[String] =
-    elements.map(_.decodeString(charset))
+  override protected def transformElement(element: ByteString): String =
+    element.decodeString(charset)
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import java.nio.charset.Charset
+import java.{ util => ju }
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.connectors.csv.{ CsvColumn, CsvRecord }
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.util.ByteString
+import pekko.util.ccompat.JavaConverters._
+
+import scala.collection.immutable
+
+/**
+ * Internal API: Decodes the fields of incoming CSV lines as described by `columns` into a [[CsvRecord]]
+ * and passes that to the row binder.
+ *
+ * Column names are resolved against the header line once, so that decoding a line only needs a lookup
+ * from field index to column position.
+ *
+ * @param columns columns to decode, their order defines the positions in [[CsvRecord]]
+ * @param headerLine If true, the first stream element is read as header line and not passed on
+ * @param charset Character set used to convert the header line ByteString to String
+ */
+@InternalApi private[csv] abstract class CsvToTypedStageBase[E, T](columns: immutable.Seq[CsvColumn[_]],
+    headerLine: Boolean,
+    charset: Charset)
+    extends GraphStage[FlowShape[E, T]] {
+
+  if (!headerLine) require(columns.forall(_.name.isEmpty), "columns may only be referenced by name with a header line")
+
+  override protected def initialAttributes: Attributes = Attributes.name("CsvToTyped")
+
+  private val in = Inlet[E]("CsvToTyped.in")
+  private val out = Outlet[T]("CsvToTyped.out")
+  override val shape = FlowShape.of(in, out)
+
+  protected def fields(elem: E): Iterator[ByteString]
+
+  protected def bind(record: CsvRecord): T
+
+  /**
+   * Position in [[CsvRecord]] for each field index, or -1 for fields which are not decoded.
+   */
+  private def positions(header: immutable.Seq[String]): Array[Int] = {
+    val indices = columns.map { column =>
+      column.name match {
+        case Some(name) =>
+          val index = header.indexOf(name)
+          require(index >= 0, s"$column not found in header line")
+          index
+        case None => column.index
+      }
+    }
+    require(indices.distinct.size == indices.size, "each field may only be decoded by one column")
+    val positions = Array.fill(if (indices.isEmpty) 0 else indices.max + 1)(-1)
+    indices.zipWithIndex.foreach {
+      case (index, position) => positions(index) = position
+    }
+    positions
+  }
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val decoders: Array[CsvColumn[_]] = columns.toArray
+      private[this] val record = new CsvRecord(decoders.length)
+      private[this] var fieldPositions: Array[Int] = if (headerLine) null else positions(Nil)
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        if (fieldPositions eq null) {
+          fieldPositions = positions(fields(elem).map(_.decodeString(charset)).toList)
+          pull(in)
+        } else {
+          decode(elem)
+          push(out, bind(record))
+        }
+      }
+
+      override def onPull(): Unit = pull(in)
+
+      private def decode(elem: E): Unit = {
+        var position = 0
+        while (position < decoders.length) {
+          record.setEmpty(position, decoders(position).emptyValue)
+          position += 1
+        }
+        val it = fields(elem)
+        var index = 0
+        while (index < fieldPositions.length && it.hasNext) {
+          val field = it.next()
+          val position = fieldPositions(index)
+          if (position >= 0 && field.nonEmpty) {
+            record.empty(position) = false
+            decoders(position).decodeInto(field, record, position)
+          }
+          index += 1
+        }
+      }
+    }
+}
+
+/**
+ * Internal API
+ */
+@InternalApi private[csv] class CsvToTypedStage[T](columns: immutable.Seq[CsvColumn[_]],
+    headerLine: Boolean,
+    charset: Charset,
+    binder: CsvRecord => T)
+    extends CsvToTypedStageBase[immutable.Seq[ByteString], T](columns, headerLine, charset) {
+
+  override protected def fields(elem: immutable.Seq[ByteString]): Iterator[ByteString] = elem.iterator
+
+  override protected def bind(record: CsvRecord): T = binder(record)
+}
+
+/**
+ * Internal Java API
+ */
+@InternalApi private[csv] class CsvToTypedJavaStage[T](columns: ju.List[CsvColumn[_]],
+    headerLine: Boolean,
+    charset: Charset,
+    binder: ju.function.Function[CsvRecord, T])
+    extends CsvToTypedStageBase[ju.Collection[ByteString], T](columns.asScala.toList, headerLine, charset) {
+
+  override protected def fields(elem: ju.Collection[ByteString]): Iterator[ByteString] = elem.iterator().asScala
+
+  override protected def bind(record: CsvRecord): T = binder.apply(record)
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import java.time.LocalDate
+import java.time.format.DateTimeParseException
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Parses numbers and ISO dates straight from ASCII field bytes, without decoding them into a `String` first.
+ */
+@InternalApi private[csv] object FieldDecoding {
+
+  /**
+   * Powers of ten which are exactly representable as `Double`.
+   */
+  private val ExactPowersOfTen: Array[Double] = Array.iterate(1.0, 23)(_ * 10)
+
+  /**
+   * Mantissas with up to 15 digits are below 2^53 and converted to `Double` exactly.
+   */
+  private final val MaxExactDigits = 15
+
+  def parseInt(field: ByteString): Int = {
+    val value = parseLong(field)
+    if (value < Int.MinValue || value > Int.MaxValue) throw numberFormat(field)
+    value.toInt
+  }
+
+  /**
+   * Accepts what `java.lang.Long.parseLong` accepts for ASCII input.
+   */
+  def parseLong(field: ByteString): Long = {
+    val length = field.length
+    if (length == 0) throw numberFormat(field)
+    val first = field(0)
+    val negative = first == '-'
+    var i = if (negative || first == '+') 1 else 0
+    if (i == length) throw numberFormat(field)
+    // accumulate negatively to be able to represent Long.MinValue
+    val limit = if (negative) Long.MinValue else -Long.MaxValue
+    val multiplyMin = limit / 10
+    var result = 0L
+    while (i < length) {
+      val digit = field(i) - '0'
+      if (digit < 0 || digit > 9 || result < multiplyMin) throw numberFormat(field)
+      result *= 10
+      if (result < limit + digit) throw numberFormat(field)
+      result -= digit
+      i += 1
+    }
+    if (negative) result else -result
+  }
+
+  /**
+   * Plain decimals with up to 15 digits are converted with a single, correctly rounded division.
+   * Everything else (exponents, longer mantissas, special values) is handed to `java.lang.Double.parseDouble`.
+   */
+  def parseDouble(field: ByteString): Double = {
+    val length = field.length
+    var i = 0
+    val negative = length > 0 && field(0) == '-'
+    if (negative || (length > 0 && field(0) == '+')) i = 1
+    var mantissa = 0L
+    var digits = 0
+    var fractionDigits = 0
+    var dot = false
+    var plain = true
+    while (plain && i < length) {
+      val b = field(i)
+      if (b >= '0' && b <= '9') {
+        mantissa = mantissa * 10 + (b - '0')
+        digits += 1
+        if (dot) fractionDigits += 1
+      } else if (b == '.' && !dot) dot = true
+      else plain = false
+      i += 1
+    }
+    if (plain && digits > 0 && digits <= MaxExactDigits) {
+      val value = mantissa.toDouble / ExactPowersOfTen(fractionDigits)
+      if (negative) -value else value
+    } else java.lang.Double.parseDouble(field.utf8String)
+  }
+
+  def parseBigDecimal(field: ByteString): java.math.BigDecimal = {
+    val length = field.length
+    val chars = new Array[Char](length)
+    var i = 0
+    while (i < length) {
+      chars(i) = (field(i) & 0xFF).toChar
+      i += 1
+    }
+    new java.math.BigDecimal(chars, 0, length)
+  }
+
+  /**
+   * Parses ISO local dates (`yyyy-MM-dd`).
+   */
+  def parseIsoLocalDate(field: ByteString): LocalDate = {
+    if (field.length != 10 || field(4) != '-' || field(7) != '-') throw dateParse(field, 0)
+    LocalDate.of(digits(field, 0, 4), digits(field, 5, 7), digits(field, 8, 10))
+  }
+
+  private def digits(field: ByteString, from: Int, until: Int): Int = {
+    var value = 0
+    var i = from
+    while (i < until) {
+      val digit = field(i) - '0'
+      if (digit < 0 || digit > 9) throw dateParse(field, i)
+      value = value * 10 + digit
+      i += 1
+    }
+    value
+  }
+
+  private def dateParse(field: ByteString, index: Int) = {
+    val text = field.utf8String
+    new DateTimeParseException(s"Text '$text' could not be parsed at index $index", text, index)
+  }
+
+  private def numberFormat(field: ByteString) =
+    new NumberFormatException(s"""For input string: "${field.utf8String}"""")
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import java.{ util => ju }
+
+import org.apache.pekko.annotation.InternalApi
+
+/**
+ * INTERNAL API
+ *
+ * Index from column name to field position, built once per header and shared by all
+ * [[org.apache.pekko.stream.connectors.csv.IndexedRow]]s of a stream.
+ *
+ * Rows may contain fewer fields than there are names. If a name occurs more than once,
+ * the last of its positions within a row's fields is used, as when zipping into a map.
+ */
+@InternalApi private[csv] final class RowKeys(private[csv] val names: Array[String]) {
+
+  private[this] val lastIndex = new ju.HashMap[String, Integer]()
+
+  /** Previous position with the same name, or -1. */
+  private[this] val previous = new Array[Int](names.length)
+
+  /** Next position with the same name, or `Int.MaxValue`. */
+  private[this] val next = Array.fill(names.length)(Int.MaxValue)
+
+  private[this] val distinctNames: Int = {
+    var i = 0
+    while (i < names.length) {
+      val prev = lastIndex.put(names(i), i)
+      if (prev eq null) previous(i) = -1
+      else {
+        previous(i) = prev
+        next(prev) = i
+      }
+      i += 1
+    }
+    lastIndex.size()
+  }
+
+  def length: Int = names.length
+
+  def indexOf(name: String, fieldCount: Int): Int = {
+    val last = lastIndex.get(name)
+    if (last eq null) -1
+    else {
+      var i: Int = last
+      while (i >= fieldCount) i = previous(i)
+      i
+    }
+  }
+
+  /**
+   * Whether the position is not shadowed by a later position of the same name.
+   */
+  def isVisible(index: Int, fieldCount: Int): Boolean = next(index) >= fieldCount
+
+  def size(fieldCount: Int): Int =
+    if (fieldCount >= names.length) distinctNames
+    else {
+      var count = 0
+      var i = 0
+      while (i < fieldCount) {
+        if (isVisible(i, fieldCount)) count += 1
+        i += 1
+      }
+      count
+    }
+
+  /**
+   * Keys for rows of `count` fields, naming the fields beyond the header `placeholder` followed by their
+   * index among them.
+   */
+  def padded(count: Int, placeholder: String): RowKeys =
+    if (count <= names.length) this
+    else new RowKeys(Array.tabulate(count)(i => if (i < names.length) names(i) else placeholder + (i - names.length)))
+}
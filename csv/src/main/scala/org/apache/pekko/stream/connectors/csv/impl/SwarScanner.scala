@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.impl
+
+import java.nio.ByteBuffer
+
+import org.apache.pekko.annotation.InternalApi
+
+/**
+ * INTERNAL API
+ *
+ * SIMD-within-a-register search for the first occurrence of any of four byte values.
+ *
+ * Reads eight bytes at a time as a `Long` and flags matching bytes with branch-free arithmetic,
+ * so long runs of plain field content are skipped without looking at every byte individually.
+ */
+@InternalApi private[csv] object SwarScanner {
+
+  private final val Ones = 0x0101010101010101L
+  private final val Lows = 0x7F7F7F7F7F7F7F7FL
+
+  /**
+   * Repeats `b` in all eight bytes of a `Long`, as expected by [[indexOfAny]].
+   */
+  def broadcast(b: Byte): Long = (b & 0xFFL) * Ones
+
+  /**
+   * Sets the high bit of every byte in `word` which is zero, all other bits are cleared.
+   * Unlike the well-known `(x - 0x01..) & ~x & 0x80..` variant this yields no false positives.
+   */
+  @inline private def zeroBytes(word: Long): Long = {
+    val t = (word & Lows) + Lows
+    ~(t | word | Lows)
+  }
+
+  /**
+   * Index of the first byte within `[from, until)` of `buf` equal to any of the broadcast patterns,
+   * or `until` if there is none.
+   *
+   * `buf` must use little-endian byte order so that the lowest flagged byte in a word is the first one in memory.
+   */
+  def indexOfAny(buf: ByteBuffer, from: Int, until: Int, a: Long, b: Long, c: Long, d: Long): Int = {
+    var i = from
+    while (i + 8 <= until) {
+      val word = buf.getLong(i)
+      val found = zeroBytes(word ^ a) | zeroBytes(word ^ b) | zeroBytes(word ^ c) | zeroBytes(word ^ d)
+      if (found != 0L) return i + (java.lang.Long.numberOfTrailingZeros(found) >>> 3)
+      i += 8
+    }
+    while (i < until) {
+      val byte = buf.get(i) & 0xFFL
+      if (byte == (a & 0xFFL) || byte == (b & 0xFFL) || byte == (c & 0xFFL) || byte == (d & 0xFFL)) return i
+      i += 1
+    }
+    until
+  }
+}
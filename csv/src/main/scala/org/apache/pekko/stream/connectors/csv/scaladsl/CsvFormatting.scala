@@ -17,7 +17,7 @@ import java.nio.charset.{ Charset, StandardCharsets }
 
 import org.apache.pekko
 import pekko.NotUsed
-import pekko.stream.connectors.csv.impl.CsvFormatter
+import pekko.stream.connectors.csv.impl.{ CsvFormatter, CsvFormattingBatchedStage }
 import pekko.stream.scaladsl.{ Flow, Source }
 import pekko.util.ByteString
 
@@ -60,4 +60,31 @@ object CsvFormatting {
     }
 
   }
+
+  /**
+   * Create a Flow for converting iterables to ByteString which collects the formatted rows into chunks
+   * of about `targetChunkSize` bytes instead of emitting one ByteString per row.
+   *
+   * Fields of type `Int`, `Long`, `Short`, `Byte`, `Double`, `Float`, `BigDecimal` and `BigInt` are
+   * written without searching for characters requiring quotes; all other fields are written via `toString`.
+   *
+   * @param targetChunkSize A chunk is emitted once it reaches this size, defaults to 64 KiB
+   * @param endOfLine Line ending (default CR, LF)
+   * @param quotingStyle Quote all fields, or only fields requiring quotes (default)
+   * @param charset Character set, defaults to UTF-8
+   * @param byteOrderMark Certain CSV readers (namely Microsoft Excel) require a Byte Order mark, defaults to None
+   */
+  def formatBatched[T <: immutable.Iterable[Any]](
+      targetChunkSize: Int = 64 * 1024,
+      delimiter: Char = Comma,
+      quoteChar: Char = DoubleQuote,
+      escapeChar: Char = Backslash,
+      endOfLine: String = "\r\n",
+      quotingStyle: CsvQuotingStyle = CsvQuotingStyle.Required,
+      charset: Charset = StandardCharsets.UTF_8,
+      byteOrderMark: Option[ByteString] = None): Flow[T, ByteString, NotUsed] = {
+    val formatter =
+      new CsvFormatter(delimiter, quoteChar, escapeChar, endOfLine, quotingStyle, charset)
+    Flow.fromGraph(new CsvFormattingBatchedStage[T](formatter, targetChunkSize, byteOrderMark))
+  }
 }
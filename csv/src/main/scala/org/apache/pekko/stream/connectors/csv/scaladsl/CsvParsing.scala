@@ -13,12 +13,24 @@
 
 package org.apache.pekko.stream.connectors.csv.scaladsl
 
+import java.nio.file.Path
+
 import org.apache.pekko
 import pekko.NotUsed
-import pekko.stream.connectors.csv.impl.CsvParsingStage
-import pekko.stream.scaladsl.Flow
+import pekko.stream.connectors.csv.{ CsvDialect, CsvLine, CsvRows }
+import pekko.stream.connectors.csv.impl.{
+  CsvAutoParsingStage,
+  CsvColumnarParsingStage,
+  CsvMappedFile,
+  CsvParallelParsing,
+  CsvParsingStage,
+  CsvParsingWithOffsetsStage
+}
+import pekko.stream.scaladsl.{ Flow, Source }
 import pekko.util.ByteString
 
+import scala.concurrent.Future
+
 object CsvParsing {
 
   val Backslash: Byte = '\\'
@@ -28,6 +40,7 @@ object CsvParsing {
   val Tab: Byte = '\t'
   val DoubleQuote: Byte = '"'
   val maximumLineLengthDefault: Int = 10 * 1024
+  val sampleBytesDefault: Int = 64 * 1024
 
   /**
    * Creates CSV parsing flow that reads CSV lines from incoming
@@ -38,4 +51,107 @@ object CsvParsing {
       escapeChar: Byte = Backslash,
       maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, List[ByteString], NotUsed] =
     Flow.fromGraph(new CsvParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength))
+
+  /**
+   * Creates CSV parsing flow that reads CSV lines from incoming [[pekko.util.ByteString]] objects as [[lineScanner]]
+   * does, and emits each with its byte offset and line number.
+   *
+   * To resume parsing after a line was processed, read the input starting at the line's `nextByteOffset`
+   * (e.g. with a ranged read) and pass that offset as `startOffset` and the following line number as
+   * `startLineNumber`. Offsets and line numbers are then reported relative to the whole input.
+   *
+   * @param startOffset offset within the whole input of the first incoming byte, defaults to 0
+   * @param startLineNumber number of the first incoming line, defaults to 1
+   */
+  def lineScannerWithOffsets(delimiter: Byte = Comma,
+      quoteChar: Byte = DoubleQuote,
+      escapeChar: Byte = Backslash,
+      maximumLineLength: Int = maximumLineLengthDefault,
+      startOffset: Long = 0L,
+      startLineNumber: Long = 1L): Flow[ByteString, CsvLine, NotUsed] =
+    Flow.fromGraph(
+      new CsvParsingWithOffsetsStage(delimiter, quoteChar, escapeChar, maximumLineLength, startOffset,
+        startLineNumber))
+
+  /**
+   * Creates CSV parsing flow that reads CSV lines from incoming
+   * [[pekko.util.ByteString]] objects, just as [[lineScanner]] does.
+   *
+   * Unquoted and quoted field content is skipped over eight bytes at a time while looking for the next
+   * delimiter, quote, escape or line end, so this flow is considerably faster for long fields.
+   * It emits exactly the same lines as [[lineScanner]].
+   */
+  def fastLineScanner(delimiter: Byte = Comma,
+      quoteChar: Byte = DoubleQuote,
+      escapeChar: Byte = Backslash,
+      maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, List[ByteString], NotUsed] =
+    Flow.fromGraph(new CsvParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength, fastScan = true))
+
+  /**
+   * Creates CSV parsing flow that emits all lines completed by an incoming [[pekko.util.ByteString]]
+   * as one [[CsvRows]] batch.
+   *
+   * Fields are read by row and column index from the batch, which avoids allocating a list and a
+   * [[pekko.util.ByteString]] per field as [[lineScanner]] does.
+   */
+  def columnarScanner(delimiter: Byte = Comma,
+      quoteChar: Byte = DoubleQuote,
+      escapeChar: Byte = Backslash,
+      maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, CsvRows, NotUsed] =
+    Flow.fromGraph(new CsvColumnarParsingStage(delimiter, quoteChar, escapeChar, maximumLineLength))
+
+  /**
+   * Creates a source which reads CSV lines from a local file, parsing separate ranges of the file on up to
+   * `parallelism` threads of the blocking IO dispatcher. Lines are emitted in file order.
+   *
+   * Ranges are assumed to start after a line feed. Ranges starting within a quoted field spanning several lines
+   * are detected once the preceding range is parsed and are then parsed again from the correct position.
+   * A UTF-8 Byte Order Mark is only accepted at the start of the file.
+   */
+  def parallelScanner(path: Path,
+      parallelism: Int,
+      delimiter: Byte = Comma,
+      quoteChar: Byte = DoubleQuote,
+      escapeChar: Byte = Backslash,
+      maximumLineLength: Int = maximumLineLengthDefault): Source[List[ByteString], NotUsed] =
+    CsvParallelParsing.source(path,
+      parallelism,
+      CsvParallelParsing.DefaultRangeSize,
+      delimiter,
+      quoteChar,
+      escapeChar,
+      maximumLineLength)
+
+  /**
+   * Creates CSV parsing flow that detects the delimiter, quote and escape characters from the first
+   * `sampleBytes` bytes of the stream (or the whole stream, if shorter) and then reads CSV lines as
+   * [[lineScanner]] does with those characters. The sampled bytes are parsed as well, they are not read twice.
+   *
+   * Delimiters are detected among comma, semicolon, tab, pipe and colon; quote characters among double and single
+   * quote. The detected dialect, including line ending and Byte Order Mark, is the materialized value.
+   * A UTF-8 Byte Order Mark is skipped, other encodings need to be transcoded to UTF-8 beforehand.
+   */
+  def autoScanner(sampleBytes: Int = sampleBytesDefault,
+      maximumLineLength: Int = maximumLineLengthDefault): Flow[ByteString, List[ByteString], Future[CsvDialect]] =
+    Flow.fromGraph(new CsvAutoParsingStage(sampleBytes, maximumLineLength))
+
+  /**
+   * Creates a source which reads CSV lines from a local file through memory-mapped windows, avoiding the
+   * intermediate buffers of `FileIO.fromPath`. Files larger than 2 GiB are mapped window by window.
+   *
+   * Bytes are copied once from the mapping into the chunks parsed, fields are slices of these chunks unless
+   * they contain escapes. Field content is skipped over as with [[fastLineScanner]].
+   */
+  def fromMappedFile(path: Path,
+      delimiter: Byte = Comma,
+      quoteChar: Byte = DoubleQuote,
+      escapeChar: Byte = Backslash,
+      maximumLineLength: Int = maximumLineLengthDefault): Source[List[ByteString], NotUsed] =
+    CsvMappedFile.source(path,
+      CsvMappedFile.DefaultWindowSize,
+      CsvMappedFile.DefaultChunkSize,
+      delimiter,
+      quoteChar,
+      escapeChar,
+      maximumLineLength)
 }
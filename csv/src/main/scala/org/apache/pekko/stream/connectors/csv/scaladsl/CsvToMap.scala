@@ -21,6 +21,11 @@ import pekko.stream.connectors.csv.impl.{ CsvToMapAsStringsStage, CsvToMapStage
 import pekko.stream.scaladsl.Flow
 import pekko.util.ByteString
 
+/**
+ * Provides flows converting CSV lines into maps from column name to value.
+ *
+ * The emitted maps are [[pekko.stream.connectors.csv.IndexedRow]]s which share the column names of the header.
+ */
 object CsvToMap {
 
   /**
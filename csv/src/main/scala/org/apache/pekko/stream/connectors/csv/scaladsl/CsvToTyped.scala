@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv.scaladsl
+
+import java.nio.charset.{ Charset, StandardCharsets }
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.stream.connectors.csv.{ CsvColumn, CsvRecord }
+import pekko.stream.connectors.csv.impl.CsvToTypedStage
+import pekko.stream.scaladsl.Flow
+import pekko.util.ByteString
+
+import scala.collection.immutable
+
+object CsvToTyped {
+
+  /**
+   * A flow decoding the given columns of incoming [[scala.List]] of [[pekko.util.ByteString]] into a
+   * [[pekko.stream.connectors.csv.CsvRecord]] and emitting what `binder` creates from it.
+   * The stream's first element is read as header line to resolve columns referenced by name.
+   *
+   * Numbers and ISO dates are parsed straight from the field bytes.
+   *
+   * @param columns the columns to decode, their order defines the positions in the record
+   * @param charset the charset to decode the header line, defaults to UTF-8
+   * @param binder creates an element from the decoded values, must not retain the record
+   */
+  def fromHeaderLine[T](columns: immutable.Seq[CsvColumn[_]], charset: Charset = StandardCharsets.UTF_8)(
+      binder: CsvRecord => T): Flow[List[ByteString], T, NotUsed] =
+    Flow.fromGraph(new CsvToTypedStage(columns, headerLine = true, charset, binder))
+
+  /**
+   * A flow decoding the given columns of incoming [[scala.List]] of [[pekko.util.ByteString]] into a
+   * [[pekko.stream.connectors.csv.CsvRecord]] and emitting what `binder` creates from it.
+   * All columns must be referenced by index.
+   *
+   * @param columns the columns to decode, their order defines the positions in the record
+   * @param binder creates an element from the decoded values, must not retain the record
+   */
+  def withoutHeaderLine[T](columns: immutable.Seq[CsvColumn[_]])(
+      binder: CsvRecord => T): Flow[List[ByteString], T, NotUsed] =
+    Flow.fromGraph(new CsvToTypedStage(columns, headerLine = false, StandardCharsets.UTF_8, binder))
+}
@@ -85,5 +85,35 @@ class CsvFormattingSpec extends CsvSpec {
         List(ByteOrderMark.UTF_8, ByteString("eins,zwei,drei\r\n"), ByteString("uno,dos,tres\r\n")))
     }
 
+    "format rows in batches" in assertAllStagesStopped {
+      // #formatting-batched
+      import org.apache.pekko.stream.connectors.csv.scaladsl.CsvFormatting
+
+      // #formatting-batched
+      val fut =
+        // format: off
+      // #formatting-batched
+      Source(1 to 3)
+        .map(i => List(s"row $i", i, i * 1.5))
+        .via(CsvFormatting.formatBatched())
+        .runWith(Sink.seq)
+      // #formatting-batched
+      // format: on
+      fut.futureValue should be(List(ByteString("row 1,1,1.5\r\nrow 2,2,3.0\r\nrow 3,3,4.5\r\n")))
+    }
+
+    "emit chunks of the target size in batched formatting" in assertAllStagesStopped {
+      import org.apache.pekko.stream.connectors.csv.scaladsl.{ ByteOrderMark, CsvFormatting }
+      val rows = (1 to 1000).map(i => List(s"value $i", i.toString, "a \"quoted\" field"))
+      val expected = Source(rows).via(CsvFormatting.format()).runFold(ByteString.empty)(_ ++ _)
+      val chunks = Source(rows)
+        .via(CsvFormatting.formatBatched(targetChunkSize = 1024, byteOrderMark = Some(ByteOrderMark.UTF_8)))
+        .runWith(Sink.seq)
+        .futureValue
+      chunks.size should be > 1
+      chunks.init.foreach(_.length should be >= 1024)
+      chunks.reduce(_ ++ _) should be(ByteOrderMark.UTF_8 ++ expected.futureValue)
+    }
+
   }
 }
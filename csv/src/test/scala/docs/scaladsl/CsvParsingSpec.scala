@@ -129,6 +129,36 @@ class CsvParsingSpec extends CsvSpec {
       res(1) should be(List("uno", "dos", "tres"))
     }
 
+    "parse chunks into columnar batches" in assertAllStagesStopped {
+      val input = Seq(
+        "eins,zw",
+        "ei,\"dr\"\"ei\"\nuno",
+        ",dos,tres\n1,,3").map(ByteString(_))
+      val fut = Source
+        .apply(input)
+        .via(CsvParsing.columnarScanner())
+        .mapConcat(rows => (0 until rows.rowCount).map(rows.row(_).map(_.utf8String)).toList)
+        .runWith(Sink.seq)
+      fut.futureValue should be(Seq(List("eins", "zwei", "dr\"ei"), List("uno", "dos", "tres"), List("1", "", "3")))
+    }
+
+    "give access to fields by index in columnar batches" in assertAllStagesStopped {
+      val fut = Source
+        .single(ByteString("eins,zwei,drei\nuno,dos\n"))
+        .via(CsvParsing.columnarScanner())
+        .runWith(Sink.head)
+      val rows = fut.futureValue
+      rows.rowCount should be(2)
+      rows.fieldCount(0) should be(3)
+      rows.fieldCount(1) should be(2)
+      rows.fieldUtf8String(0, 2) should be("drei")
+      rows.fieldLength(1, 1) should be(3)
+      rows.byteAt(1, 0, 0) should be('u'.toByte)
+      rows.field(1, 1) should be(ByteString("dos"))
+      rows.data should be(ByteString("einszweidreiunodos"))
+      an[IndexOutOfBoundsException] should be thrownBy rows.field(1, 2)
+    }
+
     "emit completion even without new line at end" in assertAllStagesStopped {
       val (source, sink) = TestSource
         .probe[ByteString]
@@ -244,5 +274,64 @@ class CsvParsingSpec extends CsvSpec {
           "Description" -> "",
           "Price" -> "5000.00"))
     }
+
+    "detect the dialect with the auto scanner" in assertAllStagesStopped {
+      // #auto-scanner
+      import org.apache.pekko.stream.connectors.csv.CsvDialect
+      import org.apache.pekko.stream.connectors.csv.scaladsl.CsvParsing
+
+      // #auto-scanner
+      val (dialect, lines) =
+        // format: off
+      // #auto-scanner
+      Source
+        .single(ByteString("eins;zwei;drei\r\n'4;5';6;7\r\n8;9;10\r\n"))
+        .viaMat(CsvParsing.autoScanner())(Keep.right)
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+      // #auto-scanner
+      // format: on
+      val detected: CsvDialect = dialect.futureValue
+      detected.delimiter should be(';'.toByte)
+      detected.quoteChar should be('\''.toByte)
+      detected.lineEnding should be("\r\n")
+      lines.futureValue.map(_.map(_.utf8String)) should be(
+        Seq(List("eins", "zwei", "drei"), List("4;5", "6", "7"), List("8", "9", "10")))
+    }
+
+    "parse the sample with the auto scanner when the stream is shorter" in assertAllStagesStopped {
+      val (dialect, lines) = Source(List(ByteString("a\tb\n"), ByteString("1\t2")))
+        .viaMat(CsvParsing.autoScanner(sampleBytes = 1024))(Keep.right)
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+      dialect.futureValue.delimiter should be('\t'.toByte)
+      lines.futureValue.map(_.map(_.utf8String)) should be(Seq(List("a", "b"), List("1", "2")))
+    }
+
+    "emit lines with offsets and resume from an offset" in assertAllStagesStopped {
+      val file = java.nio.file.Files.createTempFile("offsets", ".csv")
+      try {
+        java.nio.file.Files.write(file, "a,b\r\n\"x\ny\",2\n3,4\n5,6".getBytes("UTF-8"))
+        val lines = FileIO
+          .fromPath(file, chunkSize = 4)
+          .via(CsvParsing.lineScannerWithOffsets())
+          .runWith(Sink.seq)
+          .futureValue
+        lines.map(l => (l.byteOffset, l.nextByteOffset, l.lineNumber)) should be(
+          Seq((0L, 5L, 1L), (5L, 13L, 2L), (13L, 17L, 3L), (17L, 20L, 4L)))
+        lines(1).fields.map(_.utf8String) should be(List("x\ny", "2"))
+
+        // #resume
+        val checkpoint = lines(1)
+        val resumed =
+          FileIO
+            .fromPath(file, chunkSize = 8192, startPosition = checkpoint.nextByteOffset)
+            .via(CsvParsing.lineScannerWithOffsets(startOffset = checkpoint.nextByteOffset,
+              startLineNumber = checkpoint.lineNumber + 1))
+            .runWith(Sink.seq)
+        // #resume
+        resumed.futureValue should be(lines.drop(2))
+      } finally java.nio.file.Files.delete(file)
+    }
   }
 }
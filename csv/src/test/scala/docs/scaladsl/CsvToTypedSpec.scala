@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package docs.scaladsl
+
+import java.time.LocalDate
+
+import org.apache.pekko
+import pekko.stream.connectors.csv.scaladsl.{ CsvParsing, CsvToTyped }
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.stream.testkit.scaladsl.StreamTestKit.assertAllStagesStopped
+import pekko.util.ByteString
+
+class CsvToTypedSpec extends CsvSpec {
+
+  // #typed
+  final case class Trade(id: Long, symbol: String, price: BigDecimal, quantity: Int, day: LocalDate)
+
+  // #typed
+
+  "CSV to typed" should {
+    "decode columns by name into records" in assertAllStagesStopped {
+      // #typed
+      import org.apache.pekko.stream.connectors.csv.CsvColumn
+      import org.apache.pekko.stream.connectors.csv.scaladsl.{ CsvParsing, CsvToTyped }
+
+      val columns = List(
+        CsvColumn.ofLong("id"),
+        CsvColumn.ofString("symbol"),
+        CsvColumn.ofDecimal("price"),
+        CsvColumn.ofInt("quantity"),
+        CsvColumn.ofDate("day"))
+
+      // #typed
+      val future =
+        // format: off
+      // #typed
+      Source
+        .single(ByteString("""day,id,symbol,quantity,price
+                             |2023-01-02,1,ABC,100,12.50
+                             |2023-01-03,2,"X,Y",-5,0.001
+                             |""".stripMargin))
+        .via(CsvParsing.lineScanner())
+        .via(CsvToTyped.fromHeaderLine(columns) { record =>
+          Trade(record.getLong(0), record.getString(1), BigDecimal(record.getDecimal(2)), record.getInt(3),
+            record.getDate(4))
+        })
+        .runWith(Sink.seq)
+      // #typed
+      // format: on
+      val result = future.futureValue
+      // #typed
+
+      result should be(
+        Seq(
+          Trade(1L, "ABC", BigDecimal("12.50"), 100, LocalDate.of(2023, 1, 2)),
+          Trade(2L, "X,Y", BigDecimal("0.001"), -5, LocalDate.of(2023, 1, 3))))
+      // #typed
+    }
+
+    "decode columns by index without header line" in assertAllStagesStopped {
+      import org.apache.pekko.stream.connectors.csv.CsvColumn
+      val future = Source
+        .single(ByteString("a,1.5,7\nb,,\n"))
+        .via(CsvParsing.lineScanner())
+        .via(CsvToTyped.withoutHeaderLine(List(CsvColumn.ofDouble(1), CsvColumn.ofString(0), CsvColumn.ofInt(2))) {
+          record =>
+            (record.getString(1), record.getDouble(0), record.isEmpty(0), record.isEmpty(2))
+        })
+        .runWith(Sink.seq)
+      future.futureValue should be(Seq(("a", 1.5, false, false), ("b", 0.0, true, true)))
+    }
+
+    "fail for fields which can't be decoded" in assertAllStagesStopped {
+      import org.apache.pekko.stream.connectors.csv.CsvColumn
+      val future = Source
+        .single(ByteString("id\nnot a number\n"))
+        .via(CsvParsing.lineScanner())
+        .via(CsvToTyped.fromHeaderLine(List(CsvColumn.ofInt("id")))(_.getInt(0)))
+        .runWith(Sink.seq)
+      future.failed.futureValue shouldBe a[NumberFormatException]
+    }
+
+    "fail for columns missing from the header line" in assertAllStagesStopped {
+      import org.apache.pekko.stream.connectors.csv.CsvColumn
+      val future = Source
+        .single(ByteString("id\n1\n"))
+        .via(CsvParsing.lineScanner())
+        .via(CsvToTyped.fromHeaderLine(List(CsvColumn.ofInt("other")))(_.getInt(0)))
+        .runWith(Sink.seq)
+      future.failed.futureValue shouldBe an[IllegalArgumentException]
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import org.apache.pekko
+import pekko.stream.connectors.csv.impl.{ CsvDialectSniffer, CsvParser }
+import pekko.stream.connectors.csv.scaladsl.ByteOrderMark
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.util.ByteString
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class CsvDialectSnifferSpec extends AnyWordSpec with Matchers with LogCapturing {
+
+  private def detect(sample: String): CsvDialect = CsvDialectSniffer.detect(ByteString(sample))
+
+  "CSV dialect sniffer" should {
+    "default to comma, double quote and LF" in {
+      detect("") should be(new CsvDialect(',', '"', '"', "\n", None))
+      detect("single") should be(new CsvDialect(',', '"', '"', "\n", None))
+    }
+
+    "detect comma separated values" in {
+      val dialect = detect("a,b,c\n1,\"x; y\",3\n4,5,6\n")
+      dialect.delimiter should be(','.toByte)
+      dialect.quoteChar should be('"'.toByte)
+    }
+
+    "detect the delimiter with the most consistent count per line" in {
+      val dialect = detect("id|text|amount\n1|hello, world|3,5\n2|x|4\n3|a, b, c|7\n")
+      dialect.delimiter should be('|'.toByte)
+    }
+
+    "detect tab separated values" in {
+      detect("a\tb\tc\n1\t2\t3\n").delimiter should be('\t'.toByte)
+    }
+
+    "ignore delimiters within quotes" in {
+      val dialect = detect("a;b\n\"1,2,3\";4\n\"5,6,7\";8\n")
+      dialect.delimiter should be(';'.toByte)
+    }
+
+    "ignore an incomplete last line" in {
+      detect("a;b;c\n1;2;3\n4,5,6,7,8,9,10,11").delimiter should be(';'.toByte)
+    }
+
+    "detect single quotes" in {
+      detect("a,b\n'x,y',1\n'z',2\n").quoteChar should be('\''.toByte)
+    }
+
+    "detect backslash escapes" in {
+      detect("a,b\n\"say \\\"hi\\\"\",1\n").escapeChar should be('\\'.toByte)
+      detect("a,b\n\"say \"\"hi\"\"\",1\n").escapeChar should be('"'.toByte)
+    }
+
+    "detect a dialect which keeps a stray quote within a field" in {
+      val sample = "a,b\nab\",c\n"
+      val dialect = detect(sample)
+      dialect.escapeChar should be('"'.toByte)
+
+      val parser = new CsvParser(dialect.delimiter, dialect.quoteChar, dialect.escapeChar, 1024)
+      parser.offer(ByteString(sample))
+      parser.poll(requireLineEnd = true).map(_.map(_.utf8String)) should be(Some(List("a", "b")))
+      parser.poll(requireLineEnd = true).map(_.map(_.utf8String)) should be(Some(List("ab\"", "c")))
+    }
+
+    "detect line endings" in {
+      detect("a,b\r\n1,2\r\n").lineEnding should be("\r\n")
+      detect("a,b\r1,2\r").lineEnding should be("\r")
+      detect("a,b\n\"1\r\n2\",3\n").lineEnding should be("\n")
+    }
+
+    "detect Byte Order Marks" in {
+      val dialect = CsvDialectSniffer.detect(ByteOrderMark.UTF_8 ++ ByteString("a;b\n1;2\n"))
+      dialect.byteOrderMark should be(Some(ByteOrderMark.UTF_8))
+      dialect.delimiter should be(';'.toByte)
+      CsvDialectSniffer.detect(ByteOrderMark.UTF_32_LE).byteOrderMark should be(Some(ByteOrderMark.UTF_32_LE))
+    }
+  }
+}
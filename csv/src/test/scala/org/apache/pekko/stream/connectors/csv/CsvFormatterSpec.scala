@@ -19,6 +19,7 @@ import org.apache.pekko
 import pekko.stream.connectors.csv.impl.CsvFormatter
 import pekko.stream.connectors.csv.scaladsl.CsvQuotingStyle
 import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.util.ByteString
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpec
 
@@ -102,6 +103,41 @@ class CsvFormatterSpec extends AnyWordSpec with Matchers with LogCapturing {
     }
   }
 
+  "CSV Formatter with numbers" should {
+    val formatter = new CsvFormatter(',', '\"', '\\', "\r\n", CsvQuotingStyle.Required)
+
+    "format integral numbers" in {
+      val fields = List[Any](0, -7, 42L, Long.MinValue, Int.MaxValue, 3.toShort, -1.toByte)
+      formatter.toCsv(fields).utf8String should be("0,-7,42,-9223372036854775808,2147483647,3,-1\r\n")
+    }
+
+    "format decimal numbers" in {
+      val fields = List[Any](1.5, -0.25f, 1e20, BigDecimal("12.50"), new java.math.BigDecimal("1E+3"))
+      formatter.toCsv(fields).utf8String should be("1.5,-0.25,1.0E20,12.50,1E+3\r\n")
+    }
+
+    "format numbers next to strings and nulls" in {
+      formatter.toCsv(List[Any]("a,b", 1, null, 2.5)).utf8String should be("\"a,b\",1,,2.5\r\n")
+    }
+
+    "quote numbers containing the delimiter" in {
+      val dotFormatter = new CsvFormatter('.', '\"', '\\', "\r\n", CsvQuotingStyle.Required)
+      dotFormatter.toCsv(List[Any](1, 2.5)).utf8String should be("1.\"2.5\"\r\n")
+    }
+
+    "quote numbers when quoting everything" in {
+      val alwaysFormatter = new CsvFormatter(',', '\"', '\\', "\r\n", CsvQuotingStyle.Always)
+      alwaysFormatter.toCsv(List[Any](1, 2.5)).utf8String should be("\"1\",\"2.5\"\r\n")
+    }
+
+    "append to a builder" in {
+      val builder = ByteString.newBuilder
+      formatter.appendCsv(List("ett", 2), builder)
+      formatter.appendCsv(List(3L, "fyra"), builder)
+      builder.result().utf8String should be("ett,2\r\n3,fyra\r\n")
+    }
+  }
+
   "CSV Formatter with non-standard charset" should {
     val charset = StandardCharsets.UTF_16LE
     val formatter = new CsvFormatter(';', '\"', '\\', "\r\n", CsvQuotingStyle.Required, charset)
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.nio.file.{ Files, Path }
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.connectors.csv.impl.CsvMappedFile
+import pekko.stream.connectors.csv.scaladsl.{ ByteOrderMark, CsvParsing }
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.testkit.TestKit
+import pekko.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class CsvMappedFileSpec extends AnyWordSpec with Matchers with BeforeAndAfterAll with ScalaFutures with LogCapturing {
+
+  implicit val system: ActorSystem = ActorSystem(this.getClass.getSimpleName)
+
+  override protected def afterAll(): Unit =
+    TestKit.shutdownActorSystem(system)
+
+  private val content = ByteString(
+    (1 to 50).map(i => s"""$i,"quoted, ${i * 2}\nover two lines",plain $i""").mkString("", "\n", "\n"))
+
+  private def withFile[T](bytes: ByteString)(block: Path => T): T = {
+    val file = Files.createTempFile("csv-mapped-file", ".csv")
+    try {
+      Files.write(file, bytes.toArray)
+      block(file)
+    } finally Files.delete(file)
+  }
+
+  private def expected(bytes: ByteString) =
+    Source.single(bytes).via(CsvParsing.lineScanner()).runWith(Sink.seq).futureValue
+
+  private def mapped(file: Path, windowSize: Int, chunkSize: Int) =
+    CsvMappedFile
+      .source(file, windowSize, chunkSize, CsvParsing.Comma, CsvParsing.DoubleQuote, CsvParsing.Backslash, 1024)
+      .runWith(Sink.seq)
+      .futureValue
+
+  "CSV parsing from a memory-mapped file" should {
+    "emit the same lines as lineScanner" in withFile(content) { file =>
+      CsvParsing.fromMappedFile(file).runWith(Sink.seq).futureValue should be(expected(content))
+    }
+
+    "read across window and chunk boundaries" in withFile(content) { file =>
+      val lines = expected(content)
+      mapped(file, windowSize = 7, chunkSize = 3) should be(lines)
+      mapped(file, windowSize = 100, chunkSize = 64) should be(lines)
+      mapped(file, windowSize = content.length, chunkSize = content.length) should be(lines)
+    }
+
+    "read the concatenated chunks of the file" in withFile(content) { file =>
+      val chunks = CsvMappedFile.chunks(file, windowSize = 10, chunkSize = 4).runWith(Sink.seq).futureValue
+      chunks.map(_.length).max should be(4)
+      chunks.reduce(_ ++ _) should be(content)
+    }
+
+    "skip a Byte Order Mark" in withFile(ByteOrderMark.UTF_8 ++ content) { file =>
+      CsvParsing.fromMappedFile(file).runWith(Sink.seq).futureValue should be(expected(content))
+    }
+
+    "complete for an empty file" in withFile(ByteString.empty) { file =>
+      CsvParsing.fromMappedFile(file).runWith(Sink.seq).futureValue should be(empty)
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.nio.file.{ Files, Path }
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.connectors.csv.impl.CsvParallelParsing
+import pekko.stream.connectors.csv.scaladsl.{ ByteOrderMark, CsvParsing }
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.testkit.TestKit
+import pekko.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.duration._
+
+class CsvParallelParsingSpec
+    extends AnyWordSpec
+    with Matchers
+    with BeforeAndAfterAll
+    with ScalaFutures
+    with LogCapturing {
+
+  implicit val system: ActorSystem = ActorSystem(this.getClass.getSimpleName)
+
+  override implicit val patienceConfig: PatienceConfig = PatienceConfig(10.seconds, 50.millis)
+
+  override protected def afterAll(): Unit =
+    TestKit.shutdownActorSystem(system)
+
+  private val content = ByteString(
+    (1 to 200)
+      .map {
+        case i if i % 7 == 0 => s"$i,\"quoted\nover\nseveral\nlines\",x\n"
+        case i if i % 5 == 0 => s"$i,\"with \"\"quotes\"\" and, delimiter\",y\r\n"
+        case i => s"$i,plain field,z\n"
+      }
+      .mkString)
+
+  "Parallel CSV parsing" should {
+    "emit the same lines in the same order as sequential parsing" in withFile(content) { path =>
+      val expected = sequential(content)
+      for (rangeSize <- List(1, 7, 64, 1000, 100000)) {
+        parallel(path, rangeSize) should be(expected)
+      }
+    }
+
+    "accept a final line without line end" in withFile(content ++ ByteString("last,line")) { path =>
+      parallel(path, 50).last should be(List("last", "line"))
+    }
+
+    "accept a UTF-8 Byte Order Mark at the start of the file" in withFile(ByteOrderMark.UTF_8 ++ content) { path =>
+      parallel(path, 50) should be(sequential(content))
+    }
+
+    "emit nothing for an empty file" in withFile(ByteString.empty) { path =>
+      parallel(path, 50) shouldBe empty
+    }
+
+    "split files into ranges after line feeds" in withFile(ByteString("a,b\nc,d\ne,f\n")) { path =>
+      CsvParallelParsing.ranges(path, 3).map(r => (r.start, r.end)) should be(List((0L, 4L), (4L, 8L), (8L, 12L)))
+    }
+
+    "fail for unclosed quotes" in withFile(content ++ ByteString("\"unclosed\n")) { path =>
+      val result = CsvParallelParsing
+        .source(path, 4, 50, ',', '"', '\\', CsvParsing.maximumLineLengthDefault)
+        .runWith(Sink.ignore)
+      result.failed.futureValue shouldBe a[MalformedCsvException]
+    }
+  }
+
+  private def parallel(path: Path, rangeSize: Int): Seq[List[String]] =
+    CsvParallelParsing
+      .source(path, 4, rangeSize, ',', '"', '\\', CsvParsing.maximumLineLengthDefault)
+      .map(_.map(_.utf8String))
+      .runWith(Sink.seq)
+      .futureValue
+
+  private def sequential(bytes: ByteString): Seq[List[String]] =
+    Source
+      .single(bytes)
+      .via(CsvParsing.lineScanner())
+      .map(_.map(_.utf8String))
+      .runWith(Sink.seq)
+      .futureValue
+
+  private def withFile(bytes: ByteString)(test: Path => Any): Unit = {
+    val path = Files.createTempFile("parallel", ".csv")
+    try {
+      Files.write(path, bytes.toArray)
+      test(path)
+    } finally Files.delete(path)
+  }
+}
@@ -357,6 +357,75 @@ class CsvParserSpec extends AnyWordSpec with Matchers with OptionValues with Log
     }
   }
 
+  "CSV parser with fast scanning" should {
+    val inputs = List(
+      "one,two,three\n1,2,3\n",
+      "a much longer first field,and another one of decent length\r\nsecond line,with,more,fields\r\n",
+      ",,\n\n\r\r\n,x\n",
+      "\"quoted, with delimiter\",\"and \"\"doubled\"\" quotes\",plain\n",
+      "\"multi\nline quoted field spanning\nseveral lines\",tail\n",
+      "escaped\\,delimiter,and \\\\ backslash,\"quoted \\\" escape\"\n",
+      "unterminated last line,without a line end")
+
+    "produce the same lines as the byte-wise state machine" in {
+      for (in <- inputs; chunkSize <- List(1, 3, 8, 13, 1024)) {
+        parseAll(in, chunkSize, fastScan = true) should be(parseAll(in, chunkSize, fastScan = false))
+      }
+    }
+
+    "parse fields spanning several chunks" in {
+      val field = "x" * 100
+      parseAll(s"$field,\"$field\"\n", 7, fastScan = true) should be(List(List(field, field)))
+    }
+
+    "fail on a very 'long' line at the same position" in {
+      val in = ByteString("a,b,c\n1,3,5,7,9,1\n")
+      val parser = new CsvParser(',', '"', '\\', 11, fastScan = true)
+      parser.offer(in)
+      parser.poll(requireLineEnd = true)
+      val exception = the[MalformedCsvException] thrownBy {
+        parser.poll(requireLineEnd = true)
+      }
+      exception.getMessage should be("no line end encountered within 11 bytes on line 2")
+    }
+
+    "scan plain bytes given a maximum line length close to Int.MaxValue" in {
+      // the second line starts further into the chunk than its length so far
+      val in = ByteString("first line\na much longer second field,second\n")
+      val parser = new CsvParser(',', '"', '\\', Int.MaxValue - 1, fastScan = true)
+      parser.offer(in)
+      parser.poll(requireLineEnd = true).value.map(_.utf8String) should be(List("first line"))
+      parser.poll(requireLineEnd = true).value.map(_.utf8String) should be(
+        List("a much longer second field", "second"))
+    }
+
+    "accept UTF-8 BOM" in {
+      val in = ByteOrderMark.UTF_8 ++ ByteString("one,two,three\n", StandardCharsets.UTF_8.name())
+      val parser = new CsvParser(',', '"', '\\', maximumLineLength, fastScan = true)
+      parser.offer(in)
+      parser.poll(requireLineEnd = true).value.map(_.utf8String) should be(List("one", "two", "three"))
+    }
+  }
+
+  def parseAll(in: String, chunkSize: Int, fastScan: Boolean): List[List[String]] = {
+    val parser = new CsvParser(',', '"', '\\', maximumLineLength, fastScan)
+    val lines = List.newBuilder[List[String]]
+    ByteString(in).grouped(chunkSize).foreach { chunk =>
+      parser.offer(chunk.compact)
+      var line = parser.poll(requireLineEnd = true)
+      while (line.nonEmpty) {
+        lines += line.get.map(_.utf8String)
+        line = parser.poll(requireLineEnd = true)
+      }
+    }
+    var line = parser.poll(requireLineEnd = false)
+    while (line.nonEmpty) {
+      lines += line.get.map(_.utf8String)
+      line = parser.poll(requireLineEnd = false)
+    }
+    lines.result()
+  }
+
   def expectInOut(in: String, expected: List[String]*)(implicit delimiter: Byte = ',',
       quoteChar: Byte = '"',
       escapeChar: Byte = '\\',
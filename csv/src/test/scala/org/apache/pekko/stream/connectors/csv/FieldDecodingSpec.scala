@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.time.LocalDate
+import java.time.format.DateTimeParseException
+
+import org.apache.pekko
+import pekko.stream.connectors.csv.impl.FieldDecoding
+import pekko.util.ByteString
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class FieldDecodingSpec extends AnyWordSpec with Matchers {
+
+  "Field decoding" should {
+    "parse longs just as java.lang.Long" in {
+      for (s <- List("0", "-0", "+17", "-42", "9223372036854775807", "-9223372036854775808")) {
+        FieldDecoding.parseLong(ByteString(s)) should be(java.lang.Long.parseLong(s))
+      }
+    }
+
+    "reject invalid longs" in {
+      for (s <- List("", "-", "+", "1a", " 1", "9223372036854775808", "-9223372036854775809")) {
+        a[NumberFormatException] should be thrownBy FieldDecoding.parseLong(ByteString(s))
+      }
+    }
+
+    "parse ints within range" in {
+      FieldDecoding.parseInt(ByteString("-2147483648")) should be(Int.MinValue)
+      a[NumberFormatException] should be thrownBy FieldDecoding.parseInt(ByteString("2147483648"))
+    }
+
+    "parse doubles just as java.lang.Double" in {
+      for (s <- List("0", "-0", "1.5", ".25", "3.", "-123.456", "0.1", "123456789012345", "1234567890.1234567",
+          "1e10", "-2.5E-3", "NaN", "Infinity")) {
+        val parsed = FieldDecoding.parseDouble(ByteString(s))
+        java.lang.Double.compare(parsed, java.lang.Double.parseDouble(s)) should be(0)
+      }
+      a[NumberFormatException] should be thrownBy FieldDecoding.parseDouble(ByteString("."))
+    }
+
+    "parse decimals" in {
+      FieldDecoding.parseBigDecimal(ByteString("-12.3400")) should be(new java.math.BigDecimal("-12.3400"))
+    }
+
+    "parse ISO dates" in {
+      FieldDecoding.parseIsoLocalDate(ByteString("2020-02-29")) should be(LocalDate.of(2020, 2, 29))
+      a[DateTimeParseException] should be thrownBy FieldDecoding.parseIsoLocalDate(ByteString("2020/02/29"))
+    }
+  }
+}
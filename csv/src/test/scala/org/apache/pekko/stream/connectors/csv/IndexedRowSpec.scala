@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.csv
+
+import java.{ util => ju }
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.connectors.csv.impl.RowKeys
+import pekko.stream.connectors.csv.scaladsl.{ CsvParsing, CsvToMap }
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.testkit.TestKit
+import pekko.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class IndexedRowSpec extends AnyWordSpec with Matchers with ScalaFutures with BeforeAndAfterAll with LogCapturing {
+
+  implicit val system: ActorSystem = ActorSystem("IndexedRowSpec")
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private def row(names: String*)(values: String*): IndexedRow[String] =
+    new IndexedRow[String](new RowKeys(names.toArray), values.toArray[Any], math.min(names.size, values.size))
+
+  "IndexedRow" should {
+    "look up values by name and index" in {
+      val r = row("a", "b", "c")("1", "2", "3")
+      r.get("b") should be(Some("2"))
+      r("c") should be("3")
+      r.get(0) should be("1")
+      r.indexOf("c") should be(2)
+      r.name(1) should be("b")
+      r.get("d") should be(None)
+      r.indexOf("d") should be(-1)
+      an[IndexOutOfBoundsException] should be thrownBy r.get(3)
+    }
+
+    "equal a map of the same entries" in {
+      val r = row("a", "b")("1", "2")
+      r should be(Map("a" -> "1", "b" -> "2"))
+      Map("a" -> "1", "b" -> "2") should be(r)
+      r.hashCode should be(Map("a" -> "1", "b" -> "2").hashCode)
+    }
+
+    "leave out names without values" in {
+      val r = row("a", "b", "c")("1", "2")
+      r should be(Map("a" -> "1", "b" -> "2"))
+      r.size should be(2)
+      r.contains("c") should be(false)
+    }
+
+    "use the last value of duplicated names" in {
+      row("a", "b", "a")("1", "2", "3") should be(Map("a" -> "3", "b" -> "2"))
+      row("a", "b", "a")("1", "2") should be(Map("a" -> "1", "b" -> "2"))
+    }
+
+    "create a regular map when adding or removing keys" in {
+      val r = row("a", "b")("1", "2")
+      (r + ("c" -> "3")) should be(Map("a" -> "1", "b" -> "2", "c" -> "3"))
+      (r - "a") should be(Map("b" -> "2"))
+      r.size should be(2)
+    }
+
+    "be viewed as java.util.Map" in {
+      val r = row("a", "b", "a")("1", "2", "3").asJava
+      val expected = new ju.HashMap[String, String]()
+      expected.put("a", "3")
+      expected.put("b", "2")
+      r should be(expected)
+      r.get("b") should be("2")
+      r.get(0) should be("1")
+      r.containsKey("c") should be(false)
+      r.asScala should be(Map("a" -> "3", "b" -> "2"))
+    }
+
+    "be changed as java.util.Map by copying it" in {
+      val r = row("a", "b", "a")("1", "2", "3").asJava
+      r.put("c", "4") should be(null)
+      r.remove("b") should be("2")
+      val expected = new ju.HashMap[String, String]()
+      expected.put("a", "3")
+      expected.put("c", "4")
+      r should be(expected)
+      r.size() should be(2)
+      r.get(1) should be("2")
+
+      val other = row("a", "b")("1", "2").asJava
+      val entries = other.entrySet().iterator()
+      entries.next().setValue("x")
+      entries.next()
+      entries.remove()
+      other should be(ju.Collections.singletonMap("a", "x"))
+    }
+
+    "be emitted by CsvToMap sharing the header" in {
+      val rows = Source
+        .single(ByteString("a,b\n1,2\n3,4\n"))
+        .via(CsvParsing.lineScanner())
+        .via(CsvToMap.toMapAsStrings())
+        .runWith(Sink.seq)
+        .futureValue
+      rows should be(Seq(Map("a" -> "1", "b" -> "2"), Map("a" -> "3", "b" -> "4")))
+      val indexed = rows.collect { case r: IndexedRow[String @unchecked] => r }
+      indexed.map(_.get(1)) should be(Seq("2", "4"))
+    }
+  }
+}
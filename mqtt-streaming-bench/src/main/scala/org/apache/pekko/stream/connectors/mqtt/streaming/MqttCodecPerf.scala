@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+
+import java.util.concurrent.TimeUnit
+
+import org.apache.pekko
+import pekko.stream.connectors.mqtt.streaming.impl.{ PacketCodec, TopicCache }
+import pekko.util.ByteString
+import org.openjdk.jmh.annotations._
+
+/*
+ * Compares decoding and encoding the packets of the QoS 1 publish path with MqttCodec, as the sessions did before,
+ * and with PacketCodec.
+ *
+ * Use `-prof gc` to report the allocation rate, where `gc.alloc.rate.norm` is the number of bytes allocated per
+ * packet.
+ *
+ * {{{
+ * > mqtt-streaming-bench/jmh:run -t1 -f1 -wi 5 -i 10 -prof gc .*MqttCodecPerf
+ * }}}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+class MqttCodecPerf {
+  import MqttCodec._
+
+  @Param(Array("16", "4096"))
+  var payloadSize: Int = _
+
+  private val maxPacketSize = 65536
+  private val packetId = Some(PacketId(1))
+  private val topics = new TopicCache(TopicCache.DefaultCapacity)
+
+  private var publish: Publish = _
+  private var publishBytes: ByteString = _
+  private val pubAckBytes = PubAck(PacketId(1)).encode(ByteString.newBuilder).result()
+
+  @Setup
+  def setup(): Unit = {
+    publish = Publish("sensors/building-7/floor-3/temperature", ByteString(Array.fill[Byte](payloadSize)(1)))
+    publishBytes = publish.encode(ByteString.newBuilder, packetId).result()
+  }
+
+  @Benchmark
+  def mqttCodecDecodePublish(): Either[DecodeError, ControlPacket] =
+    publishBytes.iterator.decodeControlPacket(maxPacketSize)
+
+  @Benchmark
+  def packetCodecDecodePublish(): Either[DecodeError, ControlPacket] =
+    PacketCodec.decode(publishBytes, maxPacketSize, topics)
+
+  @Benchmark
+  def mqttCodecEncodePublish(): ByteString =
+    publish.encode(ByteString.newBuilder, packetId).result()
+
+  @Benchmark
+  def packetCodecEncodePublish(): ByteString =
+    PacketCodec.encodePublish(publish, packetId, topics)
+
+  @Benchmark
+  def mqttCodecDecodePubAck(): Either[DecodeError, ControlPacket] =
+    pubAckBytes.iterator.decodeControlPacket(maxPacketSize)
+
+  @Benchmark
+  def packetCodecDecodePubAck(): Either[DecodeError, ControlPacket] =
+    PacketCodec.decode(pubAckBytes, maxPacketSize, topics)
+}
@@ -4,6 +4,7 @@
 
 package org.apache.pekko.stream.connectors.mqtt.streaming
 
+import java.lang.management.ManagementFactory
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.locks.ReentrantLock
 
@@ -29,12 +30,36 @@ object MqttPerf {
     test.setup()
     try {
       for (_ <- 0 until 10000) test.serverPublish()
+      val allocatedBefore = allocatedBytes()
+      for (_ <- 0 until 10000) test.serverPublish()
+      println(s"${(allocatedBytes() - allocatedBefore) / 10000} bytes allocated per message")
     } finally {
       test.tearDown()
     }
   }
+
+  /*
+   * The bytes allocated by all live threads, as the session, the streams and TCP run on other threads than the
+   * publishing one
+   */
+  private def allocatedBytes(): Long =
+    ManagementFactory.getThreadMXBean match {
+      case threads: com.sun.management.ThreadMXBean =>
+        threads.getThreadAllocatedBytes(threads.getAllThreadIds).filter(_ > 0).sum
+      case _ => 0L
+    }
 }
 
+/*
+ * Publishes from a server session to a client session over TCP with QoS 1, and waits for the PUBACK.
+ *
+ * Use `-prof gc` to report the allocation rate, where `gc.alloc.rate.norm` is the number of bytes allocated per
+ * message by all threads. The codec alone is measured by MqttCodecPerf.
+ *
+ * {{{
+ * > mqtt-streaming-bench/jmh:run -t1 -f1 -wi 5 -i 10 -prof gc .*streaming.MqttPerf
+ * }}}
+ */
 @State(Scope.Benchmark)
 class MqttPerf {
 
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+
+import java.util.concurrent.TimeUnit
+
+import org.apache.pekko.stream.connectors.mqtt.streaming.impl.Topics
+import org.openjdk.jmh.annotations._
+
+/*
+ * Compares matching a topic name against the topic filters of a connection by scanning them one by one, as the server
+ * session did before, with looking it up in a TopicMatcher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+class TopicMatcherPerf {
+
+  @Param(Array("10", "1000", "10000"))
+  var filterCount: Int = _
+
+  private var filters: Vector[String] = _
+  private var matcher: TopicMatcher = _
+
+  private val matchingTopic = "sensors/building-7/floor-3/temperature"
+  private val otherTopic = "alerts/building-7/floor-3/smoke"
+
+  @Setup
+  def setup(): Unit = {
+    filters = Vector.tabulate(filterCount) { i =>
+      i % 3 match {
+        case 0 => s"sensors/building-$i/+/temperature"
+        case 1 => s"sensors/building-$i/#"
+        case _ => s"sensors/+/floor-$i/humidity"
+      }
+    } :+ "sensors/+/floor-3/temperature"
+    matcher = TopicMatcher(filters: _*)
+  }
+
+  @Benchmark
+  def linearScanMatching(): Boolean = filters.exists(Topics.filter(_, matchingTopic))
+
+  @Benchmark
+  def linearScanNotMatching(): Boolean = filters.exists(Topics.filter(_, otherTopic))
+
+  @Benchmark
+  def matcherMatching(): Boolean = matcher.matches(matchingTopic)
+
+  @Benchmark
+  def matcherNotMatching(): Boolean = matcher.matches(otherTopic)
+}
@@ -51,7 +51,8 @@ final class MqttSessionSettings private (val maxPacketSize: Int = 4096,
     val consumerPubRelTimeout: FiniteDuration = 30.seconds,
     val receiveSubAckTimeout: FiniteDuration = 30.seconds,
     val receiveUnsubAckTimeout: FiniteDuration = 30.seconds,
-    val serverSendBufferSize: Int = 64) {
+    val serverSendBufferSize: Int = 64,
+    val producerActors: Boolean = true) {
   require(
     commandParallelism >= 2,
     s"commandParallelism of $commandParallelism must be greater than or equal to 2 to support connection replies such as pinging")
@@ -244,6 +245,16 @@ final class MqttSessionSettings private (val maxPacketSize: Int = 4096,
   def withServerSendBufferSize(serverSendBufferSize: Int): MqttSessionSettings =
     copy(serverSendBufferSize = serverSendBufferSize)
 
+  /**
+   * Just for clients - whether each QoS 1/2 publish is produced by an actor of its own, which is the default. When
+   * disabled, the packet ids and acknowledgements of publications are tracked by the session without messaging
+   * actors, and publications are no longer sent one at a time per topic. Publications are then only republished on
+   * reconnect, so the producer PUBACK/PUBREC and PUBCOMP timeouts don't apply. This only concerns publications sent
+   * by the client: each QoS 1/2 publication received from the server is still acknowledged via an actor of its own.
+   */
+  def withProducerActors(producerActors: Boolean): MqttSessionSettings =
+    copy(producerActors = producerActors)
+
   private def copy(maxPacketSize: Int = maxPacketSize,
       clientSendBufferSize: Int = clientSendBufferSize,
       clientTerminationWatcherBufferSize: Int = clientTerminationWatcherBufferSize,
@@ -258,7 +269,8 @@ final class MqttSessionSettings private (val maxPacketSize: Int = 4096,
       consumerPubRelTimeout: FiniteDuration = consumerPubRelTimeout,
       receiveSubAckTimeout: FiniteDuration = receiveSubAckTimeout,
       receiveUnsubAckTimeout: FiniteDuration = receiveUnsubAckTimeout,
-      serverSendBufferSize: Int = serverSendBufferSize) =
+      serverSendBufferSize: Int = serverSendBufferSize,
+      producerActors: Boolean = producerActors) =
     new MqttSessionSettings(
       maxPacketSize,
       clientSendBufferSize,
@@ -274,7 +286,8 @@ final class MqttSessionSettings private (val maxPacketSize: Int = 4096,
       consumerPubRelTimeout,
       receiveSubAckTimeout,
       receiveUnsubAckTimeout,
-      serverSendBufferSize)
+      serverSendBufferSize,
+      producerActors)
 
   override def toString: String =
     "MqttSessionSettings(" +
@@ -292,6 +305,7 @@ final class MqttSessionSettings private (val maxPacketSize: Int = 4096,
     s"receivePubRelTimeout=${consumerPubRelTimeout.toCoarsest}," +
     s"receiveSubAckTimeout=${receiveSubAckTimeout.toCoarsest}," +
     s"receiveUnsubAckTimeout=${receiveUnsubAckTimeout.toCoarsest}," +
-    s"serverSendBufferSize=$serverSendBufferSize" +
+    s"serverSendBufferSize=$serverSendBufferSize," +
+    s"producerActors=$producerActors" +
     ")"
 }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.ccompat.JavaConverters._
+
+object TopicMatcher {
+
+  /**
+   * A matcher without any topic filters.
+   */
+  val empty: TopicMatcher = new TopicMatcher(Node.Empty, Set.empty)
+
+  /**
+   * Factory method for Scala.
+   */
+  def apply(topicFilters: String*): TopicMatcher = empty.addAll(topicFilters)
+
+  /**
+   * Java API
+   *
+   * Factory method for Java.
+   */
+  def create(): TopicMatcher = empty
+
+  private final val SingleLevelWildcard = "+"
+  private final val MultiLevelWildcard = "#"
+
+  private def levels(topic: String): Array[String] = topic.split("/", -1)
+
+  /*
+   * A topic level of the trie, with the next levels of the topic filters passing through it
+   */
+  @InternalApi private[streaming] final case class Node(isFilter: Boolean, children: Map[String, Node]) {
+    def add(levels: Array[String], i: Int): Node =
+      if (i == levels.length) copy(isFilter = true)
+      else {
+        val child = children.getOrElse(levels(i), Node.Empty)
+        copy(children = children.updated(levels(i), child.add(levels, i + 1)))
+      }
+
+    // None once the node no longer leads to any topic filter
+    def remove(levels: Array[String], i: Int): Option[Node] = {
+      val updated =
+        if (i == levels.length) copy(isFilter = false)
+        else
+          children.get(levels(i)) match {
+            case Some(child) =>
+              copy(children = child.remove(levels, i + 1) match {
+                case Some(c) => children.updated(levels(i), c)
+                case None    => children - levels(i)
+              })
+            case None => this
+          }
+      if (!updated.isFilter && updated.children.isEmpty) None else Some(updated)
+    }
+
+    def matches(levels: Array[String], i: Int): Boolean =
+      // a multi-level wildcard also matches the level it follows, "sport/#" matches "sport"
+      children.get(MultiLevelWildcard).exists(_.isFilter) || {
+        if (i == levels.length) isFilter
+        else
+          children.get(levels(i)).exists(_.matches(levels, i + 1)) ||
+          children.get(SingleLevelWildcard).exists(_.matches(levels, i + 1))
+      }
+  }
+
+  @InternalApi private[streaming] object Node {
+    val Empty: Node = Node(isFilter = false, Map.empty)
+  }
+}
+
+/**
+ * 4.7 Topic Names and Topic Filters
+ * http://docs.oasis-open.org/mqtt/mqtt/v3.1.1/os/mqtt-v3.1.1-os.html
+ *
+ * An immutable set of topic filters telling whether a topic name matches any of them. The filters are held in a trie
+ * of their topic levels, where the `+` and `#` wildcards are levels of their own, so that matching a topic name takes
+ * time proportional to its number of levels rather than to the number of filters.
+ */
+final class TopicMatcher private (root: TopicMatcher.Node, val topicFilters: Set[String]) {
+  import TopicMatcher._
+
+  /**
+   * A matcher with the topic filter added.
+   */
+  def add(topicFilter: String): TopicMatcher =
+    if (topicFilters.contains(topicFilter)) this
+    else new TopicMatcher(root.add(levels(topicFilter), 0), topicFilters + topicFilter)
+
+  /**
+   * A matcher with the topic filters added.
+   */
+  def addAll(topicFilters: Iterable[String]): TopicMatcher = topicFilters.foldLeft(this)(_.add(_))
+
+  /**
+   * A matcher with the topic filter removed.
+   */
+  def remove(topicFilter: String): TopicMatcher =
+    if (!topicFilters.contains(topicFilter)) this
+    else new TopicMatcher(root.remove(levels(topicFilter), 0).getOrElse(Node.Empty), topicFilters - topicFilter)
+
+  /**
+   * A matcher with the topic filters removed.
+   */
+  def removeAll(topicFilters: Iterable[String]): TopicMatcher = topicFilters.foldLeft(this)(_.remove(_))
+
+  /**
+   * Whether the topic name matches any of the topic filters.
+   */
+  def matches(topicName: String): Boolean = root.matches(levels(topicName), 0)
+
+  def isEmpty: Boolean = topicFilters.isEmpty
+
+  /**
+   * Java API
+   */
+  def getTopicFilters: java.util.Set[String] = topicFilters.asJava
+
+  /**
+   * Java API
+   *
+   * A matcher with the topic filters added.
+   */
+  def addAll(topicFilters: java.lang.Iterable[String]): TopicMatcher = addAll(topicFilters.asScala)
+
+  /**
+   * Java API
+   *
+   * A matcher with the topic filters removed.
+   */
+  def removeAll(topicFilters: java.lang.Iterable[String]): TopicMatcher = removeAll(topicFilters.asScala)
+
+  override def toString: String = s"TopicMatcher(${topicFilters.mkString(",")})"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: TopicMatcher => topicFilters == that.topicFilters
+    case _                  => false
+  }
+
+  override def hashCode(): Int = topicFilters.hashCode()
+}
@@ -58,6 +58,7 @@ import scala.util.{ Either, Failure, Success }
       producerPacketRouter: ActorRef[LocalPacketRouter.Request[Producer.Event]],
       subscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Subscriber.Event]],
       unsubscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Unsubscriber.Event]],
+      publications: Option[InFlightPublications],
       settings: MqttSessionSettings)(implicit mat: Materializer): Behavior[Event] =
     disconnected(
       Disconnected(
@@ -70,6 +71,7 @@ import scala.util.{ Either, Failure, Success }
         producerPacketRouter,
         subscriberPacketRouter,
         unsubscriberPacketRouter,
+        publications,
         settings))
 
   // Our FSM data, FSM events and commands emitted by the FSM
@@ -83,6 +85,7 @@ import scala.util.{ Either, Failure, Success }
       val producerPacketRouter: ActorRef[LocalPacketRouter.Request[Producer.Event]],
       val subscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Subscriber.Event]],
       val unsubscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Unsubscriber.Event]],
+      val publications: Option[InFlightPublications],
       val settings: MqttSessionSettings)
   final case class Disconnected(
       override val stash: Seq[Event],
@@ -94,6 +97,7 @@ import scala.util.{ Either, Failure, Success }
       override val producerPacketRouter: ActorRef[LocalPacketRouter.Request[Producer.Event]],
       override val subscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Subscriber.Event]],
       override val unsubscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Unsubscriber.Event]],
+      override val publications: Option[InFlightPublications],
       override val settings: MqttSessionSettings) extends Data(
         stash,
         activeConsumers,
@@ -104,6 +108,7 @@ import scala.util.{ Either, Failure, Success }
         producerPacketRouter,
         subscriberPacketRouter,
         unsubscriberPacketRouter,
+        publications,
         settings)
   final case class ConnectReceived(
       connectionId: ByteString,
@@ -119,6 +124,7 @@ import scala.util.{ Either, Failure, Success }
       override val producerPacketRouter: ActorRef[LocalPacketRouter.Request[Producer.Event]],
       override val subscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Subscriber.Event]],
       override val unsubscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Unsubscriber.Event]],
+      override val publications: Option[InFlightPublications],
       override val settings: MqttSessionSettings) extends Data(
         stash,
         activeConsumers,
@@ -129,6 +135,7 @@ import scala.util.{ Either, Failure, Success }
         producerPacketRouter,
         subscriberPacketRouter,
         unsubscriberPacketRouter,
+        publications,
         settings)
   final case class ConnAckReceived(
       connectionId: ByteString,
@@ -145,6 +152,7 @@ import scala.util.{ Either, Failure, Success }
       override val producerPacketRouter: ActorRef[LocalPacketRouter.Request[Producer.Event]],
       override val subscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Subscriber.Event]],
       override val unsubscriberPacketRouter: ActorRef[LocalPacketRouter.Request[Unsubscriber.Event]],
+      override val publications: Option[InFlightPublications],
       override val settings: MqttSessionSettings) extends Data(
         stash,
         activeConsumers,
@@ -155,6 +163,7 @@ import scala.util.{ Either, Failure, Success }
         producerPacketRouter,
         subscriberPacketRouter,
         unsubscriberPacketRouter,
+        publications,
         settings)
 
   final case class WaitingForQueueOfferResult(nextBehavior: Behavior[Event], stash: Seq[Event])
@@ -197,6 +206,10 @@ import scala.util.{ Either, Failure, Success }
 
   final case class ProducerFree(topicName: String) extends Event(ByteString.empty)
 
+  final case class SendInFlightPublication(packetId: PacketId) extends Event(ByteString.empty)
+
+  case object PacketIdReleased extends Event(ByteString.empty)
+
   case class SendPingReqTimeout(override val connectionId: ByteString) extends Event(connectionId)
 
   final case class PingRespReceivedFromRemote(override val connectionId: ByteString,
@@ -246,6 +259,7 @@ import scala.util.{ Either, Failure, Success }
           val nextState =
             if (connect.connectFlags.contains(ConnectFlags.CleanSession)) {
               context.children.foreach(context.stop)
+              data.publications.foreach(_.clear())
 
               serverConnect(
                 ConnectReceived(
@@ -262,11 +276,15 @@ import scala.util.{ Either, Failure, Success }
                   data.producerPacketRouter,
                   data.subscriberPacketRouter,
                   data.unsubscriberPacketRouter,
+                  data.publications,
                   data.settings))
             } else {
               data.activeProducers.values.foreach { producer =>
                 producer ! Producer.ReceiveConnect
               }
+              data.publications.foreach(_.inFlight.foreach { packetId =>
+                context.self ! SendInFlightPublication(packetId)
+              })
 
               serverConnect(
                 ConnectReceived(
@@ -283,6 +301,7 @@ import scala.util.{ Either, Failure, Success }
                   data.producerPacketRouter,
                   data.subscriberPacketRouter,
                   data.unsubscriberPacketRouter,
+                  data.publications,
                   data.settings))
             }
 
@@ -318,6 +337,7 @@ import scala.util.{ Either, Failure, Success }
           data.producerPacketRouter,
           data.subscriberPacketRouter,
           data.unsubscriberPacketRouter,
+          data.publications,
           data.settings)),
       context,
       data.stash.map(BehaviorRunner.StoredMessage.apply))
@@ -362,6 +382,7 @@ import scala.util.{ Either, Failure, Success }
                   data.producerPacketRouter,
                   data.subscriberPacketRouter,
                   data.unsubscriberPacketRouter,
+                  data.publications,
                   data.settings)),
               context,
               data.stash.map(BehaviorRunner.StoredMessage.apply))
@@ -486,6 +507,31 @@ import scala.util.{ Either, Failure, Success }
               serverConnected(data, resetPingReqTimer = true),
               stash = Vector.empty)
 
+          case (_, PublishReceivedLocally(publish, publishData)) if data.publications.isDefined =>
+            data.publications.foreach(_.enqueue(publish, publishData))
+            publishWaiting(data)
+
+          case (_, PacketIdReleased) =>
+            publishWaiting(data)
+
+          case (_, SendInFlightPublication(packetId)) =>
+            data.publications.flatMap(_.retransmission(packetId)) match {
+              case Some(Left(publish)) =>
+                QueueOfferState.waitForQueueOfferCompleted(
+                  data.remote.offer(ForwardPublish(publish, Some(packetId))),
+                  result => QueueOfferCompleted(ByteString.empty, result.toEither),
+                  serverConnected(data, resetPingReqTimer = false),
+                  stash = Vector.empty)
+              case Some(Right(_)) =>
+                QueueOfferState.waitForQueueOfferCompleted(
+                  data.remote.offer(ForwardPubRel(packetId)),
+                  result => QueueOfferCompleted(ByteString.empty, result.toEither),
+                  serverConnected(data, resetPingReqTimer = false),
+                  stash = Vector.empty)
+              case None =>
+                serverConnected(data, resetPingReqTimer = false)
+            }
+
           case (context, prl @ PublishReceivedLocally(publish, publishData)) =>
             val producerName = ActorName.mkName(ProducerNamePrefix + publish.topicName + "-" + context.children.size)
             if (!data.activeProducers.contains(publish.topicName)) {
@@ -588,6 +634,19 @@ import scala.util.{ Either, Failure, Success }
             Behaviors.same
         }
     }
+
+  // sends the next publication waiting for a packet id, when producer actors are disabled
+  private def publishWaiting(data: ConnAckReceived)(implicit mat: Materializer): Behavior[Event] =
+    data.publications.flatMap(_.dequeue()) match {
+      case Some((packetId, publish)) =>
+        QueueOfferState.waitForQueueOfferCompleted(
+          data.remote.offer(ForwardPublish(publish, Some(packetId))),
+          result => QueueOfferCompleted(ByteString.empty, result.toEither),
+          serverConnected(data, resetPingReqTimer = true),
+          stash = Vector.empty)
+      case None =>
+        serverConnected(data, resetPingReqTimer = true)
+    }
 }
 
 /*
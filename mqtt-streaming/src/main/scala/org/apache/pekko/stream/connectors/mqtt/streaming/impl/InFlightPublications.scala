@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+package impl
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+import org.apache.pekko.annotation.InternalApi
+
+import scala.annotation.tailrec
+
+/*
+ * Tracks the QoS 1 and 2 publications of a client session which are in flight, in place of a Producer actor per
+ * publication and the LocalPacketRouter they ask for a packet id. Used when MqttSessionSettings.producerActors is
+ * disabled. Publications received from the server are still acknowledged by a Consumer actor each.
+ *
+ * The client connector registers publications, and the event flow of the session moves them along as their
+ * acknowledgements are received:
+ *
+ * QoS 1: Publishing --PUBACK--> released
+ * QoS 2: Publishing --PUBREC--> Releasing --PUBCOMP--> released
+ *
+ * The state of a publication is held in the slot of its packet id, and changed with compare-and-set, so that any
+ * number of publications may be in flight without messaging an actor. Publications which can't get a packet id, as
+ * all of them are in flight, wait for one to be released.
+ *
+ * 4.3 Quality of Service levels and protocol flows
+ * http://docs.oasis-open.org/mqtt/mqtt/v3.1.1/os/mqtt-v3.1.1-os.html
+ */
+@InternalApi private[streaming] final class InFlightPublications {
+  import InFlightPublications._
+
+  private val packetIds = new PacketIdAllocator
+  private val publications = new AtomicReferenceArray[Publication](LocalPacketRouter.MaxPacketId.underlying + 1)
+  private val waiting = new ConcurrentLinkedQueue[Publication]
+
+  /**
+   * Adds a publication to those waiting for a packet id.
+   */
+  def enqueue(publish: Publish, publishData: Producer.PublishData): Unit =
+    waiting.add(Publishing(publish, publishData))
+
+  /**
+   * The first publication waiting for a packet id, with the packet id it is now in flight with, if one is free.
+   */
+  def dequeue(): Option[(PacketId, Publish)] =
+    if (waiting.isEmpty) None
+    else
+      packetIds.acquire().flatMap { packetId =>
+        Option(waiting.poll()) match {
+          case Some(publication) =>
+            publications.set(packetId.underlying, publication)
+            Some((packetId, publication.publish))
+          case None =>
+            packetIds.release(packetId)
+            None
+        }
+      }
+
+  def hasWaiting: Boolean = !waiting.isEmpty
+
+  /**
+   * A PUBACK was received: the QoS 1 publication is released, returning its publish data.
+   */
+  def acknowledge(packetId: PacketId): Option[Producer.PublishData] =
+    transition(packetId) {
+      case p: Publishing if p.publish.flags.contains(ControlPacketFlags.QoSAtLeastOnceDelivery) => None
+    }
+
+  /**
+   * A PUBREC was received: the QoS 2 publication is to be released with a PUBREL, returning its publish data.
+   */
+  def receive(packetId: PacketId): Option[Producer.PublishData] =
+    transition(packetId) {
+      case p: Publishing if p.publish.flags.contains(ControlPacketFlags.QoSExactlyOnceDelivery) =>
+        Some(Releasing(p.publish, p.publishData))
+    }
+
+  /**
+   * A PUBCOMP was received: the QoS 2 publication is released, returning its publish data.
+   */
+  def complete(packetId: PacketId): Option[Producer.PublishData] =
+    transition(packetId) {
+      case _: Releasing => None
+    }
+
+  @tailrec
+  private def transition(packetId: PacketId)(next: PartialFunction[Publication, Option[Publication]])
+      : Option[Producer.PublishData] =
+    Option(publications.get(packetId.underlying)) match {
+      case Some(publication) if next.isDefinedAt(publication) =>
+        val nextPublication = next(publication)
+        if (publications.compareAndSet(packetId.underlying, publication, nextPublication.orNull)) {
+          if (nextPublication.isEmpty) packetIds.release(packetId)
+          Some(publication.publishData)
+        } else {
+          transition(packetId)(next)
+        }
+      case _ =>
+        None
+    }
+
+  /**
+   * What is to be sent again for an in-flight publication when reconnecting, or after a PUBREC: the publish with the
+   * DUP flag set, or the PUBREL.
+   */
+  def retransmission(packetId: PacketId): Option[Either[Publish, PubRel]] =
+    Option(publications.get(packetId.underlying)).map {
+      case Publishing(publish, _) => Left(publish.copy(flags = publish.flags | ControlPacketFlags.DUP))
+      case Releasing(_, _)        => Right(PubRel(packetId))
+    }
+
+  /**
+   * The packet ids of all publications in flight.
+   */
+  def inFlight: Seq[PacketId] =
+    (LocalPacketRouter.MinPacketId.underlying to LocalPacketRouter.MaxPacketId.underlying)
+      .collect { case i if publications.get(i) ne null => PacketId(i) }
+
+  /**
+   * Drops all publications, when a clean session is started.
+   */
+  def clear(): Unit = {
+    waiting.clear()
+    inFlight.foreach { packetId =>
+      publications.set(packetId.underlying, null)
+      packetIds.release(packetId)
+    }
+  }
+}
+
+@InternalApi private[streaming] object InFlightPublications {
+  private sealed abstract class Publication {
+    def publish: Publish
+    def publishData: Producer.PublishData
+  }
+  private final case class Publishing(publish: Publish, publishData: Producer.PublishData) extends Publication
+  private final case class Releasing(publish: Publish, publishData: Producer.PublishData) extends Publication
+}
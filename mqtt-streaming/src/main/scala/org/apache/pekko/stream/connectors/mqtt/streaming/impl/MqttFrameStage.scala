@@ -29,26 +29,22 @@ import scala.collection.immutable
       maxPacketSize: Int,
       bytesReceived: ByteString,
       bytesToEmit: Vector[ByteString]): Either[IllegalStateException, (immutable.Iterable[ByteString], ByteString)] = {
-    import MqttCodec._
-
-    val i = bytesReceived.iterator
-    val _ = i.drop(1) // Length starts at offset 1
-    i.decodeRemainingLength() match {
-      case Right(remainingLength) =>
-        val headerSize = bytesReceived.size - i.len
-        val packetSize = remainingLength + headerSize
-        if (packetSize <= maxPacketSize) {
-          if (bytesReceived.size >= packetSize) {
-            val (b0, b1) = bytesReceived.splitAt(packetSize)
-            frames(maxPacketSize, b1, bytesToEmit :+ b0)
-          } else {
-            Right((bytesToEmit, bytesReceived))
-          }
+    val remaining = PacketCodec.remainingLength(bytesReceived, 1) // Length starts at offset 1
+    if (remaining != PacketCodec.Underflow) {
+      val headerSize = 1 + PacketCodec.sizeOf(remaining)
+      val packetSize = PacketCodec.lengthOf(remaining) + headerSize
+      if (packetSize <= maxPacketSize) {
+        if (bytesReceived.size >= packetSize) {
+          val (b0, b1) = bytesReceived.splitAt(packetSize)
+          frames(maxPacketSize, b1, bytesToEmit :+ b0)
         } else {
-          Left(new IllegalStateException(s"Max packet size of $maxPacketSize exceeded with $packetSize"))
+          Right((bytesToEmit, bytesReceived))
         }
-      case _: Left[BufferUnderflow.type, Int] @unchecked =>
-        Right((bytesToEmit, bytesReceived))
+      } else {
+        Left(new IllegalStateException(s"Max packet size of $maxPacketSize exceeded with $packetSize"))
+      }
+    } else {
+      Right((bytesToEmit, bytesReceived))
     }
   }
 }
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+package impl
+
+import java.nio.charset.StandardCharsets
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.ByteString
+
+import scala.annotation.tailrec
+
+/*
+ * Encodes and decodes the packets of the publish hot path, PUBLISH and PUBACK, by reading and writing the bytes of a
+ * frame at their offsets rather than through a byte iterator and intermediate builders. The topic name and payload of
+ * a decoded PUBLISH refer to the frame, and topic names are looked up in a TopicCache instead of being decoded again
+ * for every packet. All other packets, and any frame which isn't well formed, are left to MqttCodec so that they are
+ * decoded, and rejected, exactly as before.
+ *
+ * 2 MQTT Control Packet format
+ * http://docs.oasis-open.org/mqtt/mqtt/v3.1.1/os/mqtt-v3.1.1-os.html
+ */
+@InternalApi private[streaming] object PacketCodec {
+  import MqttCodec._
+
+  /**
+   * Returned by `remainingLength` when the bytes end before the remaining length does
+   */
+  final val Underflow = -1L
+
+  // payloads up to this size are copied next to the headers of an encoded PUBLISH, larger ones are referred to
+  private final val InlinePayloadSize = 512
+
+  /**
+   * 2.2.3 Remaining Length
+   *
+   * Decodes the remaining length starting at `offset`, returning it along with the number of bytes it is encoded in
+   * as a single value to be taken apart with `lengthOf` and `sizeOf`, or `Underflow`.
+   */
+  def remainingLength(bytes: ByteString, offset: Int): Long = remainingLength(bytes, offset, 0, 0)
+
+  def lengthOf(remainingLength: Long): Int = (remainingLength >>> 32).toInt
+
+  def sizeOf(remainingLength: Long): Int = remainingLength.toInt
+
+  @tailrec
+  private def remainingLength(bytes: ByteString, offset: Int, i: Int, value: Int): Long =
+    if (offset + i >= bytes.length) Underflow
+    else {
+      val b = bytes(offset + i) & 0xFF
+      // the fourth byte is taken as a whole, as MqttCodec does
+      val v = value | ((if (i == 3) b else b & 0x7F) << (7 * i))
+      if (i < 3 && (b & 0x80) == 0x80) remainingLength(bytes, offset, i + 1, v)
+      else (v.toLong << 32) | (i + 1)
+    }
+
+  /**
+   * Decodes the control packet of a frame as emitted by [[MqttFrameStage]].
+   */
+  def decode(frame: ByteString, maxPacketSize: Int, topics: TopicCache): Either[DecodeError, ControlPacket] = {
+    val remaining = remainingLength(frame, 1)
+    if (remaining != Underflow) {
+      val l = lengthOf(remaining)
+      val offset = 1 + sizeOf(remaining)
+      val b = frame(0) & 0xFF
+      if (l > maxPacketSize || frame.length < offset + l) frame.iterator.decodeControlPacket(maxPacketSize)
+      else if ((b >> 4) == ControlPacketType.PUBLISH.underlying)
+        decodePublish(frame, maxPacketSize, b & 0xF, offset, l, topics)
+      else if (b == (ControlPacketType.PUBACK.underlying << 4) && l >= 2) Right(PubAck(PacketId(short(frame, offset))))
+      else frame.iterator.decodeControlPacket(maxPacketSize)
+    } else {
+      Left(BufferUnderflow)
+    }
+  }
+
+  // 3.3 PUBLISH – Publish message
+  private def decodePublish(frame: ByteString,
+      maxPacketSize: Int,
+      flags: Int,
+      offset: Int,
+      l: Int,
+      topics: TopicCache): Either[DecodeError, ControlPacket] = {
+    val end = offset + l
+    val hasPacketId = (flags & ControlPacketFlags.QoSReserved.underlying) != 0
+    if ((flags & ControlPacketFlags.QoSReserved.underlying) == ControlPacketFlags.QoSReserved.underlying || l < 2)
+      frame.iterator.decodeControlPacket(maxPacketSize)
+    else {
+      val topicStart = offset + 2
+      val topicEnd = topicStart + short(frame, offset)
+      val payloadStart = if (hasPacketId) topicEnd + 2 else topicEnd
+      if (payloadStart > end) frame.iterator.decodeControlPacket(maxPacketSize)
+      else
+        Right(
+          Publish(
+            ControlPacketFlags(flags),
+            topics.decode(frame, topicStart, topicEnd),
+            if (hasPacketId) Some(PacketId(short(frame, topicEnd))) else None,
+            frame.slice(payloadStart, end)))
+    }
+  }
+
+  private def short(bytes: ByteString, i: Int): Int =
+    ((bytes(i) & 0xFF) << 8) | (bytes(i + 1) & 0xFF)
+
+  /**
+   * 3.3 PUBLISH – Publish message
+   *
+   * Encodes the fixed and variable header into a single array of the exact size, with the payload either copied
+   * after them or, when it is large, referred to.
+   */
+  def encodePublish(publish: Publish, packetId: Option[PacketId], topics: TopicCache): ByteString = {
+    val topic = topics.encode(publish.topicName)
+    val topicLength = topic.length & 0xFFFF
+    val payload = publish.payload
+    val inline = payload.length <= InlinePayloadSize
+    val variableHeaderLength = 2 + topicLength + (if (packetId.isDefined) 2 else 0)
+    val l = variableHeaderLength + payload.length
+    val headerLength = 1 + remainingLengthSize(l) + variableHeaderLength
+    val bytes = new Array[Byte](if (inline) headerLength + payload.length else headerLength)
+
+    bytes(0) = (ControlPacketType.PUBLISH.underlying << 4 | publish.flags.underlying).toByte
+    val topicStart = putShort(bytes, putRemainingLength(bytes, 1, l), topicLength)
+    System.arraycopy(topic, 0, bytes, topicStart, topicLength)
+    packetId match {
+      case Some(pi) => putShort(bytes, topicStart + topicLength, pi.underlying)
+      case None     =>
+    }
+
+    if (inline) {
+      payload.copyToArray(bytes, headerLength, payload.length)
+      ByteString.fromArrayUnsafe(bytes)
+    } else {
+      ByteString.fromArrayUnsafe(bytes) ++ payload
+    }
+  }
+
+  /**
+   * 3.4 PUBACK – Publish acknowledgement
+   */
+  def encodePubAck(packetId: PacketId): ByteString = {
+    val bytes = new Array[Byte](4)
+    bytes(0) = (ControlPacketType.PUBACK.underlying << 4).toByte
+    bytes(1) = 2
+    putShort(bytes, 2, packetId.underlying)
+    ByteString.fromArrayUnsafe(bytes)
+  }
+
+  private def remainingLengthSize(l: Int): Int =
+    if (l < (1 << 7)) 1 else if (l < (1 << 14)) 2 else if (l < (1 << 21)) 3 else 4
+
+  @tailrec
+  private def putRemainingLength(bytes: Array[Byte], i: Int, l: Int): Int =
+    if (l < 0x80) {
+      bytes(i) = l.toByte
+      i + 1
+    } else {
+      bytes(i) = ((l & 0x7F) | 0x80).toByte
+      putRemainingLength(bytes, i + 1, l >> 7)
+    }
+
+  private def putShort(bytes: Array[Byte], i: Int, v: Int): Int = {
+    bytes(i) = (v >> 8).toByte
+    bytes(i + 1) = v.toByte
+    i + 2
+  }
+}
+
+/*
+ * Caches the UTF-8 encoding of topic names in both directions, so that a topic name which is published or received
+ * again is neither encoded nor decoded again, and so that the topic names of received packets are shared instances.
+ *
+ * Each direction is a table of `capacity` slots, a power of two, where a topic name replaces the one which was in its
+ * slot before. The entries are immutable and the slots are read and written without synchronization, which may only
+ * cause a lookup to miss: the cache can be shared by the streams of a session.
+ */
+@InternalApi private[streaming] final class TopicCache(capacity: Int) {
+  import TopicCache._
+
+  require(Integer.bitCount(capacity) == 1, s"capacity of $capacity must be a power of two")
+
+  private val mask = capacity - 1
+  private val byBytes = new Array[Entry](capacity)
+  private val byName = new Array[Entry](capacity)
+
+  /**
+   * The topic name of the UTF-8 bytes from `from` until `until`.
+   */
+  def decode(bytes: ByteString, from: Int, until: Int): String = {
+    var hash = 1
+    var i = from
+    while (i < until) {
+      hash = 31 * hash + bytes(i)
+      i += 1
+    }
+    val slot = spread(hash) & mask
+    val entry = byBytes(slot)
+    if ((entry ne null) && entry.bytesHash == hash && sameBytes(entry.bytes, bytes, from, until)) entry.name
+    else {
+      val topicBytes = bytes.slice(from, until).toArray
+      val name = new String(topicBytes, StandardCharsets.UTF_8)
+      byBytes(slot) = new Entry(name, topicBytes, hash)
+      name
+    }
+  }
+
+  /**
+   * The UTF-8 bytes of a topic name, which must not be modified.
+   */
+  def encode(name: String): Array[Byte] = {
+    val slot = spread(name.hashCode) & mask
+    val entry = byName(slot)
+    if ((entry ne null) && ((entry.name eq name) || entry.name == name)) entry.bytes
+    else {
+      val topicBytes = name.getBytes(StandardCharsets.UTF_8)
+      byName(slot) = new Entry(name, topicBytes, 0)
+      topicBytes
+    }
+  }
+
+  private def sameBytes(expected: Array[Byte], bytes: ByteString, from: Int, until: Int): Boolean =
+    expected.length == until - from && {
+      var i = 0
+      while (i < expected.length && expected(i) == bytes(from + i)) i += 1
+      i == expected.length
+    }
+}
+
+@InternalApi private[streaming] object TopicCache {
+
+  /**
+   * The number of topic names cached in each direction by a session
+   */
+  final val DefaultCapacity = 1024
+
+  private final class Entry(val name: String, val bytes: Array[Byte], val bytesHash: Int)
+
+  private def spread(hash: Int): Int = hash ^ (hash >>> 16)
+}
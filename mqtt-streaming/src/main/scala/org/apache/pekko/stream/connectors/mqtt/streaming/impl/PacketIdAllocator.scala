@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+package impl
+
+import java.util.concurrent.atomic.{ AtomicInteger, AtomicLongArray }
+
+import org.apache.pekko.annotation.InternalApi
+
+import scala.annotation.tailrec
+
+/*
+ * Allocates packet ids from 1 to 65535 without locking, so that it may be used from any thread.
+ *
+ * The allocated ids are the bits of a bitset which are set with compare-and-set. Ids are searched from a rolling
+ * cursor, just after the id allocated last, so that an id which has been released is not reused before all
+ * others have been.
+ *
+ * 2.3.1 Packet Identifier
+ * http://docs.oasis-open.org/mqtt/mqtt/v3.1.1/os/mqtt-v3.1.1-os.html
+ */
+@InternalApi private[streaming] final class PacketIdAllocator {
+  import PacketIdAllocator._
+
+  // packet id 0 is never allocated, see LocalPacketRouter.MinPacketId
+  private val allocated = {
+    val bits = new AtomicLongArray(Words)
+    bits.set(0, 1L)
+    bits
+  }
+  private val cursor = new AtomicInteger(LocalPacketRouter.MinPacketId.underlying)
+
+  /**
+   * A free packet id, if any, which is allocated until it is released.
+   */
+  def acquire(): Option[PacketId] = {
+    val start = cursor.get()
+    val packetId = search(start, 0)
+    if (packetId > 0) {
+      // losing the race with another acquisition moves the cursor past either id, which is as good
+      cursor.compareAndSet(start, (packetId + 1) & LocalPacketRouter.MaxPacketId.underlying)
+      Some(PacketId(packetId))
+    } else {
+      None
+    }
+  }
+
+  // visits the word of the cursor twice: first from the cursor on, and last as a whole
+  @tailrec
+  private def search(start: Int, i: Int): Int =
+    if (i > Words) 0
+    else {
+      val word = ((start >>> 6) + i) & (Words - 1)
+      val bits = allocated.get(word)
+      val before = if (i == 0) (1L << (start & 63)) - 1 else 0L
+      val free = ~(bits | before)
+      if (free == 0L) search(start, i + 1)
+      else {
+        val bit = java.lang.Long.numberOfTrailingZeros(free)
+        if (allocated.compareAndSet(word, bits, bits | (1L << bit))) (word << 6) | bit
+        else search(start, i)
+      }
+    }
+
+  /**
+   * Makes an allocated packet id free again.
+   */
+  @tailrec
+  def release(packetId: PacketId): Unit =
+    if (packetId.underlying > 0 && packetId.underlying <= LocalPacketRouter.MaxPacketId.underlying) {
+      val word = packetId.underlying >>> 6
+      val bit = 1L << (packetId.underlying & 63)
+      val bits = allocated.get(word)
+      if ((bits & bit) != 0L && !allocated.compareAndSet(word, bits, bits & ~bit)) release(packetId)
+    }
+
+  def isAllocated(packetId: PacketId): Boolean =
+    packetId.underlying > 0 && packetId.underlying <= LocalPacketRouter.MaxPacketId.underlying &&
+    (allocated.get(packetId.underlying >>> 6) & (1L << (packetId.underlying & 63))) != 0L
+
+  /**
+   * The number of allocated packet ids.
+   */
+  def size: Int = {
+    var count = 0
+    var word = 0
+    while (word < Words) {
+      count += java.lang.Long.bitCount(allocated.get(word))
+      word += 1
+    }
+    count - 1
+  }
+}
+
+@InternalApi private[streaming] object PacketIdAllocator {
+  private final val Words = 1024
+}
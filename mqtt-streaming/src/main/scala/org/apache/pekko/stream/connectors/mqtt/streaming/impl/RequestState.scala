@@ -378,33 +378,7 @@ import scala.util.{ Either, Failure, Success }
    * Construct with the starting state
    */
   def apply[A]: Behavior[Request[A]] =
-    new LocalPacketRouter[A].main(Map.empty, Some(MinPacketId), Vector.empty)
-
-  /**
-   * Find the next free packet id after the specified one.
-   */
-  def findNextPacketId[A](registrantsByPacketId: Map[PacketId, Registration[A]], after: PacketId): Option[PacketId] = {
-    @annotation.tailrec
-    def step(c: PacketId): Option[PacketId] = {
-      if (c.underlying == after.underlying) {
-        // this is a bug, given our guard for entry into `step` checks size. this
-        // means an illegal packet was stored in the map
-        throw new IllegalStateException("Cannot find a free packet id even though one is expected")
-      }
-
-      if (c.underlying <= MaxPacketId.underlying && !registrantsByPacketId.contains(c))
-        Some(c)
-      else if (c.underlying < MaxPacketId.underlying)
-        step(PacketId(c.underlying + 1))
-      else
-        step(MinPacketId)
-    }
-
-    if (registrantsByPacketId.size == (MaxPacketId.underlying - MinPacketId.underlying))
-      None
-    else
-      step(PacketId(after.underlying + 1))
-  }
+    Behaviors.setup(_ => new LocalPacketRouter[A](new PacketIdAllocator).main(Map.empty, Vector.empty))
 
   private[streaming] case class Registration[A](registrant: ActorRef[A], failureReplies: Seq[Promise[_]])
 }
@@ -418,40 +392,34 @@ import scala.util.{ Either, Failure, Success }
  * contract is therefore for a caller to initially register, and to
  * terminate when it has finished with the packet identifier.
  *
- * The acquisition algorithm is optimised to return newly allocated
- * packet ids fast, and take the cost when releasing them as
- * the caller isn't waiting on a reply.
+ * Packet ids are acquired from a PacketIdAllocator, which finds the
+ * next free one from a bitset rather than by probing the registrations.
  */
-@InternalApi private[streaming] final class LocalPacketRouter[A] {
+@InternalApi private[streaming] final class LocalPacketRouter[A](packetIds: PacketIdAllocator) {
 
   import LocalPacketRouter._
 
   // Processing
 
   def main(registrantsByPacketId: Map[PacketId, Registration[A]],
-      nextPacketId: Option[PacketId],
       pendingRegistrations: Vector[Register[A]]): Behavior[Request[A]] =
     Behaviors
       .receive[Request[A]] {
         case (context, register @ Register(registrant: ActorRef[A], reply)) =>
-          nextPacketId match {
+          packetIds.acquire() match {
             case Some(currentPacketId) =>
               reply.success(Registered(currentPacketId))
 
-              val nextRegistrations = registrantsByPacketId + (currentPacketId -> Registration(registrant, List.empty))
-
               context.watchWith(registrant, Unregister(currentPacketId))
 
-              main(
-                nextRegistrations,
-                findNextPacketId(nextRegistrations, currentPacketId),
+              main(registrantsByPacketId + (currentPacketId -> Registration(registrant, List.empty)),
                 pendingRegistrations)
 
             case None =>
               // all packet ids are taken, so we'll wait until one is unregistered
               // to continue
 
-              main(registrantsByPacketId, nextPacketId, pendingRegistrations :+ register)
+              main(registrantsByPacketId, pendingRegistrations :+ register)
           }
 
         case (context, Unregister(packetId)) =>
@@ -465,12 +433,12 @@ import scala.util.{ Either, Failure, Success }
             failureReply.tryFailure(CannotRoute(packetId))
           }
 
-          val remainingPacketIds = registrantsByPacketId - packetId
+          packetIds.release(packetId)
 
           pendingRegistrations
             .foreach(context.self.tell)
 
-          main(remainingPacketIds, Some(nextPacketId.getOrElse(packetId)), Vector.empty)
+          main(registrantsByPacketId - packetId, Vector.empty)
 
         case (_, Route(packetId, event, failureReply)) =>
           registrantsByPacketId.get(packetId) match {
@@ -479,7 +447,6 @@ import scala.util.{ Either, Failure, Success }
               main(registrantsByPacketId
                   .updated(packetId,
                   registration.copy(failureReplies = failureReply +: registration.failureReplies)),
-                nextPacketId,
                 pendingRegistrations)
             case None =>
               failureReply.failure(CannotRoute(packetId))
@@ -239,7 +239,7 @@ import scala.util.{ Failure, Success }
         connect,
         local,
         Vector.empty,
-        Set.empty,
+        TopicMatcher.empty,
         Map.empty,
         Map.empty,
         Vector.empty,
@@ -253,7 +253,7 @@ import scala.util.{ Failure, Success }
   // Our FSM data, FSM events and commands emitted by the FSM
 
   sealed abstract class Data(val stash: Seq[Event],
-      val publishers: Set[String],
+      val publishers: TopicMatcher,
       val activeConsumers: Map[String, ActorRef[Consumer.Event]],
       val activeProducers: Map[String, ActorRef[Producer.Event]],
       val pendingLocalPublications: Seq[(String, PublishReceivedLocally)],
@@ -267,7 +267,7 @@ import scala.util.{ Failure, Success }
       connect: Connect,
       local: Promise[ForwardConnect.type],
       override val stash: Seq[Event],
-      override val publishers: Set[String],
+      override val publishers: TopicMatcher,
       override val activeConsumers: Map[String, ActorRef[Consumer.Event]],
       override val activeProducers: Map[String, ActorRef[Producer.Event]],
       override val pendingLocalPublications: Seq[(String, PublishReceivedLocally)],
@@ -292,7 +292,7 @@ import scala.util.{ Failure, Success }
       connect: Connect,
       remote: SourceQueueWithComplete[ForwardConnAckCommand],
       override val stash: Seq[Event],
-      override val publishers: Set[String],
+      override val publishers: TopicMatcher,
       override val activeConsumers: Map[String, ActorRef[Consumer.Event]],
       override val activeProducers: Map[String, ActorRef[Producer.Event]],
       override val pendingLocalPublications: Seq[(String, PublishReceivedLocally)],
@@ -315,7 +315,7 @@ import scala.util.{ Failure, Success }
         settings)
   final case class Disconnected(
       override val stash: Seq[Event],
-      override val publishers: Set[String],
+      override val publishers: TopicMatcher,
       override val activeConsumers: Map[String, ActorRef[Consumer.Event]],
       override val activeProducers: Map[String, ActorRef[Producer.Event]],
       override val pendingLocalPublications: Seq[(String, PublishReceivedLocally)],
@@ -430,7 +430,7 @@ import scala.util.{ Failure, Success }
           case (_, ClientConnection.ConnectionLost) =>
             throw ClientConnectionFailed
           case (_, PublishReceivedLocally(publish, _))
-              if !data.publishers.exists(Topics.filter(_, publish.topicName)) =>
+              if !data.publishers.matches(publish.topicName) =>
             Behaviors.same
           case (_, e) =>
             clientConnect(data.copy(stash = data.stash :+ e))
@@ -489,7 +489,7 @@ import scala.util.{ Failure, Success }
           case (_, Subscribed(subscribe)) =>
             clientConnected(
               data.copy(
-                publishers = data.publishers ++ subscribe.topicFilters.map(_._1)))
+                publishers = data.publishers.addAll(subscribe.topicFilters.map(_._1))))
           case (context, UnsubscribeReceivedFromRemote(unsubscribe, local)) =>
             val unsubscribed = Promise[Done]()
             context.watch(
@@ -503,7 +503,7 @@ import scala.util.{ Failure, Success }
             unsubscribed.future.foreach(_ => context.self ! Unsubscribed(unsubscribe))(context.executionContext)
             clientConnected(data)
           case (_, Unsubscribed(unsubscribe)) =>
-            clientConnected(data.copy(publishers = data.publishers -- unsubscribe.topicFilters))
+            clientConnected(data.copy(publishers = data.publishers.removeAll(unsubscribe.topicFilters)))
           case (_, PublishReceivedFromRemote(publish, local))
               if (publish.flags & ControlPacketFlags.QoSReserved).underlying == 0 =>
             local.success(Consumer.ForwardPublish)
@@ -553,7 +553,7 @@ import scala.util.{ Failure, Success }
             }
           case (context, PublishReceivedLocally(publish, _))
               if (publish.flags & ControlPacketFlags.QoSReserved).underlying == 0 &&
-              data.publishers.exists(Topics.filter(_, publish.topicName)) =>
+              data.publishers.matches(publish.topicName) =>
             QueueOfferState.waitForQueueOfferCompleted(
               data.remote
                 .offer(ForwardPublish(publish, None)),
@@ -562,7 +562,7 @@ import scala.util.{ Failure, Success }
               stash = Vector.empty)
 
           case (context, prl @ PublishReceivedLocally(publish, publishData))
-              if data.publishers.exists(Topics.filter(_, publish.topicName)) =>
+              if data.publishers.matches(publish.topicName) =>
             val producerName = ActorName.mkName(ProducerNamePrefix + publish.topicName + "-" + context.children.size)
             if (!data.activeProducers.contains(publish.topicName)) {
               val reply = Promise[Source[Producer.ForwardPublishingCommand, NotUsed]]()
@@ -647,7 +647,7 @@ import scala.util.{ Failure, Success }
                 connect,
                 local,
                 Vector.empty,
-                Set.empty,
+                TopicMatcher.empty,
                 Map.empty,
                 Map.empty,
                 Vector.empty,
@@ -717,7 +717,7 @@ import scala.util.{ Failure, Success }
                 connect,
                 local,
                 Vector.empty,
-                Set.empty,
+                TopicMatcher.empty,
                 Map.empty,
                 Map.empty,
                 Vector.empty,
@@ -754,7 +754,7 @@ import scala.util.{ Failure, Success }
           case (_, ConnectionLost) =>
             Behaviors.same // We know... we are disconnected...
           case (_, PublishReceivedLocally(publish, _))
-              if !data.publishers.exists(Topics.filter(_, publish.topicName)) =>
+              if !data.publishers.matches(publish.topicName) =>
             Behaviors.same
           case (_, e) =>
             clientDisconnected(data.copy(stash = data.stash :+ e))
@@ -586,8 +586,9 @@ object MqttCodec {
   implicit class MqttString(val v: String) extends AnyVal {
 
     def encode(bsb: ByteStringBuilder): ByteStringBuilder = {
-      val length = v.length & 0xFFFF
-      bsb.putShort(length).putBytes(v.getBytes(StandardCharsets.UTF_8), 0, length)
+      val bytes = v.getBytes(StandardCharsets.UTF_8)
+      val length = bytes.length & 0xFFFF
+      bsb.putShort(length).putBytes(bytes, 0, length)
     }
   }
 
@@ -152,6 +152,8 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
         "client-unsubscriber-packet-id-allocator-" + clientSessionId)
       .toTyped
 
+  private val publications = if (settings.producerActors) None else Some(new InFlightPublications)
+
   private val clientConnector =
     system
       .asInstanceOf[ExtendedActorSystem]
@@ -161,6 +163,7 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
             producerPacketRouter,
             subscriberPacketRouter,
             unsubscriberPacketRouter,
+            publications,
             settings)),
         "client-connector-" + clientSessionId)
       .toTyped
@@ -187,6 +190,8 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
 
   private val pingReqBytes = PingReq.encode(ByteString.newBuilder).result()
 
+  private val topics = new TopicCache(TopicCache.DefaultCapacity)
+
   private[streaming] override def commandFlow[A](connectionId: ByteString): CommandFlow[A] =
     Flow
       .lazyFutureFlow { () =>
@@ -216,7 +221,7 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
                       case ClientConnector.ForwardConnect => cp.encode(ByteString.newBuilder).result()
                       case ClientConnector.ForwardPingReq => pingReqBytes
                       case ClientConnector.ForwardPublish(publish, packetId) =>
-                        publish.encode(ByteString.newBuilder, packetId).result()
+                        PacketCodec.encodePublish(publish, packetId, topics)
                       case ClientConnector.ForwardPubRel(packetId) =>
                         PubRel(packetId).encode(ByteString.newBuilder).result()
                     }.mapError {
@@ -242,7 +247,7 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
                       .foreach(_.complete(result.map(_ => Done)))
                   }
 
-                  Source.future(reply.future.map(_ => cp.encode(ByteString.newBuilder).result())).recover {
+                  Source.future(reply.future.map(_ => PacketCodec.encodePubAck(cp.packetId))).recover {
                     case _: RemotePacketRouter.CannotRoute => ByteString.empty
                   }
                 case Command(cp: PubRec, completed, _) =>
@@ -313,7 +318,7 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
           NotUsed
       }
       .via(new MqttFrameStage(settings.maxPacketSize))
-      .map(_.iterator.decodeControlPacket(settings.maxPacketSize))
+      .map(PacketCodec.decode(_, settings.maxPacketSize, topics))
       .log("client-events")
       .mapAsync[Either[MqttCodec.DecodeError, Event[A]]](settings.eventParallelism) {
         case Right(cp: ConnAck) =>
@@ -342,12 +347,20 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
           val reply = Promise[Consumer.ForwardPublish.type]()
           clientConnector ! ClientConnector.PublishReceivedFromRemote(connectionId, cp, reply)
           reply.future.map(_ => Right(Event(cp)))
+        case Right(cp: PubAck) if publications.isDefined =>
+          val acknowledged = publications.flatMap(_.acknowledge(cp.packetId))
+          if (publications.exists(_.hasWaiting)) clientConnector ! ClientConnector.PacketIdReleased
+          producerEvent(cp, cp.packetId, acknowledged)
         case Right(cp: PubAck) =>
           val reply = Promise[Producer.ForwardPubAck]()
           producerPacketRouter ! LocalPacketRouter.Route(cp.packetId, Producer.PubAckReceivedFromRemote(reply), reply)
           reply.future.map {
             case Producer.ForwardPubAck(carry: Option[A] @unchecked) => Right(Event(cp, carry))
           }
+        case Right(cp: PubRec) if publications.isDefined =>
+          val received = publications.flatMap(_.receive(cp.packetId))
+          if (received.isDefined) clientConnector ! ClientConnector.SendInFlightPublication(cp.packetId)
+          producerEvent(cp, cp.packetId, received)
         case Right(cp: PubRec) =>
           val reply = Promise[Producer.ForwardPubRec]()
           producerPacketRouter ! LocalPacketRouter.Route(cp.packetId, Producer.PubRecReceivedFromRemote(reply), reply)
@@ -361,6 +374,10 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
             Consumer.PubRelReceivedFromRemote(reply),
             reply)
           reply.future.map(_ => Right(Event(cp)))
+        case Right(cp: PubComp) if publications.isDefined =>
+          val completed = publications.flatMap(_.complete(cp.packetId))
+          if (publications.exists(_.hasWaiting)) clientConnector ! ClientConnector.PacketIdReleased
+          producerEvent(cp, cp.packetId, completed)
         case Right(cp: PubComp) =>
           val reply = Promise[Producer.ForwardPubComp]()
           producerPacketRouter ! LocalPacketRouter.Route(cp.packetId, Producer.PubCompReceivedFromRemote(reply), reply)
@@ -386,6 +403,15 @@ final class ActorMqttClientSession(settings: MqttSessionSettings)(implicit syste
           case _: WatchedActorTerminatedException => Source.empty
         })
       .withAttributes(ActorAttributes.logLevels(onFailure = Logging.DebugLevel))
+
+  // the event of an acknowledgement applied to the in-flight publications, with the data of its publication
+  private def producerEvent[A](cp: ControlPacket,
+      packetId: PacketId,
+      publishData: Option[Producer.PublishData]): Future[Either[MqttCodec.DecodeError, Event[A]]] =
+    publishData match {
+      case Some(carry: Option[A] @unchecked) => Future.successful(Right(Event(cp, carry)))
+      case None                              => Future.failed(LocalPacketRouter.CannotRoute(packetId))
+    }
 }
 
 object MqttServerSession {
@@ -523,6 +549,8 @@ final class ActorMqttServerSession(settings: MqttSessionSettings)(implicit syste
 
   private val pingRespBytes = PingResp.encode(ByteString.newBuilder).result()
 
+  private val topics = new TopicCache(TopicCache.DefaultCapacity)
+
   override def commandFlow[A](connectionId: ByteString): CommandFlow[A] =
     Flow
       .lazyFutureFlow { () =>
@@ -554,7 +582,7 @@ final class ActorMqttServerSession(settings: MqttSessionSettings)(implicit syste
                       case ClientConnection.ForwardPingResp =>
                         pingRespBytes
                       case ClientConnection.ForwardPublish(publish, packetId) =>
-                        publish.encode(ByteString.newBuilder, packetId).result()
+                        PacketCodec.encodePublish(publish, packetId, topics)
                       case ClientConnection.ForwardPubRel(packetId) =>
                         PubRel(packetId).encode(ByteString.newBuilder).result()
                     }.mapError {
@@ -609,7 +637,7 @@ final class ActorMqttServerSession(settings: MqttSessionSettings)(implicit syste
                       .foreach(_.complete(result.map(_ => Done)))
                   }
 
-                  Source.future(reply.future.map(_ => cp.encode(ByteString.newBuilder).result())).recover {
+                  Source.future(reply.future.map(_ => PacketCodec.encodePubAck(cp.packetId))).recover {
                     case _: RemotePacketRouter.CannotRoute => ByteString.empty
                   }
                 case Command(cp: PubRec, completed, _) =>
@@ -666,7 +694,7 @@ final class ActorMqttServerSession(settings: MqttSessionSettings)(implicit syste
           NotUsed
       }
       .via(new MqttFrameStage(settings.maxPacketSize))
-      .map(_.iterator.decodeControlPacket(settings.maxPacketSize))
+      .map(PacketCodec.decode(_, settings.maxPacketSize, topics))
       .log("server-events")
       .mapAsync[Either[MqttCodec.DecodeError, Event[A]]](settings.eventParallelism) {
         case Right(cp: Connect) =>
@@ -39,6 +39,13 @@ class MqttCodecSpec extends AnyWordSpec with Matchers with LogCapturing {
       bytes.iterator.decodeString() shouldBe Right("hi")
     }
 
+    "encode/decode strings with non-ASCII characters" in {
+      val bsb: ByteStringBuilder = ByteString.newBuilder
+      val bytes = "ℵ/ñ".encode(bsb).result()
+      bytes.iterator.getShort shouldBe 6
+      bytes.iterator.decodeString() shouldBe Right("ℵ/ñ")
+    }
+
     "underflow when decoding strings" in {
       ByteString.empty.iterator.decodeString() shouldBe Left(MqttCodec.BufferUnderflow)
     }
@@ -231,6 +238,14 @@ class MqttCodecSpec extends AnyWordSpec with Matchers with LogCapturing {
       bytes.iterator.decodeControlPacket(MaxPacketSize) shouldBe Right(packet)
     }
 
+    "encode/decode publish packets with a non-ASCII topic name" in {
+      val bsb: ByteStringBuilder = ByteString.newBuilder
+      val packet = Publish("some-tøpic-ℵ", ByteString("some-payload"))
+      val bytes = packet.encode(bsb, Some(PacketId(0))).result()
+      bytes.size shouldBe 33
+      bytes.iterator.decodeControlPacket(MaxPacketSize) shouldBe Right(packet)
+    }
+
     "invalid QoS when decoding publish packets" in {
       val bsb = ByteString.newBuilder
         .putByte((ControlPacketType.PUBLISH.underlying << 4 | ControlPacketFlags.QoSReserved.underlying).toByte)
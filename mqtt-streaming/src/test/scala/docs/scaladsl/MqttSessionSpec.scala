@@ -1083,6 +1083,132 @@ class MqttSessionSpec
       client.watchCompletion().foreach(_ => session.shutdown())
     }
 
+    "publish with QoS 2 and carry through an object to pubComp without producer actors" in assertAllStagesStopped {
+      val session = ActorMqttClientSession(settings.withProducerActors(false))
+
+      val server = TestProbe()
+      val pipeToServer = Flow[ByteString].mapAsync(1)(msg => server.ref.ask(msg).mapTo[ByteString])
+
+      val (client, result) =
+        Source
+          .queue(1, OverflowStrategy.fail)
+          .via(
+            Mqtt
+              .clientSessionFlow[String](session, ByteString("1"))
+              .join(pipeToServer))
+          .drop(2)
+          .toMat(Sink.head)(Keep.both)
+          .run()
+
+      val connect = Connect("some-client-id", ConnectFlags.None)
+      val connectBytes = connect.encode(ByteString.newBuilder).result()
+      val connAck = ConnAck(ConnAckFlags.None, ConnAckReturnCode.ConnectionAccepted)
+      val connAckBytes = connAck.encode(ByteString.newBuilder).result()
+
+      val publish = Publish(ControlPacketFlags.QoSExactlyOnceDelivery, "some-topic", ByteString("some-payload"))
+      val publishBytes = publish.encode(ByteString.newBuilder, Some(PacketId(1))).result()
+      val carry = "some-carry"
+      val pubRec = PubRec(PacketId(1))
+      val pubRecBytes = pubRec.encode(ByteString.newBuilder).result()
+      val pubRel = PubRel(PacketId(1))
+      val pubRelBytes = pubRel.encode(ByteString.newBuilder).result()
+      val pubComp = PubComp(PacketId(1))
+      val pubCompBytes = pubComp.encode(ByteString.newBuilder).result()
+
+      client.offer(Command(connect))
+
+      server.expectMsg(connectBytes)
+      server.reply(connAckBytes)
+
+      session ! Command(publish, carry)
+
+      server.expectMsg(publishBytes)
+      server.reply(pubRecBytes)
+
+      server.expectMsg(pubRelBytes)
+      server.reply(pubCompBytes)
+
+      result.futureValue shouldBe Right(Event(pubComp, Some(carry)))
+
+      client.complete()
+      client.watchCompletion().foreach(_ => session.shutdown())
+    }
+
+    "publish with a QoS of 1 and cause a retry given a reconnect without producer actors" in {
+      val session = ActorMqttClientSession(settings.withProducerActors(false))
+
+      val server = TestProbe()
+      val pipeToServer = Flow[ByteString].mapAsync(1)(msg => server.ref.ask(msg).mapTo[ByteString])
+
+      val connect = Connect("some-client-id", ConnectFlags.None)
+      val connectBytes = connect.encode(ByteString.newBuilder).result()
+      val connAck = ConnAck(ConnAckFlags.None, ConnAckReturnCode.ConnectionAccepted)
+      val connAckBytes = connAck.encode(ByteString.newBuilder).result()
+
+      val publish = Publish("some-topic", ByteString("some-payload"))
+      val publishBytes = publish.encode(ByteString.newBuilder, Some(PacketId(1))).result()
+      val otherPublishBytes = publish.encode(ByteString.newBuilder, Some(PacketId(2))).result()
+      val publishDup = publish.copy(flags = publish.flags | ControlPacketFlags.DUP)
+      val publishDupBytes = publishDup.encode(ByteString.newBuilder, Some(PacketId(1))).result()
+      val pubAck = PubAck(PacketId(1))
+      val pubAckBytes = pubAck.encode(ByteString.newBuilder).result()
+      val otherPubAckBytes = PubAck(PacketId(2)).encode(ByteString.newBuilder).result()
+
+      val firstClient =
+        Source
+          .queue(1, OverflowStrategy.fail)
+          .via(
+            Mqtt
+              .clientSessionFlow(session, ByteString("1"))
+              .join(pipeToServer))
+          .toMat(Sink.ignore)(Keep.left)
+          .run()
+
+      firstClient.offer(Command(connect))
+
+      server.expectMsg(connectBytes)
+      server.reply(connAckBytes)
+
+      session ! Command(publish)
+
+      server.expectMsg(publishBytes)
+
+      server.reply(connAckBytes)
+
+      firstClient.complete()
+
+      val secondClient =
+        Source
+          .queue(1, OverflowStrategy.fail)
+          .via(
+            Mqtt
+              .clientSessionFlow(session, ByteString("2"))
+              .join(pipeToServer))
+          .toMat(Sink.ignore)(Keep.left)
+          .run()
+
+      secondClient.offer(Command(connect))
+
+      server.expectMsg(connectBytes)
+      server.reply(connAckBytes)
+
+      server.expectMsg(publishDupBytes)
+      server.reply(pubAckBytes)
+
+      // packet ids roll on rather than reusing the one just released
+      session ! Command(publish)
+
+      server.expectMsg(otherPublishBytes)
+      server.reply(otherPubAckBytes)
+
+      secondClient.complete()
+
+      for {
+        _ <- firstClient.watchCompletion()
+        _ <- secondClient.watchCompletion()
+      } yield session.shutdown()
+    }
+
     "connect and send out a ping request" in {
       /*assertAllStagesStopped { */
       val session = ActorMqttClientSession(settings)
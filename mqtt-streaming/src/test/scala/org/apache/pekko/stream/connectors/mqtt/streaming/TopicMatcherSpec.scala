@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+
+import org.apache.pekko.stream.connectors.mqtt.streaming.impl.Topics
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.util.Random
+
+class TopicMatcherSpec extends AnyWordSpec with Matchers {
+
+  "topic matcher" should {
+    "match topic filters" in {
+      TopicMatcher("sport/tennis/player1").matches("sport/tennis/player1") shouldBe true
+
+      TopicMatcher("sport/tennis/player1/#").matches("sport/tennis/player1") shouldBe true
+      TopicMatcher("sport/tennis/player1/#").matches("sport/tennis/player1/ranking") shouldBe true
+      TopicMatcher("sport/tennis/player1/#").matches("sport/tennis/player1/score/wimbledon") shouldBe true
+
+      TopicMatcher("sport/#").matches("sport") shouldBe true
+      TopicMatcher("#").matches("sport") shouldBe true
+      TopicMatcher("sport/tennis/#").matches("sport/tennis") shouldBe true
+      TopicMatcher("sport/tennis#").matches("sport/tennis") shouldBe false
+      TopicMatcher("sport/tennis/#/ranking").matches("sport/tennis/player1/ranking") shouldBe false
+
+      TopicMatcher("sport/tennis/+").matches("sport/tennis/player1") shouldBe true
+      TopicMatcher("sport/tennis/+").matches("sport/tennis/player1/tranking") shouldBe false
+
+      TopicMatcher("sport/+").matches("sport") shouldBe false
+      TopicMatcher("sport/+").matches("sport/") shouldBe true
+
+      TopicMatcher("+").matches("sport") shouldBe true
+      TopicMatcher("+/tennis/#").matches("sport/tennis") shouldBe true
+      TopicMatcher("sport+").matches("sport") shouldBe false
+    }
+
+    "match topic filters that are topic filters" in {
+      TopicMatcher("#").matches("#") shouldBe true
+      TopicMatcher("#").matches("/a/#") shouldBe true
+      TopicMatcher("+").matches("+") shouldBe true
+      TopicMatcher("/+/#").matches("/+/#") shouldBe true
+    }
+
+    "match any of its topic filters" in {
+      val matcher = TopicMatcher("sport/tennis/+", "sport/golf/#", "news")
+
+      matcher.matches("sport/tennis/player1") shouldBe true
+      matcher.matches("sport/golf") shouldBe true
+      matcher.matches("sport/golf/player2/score") shouldBe true
+      matcher.matches("news") shouldBe true
+      matcher.matches("sport/cricket") shouldBe false
+      matcher.matches("news/today") shouldBe false
+    }
+
+    "stop matching removed topic filters" in {
+      val matcher = TopicMatcher("sport/tennis/+", "sport/#")
+
+      matcher.remove("sport/#").matches("sport/golf") shouldBe false
+      matcher.remove("sport/#").matches("sport/tennis/player1") shouldBe true
+      matcher.remove("sport/tennis/+").matches("sport/tennis/player1") shouldBe true
+      matcher.removeAll(List("sport/tennis/+", "sport/#")) shouldBe TopicMatcher.empty
+      matcher.remove("sport/cricket") shouldBe matcher
+    }
+
+    "match like the topic filter of each of its topic filters" in {
+      val random = new Random(42)
+      val levels = Vector("a", "b", "c", "+", "#")
+      def topic(): String = Vector.fill(1 + random.nextInt(4))(levels(random.nextInt(levels.size))).mkString("/")
+
+      // "#" may only be the last level of a topic filter
+      val filters = Vector.fill(50)(topic()).filterNot(_.dropRight(1).contains("#")).distinct
+      val matcher = TopicMatcher(filters: _*)
+      for (_ <- 1 to 1000) {
+        val name = topic().replace("+", "a").replace("#", "b")
+        withClue(s"topic name $name:") {
+          matcher.matches(name) shouldBe filters.exists(Topics.filter(_, name))
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+package impl
+
+import org.apache.pekko
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.util.ByteString
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class PacketCodecSpec extends AnyWordSpec with Matchers with LogCapturing {
+
+  import MqttCodec._
+
+  private val MaxPacketSize = 100000
+
+  private def bytes(bs: Int*): ByteString = ByteString(bs.map(_.toByte).toArray)
+
+  private def decode(bytes: ByteString, topics: TopicCache = new TopicCache(16)) =
+    PacketCodec.decode(bytes, MaxPacketSize, topics)
+
+  "the packet codec" should {
+    "decode remaining lengths" in {
+      for (l <- List(0, 127, 128, 16383, 16384, 2097151, 2097152, 268435455)) {
+        val bytes = l.encode(ByteString.newBuilder.putByte(0)).result()
+        val remaining = PacketCodec.remainingLength(bytes, 1)
+        PacketCodec.lengthOf(remaining) shouldBe l
+        PacketCodec.sizeOf(remaining) shouldBe bytes.size - 1
+        PacketCodec.remainingLength(bytes.dropRight(1), 1) shouldBe PacketCodec.Underflow
+      }
+    }
+
+    "decode publish packets like MqttCodec" in {
+      val publishes = List(
+        Publish(ControlPacketFlags.QoSAtMostOnceDelivery, "some-topic", ByteString("some-payload")),
+        Publish(ControlPacketFlags.QoSAtLeastOnceDelivery | ControlPacketFlags.RETAIN, "some-topic", ByteString.empty),
+        Publish(ControlPacketFlags.QoSExactlyOnceDelivery | ControlPacketFlags.DUP, "", ByteString("some-payload")),
+        Publish(ControlPacketFlags.QoSAtLeastOnceDelivery, "some-topic", ByteString(Array.fill[Byte](1000)(1))))
+      for (publish <- publishes) {
+        val packetId = if (publish.flags.underlying == 0) None else Some(PacketId(42))
+        val bytes = publish.encode(ByteString.newBuilder, packetId).result()
+        decode(bytes) shouldBe bytes.iterator.decodeControlPacket(MaxPacketSize)
+        decode(bytes) shouldBe Right(publish.copy(packetId = packetId))
+      }
+    }
+
+    "decode other packets like MqttCodec" in {
+      val packets = List(
+        PubAck(PacketId(1)).encode(ByteString.newBuilder).result(),
+        PubRec(PacketId(1)).encode(ByteString.newBuilder).result(),
+        Subscribe("some-topic").encode(ByteString.newBuilder, PacketId(1)).result(),
+        Connect("some-client-id", ConnectFlags.None).encode(ByteString.newBuilder).result(),
+        PingReq.encode(ByteString.newBuilder).result(),
+        // QoS reserved
+        bytes(0x36, 0x02, 0x00, 0x00),
+        // topic name longer than the packet
+        bytes(0x30, 0x03, 0x00, 0x05, 0x61),
+        // packet id missing
+        bytes(0x32, 0x03, 0x00, 0x01, 0x61),
+        // packet too large
+        bytes(0x30, 0x80, 0x80, 0x80, 0x01),
+        bytes(0x30),
+        ByteString.empty)
+      for (packet <- packets) {
+        decode(packet) shouldBe packet.iterator.decodeControlPacket(MaxPacketSize)
+      }
+    }
+
+    "share the topic names of the packets it decodes" in {
+      val topics = new TopicCache(16)
+      val bytes = Publish(ControlPacketFlags.QoSAtMostOnceDelivery, "some-topic", ByteString("some-payload"))
+        .encode(ByteString.newBuilder, None)
+        .result()
+      val first = decode(bytes, topics)
+      val second = decode(bytes.compact, topics)
+
+      (first, second) match {
+        case (Right(p1: Publish), Right(p2: Publish)) => p1.topicName should be theSameInstanceAs p2.topicName
+        case other                                    => fail(s"unexpected $other")
+      }
+    }
+
+    "encode publish packets like MqttCodec" in {
+      val topics = new TopicCache(16)
+      val publishes = List(
+        Publish(ControlPacketFlags.QoSAtMostOnceDelivery, "some-topic", ByteString("some-payload")),
+        Publish(ControlPacketFlags.QoSAtLeastOnceDelivery | ControlPacketFlags.RETAIN, "some-topic", ByteString.empty),
+        Publish(ControlPacketFlags.QoSAtLeastOnceDelivery, "some-topic", ByteString(Array.fill[Byte](200)(1))),
+        Publish(ControlPacketFlags.QoSAtLeastOnceDelivery, "other-topic", ByteString(Array.fill[Byte](20000)(1))))
+      for (publish <- publishes; packetId <- List(None, Some(PacketId(65535)))) {
+        val expected = publish.encode(ByteString.newBuilder, packetId).result()
+        PacketCodec.encodePublish(publish, packetId, topics) shouldBe expected
+      }
+    }
+
+    "encode the UTF-8 length of topic names" in {
+      val publish = Publish(ControlPacketFlags.QoSAtMostOnceDelivery, "sensors/température", ByteString("20"))
+      val bytes = PacketCodec.encodePublish(publish, None, new TopicCache(16))
+
+      decode(bytes) shouldBe Right(publish)
+    }
+
+    "encode pub ack packets like MqttCodec" in {
+      PacketCodec.encodePubAck(PacketId(513)) shouldBe PubAck(PacketId(513)).encode(ByteString.newBuilder).result()
+    }
+  }
+}
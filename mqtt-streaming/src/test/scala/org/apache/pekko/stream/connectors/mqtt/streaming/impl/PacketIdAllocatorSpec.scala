@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.mqtt.streaming
+package impl
+
+import org.apache.pekko
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.util.ByteString
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.duration._
+import scala.concurrent.{ Await, ExecutionContext, Future }
+
+class PacketIdAllocatorSpec extends AnyWordSpec with Matchers with LogCapturing {
+
+  "the packet id allocator" should {
+    "allocate packet ids from a rolling cursor" in {
+      val packetIds = new PacketIdAllocator
+
+      packetIds.acquire() shouldBe Some(PacketId(1))
+      packetIds.acquire() shouldBe Some(PacketId(2))
+      packetIds.release(PacketId(1))
+      packetIds.acquire() shouldBe Some(PacketId(3))
+      packetIds.isAllocated(PacketId(1)) shouldBe false
+      packetIds.isAllocated(PacketId(2)) shouldBe true
+      packetIds.size shouldBe 2
+    }
+
+    "wrap around to the lowest free packet id, never allocating 0" in {
+      val packetIds = new PacketIdAllocator
+      val all = Iterator.continually(packetIds.acquire()).takeWhile(_.isDefined).flatten.toList
+
+      all shouldBe (1 to 65535).map(PacketId(_))
+      packetIds.acquire() shouldBe None
+
+      packetIds.release(PacketId(100))
+      packetIds.release(PacketId(0))
+      packetIds.acquire() shouldBe Some(PacketId(100))
+      packetIds.acquire() shouldBe None
+    }
+
+    "allocate distinct packet ids concurrently" in {
+      import ExecutionContext.Implicits.global
+      val packetIds = new PacketIdAllocator
+
+      val acquired = Future.sequence((1 to 8).map { _ =>
+        Future {
+          (1 to 5000).flatMap { i =>
+            val packetId = packetIds.acquire().toList
+            if (i % 2 == 0) {
+              packetId.foreach(packetIds.release)
+              Nil
+            } else {
+              packetId
+            }
+          }
+        }
+      })
+      val kept = Await.result(acquired, 10.seconds).flatten
+
+      kept.distinct.size shouldBe kept.size
+      packetIds.size shouldBe kept.size
+    }
+  }
+
+  "the in-flight publications" should {
+    val qos1 = Publish(ControlPacketFlags.QoSAtLeastOnceDelivery, "some-topic", ByteString("some-payload"))
+    val qos2 = Publish(ControlPacketFlags.QoSExactlyOnceDelivery, "some-topic", ByteString("some-payload"))
+
+    "release a QoS 1 publication when acknowledged" in {
+      val publications = new InFlightPublications
+      publications.enqueue(qos1, Some("some-carry"))
+
+      publications.dequeue() shouldBe Some((PacketId(1), qos1))
+      publications.receive(PacketId(1)) shouldBe None
+      publications.acknowledge(PacketId(1)) shouldBe Some(Some("some-carry"))
+      publications.acknowledge(PacketId(1)) shouldBe None
+      publications.inFlight shouldBe empty
+    }
+
+    "release a QoS 2 publication when received and completed" in {
+      val publications = new InFlightPublications
+      publications.enqueue(qos2, None)
+
+      publications.dequeue() shouldBe Some((PacketId(1), qos2))
+      publications.complete(PacketId(1)) shouldBe None
+      publications.receive(PacketId(1)) shouldBe Some(None)
+      publications.retransmission(PacketId(1)) shouldBe Some(Right(PubRel(PacketId(1))))
+      publications.complete(PacketId(1)) shouldBe Some(None)
+      publications.retransmission(PacketId(1)) shouldBe None
+    }
+
+    "retransmit publications with the DUP flag set" in {
+      val publications = new InFlightPublications
+      publications.enqueue(qos1, None)
+      publications.enqueue(qos2, None)
+      publications.dequeue()
+      publications.dequeue()
+
+      publications.inFlight shouldBe List(PacketId(1), PacketId(2))
+      publications.retransmission(PacketId(2)) shouldBe Some(
+        Left(qos2.copy(flags = qos2.flags | ControlPacketFlags.DUP)))
+
+      publications.clear()
+      publications.inFlight shouldBe empty
+      publications.hasWaiting shouldBe false
+    }
+  }
+}
@@ -372,6 +372,7 @@ object Dependencies {
       "org.apache.pekko" %% "pekko-http" % PekkoHttpVersion,
       "org.apache.pekko" %% "pekko-http-xml" % PekkoHttpVersion,
       "software.amazon.awssdk" % "auth" % AwsSdk2Version,
+      "org.hdrhistogram" % "HdrHistogram" % "2.1.12" % Provided, // CC0 1.0 / BSD 2-Clause
       // in-memory filesystem for file related tests
       "com.google.jimfs" % "jimfs" % "1.2" % Test, // ApacheV2
       "com.github.tomakehurst" % "wiremock-jre8" % "2.32.0" % Test // ApacheV2
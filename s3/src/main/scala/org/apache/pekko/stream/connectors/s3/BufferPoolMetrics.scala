@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3
+
+import java.time.{ Duration => JavaDuration }
+
+import org.apache.pekko.annotation.DoNotInherit
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Metrics of the slab pool shared by uploads using a [[PooledBufferType]], see [[S3Ext.bufferPoolMetrics]].
+ */
+@DoNotInherit
+trait BufferPoolMetrics {
+
+  def slabSize: Int
+
+  def maxSlabs: Int
+
+  /** Number of slabs currently rented by uploads. */
+  def slabsInUse: Int
+
+  /** Number of requests for a part's slabs made while not enough slabs were free, which have not been served yet. */
+  def waitingRequests: Int
+
+  /** Number of slab requests which had to wait for slabs to be returned. */
+  def waitCount: Long
+
+  /** Total time slab requests waited for a slab to be returned. */
+  def totalWaitTime: FiniteDuration
+
+  /** Java API */
+  def getSlabSize: Int = slabSize
+
+  /** Java API */
+  def getMaxSlabs: Int = maxSlabs
+
+  /** Java API */
+  def getSlabsInUse: Int = slabsInUse
+
+  /** Java API */
+  def getWaitingRequests: Int = waitingRequests
+
+  /** Java API */
+  def getWaitCount: Long = waitCount
+
+  /** Java API */
+  def getTotalWaitTime: JavaDuration = JavaDuration.ofNanos(totalWaitTime.toNanos)
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3
+
+import java.util.concurrent.atomic.LongAdder
+
+import org.apache.pekko.http.scaladsl.model.{ HttpRequest, StatusCode }
+import org.HdrHistogram.{ ConcurrentHistogram, Histogram }
+
+/**
+ * An [[S3Instrumentation]] recording the timings of requests in HDR histograms, in nanoseconds, and counting requests
+ * and bytes.
+ *
+ * The histograms returned are copies taken when called. Use one instance per stream, or per kind of stream, to tell
+ * e.g. uploads and downloads apart.
+ *
+ * The HdrHistogram library is an optional dependency of this connector and has to be added to use this class.
+ */
+final class HdrHistogramInstrumentation extends S3Instrumentation {
+  private val signing = newHistogram()
+  private val waiting = newHistogram()
+  private val transfer = newHistogram()
+  private val bufferFill = newHistogram()
+  private val started = new LongAdder
+  private val failed = new LongAdder
+  private val retried = new LongAdder
+  private val sent = new LongAdder
+  private val received = new LongAdder
+
+  override def requestStarted(request: HttpRequest): Unit = started.increment()
+
+  override def requestSigned(request: HttpRequest, signingNanos: Long): Unit = signing.recordValue(signingNanos)
+
+  override def bytesSent(request: HttpRequest, bytes: Long): Unit = sent.add(bytes)
+
+  override def responseReceived(request: HttpRequest, status: StatusCode, waitNanos: Long): Unit =
+    waiting.recordValue(waitNanos)
+
+  override def requestCompleted(request: HttpRequest, bytes: Long, transferNanos: Long): Unit = {
+    received.add(bytes)
+    transfer.recordValue(transferNanos)
+  }
+
+  override def requestFailed(request: HttpRequest, cause: Throwable, nanos: Long): Unit = failed.increment()
+
+  override def requestRetried(request: HttpRequest): Unit = retried.increment()
+
+  override def partRetried(partNumber: Int, bytes: Long): Unit = retried.increment()
+
+  override def bufferFilled(bytes: Long, fillNanos: Long): Unit = bufferFill.recordValue(fillNanos)
+
+  /** Time spent signing requests. */
+  def signingTimes: Histogram = signing.copy()
+
+  /** Time from handing requests to the connection pool until their response headers arrived. */
+  def waitTimes: Histogram = waiting.copy()
+
+  /** Time reading response bodies. */
+  def transferTimes: Histogram = transfer.copy()
+
+  /** Time filling upload buffers. */
+  def bufferFillTimes: Histogram = bufferFill.copy()
+
+  /** Number of request attempts started. */
+  def requests: Long = started.sum()
+
+  /** Number of request attempts which failed without a response or while reading it. */
+  def failures: Long = failed.sum()
+
+  /** Number of request attempts and part uploads retried. */
+  def retries: Long = retried.sum()
+
+  def sentBytes: Long = sent.sum()
+
+  def receivedBytes: Long = received.sum()
+
+  /** Clears all histograms and counters. */
+  def reset(): Unit = {
+    Seq(signing, waiting, transfer, bufferFill).foreach(_.reset())
+    Seq(started, failed, retried, sent, received).foreach(_.reset())
+  }
+
+  /** Java API */
+  def getSigningTimes: Histogram = signingTimes
+
+  /** Java API */
+  def getWaitTimes: Histogram = waitTimes
+
+  /** Java API */
+  def getTransferTimes: Histogram = transferTimes
+
+  /** Java API */
+  def getBufferFillTimes: Histogram = bufferFillTimes
+
+  /** Java API */
+  def getRequests: Long = requests
+
+  /** Java API */
+  def getFailures: Long = failures
+
+  /** Java API */
+  def getRetries: Long = retries
+
+  /** Java API */
+  def getSentBytes: Long = sentBytes
+
+  /** Java API */
+  def getReceivedBytes: Long = receivedBytes
+
+  private def newHistogram(): ConcurrentHistogram = new ConcurrentHistogram(3)
+}
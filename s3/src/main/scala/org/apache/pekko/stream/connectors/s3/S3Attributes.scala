@@ -31,6 +31,17 @@ object S3Attributes {
    * Config path which will be used to resolve required S3 settings
    */
   def settingsPath(path: String): Attributes = Attributes(S3SettingsPath(path))
+
+  /**
+   * Instrumentation receiving the timings of the requests of the S3 stream
+   */
+  def instrumentation(instrumentation: S3Instrumentation): Attributes =
+    Attributes(S3InstrumentationValue(instrumentation))
+
+  /**
+   * Cache serving object metadata from memory and revalidating cached object bodies
+   */
+  def objectCache(cache: S3ObjectCache): Attributes = Attributes(S3ObjectCacheValue(cache))
 }
 
 final class S3SettingsPath private (val path: String) extends Attribute
@@ -44,3 +55,13 @@ final class S3SettingsValue private (val settings: S3Settings) extends Attribute
 object S3SettingsValue {
   def apply(settings: S3Settings) = new S3SettingsValue(settings)
 }
+
+final class S3InstrumentationValue private (val instrumentation: S3Instrumentation) extends Attribute
+object S3InstrumentationValue {
+  def apply(instrumentation: S3Instrumentation) = new S3InstrumentationValue(instrumentation)
+}
+
+final class S3ObjectCacheValue private (val cache: S3ObjectCache) extends Attribute
+object S3ObjectCacheValue {
+  def apply(cache: S3ObjectCache) = new S3ObjectCacheValue(cache)
+}
@@ -13,16 +13,55 @@
 
 package org.apache.pekko.stream.connectors.s3
 
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+
 import org.apache.pekko
 import pekko.actor.{ ClassicActorSystemProvider, ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider }
+import pekko.annotation.InternalApi
+import pekko.stream.connectors.s3.impl.{ SlabPool, SpillFiles }
 
 /**
- * Manages one [[S3Settings]] per `ActorSystem`.
+ * Manages one [[S3Settings]] and the buffers of [[PooledBufferType]]s and [[DiskBufferType]]s per `ActorSystem`.
  */
 final class S3Ext private (sys: ExtendedActorSystem) extends Extension {
+  private val slabPools = new ConcurrentHashMap[PooledBufferType, SlabPool]()
+  private val spillFileRings = new ConcurrentHashMap[(Option[Path], Int), SpillFiles]()
+
   val settings: S3Settings = settings(S3Settings.ConfigPath)
 
   def settings(prefix: String): S3Settings = S3Settings(sys.settings.config.getConfig(prefix))
+
+  /**
+   * Metrics of the buffer pool shared by uploads using the given buffer type.
+   */
+  def bufferPoolMetrics(bufferType: PooledBufferType): BufferPoolMetrics = slabPool(bufferType)
+
+  /** Internal API */
+  @InternalApi private[s3] def slabPool(bufferType: PooledBufferType): SlabPool = {
+    val pool = slabPools.get(bufferType)
+    if (pool ne null) pool
+    else {
+      slabPools.putIfAbsent(bufferType, new SlabPool(bufferType.slabSize, bufferType.maxSlabs))
+      slabPools.get(bufferType)
+    }
+  }
+
+  /** Internal API */
+  @InternalApi private[s3] def spillFiles(bufferType: DiskBufferType): SpillFiles = {
+    val key = (bufferType.path, bufferType.spillFiles)
+    val files = spillFileRings.get(key)
+    if (files ne null) files
+    else {
+      val created = new SpillFiles(bufferType.path, bufferType.spillFiles)
+      val existing = spillFileRings.putIfAbsent(key, created)
+      if (existing ne null) existing
+      else {
+        sys.registerOnTermination(created.close())
+        created
+      }
+    }
+  }
 }
 
 object S3Ext extends ExtensionId[S3Ext] with ExtensionIdProvider {
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3
+
+import org.apache.pekko.http.scaladsl.model.{ HttpRequest, StatusCode }
+
+/**
+ * Receives the timings of the requests sent to S3, enabled for a stream with [[S3Attributes.instrumentation]].
+ *
+ * Every attempt of a request is reported on its own: it starts with `requestStarted`, is signed, sent, and ends with
+ * either `requestCompleted` once the response body has been read or discarded, or with `requestFailed`. Requests which
+ * are retried are reported with `requestRetried` in between, part uploads with `partRetried`. All durations are in
+ * nanoseconds.
+ *
+ * The callbacks are invoked from the streams running the requests, concurrently for concurrent requests, and must
+ * neither block nor throw. All methods do nothing by default.
+ *
+ * [[HdrHistogramInstrumentation]] records the timings in histograms. It requires the HdrHistogram library, which is an
+ * optional dependency of this connector.
+ */
+abstract class S3Instrumentation {
+
+  /** An attempt of `request` is about to be signed. */
+  def requestStarted(request: HttpRequest): Unit = ()
+
+  /** `request` has been signed, which took `signingNanos`. */
+  def requestSigned(request: HttpRequest, signingNanos: Long): Unit = ()
+
+  /** `request` is sent with a body of `bytes` bytes, or 0 when the length of the body isn't known. */
+  def bytesSent(request: HttpRequest, bytes: Long): Unit = ()
+
+  /**
+   * The response headers of `request` arrived `waitNanos` after the request was handed to the connection pool. This
+   * includes the time waiting for a pooled connection and the time to the first byte of the response.
+   */
+  def responseReceived(request: HttpRequest, status: StatusCode, waitNanos: Long): Unit = ()
+
+  /** The response body of `request` of `bytes` bytes has been read, `transferNanos` after its headers arrived. */
+  def requestCompleted(request: HttpRequest, bytes: Long, transferNanos: Long): Unit = ()
+
+  /** `request` failed after `nanos`, either before a response arrived or while reading its body. */
+  def requestFailed(request: HttpRequest, cause: Throwable, nanos: Long): Unit = ()
+
+  /** `request` failed with a transient error and is retried. */
+  def requestRetried(request: HttpRequest): Unit = ()
+
+  /** The upload of part `partNumber` of `bytes` bytes failed with a transient error and is retried. */
+  def partRetried(partNumber: Int, bytes: Long): Unit = ()
+
+  /** An upload buffer has been filled with `bytes` bytes of a part, `fillNanos` after its first bytes arrived. */
+  def bufferFilled(bytes: Long, fillNanos: Long): Unit = ()
+}
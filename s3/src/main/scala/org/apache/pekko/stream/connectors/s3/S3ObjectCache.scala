@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3
+
+import java.nio.file.{ Files, Path }
+import java.util.{ LinkedHashMap, UUID }
+import java.util.concurrent.atomic.LongAdder
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+import pekko.http.scaladsl.model.HttpHeader
+import pekko.stream.scaladsl.{ FileIO, Keep, Source }
+import pekko.util.ByteString
+
+import scala.util.Success
+
+/**
+ * A cache of object metadata, and optionally of the bodies of small objects on local disk, used by the streams it is
+ * set on with [[S3Attributes.objectCache]]. Share one instance between the streams reading the same objects.
+ *
+ * Metadata requested with `getObjectMetadata` is served from memory for `timeToLive` after it was read from S3.
+ * Bodies kept in `bodyDirectory` are not served before S3 confirmed that they are still current: `getObject` and
+ * `download` without a range send the stored ETag in `If-None-Match`, and stream the body from disk when S3 answers
+ * `304 Not Modified`. Entries are keyed by bucket, key and version id, and the least recently used are evicted first.
+ * Requests with a range or with a customer-provided encryption key bypass the cache.
+ */
+final class S3ObjectCache(val settings: ObjectCacheSettings) {
+  import S3ObjectCache._
+
+  // access ordered, so that iterating starts with the least recently used entry
+  private val entries = new LinkedHashMap[EntryKey, Entry](16, 0.75f, true)
+  private val hit = new LongAdder
+  private val missed = new LongAdder
+  private val revalidated = new LongAdder
+
+  /** Drops the cached metadata and body of all versions of an object. */
+  def invalidate(bucket: String, key: String): Unit = {
+    val removed = synchronized {
+      val iterator = entries.entrySet().iterator()
+      var removed = List.empty[Body]
+      while (iterator.hasNext) {
+        val entry = iterator.next()
+        if (entry.getKey.bucket == bucket && entry.getKey.key == key) {
+          removed = entry.getValue.body.toList ::: removed
+          iterator.remove()
+        }
+      }
+      drop(removed)
+    }
+    delete(removed)
+  }
+
+  /** Drops all cached metadata and bodies. */
+  def clear(): Unit = {
+    val removed = synchronized {
+      val bodies = entries.values().toArray(new Array[Entry](0)).toList.flatMap(_.body)
+      entries.clear()
+      drop(bodies)
+    }
+    delete(removed)
+  }
+
+  /** Number of cached objects. */
+  def size: Int = synchronized(entries.size())
+
+  /** Number of metadata requests served from memory. */
+  def hits: Long = hit.sum()
+
+  /** Number of metadata requests sent to S3. */
+  def misses: Long = missed.sum()
+
+  /** Number of bodies streamed from disk after S3 answered `304 Not Modified`. */
+  def revalidations: Long = revalidated.sum()
+
+  private[s3] def metadata(bucket: String, key: String, versionId: Option[String]): Option[ObjectMetadata] = {
+    val now = System.nanoTime()
+    val cached = synchronized(Option(entries.get(EntryKey(bucket, key, versionId))))
+      .filter(entry => now - entry.storedAt < settings.timeToLive.toNanos)
+      .map(_.metadata)
+    if (cached.isDefined) hit.increment() else missed.increment()
+    cached
+  }
+
+  /**
+   * The metadata and body of an object with a known ETag, no matter how long ago it was stored. The body file is kept
+   * until it is given back with `release`, even if the entry is dropped in the meantime.
+   */
+  private[s3] def acquireBody(bucket: String, key: String, versionId: Option[String]): Option[(ObjectMetadata, Body)] =
+    synchronized {
+      Option(entries.get(EntryKey(bucket, key, versionId))).flatMap { entry =>
+        entry.body.filter(_ => entry.metadata.eTag.isDefined).map { body =>
+          body.readers += 1
+          (entry.metadata, body)
+        }
+      }
+    }
+
+  /** Gives back a body acquired with `acquireBody`, deleting its file if it was dropped and isn't read anymore. */
+  private[s3] def release(body: Body): Unit = {
+    val removed = synchronized {
+      body.readers -= 1
+      if (body.dropped && body.readers == 0) List(body.path) else Nil
+    }
+    delete(removed)
+  }
+
+  /** Stores the metadata of an object, keeping its body only if the ETag is unchanged. */
+  private[s3] def put(bucket: String, key: String, versionId: Option[String], metadata: ObjectMetadata): Unit =
+    update(EntryKey(bucket, key, versionId), metadata, None)
+
+  /** Marks an object as confirmed current by S3. */
+  private[s3] def notModified(bucket: String, key: String, versionId: Option[String]): Unit = {
+    revalidated.increment()
+    synchronized {
+      val entryKey = EntryKey(bucket, key, versionId)
+      Option(entries.get(entryKey)).foreach(entry => entries.put(entryKey, entry.copy(storedAt = System.nanoTime())))
+    }
+  }
+
+  private[s3] def remove(bucket: String, key: String, versionId: Option[String]): Unit =
+    delete(synchronized(drop(Option(entries.remove(EntryKey(bucket, key, versionId))).flatMap(_.body).toList)))
+
+  /**
+   * Stores the metadata of an object which is read from S3, and writes its body to `bodyDirectory` while `data` is
+   * read when it is small enough. The body is only kept once it was read completely.
+   */
+  private[s3] def store(bucket: String,
+      key: String,
+      versionId: Option[String],
+      metadata: ObjectMetadata,
+      data: Source[ByteString, NotUsed]): Source[ByteString, NotUsed] = {
+    put(bucket, key, versionId, metadata)
+    settings.bodyDirectory match {
+      case Some(directory) if metadata.eTag.isDefined && metadata.contentLength <= settings.maxBodySize =>
+        // the file is only created when the body is read, and a body the file sink couldn't keep up with or failed
+        // to write is dropped without affecting the download
+        val file = directory.resolve(s"s3-cache-${UUID.randomUUID()}.bin")
+        data
+          .wireTapMat(FileIO.toPath(file))(Keep.right)
+          .mapMaterializedValue { written =>
+            written.onComplete {
+              case Success(result) if result.count == metadata.contentLength =>
+                update(EntryKey(bucket, key, versionId), metadata, Some(file))
+              case _ =>
+                Files.deleteIfExists(file)
+            }(ExecutionContexts.parasitic)
+            NotUsed
+          }
+      case _ => data
+    }
+  }
+
+  private def update(entryKey: EntryKey, metadata: ObjectMetadata, body: Option[Path]): Unit = {
+    val obsolete = synchronized {
+      val previous = Option(entries.get(entryKey))
+      val sameVersion = previous.exists(_.metadata.eTag == metadata.eTag)
+      val previousBody = previous.flatMap(_.body)
+      if (body.isDefined && !sameVersion) {
+        // the object changed, or was evicted, while its body was written
+        body.toList
+      } else {
+        val stored = body.map(new Body(_)).orElse(previousBody.filter(_ => sameVersion))
+        entries.put(entryKey, Entry(metadata, System.nanoTime(), stored))
+        drop(previousBody.filterNot(stored.contains).toList ::: evict())
+      }
+    }
+    delete(obsolete)
+  }
+
+  /** Removes the least recently used entries above `maxEntries`, returning their bodies. */
+  private def evict(): List[Body] = {
+    val iterator = entries.values().iterator()
+    var evicted = List.empty[Body]
+    while (entries.size() > settings.maxEntries) {
+      evicted = iterator.next().body.toList ::: evicted
+      iterator.remove()
+    }
+    evicted
+  }
+
+  /**
+   * Marks bodies which were removed from their entries as dropped, returning the files which no stream reads and
+   * can be deleted. Called while holding the lock, the files are deleted after releasing it.
+   */
+  private def drop(bodies: List[Body]): List[Path] =
+    bodies.flatMap { body =>
+      body.dropped = true
+      if (body.readers == 0) Some(body.path) else None
+    }
+
+  private def delete(files: List[Path]): Unit = files.foreach(Files.deleteIfExists)
+}
+
+object S3ObjectCache {
+  private final case class EntryKey(bucket: String, key: String, versionId: Option[String])
+  private final case class Entry(metadata: ObjectMetadata, storedAt: Long, body: Option[Body])
+
+  /**
+   * Internal API
+   *
+   * A body file, with the number of streams reading it and whether it was dropped from the cache. Guarded by the lock
+   * of the cache.
+   */
+  @InternalApi private[s3] final class Body(val path: Path) {
+    var readers = 0
+    var dropped = false
+  }
+
+  /**
+   * Internal API
+   *
+   * Whether a request with these headers may be served from the cache, which it can't if its response depends on a
+   * range or a customer-provided encryption key, as these aren't part of the cache key.
+   */
+  @InternalApi private[s3] def cacheable(headers: Seq[HttpHeader]): Boolean =
+    !headers.exists { header =>
+      header.is("range") || header.lowercaseName.startsWith("x-amz-server-side-encryption-customer-")
+    }
+
+  /** Scala API */
+  def apply(settings: ObjectCacheSettings): S3ObjectCache = new S3ObjectCache(settings)
+
+  /** Java API */
+  def create(settings: ObjectCacheSettings): S3ObjectCache = apply(settings)
+}
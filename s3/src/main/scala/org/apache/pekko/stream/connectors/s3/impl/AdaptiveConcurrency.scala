@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import java.util.ArrayDeque
+
+import org.apache.pekko
+import pekko.Done
+import pekko.annotation.InternalApi
+
+import scala.concurrent.{ Future, Promise }
+
+/**
+ * Internal Api
+ *
+ * Limits the part uploads of one adaptive multipart upload to a number of concurrent uploads which is tuned between
+ * `minParallelism` and `maxParallelism`, and to `maxBytesInFlight` bytes (a single part is always let through).
+ * A permit is taken for the expected size of a part before it is buffered, and adjusted to the actual size with
+ * [[resize]] once the part is buffered.
+ *
+ * The limit is tuned by hill climbing: once as many parts as the current limit have completed, the throughput of these
+ * parts is compared with the throughput of the previous round. The limit keeps moving in the same direction while the
+ * throughput improves, and turns around when it drops. A retried part halves the limit.
+ */
+@InternalApi private[impl] final class AdaptiveConcurrency(minParallelism: Int,
+    maxParallelism: Int,
+    initialParallelism: Int,
+    maxBytesInFlight: Long,
+    nanoTime: () => Long = () => System.nanoTime()) {
+  import AdaptiveConcurrency._
+
+  private[this] val waiting = new ArrayDeque[(Long, Promise[Done])]()
+  private[this] var limit = clamp(initialParallelism)
+  private[this] var inFlight = 0
+  private[this] var bytesInFlight = 0L
+  private[this] var direction = 1
+  private[this] var roundStart = nanoTime()
+  private[this] var roundParts = 0
+  private[this] var roundBytes = 0L
+  private[this] var lastThroughput = 0.0
+
+  /** Completes once a part of `bytes` bytes may be uploaded. */
+  def acquire(bytes: Long): Future[Done] = {
+    val promise = Promise[Done]()
+    synchronized(waiting.addLast((bytes, promise)))
+    grant()
+    promise.future
+  }
+
+  /** Changes the permit of a part from `reserved` to `bytes` bytes. */
+  def resize(reserved: Long, bytes: Long): Unit = {
+    synchronized(bytesInFlight += bytes - reserved)
+    grant()
+  }
+
+  /** Releases the permit of a part of `bytes` bytes once it has been uploaded. */
+  def release(bytes: Long): Unit = {
+    synchronized {
+      inFlight -= 1
+      bytesInFlight -= bytes
+      roundParts += 1
+      roundBytes += bytes
+      if (roundParts >= limit) tune()
+    }
+    grant()
+  }
+
+  /** Backs off after a part upload failed with a transient error. */
+  def congested(): Unit = {
+    synchronized {
+      limit = clamp(limit / 2)
+      direction = 1
+      startRound(0.0)
+    }
+  }
+
+  def parallelism: Int = synchronized(limit)
+
+  private def tune(): Unit = {
+    val throughput = roundBytes.toDouble / math.max(nanoTime() - roundStart, 1L)
+    if (throughput < lastThroughput * (1 - Tolerance)) direction = -direction
+    if (throughput < lastThroughput * (1 - Tolerance) || throughput > lastThroughput * (1 + Tolerance)) {
+      val next = clamp(limit + direction)
+      // turn around at the bounds, so that the limit keeps probing
+      if (next == limit) direction = -direction
+      limit = next
+    }
+    startRound(throughput)
+  }
+
+  private def startRound(throughput: Double): Unit = {
+    lastThroughput = throughput
+    roundStart = nanoTime()
+    roundParts = 0
+    roundBytes = 0L
+  }
+
+  private def grant(): Unit = {
+    var granted = List.empty[Promise[Done]]
+    synchronized {
+      var next = waiting.peekFirst()
+      while ((next ne null) && inFlight < limit && (inFlight == 0 || bytesInFlight + next._1 <= maxBytesInFlight)) {
+        waiting.pollFirst()
+        inFlight += 1
+        bytesInFlight += next._1
+        granted ::= next._2
+        next = waiting.peekFirst()
+      }
+    }
+    granted.reverse.foreach(_.success(Done))
+  }
+
+  private def clamp(value: Int): Int = math.max(minParallelism, math.min(maxParallelism, value))
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object AdaptiveConcurrency {
+
+  /** Relative change of the throughput which is considered noise. */
+  val Tolerance = 0.05
+}
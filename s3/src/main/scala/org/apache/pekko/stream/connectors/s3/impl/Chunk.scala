@@ -13,6 +13,8 @@
 
 package org.apache.pekko.stream.connectors.s3.impl
 
+import java.util.concurrent.atomic.AtomicBoolean
+
 import org.apache.pekko
 import pekko.stream.scaladsl.Source
 import pekko.NotUsed
@@ -20,19 +22,69 @@ import pekko.annotation.InternalApi
 import pekko.http.scaladsl.model.{ ContentTypes, HttpEntity, RequestEntity }
 import pekko.util.ByteString
 
+import scala.collection.immutable
+
 /**
  * Internal Api
  */
 @InternalApi private[impl] sealed trait Chunk {
   def asEntity(): RequestEntity
   def size: Int
+
+  /** Called before the part request referring to the chunk is handed to the connection pool. */
+  def sending(): Unit = ()
+
+  /** Called once the connection pool is done with the part request, whether it succeeded or not. */
+  def sent(): Unit = ()
+
+  /** Frees the resources holding the chunk once its part has been acknowledged. */
+  def release(): Unit = ()
 }
 
-@InternalApi private[impl] final case class DiskChunk(data: Source[ByteString, NotUsed], size: Int) extends Chunk {
+@InternalApi private[impl] final case class DiskChunk(data: Source[ByteString, NotUsed], size: Int)(
+    spillFile: SpillFile,
+    spillFiles: SpillFileLease)
+    extends Chunk {
   def asEntity(): RequestEntity = HttpEntity(ContentTypes.`application/octet-stream`, size, data)
+
+  override def sending(): Unit = spillFiles.sending(spillFile)
+
+  override def sent(): Unit = spillFiles.sent(spillFile)
+
+  override def release(): Unit = spillFiles.release(spillFile)
 }
 
 @InternalApi private[impl] final case class MemoryChunk(data: ByteString) extends Chunk {
   def asEntity(): RequestEntity = HttpEntity.Strict(ContentTypes.`application/octet-stream`, data)
   def size: Int = data.size
 }
+
+/**
+ * Internal Api
+ *
+ * A chunk held in slabs rented from a [[SlabPool]], the entity refers to the slabs without copying them.
+ * The slabs must be released once the chunk's part has been acknowledged, and are kept by the lease while the part
+ * request is being sent.
+ */
+@InternalApi private[impl] final class PooledChunk(slabs: immutable.Seq[Array[Byte]], val size: Int, lease: SlabLease)
+    extends Chunk {
+  private val released = new AtomicBoolean
+  private val data: ByteString = {
+    val builder = ByteString.newBuilder
+    var remaining = size
+    slabs.foreach { slab =>
+      val length = math.min(remaining, slab.length)
+      builder.append(ByteString.fromArrayUnsafe(slab, 0, length))
+      remaining -= length
+    }
+    builder.result()
+  }
+
+  def asEntity(): RequestEntity = HttpEntity.Strict(ContentTypes.`application/octet-stream`, data)
+
+  override def sending(): Unit = lease.sending(slabs)
+
+  override def sent(): Unit = lease.sent(slabs)
+
+  override def release(): Unit = if (released.compareAndSet(false, true)) lease.release(slabs)
+}
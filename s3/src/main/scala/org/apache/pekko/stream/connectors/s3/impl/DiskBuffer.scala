@@ -13,9 +13,8 @@
 
 package org.apache.pekko.stream.connectors.s3.impl
 
-import java.io.{ File, FileOutputStream }
-import java.nio.BufferOverflowException
-import java.nio.file.Files
+import java.io.EOFException
+import java.nio.{ BufferOverflowException, ByteBuffer }
 import java.util.concurrent.atomic.AtomicInteger
 
 import org.apache.pekko
@@ -26,28 +25,31 @@ import pekko.stream.Attributes
 import pekko.stream.FlowShape
 import pekko.stream.Inlet
 import pekko.stream.Outlet
-import pekko.stream.scaladsl.FileIO
+import pekko.stream.scaladsl.Source
 import pekko.stream.stage.GraphStage
 import pekko.stream.stage.GraphStageLogic
 import pekko.stream.stage.InHandler
 import pekko.stream.stage.OutHandler
 import pekko.util.ByteString
-import java.nio.file.Path
 
 import pekko.annotation.InternalApi
 
 /**
  * Internal Api
  *
- * Buffers the complete incoming stream into a file, which can then be read several times afterwards.
- * ``
+ * Buffers the complete incoming stream into a spill file, which can then be read several times afterwards.
+ *
  * The stage waits for the incoming stream to complete. After that, it emits a single Chunk item on its output. The Chunk
  * contains a bytestream source that can be materialized multiple times, and the total size of the file.
  *
- * @param maxMaterializations Number of expected materializations for the completed chunk. After this, the temp file is deleted.
+ * The spill file is rented through `spillFiles`, written through its channel without copying the incoming byte strings,
+ * and read back with positional reads.
+ *
+ * @param maxMaterializations Number of expected materializations for the completed chunk. After this, the spill file
+ *                            is returned, unless the chunk was released before.
  * @param maxSize Maximum size on disk to buffer
  */
-@InternalApi private[impl] final class DiskBuffer(maxMaterializations: Int, maxSize: Int, tempPath: Option[Path])
+@InternalApi private[impl] final class DiskBuffer(maxMaterializations: Int, maxSize: Int, spillFiles: SpillFileLease)
     extends GraphStage[FlowShape[ByteString, Chunk]] {
   require(maxMaterializations > 0, "maxMaterializations should be at least 1")
   require(maxSize > 0, "maximumSize should be at least 1")
@@ -61,13 +63,9 @@ import pekko.annotation.InternalApi
 
   override def createLogic(attr: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) with OutHandler with InHandler {
-      val path: File = tempPath
-        .map(dir => Files.createTempFile(dir, "s3-buffer-", ".bin"))
-        .getOrElse(Files.createTempFile("s3-buffer-", ".bin"))
-        .toFile
-      path.deleteOnExit()
+      val file: SpillFile = spillFiles.acquire()
       var length = 0
-      val pathOut = new FileOutputStream(path)
+      var emitted = false
 
       override def onPull(): Unit = if (isClosed(in)) emit() else pull(in)
 
@@ -78,7 +76,9 @@ import pekko.annotation.InternalApi
           throw new BufferOverflowException()
         }
 
-        pathOut.write(elem.toArray)
+        elem.asByteBuffers.foreach { buffer =>
+          while (buffer.hasRemaining) file.channel.write(buffer)
+        }
         pull(in)
       }
 
@@ -88,25 +88,43 @@ import pekko.annotation.InternalApi
       }
 
       override def postStop(): Unit =
-        // close stream even if we didn't emit
-        try {
-          pathOut.close()
-        } catch { case x: Throwable => () }
+        // return the file if we didn't emit
+        if (!emitted) spillFiles.release(file)
 
       private def emit(): Unit = {
-        pathOut.close()
-
-        val deleteCounter = new AtomicInteger(maxMaterializations)
-        val src = FileIO.fromPath(path.toPath, 65536).mapMaterializedValue { f =>
-          if (deleteCounter.decrementAndGet() <= 0)
-            f.onComplete { _ =>
-              path.delete()
-
+        emitted = true
+        val size = length
+        val channel = file.channel
+
+        val releaseCounter = new AtomicInteger(maxMaterializations)
+        val src = Source
+          .unfold(0L) { position =>
+            if (position >= size) None
+            else {
+              val buffer = ByteBuffer.allocate(math.min(DiskBuffer.ReadChunkSize.toLong, size - position).toInt)
+              while (buffer.hasRemaining) {
+                if (channel.read(buffer, position + buffer.position()) < 0)
+                  throw new EOFException(s"Spill file ${file.path} ended before $size bytes")
+              }
+              Some((position + buffer.capacity(), ByteString.fromArrayUnsafe(buffer.array())))
+            }
+          }
+          .withAttributes(ActorAttributes.IODispatcher)
+          .watchTermination() { (_, done) =>
+            done.onComplete { _ =>
+              if (releaseCounter.decrementAndGet() <= 0) spillFiles.release(file)
             }(ExecutionContexts.parasitic)
-          NotUsed
-        }
-        emit(out, DiskChunk(src, length), () => completeStage())
+            NotUsed
+          }
+        emit(out, DiskChunk(src, size)(file, spillFiles), () => completeStage())
       }
       setHandlers(in, out, this)
     }
 }
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object DiskBuffer {
+  val ReadChunkSize = 65536
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import java.util.zip.CRC32
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.util.ByteString
+
+/**
+ * Internal Api
+ *
+ * A message of the AWS event stream encoding, only the headers with string values are kept.
+ */
+@InternalApi private[impl] final case class EventStreamMessage(headers: Map[String, String], payload: ByteString)
+
+/**
+ * Internal Api
+ *
+ * Decodes the binary framing of the AWS event stream encoding incrementally, as used by SelectObjectContent.
+ *
+ * Each message consists of a prelude (total length, headers length and the CRC32 of both), the headers, the payload
+ * and the CRC32 of the whole message. The stage fails when a checksum doesn't match or the stream ends within a
+ * message.
+ */
+@InternalApi private[impl] final class EventStreamParser extends GraphStage[FlowShape[ByteString, EventStreamMessage]] {
+  import EventStreamParser._
+
+  val in = Inlet[ByteString]("EventStreamParser.in")
+  val out = Outlet[EventStreamMessage]("EventStreamParser.out")
+  override val shape = FlowShape.of(in, out)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private var buffer = ByteString.empty
+
+      override def onPush(): Unit = {
+        buffer ++= grab(in)
+        if (isAvailable(out)) emitNext()
+      }
+
+      override def onPull(): Unit = emitNext()
+
+      override def onUpstreamFinish(): Unit = if (isAvailable(out)) emitNext()
+
+      private def emitNext(): Unit =
+        nextMessage() match {
+          case Some(message) => push(out, message)
+          case None if !isClosed(in) => pull(in)
+          case None if buffer.isEmpty => completeStage()
+          case None =>
+            failStage(new IllegalStateException(s"Event stream ended within a message, ${buffer.size} bytes left"))
+        }
+
+      private def nextMessage(): Option[EventStreamMessage] =
+        if (buffer.size < PreludeLength) None
+        else {
+          val totalLength = intAt(buffer, 0)
+          val headersLength = intAt(buffer, 4)
+          if (checksum(buffer.take(8)) != intAt(buffer, 8))
+            throw new IllegalStateException("Event stream prelude checksum mismatch")
+          if (totalLength < PreludeLength + headersLength + ChecksumLength || totalLength > MaxMessageLength)
+            throw new IllegalStateException(s"Invalid event stream message length $totalLength")
+          if (buffer.size < totalLength) None
+          else {
+            val message = buffer.take(totalLength)
+            buffer = buffer.drop(totalLength)
+            if (checksum(message.take(totalLength - ChecksumLength)) != intAt(message, totalLength - ChecksumLength))
+              throw new IllegalStateException("Event stream message checksum mismatch")
+            val headersEnd = PreludeLength + headersLength
+            Some(
+              EventStreamMessage(parseHeaders(message.slice(PreludeLength, headersEnd)),
+                message.slice(headersEnd, totalLength - ChecksumLength)))
+          }
+        }
+
+      setHandlers(in, out, this)
+    }
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object EventStreamParser {
+  val PreludeLength = 12
+  val ChecksumLength = 4
+  // the limit of the event stream encoding
+  val MaxMessageLength: Int = 16 * 1024 * 1024
+
+  private[impl] def intAt(bytes: ByteString, offset: Int): Int =
+    (bytes(offset) & 0xFF) << 24 | (bytes(offset + 1) & 0xFF) << 16 | (bytes(offset + 2) & 0xFF) << 8 |
+    (bytes(offset + 3) & 0xFF)
+
+  private def shortAt(bytes: ByteString, offset: Int): Int =
+    (bytes(offset) & 0xFF) << 8 | (bytes(offset + 1) & 0xFF)
+
+  private[impl] def checksum(bytes: ByteString): Int = {
+    val crc = new CRC32
+    bytes.asByteBuffers.foreach(buffer => crc.update(buffer))
+    crc.getValue.toInt
+  }
+
+  /** Parses the headers, skipping the values of all types but strings. */
+  private[impl] def parseHeaders(bytes: ByteString): Map[String, String] = {
+    val headers = Map.newBuilder[String, String]
+    var pos = 0
+    while (pos < bytes.size) {
+      val nameLength = bytes(pos) & 0xFF
+      val name = bytes.slice(pos + 1, pos + 1 + nameLength).utf8String
+      pos += 1 + nameLength
+      val valueType = bytes(pos) & 0xFF
+      pos += 1
+      valueType match {
+        case 0 | 1 => // boolean true and false, without value
+        case 2     => pos += 1
+        case 3     => pos += 2
+        case 4     => pos += 4
+        case 5 | 8 => pos += 8 // long and timestamp
+        case 6 => // byte array
+          pos += 2 + shortAt(bytes, pos)
+        case 7 =>
+          val length = shortAt(bytes, pos)
+          headers += name -> bytes.slice(pos + 2, pos + 2 + length).utf8String
+          pos += 2 + length
+        case 9 => pos += 16 // uuid
+        case other =>
+          throw new IllegalStateException(s"Unknown event stream header value type $other of header $name")
+      }
+    }
+    headers.result()
+  }
+}
@@ -15,22 +15,30 @@ package org.apache.pekko.stream.connectors.s3.impl
 
 import java.net.{ URLDecoder, URLEncoder }
 import java.nio.charset.StandardCharsets
+import java.security.MessageDigest
+import java.util.Base64
 
 import org.apache.pekko
 import pekko.annotation.InternalApi
 import pekko.http.scaladsl.marshallers.xml.ScalaXmlSupport._
 import pekko.http.scaladsl.marshalling.Marshal
 import pekko.http.scaladsl.model.Uri.{ Authority, Query }
-import pekko.http.scaladsl.model.headers.{ `Raw-Request-URI`, Host, RawHeader }
+import pekko.http.scaladsl.model.headers.{ `Raw-Request-URI`, ByteRange, Host, RawHeader }
 import pekko.http.scaladsl.model.{ RequestEntity, _ }
 import pekko.stream.connectors.s3.AccessStyle.{ PathAccessStyle, VirtualHostAccessStyle }
 import pekko.stream.connectors.s3.{
   ApiVersion,
   BucketVersioning,
   BucketVersioningStatus,
+  CsvFileHeaderInfo,
+  JsonType,
   MFAStatus,
   MultipartUpload,
-  S3Settings
+  ObjectIdentifier,
+  S3Settings,
+  SelectCompressionType,
+  SelectInputSerialization,
+  SelectOutputSerialization
 }
 import pekko.stream.scaladsl.Source
 import pekko.util.ByteString
@@ -38,7 +46,7 @@ import software.amazon.awssdk.regions.Region
 
 import scala.collection.immutable.Seq
 import scala.concurrent.{ ExecutionContext, Future }
-import scala.xml.NodeSeq
+import scala.xml.{ Node, NodeSeq, Unparsed, Utility }
 
 /**
  * Internal Api
@@ -69,11 +77,12 @@ import scala.xml.NodeSeq
       prefix: Option[String] = None,
       continuationToken: Option[String] = None,
       delimiter: Option[String] = None,
-      headers: Seq[HttpHeader] = Nil)(implicit conf: S3Settings): HttpRequest = {
+      headers: Seq[HttpHeader] = Nil,
+      startAfter: Option[String] = None)(implicit conf: S3Settings): HttpRequest = {
 
-    val (listType, continuationTokenName) = conf.listBucketApiVersion match {
-      case ApiVersion.ListBucketVersion1 => (None, "marker")
-      case ApiVersion.ListBucketVersion2 => (Some("2"), "continuation-token")
+    val (listType, continuationTokenName, startAfterName) = conf.listBucketApiVersion match {
+      case ApiVersion.ListBucketVersion1 => (None, "marker", "marker")
+      case ApiVersion.ListBucketVersion2 => (Some("2"), "continuation-token", "start-after")
     }
 
     val query = Query(
@@ -81,6 +90,7 @@ import scala.xml.NodeSeq
         "list-type" -> listType,
         "prefix" -> prefix,
         "delimiter" -> delimiter,
+        startAfterName -> startAfter,
         continuationTokenName -> continuationToken).collect { case (k, Some(v)) => k -> v }.toMap)
 
     HttpRequest(HttpMethods.GET)
@@ -251,6 +261,17 @@ import scala.xml.NodeSeq
       HttpMethods.PUT).withDefaultHeaders(s3Headers)
       .withEntity(HttpEntity(contentType, contentLength, payload))
 
+  /** A strict entity is hashed for signing without reading it twice. */
+  def uploadRequest(s3Location: S3Location,
+      payload: ByteString,
+      contentType: ContentType,
+      s3Headers: Seq[HttpHeader])(
+      implicit conf: S3Settings): HttpRequest =
+    s3Request(
+      s3Location,
+      HttpMethods.PUT).withDefaultHeaders(s3Headers)
+      .withEntity(HttpEntity.Strict(contentType, payload))
+
   def initiateMultipartUploadRequest(s3Location: S3Location, contentType: ContentType, s3Headers: Seq[HttpHeader])(
       implicit conf: S3Settings): HttpRequest =
     s3Request(s3Location, HttpMethods.POST, _.withQuery(Query("uploads")))
@@ -291,6 +312,105 @@ import scala.xml.NodeSeq
     }
   }
 
+  def deleteObjectsRequest(bucket: String, objects: Seq[ObjectIdentifier], headers: Seq[HttpHeader])(
+      implicit conf: S3Settings): HttpRequest = {
+    // @formatter:off
+    val payload = <Delete xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                    {
+                      objects.map { o => <Object><Key>{ o.key }</Key>{ o.versionId.map(v => <VersionId>{ v }</VersionId>).getOrElse(NodeSeq.Empty) }</Object> }
+                    }
+                  </Delete>
+    // @formatter:on
+    val body = ByteString(payload.toString, StandardCharsets.UTF_8)
+    // the multi-object delete API requires the checksum of the request body
+    val md5 = Base64.getEncoder.encodeToString(MessageDigest.getInstance("MD5").digest(body.toArray))
+
+    s3Request(S3Location(bucket, ""), HttpMethods.POST, _.withQuery(Query("delete")))
+      .withDefaultHeaders(RawHeader("Content-MD5", md5) +: headers)
+      .withEntity(HttpEntity(ContentTypes.`text/xml(UTF-8)`, body))
+  }
+
+  def selectObjectContentRequest(s3Location: S3Location,
+      expression: String,
+      inputSerialization: SelectInputSerialization,
+      outputSerialization: SelectOutputSerialization,
+      scanRange: Option[ByteRange],
+      headers: Seq[HttpHeader])(implicit conf: S3Settings): HttpRequest = {
+    // @formatter:off
+    val payload = <SelectObjectContentRequest xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                    <Expression>{ expression }</Expression>
+                    <ExpressionType>SQL</ExpressionType>
+                    <InputSerialization>{ inputSerializationXml(inputSerialization) }</InputSerialization>
+                    <OutputSerialization>{ outputSerializationXml(outputSerialization) }</OutputSerialization>
+                    { scanRange.map(scanRangeXml).getOrElse(NodeSeq.Empty) }
+                  </SelectObjectContentRequest>
+    // @formatter:on
+
+    s3Request(s3Location, HttpMethods.POST, _.withQuery(Query("select&select-type=2")))
+      .withDefaultHeaders(headers)
+      .withEntity(HttpEntity(ContentTypes.`text/xml(UTF-8)`, ByteString(payload.toString, StandardCharsets.UTF_8)))
+  }
+
+  private def inputSerializationXml(serialization: SelectInputSerialization): NodeSeq = serialization match {
+    case csv: SelectInputSerialization.Csv =>
+      val fileHeaderInfo = csv.fileHeaderInfo match {
+        case CsvFileHeaderInfo.Use      => "USE"
+        case CsvFileHeaderInfo.Ignore   => "IGNORE"
+        case CsvFileHeaderInfo.NoHeader => "NONE"
+      }
+      // @formatter:off
+      NodeSeq.fromSeq(List(
+        <CompressionType>{ compressionTypeValue(csv.compressionType) }</CompressionType>,
+        <CSV>
+          <FileHeaderInfo>{ fileHeaderInfo }</FileHeaderInfo>
+          <FieldDelimiter>{ characters(csv.fieldDelimiter) }</FieldDelimiter>
+          <RecordDelimiter>{ characters(csv.recordDelimiter) }</RecordDelimiter>
+          <QuoteCharacter>{ characters(csv.quoteCharacter) }</QuoteCharacter>
+        </CSV>))
+      // @formatter:on
+    case json: SelectInputSerialization.Json =>
+      val jsonType = json.jsonType match {
+        case JsonType.Document => "DOCUMENT"
+        case JsonType.Lines    => "LINES"
+      }
+      NodeSeq.fromSeq(List(
+        <CompressionType>{ compressionTypeValue(json.compressionType) }</CompressionType>,
+        <JSON><Type>{ jsonType }</Type></JSON>))
+    case SelectInputSerialization.Parquet =>
+      <Parquet/>
+  }
+
+  private def compressionTypeValue(compressionType: SelectCompressionType): String = compressionType match {
+    case SelectCompressionType.Uncompressed => "NONE"
+    case SelectCompressionType.Gzip         => "GZIP"
+    case SelectCompressionType.Bzip2        => "BZIP2"
+  }
+
+  private def outputSerializationXml(serialization: SelectOutputSerialization): NodeSeq = serialization match {
+    case csv: SelectOutputSerialization.Csv =>
+      // @formatter:off
+      <CSV>
+        <FieldDelimiter>{ characters(csv.fieldDelimiter) }</FieldDelimiter>
+        <RecordDelimiter>{ characters(csv.recordDelimiter) }</RecordDelimiter>
+        <QuoteCharacter>{ characters(csv.quoteCharacter) }</QuoteCharacter>
+      </CSV>
+      // @formatter:on
+    case json: SelectOutputSerialization.Json =>
+      <JSON><RecordDelimiter>{ characters(json.recordDelimiter) }</RecordDelimiter></JSON>
+  }
+
+  // control characters, like the usual record delimiter, are sent as character references so that they survive the
+  // normalisation of line endings by XML parsers
+  private def characters(value: String): Node =
+    Unparsed(value.iterator.map(c => if (c < ' ') s"&#${c.toInt};" else Utility.escape(c.toString)).mkString)
+
+  // the scan range of S3 Select takes the same forms as the Range header
+  private def scanRangeXml(range: ByteRange): NodeSeq = range match {
+    case ByteRange.Slice(first, last) => <ScanRange><Start>{ first }</Start><End>{ last }</End></ScanRange>
+    case ByteRange.FromOffset(offset) => <ScanRange><Start>{ offset }</Start></ScanRange>
+    case ByteRange.Suffix(length)     => <ScanRange><End>{ length }</End></ScanRange>
+  }
+
   def createBucketRegionPayload(region: Region)(implicit ec: ExecutionContext): Future[RequestEntity] = {
     // Do not let the start LocationConstraint be on different lines
     //  They tend to get split when this file is formatted by IntelliJ unless http://stackoverflow.com/a/19492318/1216965
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+import pekko.http.scaladsl.model.{ HttpEntity, HttpRequest, HttpResponse, ResponseEntity }
+import pekko.stream.{ Attributes, FlowShape, Graph }
+import pekko.stream.connectors.s3.{ S3Instrumentation, S3InstrumentationValue }
+import pekko.stream.scaladsl.{ Flow, Source }
+import pekko.util.ByteString
+
+import scala.concurrent.Future
+import scala.util.{ Failure, Success, Try }
+
+/**
+ * Internal Api
+ *
+ * Reports the phases of requests to the [[S3Instrumentation]] of a stream, if any. Without instrumentation, requests
+ * and responses are passed on untouched.
+ */
+@InternalApi private[impl] object Instrumented {
+
+  def apply(attr: Attributes): Option[S3Instrumentation] = attr.get[S3InstrumentationValue].map(_.instrumentation)
+
+  /** Signs `request` with `sign`, reporting the start of the attempt and the signing time. */
+  def sign(instrumentation: Option[S3Instrumentation], request: HttpRequest)(
+      sign: HttpRequest => Source[HttpRequest, NotUsed]): Source[HttpRequest, NotUsed] =
+    instrumentation match {
+      case None => sign(request)
+      case Some(i) =>
+        i.requestStarted(request)
+        val start = System.nanoTime()
+        sign(request).map { signed =>
+          i.requestSigned(request, System.nanoTime() - start)
+          signed
+        }
+    }
+
+  /** Sends the signed `request` with `send`, reporting the response and the reading of its body. */
+  def send(instrumentation: Option[S3Instrumentation], request: HttpRequest)(
+      send: HttpRequest => Future[HttpResponse]): Future[HttpResponse] =
+    instrumentation match {
+      case None => send(request)
+      case Some(i) =>
+        val start = sent(i, request)
+        send(request).transform(received(i, request, start, _))(ExecutionContexts.parasitic)
+    }
+
+  /** Wraps a connection pool flow, reporting the responses and the reading of their bodies. */
+  def pool[T](instrumentation: Option[S3Instrumentation])(
+      pool: Flow[(HttpRequest, (HttpRequest, Long, T)), (Try[HttpResponse], (HttpRequest, Long, T)), Any])
+      : Flow[(HttpRequest, T), (Try[HttpResponse], T), NotUsed] =
+    Flow[(HttpRequest, T)]
+      .map {
+        case (request, t) =>
+          val start = instrumentation.fold(0L)(sent(_, request))
+          (request, (request, start, t))
+      }
+      .via(pool)
+      .map {
+        case (response, (request, start, t)) =>
+          (instrumentation.fold(response)(received(_, request, start, response)), t)
+      }
+
+  /** Wraps an upload buffer, reporting the time from its first bytes until it emits its chunk. */
+  def buffer(instrumentation: Option[S3Instrumentation])(
+      buffer: Graph[FlowShape[ByteString, Chunk], NotUsed]): Flow[ByteString, Chunk, NotUsed] =
+    instrumentation match {
+      case None => Flow.fromGraph(buffer)
+      case Some(i) =>
+        Flow
+          .fromMaterializer { (_, _) =>
+            var start = 0L
+            var started = false
+            Flow[ByteString]
+              .map { bytes =>
+                if (!started) {
+                  started = true
+                  start = System.nanoTime()
+                }
+                bytes
+              }
+              .via(buffer)
+              .map { chunk =>
+                i.bufferFilled(chunk.size, if (started) System.nanoTime() - start else 0L)
+                chunk
+              }
+          }
+          .mapMaterializedValue(_ => NotUsed)
+    }
+
+  private def sent(i: S3Instrumentation, request: HttpRequest): Long = {
+    i.bytesSent(request, request.entity.contentLengthOption.getOrElse(0L))
+    System.nanoTime()
+  }
+
+  private def received(i: S3Instrumentation,
+      request: HttpRequest,
+      start: Long,
+      response: Try[HttpResponse]): Try[HttpResponse] =
+    response match {
+      case Success(r) =>
+        val headersReceived = System.nanoTime()
+        i.responseReceived(request, r.status, headersReceived - start)
+        Success(r.withEntity(counted(i, request, start, headersReceived, r.entity)))
+      case Failure(e) =>
+        i.requestFailed(request, e, System.nanoTime() - start)
+        response
+    }
+
+  private def counted(i: S3Instrumentation,
+      request: HttpRequest,
+      start: Long,
+      headersReceived: Long,
+      entity: ResponseEntity): ResponseEntity =
+    if (entity.isKnownEmpty) {
+      i.requestCompleted(request, 0L, System.nanoTime() - headersReceived)
+      entity
+    } else {
+      val counting = Flow.fromMaterializer { (_, _) =>
+        var bytes = 0L
+        Flow[ByteString]
+          .map { chunk =>
+            bytes += chunk.size
+            chunk
+          }
+          .watchTermination() { (_, done) =>
+            done.onComplete {
+              case Success(_) => i.requestCompleted(request, bytes, System.nanoTime() - headersReceived)
+              case Failure(e) => i.requestFailed(request, e, System.nanoTime() - start)
+            }(ExecutionContexts.parasitic)
+            NotUsed
+          }
+      }
+      // the size limit is left to the consumers of the wrapping entity
+      val data = entity.withoutSizeLimit().dataBytes.via(counting)
+      entity.contentLengthOption match {
+        case Some(length) => HttpEntity(entity.contentType, length, data)
+        case None         => HttpEntity.Chunked.fromData(entity.contentType, data)
+      }
+    }
+}
@@ -45,6 +45,19 @@ import scala.xml.NodeSeq
     }
   }
 
+  implicit val deleteObjectsResultUnmarshaller: FromEntityUnmarshaller[DeleteObjectsResult] = {
+    nodeSeqUnmarshaller(MediaTypes.`application/xml`, ContentTypes.`application/octet-stream`).map {
+      case NodeSeq.Empty => throw Unmarshaller.NoContentException
+      case x =>
+        def versionId(n: NodeSeq) = (n \ "VersionId").headOption.flatMap(v => Utils.emptyStringToOption(v.text))
+        DeleteObjectsResult(
+          (x \ "Deleted").map(d => ObjectIdentifier((d \ "Key").text, versionId(d))).toList,
+          (x \ "Error").map { e =>
+            DeleteObjectsError((e \ "Key").text, versionId(e), (e \ "Code").text, (e \ "Message").text)
+          }.toList)
+    }
+  }
+
   implicit val multipartUploadUnmarshaller: FromEntityUnmarshaller[MultipartUpload] = {
     nodeSeqUnmarshaller(MediaTypes.`application/xml`, ContentTypes.`application/octet-stream`).map {
       case NodeSeq.Empty => throw Unmarshaller.NoContentException
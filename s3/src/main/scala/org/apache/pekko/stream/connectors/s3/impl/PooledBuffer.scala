@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.util.ByteString
+
+import scala.collection.immutable
+import scala.util.{ Failure, Success, Try }
+
+/**
+ * Internal Api
+ *
+ * Buffers the complete incoming stream into slabs rented from a [[SlabPool]], which can then be read several times
+ * afterwards.
+ *
+ * The stage waits for the incoming stream to complete. After that, it emits a single [[PooledChunk]] on its output.
+ * The slabs for `maxSize` bytes are rented at once when the first bytes arrive, so that the stage never holds slabs
+ * while waiting for more, and the slabs the chunk doesn't need are returned when it is emitted. While the pool can't
+ * hand out that many slabs, the stage stops pulling.
+ *
+ * @param maxSize Maximum size to buffer
+ */
+@InternalApi private[impl] final class PooledBuffer(maxSize: Int, lease: SlabLease)
+    extends GraphStage[FlowShape[ByteString, Chunk]] {
+  require(lease.slabSize.toLong * lease.maxSlabs >= maxSize,
+    s"A buffer pool of ${lease.maxSlabs} slabs of ${lease.slabSize} bytes can't hold chunks of $maxSize bytes")
+
+  private val slabsPerChunk = (maxSize + lease.slabSize - 1) / lease.slabSize
+
+  val in = Inlet[ByteString]("PooledBuffer.in")
+  val out = Outlet[Chunk]("PooledBuffer.out")
+  override val shape = FlowShape.of(in, out)
+
+  override def createLogic(attr: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private var slabs = Vector.empty[Array[Byte]]
+      private var length = 0
+      // bytes of the last element which are waiting for the slabs
+      private var pending = ByteString.empty
+      private var emitted = false
+
+      private val slabsArrived = getAsyncCallback[Try[immutable.Seq[Array[Byte]]]](reserved)
+
+      override def onPull(): Unit = if (isClosed(in)) emit() else pull(in)
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        if (length + elem.size > maxSize) {
+          failStage(new IllegalStateException("Buffer size of " + maxSize + " bytes exceeded."))
+        } else {
+          pending = elem
+          if (slabs.isEmpty && pending.nonEmpty) {
+            val reservation = lease.acquire(slabsPerChunk)
+            reservation.value match {
+              case Some(result) => reserved(result)
+              case None         => reservation.onComplete(slabsArrived.invoke)(ExecutionContexts.parasitic)
+            }
+          } else fill()
+        }
+      }
+
+      override def onUpstreamFinish(): Unit =
+        if (pending.isEmpty) {
+          if (isAvailable(out)) emit()
+          completeStage()
+        }
+
+      private def reserved(result: Try[immutable.Seq[Array[Byte]]]): Unit = result match {
+        case Success(s) =>
+          slabs = s.toVector
+          fill()
+        case Failure(e) =>
+          failStage(e)
+      }
+
+      /**
+       * Copies the pending bytes into the slabs and continues with the next element.
+       */
+      private def fill(): Unit = {
+        while (pending.nonEmpty) {
+          val offset = length % lease.slabSize
+          val count = math.min(pending.size, lease.slabSize - offset)
+          pending.copyToArray(slabs(length / lease.slabSize), offset, count)
+          pending = pending.drop(count)
+          length += count
+        }
+        if (isClosed(in)) {
+          if (isAvailable(out)) emit()
+          completeStage()
+        } else pull(in)
+      }
+
+      private def emit(): Unit = {
+        val (used, unused) = slabs.splitAt((length + lease.slabSize - 1) / lease.slabSize)
+        slabs = used
+        lease.release(unused)
+        emit(out, new PooledChunk(used, length, lease), () => { emitted = true; completeStage() })
+      }
+
+      override def postStop(): Unit =
+        // return the slabs if the chunk wasn't handed out
+        if (!emitted) lease.release(slabs)
+
+      setHandlers(in, out, this)
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import java.util.ArrayDeque
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+
+import scala.concurrent.{ Future, Promise }
+import scala.util.control.NonFatal
+
+/**
+ * Internal Api
+ *
+ * Runs at most `maxInFlight` requests at a time, no matter how many streams share the limiter. Further requests are
+ * started in order as running ones complete.
+ */
+@InternalApi private[impl] final class RequestLimiter(maxInFlight: Int) {
+  require(maxInFlight > 0, "maxInFlight must be at least 1")
+
+  private[this] val waiting = new ArrayDeque[() => Unit]()
+  private[this] var inFlight = 0
+
+  def apply[T](request: () => Future[T]): Future[T] = {
+    val promise = Promise[T]()
+    val run = () => {
+      val response =
+        try request()
+        catch { case NonFatal(e) => Future.failed(e) }
+      response.onComplete { result =>
+        completed()
+        promise.complete(result)
+      }(ExecutionContexts.parasitic)
+    }
+    val runNow = synchronized {
+      if (inFlight < maxInFlight) {
+        inFlight += 1
+        true
+      } else {
+        waiting.addLast(run)
+        false
+      }
+    }
+    if (runNow) run()
+    promise.future
+  }
+
+  private def completed(): Unit = {
+    val next = synchronized {
+      val next = waiting.pollFirst()
+      if (next eq null) inFlight -= 1
+      next
+    }
+    if (next ne null) next()
+  }
+}
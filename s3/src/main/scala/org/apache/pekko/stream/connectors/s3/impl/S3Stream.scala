@@ -15,12 +15,13 @@ package org.apache.pekko.stream.connectors.s3.impl
 
 import java.net.InetSocketAddress
 import java.time.{ Instant, ZoneOffset, ZonedDateTime }
+import java.util.concurrent.atomic.{ AtomicBoolean, AtomicInteger }
 import org.apache.pekko
 import pekko.actor.ActorSystem
 import pekko.annotation.InternalApi
 import pekko.dispatch.ExecutionContexts
 import pekko.http.scaladsl.Http.OutgoingConnection
-import pekko.http.scaladsl.model.StatusCodes.{ NoContent, NotFound, OK }
+import pekko.http.scaladsl.model.StatusCodes.{ NoContent, NotFound, NotModified, OK }
 import pekko.http.scaladsl.model.headers._
 import pekko.http.scaladsl.model.{ headers => http, _ }
 import pekko.http.scaladsl.settings.{ ClientConnectionSettings, ConnectionPoolSettings }
@@ -29,8 +30,8 @@ import pekko.http.scaladsl.{ ClientTransport, Http }
 import pekko.stream.connectors.s3.BucketAccess.{ AccessDenied, AccessGranted, NotExists }
 import pekko.stream.connectors.s3._
 import pekko.stream.connectors.s3.impl.auth.{ CredentialScope, Signer, SigningKey }
-import pekko.stream.scaladsl.{ Flow, Keep, RetryFlow, RunnableGraph, Sink, Source, Tcp }
-import pekko.stream.{ Attributes, Materializer }
+import pekko.stream.scaladsl.{ FileIO, Flow, Keep, RetryFlow, RunnableGraph, Sink, Source, Tcp }
+import pekko.stream.{ Attributes, Materializer, OverflowStrategy }
 import pekko.util.ByteString
 import pekko.{ Done, NotUsed }
 import software.amazon.awssdk.regions.Region
@@ -64,6 +65,15 @@ import scala.util.{ Failure, Success, Try }
     contents: immutable.Seq[ListBucketResultContents],
     commonPrefixes: immutable.Seq[ListBucketResultCommonPrefixes])
 
+/**
+ * Internal Api
+ *
+ * Keys from `from` (inclusive) until `until` (exclusive), listed starting after `startAfter`.
+ */
+@InternalApi private[impl] final case class ListKeyRange(startAfter: String, from: String, until: Option[String]) {
+  def contains(key: String): Boolean = key >= from && until.forall(key < _)
+}
+
 /** Internal Api */
 @InternalApi private[impl] final case class ListMultipartUploadContinuationToken(nextKeyMarker: Option[String],
     nextUploadIdMarker: Option[String])
@@ -170,6 +180,10 @@ import scala.util.{ Failure, Success, Try }
   import Marshalling._
 
   val MinChunkSize: Int = 5 * 1024 * 1024 // in bytes
+  val MaxParts: Int = 10000 // parts of a multipart upload
+  val ParallelListingDelimiter = "/"
+  // characters at which listings of large flat prefixes are split into key ranges
+  val ParallelListingSplits: immutable.Seq[Char] = ('0' to '9') ++ ('A' to 'Z') ++ ('a' to 'z')
   val atLeastOneByteString: Flow[ByteString, ByteString, NotUsed] =
     Flow[ByteString].orElse(Source.single(ByteString.empty))
 
@@ -191,14 +205,8 @@ import scala.util.{ Failure, Success, Try }
 
     Source
       .fromMaterializer { (mat, attr) =>
-        implicit val materializer: Materializer = mat
-        issueRequest(s3Location, rangeOption = range, versionId = versionId, s3Headers = headers)(mat, attr)
-          .map(response => response.withEntity(response.entity.withoutSizeLimit))
-          .mapAsync(parallelism = 1)(entityForSuccess)
-          .map {
-            case (entity, headers) =>
-              Some((entity.dataBytes.mapMaterializedValue(_ => NotUsed), computeMetaData(headers, entity)))
-          }
+        objectResponse(s3Location, range, versionId, headers)(mat, attr)
+          .map(Some(_))
           .recover[Option[(Source[ByteString, NotUsed], ObjectMetadata)]] {
             case e: S3Exception if e.code == "NoSuchKey" => None
           }
@@ -215,14 +223,105 @@ import scala.util.{ Failure, Success, Try }
     Source
       .fromMaterializer { (mat, attr) =>
         val objectMetadataMat = Promise[ObjectMetadata]()
-        implicit val materializer: Materializer = mat
-        issueRequest(s3Location, rangeOption = range, versionId = versionId, s3Headers = headers)(mat, attr)
-          .map(response => response.withEntity(response.entity.withoutSizeLimit))
-          .mapAsync(parallelism = 1)(entityForSuccess)
+        objectResponse(s3Location, range, versionId, headers)(mat, attr)
           .flatMapConcat {
+            case (data, metadata) =>
+              objectMetadataMat.success(metadata)
+              data
+          }
+          .mapError {
+            case e: Throwable =>
+              objectMetadataMat.tryFailure(e)
+              e
+          }
+          .mapMaterializedValue(_ => objectMetadataMat.future)
+      }
+      .mapMaterializedValue(_.flatMap(identity)(ExecutionContexts.parasitic))
+  }
+
+  /**
+   * Requests an object, or serves its body from the object cache set in the attributes when S3 confirms that the
+   * cached body is current. Ranged requests bypass the cache.
+   *
+   * The cached body is held from the request on, so that the cache doesn't delete it before it was read. It is given
+   * back once it was read, or once the response shows it won't be read.
+   */
+  private def objectResponse(
+      s3Location: S3Location,
+      range: Option[ByteRange],
+      versionId: Option[String],
+      headers: immutable.Seq[HttpHeader])(
+      implicit mat: Materializer, attr: Attributes): Source[(Source[ByteString, NotUsed], ObjectMetadata), NotUsed] = {
+    import s3Location.{ bucket, key }
+    val cache = if (range.isEmpty) objectCache(attr, headers) else None
+    val cached = cache.flatMap(_.acquireBody(bucket, key, versionId))
+    val released = new AtomicBoolean(false)
+    val handedOver = new AtomicBoolean(false)
+    def release(): Unit =
+      for ((_, body) <- cached; c <- cache if released.compareAndSet(false, true)) c.release(body)
+    val revalidation = cached.flatMap(_._1.eTag).map(t => `If-None-Match`(EntityTag(t)))
+
+    issueRequest(s3Location, rangeOption = range, versionId = versionId, s3Headers = headers ++ revalidation)(mat, attr)
+      .map(response => response.withEntity(response.entity.withoutSizeLimit))
+      .mapAsync(parallelism = 1) {
+        case HttpResponse(NotModified, _, entity, _) if cached.isDefined =>
+          entity.discardBytes()
+          cache.foreach(_.notModified(bucket, key, versionId))
+          val (metadata, body) = cached.get
+          val data = FileIO.fromPath(body.path).watchTermination() { (_, done) =>
+            done.onComplete(_ => release())(ExecutionContexts.parasitic)
+            NotUsed
+          }
+          handedOver.set(true)
+          Future.successful((data, metadata))
+        case response =>
+          release()
+          if (response.status == NotFound) cache.foreach(_.remove(bucket, key, versionId))
+          entityForSuccess(response).map {
             case (entity, headers) =>
-              objectMetadataMat.success(computeMetaData(headers, entity))
-              entity.dataBytes
+              val metadata = computeMetaData(headers, entity)
+              val data = entity.dataBytes.mapMaterializedValue(_ => NotUsed)
+              (cache.fold(data)(_.store(bucket, key, versionId, metadata, data)), metadata)
+          }(ExecutionContexts.parasitic)
+      }
+      .watchTermination() { (_, done) =>
+        // the request failed or was cancelled before a response handed the body over
+        done.onComplete(_ => if (!handedOver.get) release())(ExecutionContexts.parasitic)
+        NotUsed
+      }
+  }
+
+  /** The object cache set in the attributes, unless the request headers keep it from being used. */
+  private def objectCache(attr: Attributes, headers: immutable.Seq[HttpHeader]): Option[S3ObjectCache] =
+    attr.get[S3ObjectCacheValue].map(_.cache).filter(_ => S3ObjectCache.cacheable(headers))
+
+  def getObjectParallel(
+      s3Location: S3Location,
+      partSize: Long,
+      parallelism: Int,
+      versionId: Option[String],
+      s3Headers: S3Headers): Source[ByteString, Future[ObjectMetadata]] = {
+    require(partSize > 0, s"partSize must be positive (was $partSize)")
+    require(parallelism > 0, s"parallelism must be positive (was $parallelism)")
+
+    Source
+      .fromMaterializer { (mat, attr) =>
+        val objectMetadataMat = Promise[ObjectMetadata]()
+        implicit val materializer: Materializer = mat
+        implicit val conf: S3Settings = resolveSettings(attr, mat.system)
+        getObjectMetadata(s3Location.bucket, s3Location.key, versionId, s3Headers)
+          .flatMapConcat {
+            case Some(metadata) =>
+              objectMetadataMat.success(metadata)
+              // Pin all ranges to the version seen by the HEAD request, so that an object replaced
+              // in the meantime fails the download instead of mixing contents.
+              val headers = s3Headers.headersFor(GetObject) ++ metadata.eTag.map(t => `If-Match`(EntityTag(t)))
+              Source
+                .fromIterator(() => createRanges(partSize)(metadata.contentLength))
+                .mapAsync(parallelism)(range => getRange(s3Location, range, versionId, headers, Instrumented(attr)))
+            case None =>
+              Source.failed(
+                new S3Exception(NotFound, "NoSuchKey", "The specified key does not exist.", "-", s3Location.key))
           }
           .mapError {
             case e: Throwable =>
@@ -234,6 +333,93 @@ import scala.util.{ Failure, Success, Try }
       .mapMaterializedValue(_.flatMap(identity)(ExecutionContexts.parasitic))
   }
 
+  def selectObjectContent(
+      s3Location: S3Location,
+      expression: String,
+      inputSerialization: SelectInputSerialization,
+      outputSerialization: SelectOutputSerialization,
+      scanRange: Option[ByteRange],
+      s3Headers: S3Headers): Source[ByteString, Future[SelectObjectContentStats]] =
+    Source
+      .fromMaterializer { (mat, attr) =>
+        implicit val materializer: Materializer = mat
+        implicit val sys: ActorSystem = mat.system
+        implicit val conf: S3Settings = resolveSettings(attr, mat.system)
+        val stats = Promise[SelectObjectContentStats]()
+        val request = selectObjectContentRequest(s3Location,
+          expression,
+          inputSerialization,
+          outputSerialization,
+          scanRange,
+          s3Headers.headersFor(SelectObjectContent))
+        signAndRequest(request)(sys, mat, attr)
+          .mapAsync(parallelism = 1)(entityForSuccess)
+          .flatMapConcat { case (entity, _) => entity.withoutSizeLimit().dataBytes }
+          .via(new EventStreamParser)
+          .via(new SelectEvents(s3Location.key, stats))
+          .mapMaterializedValue(_ => stats.future)
+      }
+      .mapMaterializedValue(_.flatMap(identity)(ExecutionContexts.parasitic))
+
+  private[impl] def createRanges(partSize: Long)(objectSize: Long): Iterator[ByteRange.Slice] =
+    Iterator
+      .iterate(0L)(_ + partSize)
+      .takeWhile(_ < objectSize)
+      .map(first => ByteRange(first, math.min(first + partSize, objectSize) - 1))
+
+  /**
+   * Reads one range completely, retrying it according to the retry settings if the request or
+   * reading its response body fails.
+   */
+  private def getRange(
+      s3Location: S3Location,
+      range: ByteRange.Slice,
+      versionId: Option[String],
+      s3Headers: immutable.Seq[HttpHeader],
+      instrumentation: Option[S3Instrumentation])(implicit mat: Materializer, conf: S3Settings): Future[ByteString] = {
+    import conf.retrySettings._
+    import mat.executionContext
+    implicit val sys: ActorSystem = mat.system
+    val expectedLength = range.last - range.first + 1
+
+    val retriableFlow = Flow[HttpRequest]
+      .flatMapConcat(req =>
+        Instrumented.sign(instrumentation, req)(Signer.signedRequest(_, signingKey(), conf.signAnonymousRequests)))
+      .mapAsync(parallelism = 1) { req =>
+        Instrumented
+          .send(instrumentation, req)(singleRequest(_))
+          .flatMap(entityForSuccess)
+          .flatMap {
+            case (entity, _) => entity.withoutSizeLimit().dataBytes.runFold(ByteString.empty)(_ ++ _)
+          }
+          .map { bytes =>
+            if (bytes.length == expectedLength) Success(bytes)
+            else
+              Failure(new IllegalStateException(
+                s"Expected $expectedLength bytes for range $range of $s3Location, but received ${bytes.length}"))
+          }
+          .recover[Try[ByteString]] {
+            case t => Failure(t)
+          }
+      }
+
+    Source
+      .single(requestHeaders(getDownloadRequest(s3Location, HttpMethods.GET, s3Headers, versionId), Some(range)))
+      .via(RetryFlow.withBackoff(minBackoff, maxBackoff, randomFactor, maxRetries, retriableFlow) {
+        case (request, Failure(e: S3Exception)) if isTransientError(e.statusCode) =>
+          instrumentation.foreach(_.requestRetried(request))
+          Some(request)
+        case (_, Failure(_: S3Exception)) => None
+        case (request, Failure(_)) =>
+          // Treat any other exception as transient.
+          instrumentation.foreach(_.requestRetried(request))
+          Some(request)
+        case _ => None
+      })
+      .mapAsync(1)(Future.fromTry)
+      .runWith(Sink.head)
+  }
+
   /**
    * An ADT that represents the current state of pagination
    */
@@ -326,6 +512,117 @@ import scala.util.{ Failure, Success, Try }
       .mapMaterializedValue(_ => NotUsed)
   }
 
+  def listBucketParallel(
+      bucket: String,
+      prefix: Option[String],
+      parallelism: Int,
+      sorted: Boolean,
+      splitFlatPrefixes: Boolean,
+      s3Headers: S3Headers): Source[ListBucketResultContents, NotUsed] = {
+    require(parallelism > 0, "parallelism must be at least 1")
+
+    // a key or a common prefix
+    type Entry = Either[ListBucketResultContents, String]
+
+    Source
+      .fromMaterializer { (mat, attr) =>
+        implicit val materializer: Materializer = mat
+        implicit val attributes: Attributes = attr
+        implicit val conf: S3Settings = resolveSettings(attr, mat.system)
+        import mat.executionContext
+
+        // shared by all prefixes so that at most `parallelism` list requests are in flight
+        val limiter = new RequestLimiter(parallelism)
+        val headers = s3Headers.headersFor(ListBucket)
+
+        def listPage(prefix: Option[String], token: Option[String], startAfter: Option[String]) =
+          limiter(() =>
+            signAndGetAs[ListBucketResult](
+              HttpRequests.listBucket(bucket, prefix, token, Some(ParallelListingDelimiter), headers, startAfter)))
+
+        def entries(page: ListBucketResult): immutable.Seq[Entry] =
+          (page.contents.map(Left(_)) ++ page.commonPrefixes.map(p => Right(p.prefix))).sortBy(entryKey)
+
+        def listPages(
+            prefix: Option[String],
+            from: ListBucketState,
+            startAfter: Option[String],
+            until: Option[String]): Source[ListBucketResult, NotUsed] =
+          Source.unfoldAsync[ListBucketState, ListBucketResult](from) {
+            case Finished() => Future.successful(None)
+            case state =>
+              val token = state match {
+                case Running(t) => Some(t)
+                case _          => None
+              }
+              listPage(prefix, token, startAfter.filter(_ => token.isEmpty)).map { page =>
+                val beyondRange = until.exists(u => entries(page).lastOption.exists(entryKey(_) >= u))
+                val next = page.continuationToken.filterNot(_ => beyondRange)
+                Some((next.fold[ListBucketState](Finished())(Running(_)), page))
+              }
+          }
+
+        // flattens in order, with up to `parallelism` sources running ahead, or as the sources emit
+        def flatten[T](sources: Source[Source[T, NotUsed], NotUsed]): Source[T, NotUsed] =
+          if (sorted)
+            sources
+              .map(_.preMaterialize()._2)
+              .buffer(parallelism, OverflowStrategy.backpressure)
+              .flatMapConcat(identity)
+          else sources.flatMapMerge(parallelism, identity)
+
+        // keys are emitted in runs, every common prefix is listed recursively
+        def segments(entries: immutable.Seq[Entry]): immutable.Seq[Source[ListBucketResultContents, NotUsed]] = {
+          val segments = Vector.newBuilder[Source[ListBucketResultContents, NotUsed]]
+          var run = Vector.empty[ListBucketResultContents]
+          entries.foreach {
+            case Left(contents) =>
+              run :+= contents
+            case Right(commonPrefix) =>
+              if (run.nonEmpty) segments += Source(run)
+              run = Vector.empty
+              segments += listPrefix(Some(commonPrefix))
+          }
+          if (run.nonEmpty) segments += Source(run)
+          segments.result()
+        }
+
+        def listPrefix(prefix: Option[String]): Source[ListBucketResultContents, NotUsed] =
+          Source
+            .lazyFuture(() => listPage(prefix, None, None))
+            .flatMapConcat { first =>
+              val following: Source[immutable.Seq[Entry], NotUsed] = first.continuationToken match {
+                case None =>
+                  Source.empty
+                case Some(_) if splitFlatPrefixes && first.commonPrefixes.isEmpty && first.contents.nonEmpty =>
+                  flatten(Source(listKeyRanges(prefix.getOrElse(""), first.contents.last.key)).map { range =>
+                    listPages(prefix, Starting(), Some(range.startAfter), range.until)
+                      .map(entries(_).filter(e => range.contains(entryKey(e))))
+                  })
+                case Some(token) =>
+                  listPages(prefix, Running(token), None, None).map(entries)
+              }
+              flatten(Source.single(entries(first)).concat(following).mapConcat(segments))
+            }
+
+        listPrefix(prefix)
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
+  private def entryKey(entry: Either[ListBucketResultContents, String]): String = entry.fold(_.key, identity)
+
+  /**
+   * Splits the keys following `after` under `prefix` into ranges at the characters in [[ParallelListingSplits]].
+   */
+  private[impl] def listKeyRanges(prefix: String, after: String): immutable.Seq[ListKeyRange] = {
+    val bounds = ParallelListingSplits.map(c => prefix + c).filter(_ > after).toVector
+    // the ranges start listing after the character preceding their bound, the keys in between are filtered out
+    ListKeyRange(after, after + Char.MinValue, bounds.headOption) +: bounds.zipWithIndex.map {
+      case (bound, i) => ListKeyRange(bound.init + (bound.last - 1).toChar, bound, bounds.lift(i + 1))
+    }
+  }
+
   def listBuckets(s3Headers: S3Headers): Source[ListBucketsResultContents, NotUsed] =
     Source
       .fromMaterializer { (mat, attr) =>
@@ -572,21 +869,30 @@ import scala.util.{ Failure, Success, Try }
         implicit val materializer: Materializer = mat
         import mat.executionContext
         val headers = s3Headers.headersFor(HeadObject)
-        issueRequest(S3Location(bucket, key), HttpMethods.HEAD, versionId = versionId, s3Headers = headers)(mat, attr)
-          .flatMapConcat {
-            case HttpResponse(OK, headers, entity, _) =>
-              Source.future {
-                entity.withoutSizeLimit().discardBytes().future().map { _ =>
-                  Some(computeMetaData(headers, entity))
-                }
-              }
-            case HttpResponse(NotFound, _, entity, _) =>
-              Source.future(entity.discardBytes().future().map(_ => None)(ExecutionContexts.parasitic))
-            case response: HttpResponse =>
-              Source.future {
-                unmarshalError(response.status, response.entity)
+        val cache = objectCache(attr, headers)
+        cache.flatMap(_.metadata(bucket, key, versionId)) match {
+          case Some(metadata) => Source.single(Some(metadata))
+          case None =>
+            val location = S3Location(bucket, key)
+            issueRequest(location, HttpMethods.HEAD, versionId = versionId, s3Headers = headers)(mat, attr)
+              .flatMapConcat {
+                case HttpResponse(OK, headers, entity, _) =>
+                  Source.future {
+                    entity.withoutSizeLimit().discardBytes().future().map { _ =>
+                      val metadata = computeMetaData(headers, entity)
+                      cache.foreach(_.put(bucket, key, versionId, metadata))
+                      Some(metadata)
+                    }
+                  }
+                case HttpResponse(NotFound, _, entity, _) =>
+                  cache.foreach(_.remove(bucket, key, versionId))
+                  Source.future(entity.discardBytes().future().map(_ => None)(ExecutionContexts.parasitic))
+                case response: HttpResponse =>
+                  Source.future {
+                    unmarshalError(response.status, response.entity)
+                  }
               }
-          }
+        }
       }
       .mapMaterializedValue(_ => NotUsed)
 
@@ -615,29 +921,52 @@ import scala.util.{ Failure, Success, Try }
       }
       .mapMaterializedValue(_ => NotUsed)
 
+  def deleteObjects(bucket: String,
+      deleteSettings: Option[DeleteObjectsSettings],
+      s3Headers: S3Headers): Flow[ObjectIdentifier, DeleteObjectsResult, NotUsed] =
+    Flow
+      .fromMaterializer { (mat, attr) =>
+        implicit val materializer: Materializer = mat
+        implicit val attributes: Attributes = attr
+        implicit val conf: S3Settings = resolveSettings(attr, mat.system)
+        val settings = deleteSettings.getOrElse(conf.deleteObjectsSettings)
+        val headers = s3Headers.headersFor(DeleteObject)
+
+        Flow[ObjectIdentifier]
+          .grouped(settings.batchSize)
+          .mapAsync(settings.parallelism) { objects =>
+            signAndGetAs[DeleteObjectsResult](HttpRequests.deleteObjectsRequest(bucket, objects, headers))
+          }
+      }
+      .mapMaterializedValue(_ => NotUsed)
+
   def deleteObjectsByPrefix(bucket: String,
       prefix: Option[String],
       deleteAllVersions: Boolean,
       s3Headers: S3Headers): Source[Done, NotUsed] = {
+    // fail on the first key S3 refused to delete, and emit one element per deleted key otherwise
+    def deletedOrFail(result: DeleteObjectsResult): immutable.Seq[Done] =
+      result.errors.headOption match {
+        case Some(error) => throw new S3Exception(OK, error.code, error.message, "-", error.key)
+        case None        => result.deleted.map(_ => Done)
+      }
+
     val baseDelete = listBucket(bucket, prefix, s3Headers)
-      .flatMapConcat(listBucketResultContents =>
-        deleteObject(S3Location(bucket, listBucketResultContents.key), versionId = None, s3Headers))
+      .map(listBucketResultContents => ObjectIdentifier(listBucketResultContents.key))
+      .via(deleteObjects(bucket, None, s3Headers))
+      .mapConcat(deletedOrFail)
 
     if (deleteAllVersions)
-      baseDelete.flatMapConcat { _ =>
-        listObjectVersions(bucket, prefix, s3Headers).flatMapConcat {
-          case (versions, deleteMarkers) =>
-            val allVersions =
-              (versions.map(v => (v.key, v.versionId)) ++ deleteMarkers.map(d => (d.key, d.versionId))).distinct
-            Source
-              .zipN(
-                allVersions.map {
-                  case (key, versionId) =>
-                    deleteObject(S3Location(bucket, key), versionId = versionId, s3Headers)
-                })
-              .map(_ => Done)
-        }
-      }
+      baseDelete.concat(Source.lazySource { () =>
+        listObjectVersions(bucket, prefix, s3Headers)
+          .mapConcat {
+            case (versions, deleteMarkers) =>
+              (versions.map(v => ObjectIdentifier(v.key, v.versionId)) ++
+              deleteMarkers.map(d => ObjectIdentifier(d.key, d.versionId))).distinct
+          }
+          .via(deleteObjects(bucket, None, s3Headers))
+          .mapConcat(deletedOrFail)
+      })
     else baseDelete
   }
 
@@ -656,29 +985,55 @@ import scala.util.{ Failure, Success, Try }
       .fromMaterializer { (mat, attr) =>
         implicit val materializer: Materializer = mat
         implicit val attributes: Attributes = attr
-        import mat.executionContext
         implicit val sys: ActorSystem = mat.system
         implicit val conf: S3Settings = resolveSettings(attr, mat.system)
 
         val req = uploadRequest(s3Location, data, contentLength, contentType, headers)
 
-        signAndRequest(req)
-          .flatMapConcat {
-            case HttpResponse(OK, h, entity, _) =>
-              Source.future {
-                entity.discardBytes().future().map { _ =>
-                  ObjectMetadata(h :+ `Content-Length`(entity.contentLengthOption.getOrElse(0)))
-                }
-              }
-            case response: HttpResponse =>
-              Source.future {
-                unmarshalError(response.status, response.entity)
-              }
-          }
+        signAndRequest(req).mapAsync(parallelism = 1)(putObjectResult)
       }
       .mapMaterializedValue(_ => NotUsed)
   }
 
+  /**
+   * Uploads small objects held in memory, emitting their metadata in the order of the incoming objects. Up to
+   * `parallelism` uploads are signed and sent at the same time over the pooled connections of the S3 host, and every
+   * upload is retried on its own according to the `retry-settings`.
+   */
+  def putObjects[C](parallelism: Int): Flow[(PutObjectEntry, C), (ObjectMetadata, C), NotUsed] =
+    Flow
+      .fromMaterializer { (mat, attr) =>
+        implicit val materializer: Materializer = mat
+        implicit val attributes: Attributes = attr
+        implicit val sys: ActorSystem = mat.system
+        implicit val conf: S3Settings = resolveSettings(attr, mat.system)
+
+        Flow[(PutObjectEntry, C)].mapAsync(parallelism) {
+          case (entry, context) =>
+            val req = uploadRequest(S3Location(entry.bucket, entry.key),
+              entry.data,
+              entry.contentType,
+              entry.s3Headers.headersFor(PutObject))
+            signAndRequest(req)
+              .mapAsync(parallelism = 1)(putObjectResult)
+              .runWith(Sink.head)
+              .map((_, context))(ExecutionContexts.parasitic)
+        }
+      }
+      .mapMaterializedValue(_ => NotUsed)
+
+  private def putObjectResult(response: HttpResponse)(implicit mat: Materializer): Future[ObjectMetadata] =
+    response match {
+      case HttpResponse(OK, h, entity, _) =>
+        entity
+          .discardBytes()
+          .future()
+          .map(_ => ObjectMetadata(h :+ `Content-Length`(entity.contentLengthOption.getOrElse(0))))(
+            ExecutionContexts.parasitic)
+      case response: HttpResponse =>
+        unmarshalError(response.status, response.entity)
+    }
+
   def request(s3Location: S3Location,
       method: HttpMethod = HttpMethods.GET,
       rangeOption: Option[ByteRange] = None,
@@ -1021,6 +1376,130 @@ import scala.util.{ Failure, Success, Try }
       .toMat(completionSink(targetLocation, s3Headers))(Keep.right)
   }
 
+  def multipartCopyParallel(
+      sourceLocation: S3Location,
+      targetLocation: S3Location,
+      sourceVersionId: Option[String],
+      contentType: ContentType,
+      s3Headers: S3Headers,
+      minPartSize: Int,
+      parallelism: Int,
+      uploadId: Option[String]): Source[Long, Future[MultipartUploadResult]] = {
+    require(minPartSize >= MinChunkSize, s"minPartSize must be at least $MinChunkSize bytes (was $minPartSize)")
+    require(parallelism > 0, s"parallelism must be positive (was $parallelism)")
+
+    Source
+      .fromMaterializer { (mat, attr) =>
+        val resultMat = Promise[MultipartUploadResult]()
+        implicit val materializer: Materializer = mat
+        implicit val attributes: Attributes = attr
+        import mat.executionContext
+        getObjectMetadata(sourceLocation.bucket, sourceLocation.key, sourceVersionId, s3Headers)
+          .flatMapConcat {
+            case Some(metadata) =>
+              val objectSize = metadata.contentLength
+              val partitions = createPartitions(copyPartSize(objectSize, minPartSize), sourceLocation)(objectSize)
+              def partSize(partition: CopyPartition) = partition.range.fold(objectSize)(r => r.last - r.first)
+              // Pin all parts to the version seen by the HEAD request, so that an object replaced
+              // in the meantime fails the copy instead of mixing contents.
+              val headers = s3Headers.headersFor(CopyPart) ++
+                metadata.eTag.map(t => RawHeader("x-amz-copy-source-if-match", "\"" + t + "\""))
+
+              copyUpload(targetLocation, contentType, s3Headers, uploadId).flatMapConcat {
+                case (upload, uploadedParts) =>
+                  // Parts of a previous attempt are kept if they have the size this attempt would copy, and were
+                  // copied after the source object was last modified. As every part was pinned to the source's ETag
+                  // at the time, such a part holds the contents of the version this attempt copies. The last
+                  // modification is only known to the second, so parts copied within that second are copied again.
+                  val copiedAfter = metadata.metadata.collectFirst { case h: `Last-Modified` => h.date.clicks + 1000 }
+                  def reusable(part: ListPartsResultParts, partition: CopyPartition) =
+                    part.size == partSize(partition) && copiedAfter.exists(part.lastModified.toEpochMilli >= _)
+                  val (resumed, remaining) =
+                    partitions.partition(p => uploadedParts.get(p.partNumber).exists(reusable(_, p)))
+                  val resumedParts =
+                    resumed.map { p =>
+                      SuccessfulUploadPart(upload, p.partNumber, Utils.removeQuotes(uploadedParts(p.partNumber).eTag))
+                    }
+
+                  val (copiedParts, copied) = Source(remaining)
+                    .mapAsyncUnordered(parallelism) { partition =>
+                      copyPart(upload, partition, sourceVersionId, headers).map(_ -> partSize(partition))
+                    }
+                    .alsoToMat(Sink.seq)(Keep.right)
+                    .preMaterialize()
+
+                  copied
+                    .scan(resumed.map(partSize).sum) { case (total, (_, size)) => total + size }
+                    .concat(Source.lazyFuture { () =>
+                      copiedParts
+                        .flatMap { parts =>
+                          val allParts = (resumedParts ++ parts.map(_._1)).sortBy(_.partNumber)
+                          completeMultipartUpload(targetLocation, allParts, s3Headers)
+                        }
+                        .map { r =>
+                          resultMat.success(MultipartUploadResult(r.location, r.bucket, r.key, r.eTag, r.versionId))
+                          Done
+                        }
+                    }.mapConcat(_ => List.empty[Long]))
+              }
+            case None =>
+              Source.failed(
+                new S3Exception(NotFound, "NoSuchKey", "The specified key does not exist.", "-", sourceLocation.key))
+          }
+          .watchTermination() { (_, terminated) =>
+            terminated.onComplete {
+              case Failure(e) => resultMat.tryFailure(e)
+              case Success(_) => resultMat.tryFailure(new IllegalStateException("Multipart copy was cancelled"))
+            }(ExecutionContexts.parasitic)
+            resultMat.future
+          }
+      }
+      .mapMaterializedValue(_.flatMap(identity)(ExecutionContexts.parasitic))
+  }
+
+  /**
+   * Chooses the smallest part size of at least `minPartSize` bytes, rounded up to whole MiB, which copies
+   * `objectSize` bytes in at most [[MaxParts]] parts.
+   */
+  private[impl] def copyPartSize(objectSize: Long, minPartSize: Int): Int = {
+    val MiB = 1024L * 1024
+    val required = (objectSize + MaxParts - 1) / MaxParts
+    math.max(minPartSize.toLong, (required + MiB - 1) / MiB * MiB).toInt
+  }
+
+  /**
+   * Initiates a new multipart upload, or continues the upload `uploadId` together with the parts uploaded to it
+   * so far.
+   */
+  private def copyUpload(
+      targetLocation: S3Location,
+      contentType: ContentType,
+      s3Headers: S3Headers,
+      uploadId: Option[String]): Source[(MultipartUpload, Map[Int, ListPartsResultParts]), NotUsed] =
+    uploadId match {
+      case Some(id) =>
+        listParts(targetLocation.bucket, targetLocation.key, id, s3Headers)
+          .fold(Map.empty[Int, ListPartsResultParts])((parts, part) => parts.updated(part.partNumber, part))
+          .map(MultipartUpload(targetLocation.bucket, targetLocation.key, id) -> _)
+      case None =>
+        initiateMultipartUpload(targetLocation, contentType, s3Headers.headersFor(InitiateMultipartUpload))
+          .map(_ -> Map.empty[Int, ListPartsResultParts])
+    }
+
+  /**
+   * Copies one part, retrying it according to the retry settings.
+   */
+  private def copyPart(
+      upload: MultipartUpload,
+      partition: CopyPartition,
+      sourceVersionId: Option[String],
+      headers: immutable.Seq[HttpHeader])(
+      implicit mat: Materializer, attr: Attributes): Future[SuccessfulUploadPart] = {
+    implicit val conf: S3Settings = resolveSettings(attr, mat.system)
+    signAndGetAs[CopyPartResult](uploadCopyPartRequest(MultipartCopy(upload, partition), sourceVersionId, headers))
+      .map(r => SuccessfulUploadPart(upload, partition.partNumber, r.eTag))(ExecutionContexts.parasitic)
+  }
+
   private def computeMetaData(headers: immutable.Seq[HttpHeader], entity: ResponseEntity): ObjectMetadata =
     ObjectMetadata(
       headers ++
@@ -1118,16 +1597,24 @@ import scala.util.{ Failure, Success, Try }
       initialUploadState: Option[(String, Int)] = None)(
       parallelism: Int): Flow[ByteString, UploadPartResponse, NotUsed] = {
 
-    def getChunkBuffer(chunkSize: Int, bufferSize: Int, maxRetriesPerChunk: Int)(implicit settings: S3Settings) =
-      settings.bufferType match {
+    def getChunkBuffer(chunkSize: Int,
+        bufferSize: Int,
+        maxRetriesPerChunk: Int,
+        lease: Option[SlabLease],
+        spillFiles: Option[SpillFileLease],
+        instrumentation: Option[S3Instrumentation])(implicit settings: S3Settings) =
+      Instrumented.buffer(instrumentation)(settings.bufferType match {
         case MemoryBufferType =>
           new MemoryBuffer(bufferSize)
-        case d: DiskBufferType =>
+        case _: DiskBufferType =>
           // Number of materializations required will be total number of upload attempts (max retries + 1) multiplied
-          // by the number of materializations per attempt (currently once for request signing, and then again for the
-          // actual upload).
-          new DiskBuffer((maxRetriesPerChunk + 1) * 2, bufferSize, d.path)
-      }
+          // by the number of materializations per attempt (once for request signing when the payload is hashed up
+          // front, and then again for the actual upload).
+          val materializationsPerAttempt = if (settings.payloadSigning == PayloadSigning.FullPayloadSigning) 2 else 1
+          new DiskBuffer((maxRetriesPerChunk + 1) * materializationsPerAttempt, bufferSize, spillFiles.get)
+        case _: PooledBufferType =>
+          new PooledBuffer(bufferSize, lease.get)
+      })
 
     // Multipart upload requests (except for the completion api) are created here.
     //  The initial upload request gets executed within this function as well.
@@ -1137,8 +1624,6 @@ import scala.util.{ Failure, Success, Try }
       chunkSize >= MinChunkSize,
       s"Chunk size must be at least 5 MB = $MinChunkSize bytes (was $chunkSize bytes). See http://docs.aws.amazon.com/AmazonS3/latest/API/mpUploadUploadPart.html")
 
-    val chunkBufferSize = chunkSize * 2
-
     val headers = s3Headers.serverSideEncryption.map(_.headersFor(UploadPart)).getOrElse(Nil)
 
     Flow
@@ -1147,6 +1632,40 @@ import scala.util.{ Failure, Success, Try }
         implicit val sys: ActorSystem = mat.system
         implicit val materializer: Materializer = mat
 
+        // Slabs and spill files rented by this upload, all of them are returned once the upload has terminated,
+        // except those of part requests which are still being sent, which are returned once sent.
+        val lease = conf.bufferType match {
+          case p: PooledBufferType => Some(new SlabLease(S3Ext(sys).slabPool(p)))
+          case _                   => None
+        }
+        val spillFiles = conf.bufferType match {
+          case d: DiskBufferType => Some(new SpillFileLease(S3Ext(sys).spillFiles(d)))
+          case _                 => None
+        }
+
+        val instrumentation = Instrumented(attr)
+        val adaptive = conf.multipartUploadSettings.adaptiveUpload
+        // In adaptive mode, the part size grows with the part number and the parts are let through by the
+        // concurrency limiter before they are buffered, so that up to maxParallelism parts may be uploaded at once.
+        val partSize: Int => Int = adaptive match {
+          case Some(a) =>
+            val firstPartNumber = initialUploadState.fold(1)(_._2)
+            (index: Int) => adaptivePartSize(chunkSize, a)(firstPartNumber + index)
+          case None => (_: Int) => chunkSize
+        }
+        val uploadParallelism = adaptive.fold(parallelism)(_.maxParallelism)
+        val concurrency = adaptive.map { a =>
+          new AdaptiveConcurrency(a.minParallelism, a.maxParallelism, parallelism, a.maxBytesInFlight)
+        }
+        // The part substreams are materialized in order, so that each buffer is sized for the part it holds.
+        val nextPart = new AtomicInteger()
+        val chunkBuffer = Flow.fromMaterializer { (_, _) =>
+          val size = partSize(nextPart.getAndIncrement())
+          val maxRetries = conf.multipartUploadSettings.retrySettings.maxRetries
+          val buffer = getChunkBuffer(chunkSize, size * 2, maxRetries, lease, spillFiles, instrumentation)
+          concurrency.fold(buffer)(c => permitted(c, size)(buffer))
+        }
+
         // Emits at a chunk if no chunks have been emitted. Ensures that we can upload empty files.
         val atLeastOne =
           Flow[Chunk]
@@ -1156,56 +1675,126 @@ import scala.util.{ Failure, Success, Try }
                 if (prefix.nonEmpty) {
                   Source(prefix).concat(tail)
                 } else {
-                  Source.single(MemoryChunk(ByteString.empty))
+                  // the permit of the empty part was given back when it was dropped
+                  val permit = concurrency.fold(Future.successful(Done: Done))(_.acquire(0))
+                  Source.future(permit).map(_ => MemoryChunk(ByteString.empty))
                 }
             }
 
-        val retriableFlow: Flow[(Chunk, (MultipartUpload, Int)), (Try[HttpResponse], (MultipartUpload, Int)), NotUsed] =
+        // The chunk is passed along with the response, so that its buffer can be released once the part is uploaded.
+        val retriableFlow
+            : Flow[(Chunk, (MultipartUpload, Int)), (Try[HttpResponse], ((MultipartUpload, Int), Chunk)), NotUsed] =
           Flow[(Chunk, (MultipartUpload, Int))]
             .map {
               case (chunkedPayload, (uploadInfo, chunkIndex)) =>
                 // each of the payload requests are created
                 val partRequest =
                   uploadPartRequest(uploadInfo, chunkIndex, chunkedPayload, headers)
-                (partRequest, (uploadInfo, chunkIndex))
+                (partRequest, ((uploadInfo, chunkIndex), chunkedPayload))
             }
             .flatMapConcat {
               case (req, info) =>
-                Signer.signedRequest(req, signingKey(), conf.signAnonymousRequests).zip(Source.single(info))
+                Instrumented
+                  .sign(instrumentation, req)(
+                    Signer.signedRequest(_, signingKey(), conf.signAnonymousRequests, conf.payloadSigning))
+                  .zip(Source.single(info))
+            }
+            // The part requests are sent one at a time anyway, sending them individually tells the chunk when the
+            // connection pool is done with its request, which may be after the upload has terminated.
+            .mapAsync(1) {
+              case (req, info @ (_, chunk)) =>
+                chunk.sending()
+                Instrumented
+                  .send(instrumentation, req)(singleRequest(_))
+                  .transform { response =>
+                    chunk.sent()
+                    Success((response, info))
+                  }(ExecutionContexts.parasitic)
             }
-            .via(superPool[(MultipartUpload, Int)])
+
+        def partRetried(chunkAndUploadInfo: (Chunk, (MultipartUpload, Int))): Unit =
+          instrumentation.foreach { i =>
+            val (chunk, (_, index)) = chunkAndUploadInfo
+            i.partRetried(index, chunk.size)
+          }
 
         import conf.multipartUploadSettings.retrySettings._
 
-        SplitAfterSize(chunkSize, chunkBufferSize)(atLeastOneByteString)
-          .via(getChunkBuffer(chunkSize, chunkBufferSize, maxRetries)) // creates the chunks
+        SplitAfterSize(partSize, (index: Int) => partSize(index) * 2)(atLeastOneByteString)
+          .via(chunkBuffer) // creates the chunks
           .mergeSubstreamsWithParallelism(parallelism)
-          .filter(_.size > 0)
+          .filter { chunk =>
+            if (chunk.size == 0) {
+              chunk.release()
+              concurrency.foreach(_.release(0))
+            }
+            chunk.size > 0
+          }
           .via(atLeastOne)
           .zip(requestInfoOrUploadState(s3Location, contentType, s3Headers, initialUploadState))
-          .groupBy(parallelism, { case (_, (_, chunkIndex)) => chunkIndex % parallelism })
+          .groupBy(uploadParallelism, { case (_, (_, chunkIndex)) => chunkIndex % uploadParallelism })
           // Allow requests that fail with transient errors to be retried, using the already buffered chunk.
           .via(RetryFlow.withBackoff(minBackoff, maxBackoff, randomFactor, maxRetries, retriableFlow) {
             case (chunkAndUploadInfo, (Success(r), _)) =>
               if (isTransientError(r.status)) {
                 r.entity.discardBytes()
+                concurrency.foreach(_.congested())
+                partRetried(chunkAndUploadInfo)
                 Some(chunkAndUploadInfo)
               } else {
                 None
               }
             case (chunkAndUploadInfo, (Failure(_), _)) =>
               // Treat any exception as transient.
+              concurrency.foreach(_.congested())
+              partRetried(chunkAndUploadInfo)
               Some(chunkAndUploadInfo)
           })
           .mapAsync(1) {
-            case (response, (upload, index)) =>
-              handleChunkResponse(response, upload, index, conf.multipartUploadSettings.retrySettings)
+            case (response, ((upload, index), chunk)) =>
+              handleChunkResponse(response, upload, index, conf.multipartUploadSettings.retrySettings).andThen {
+                case _ =>
+                  chunk.release()
+                  concurrency.foreach(_.release(chunk.size))
+              }(ExecutionContexts.parasitic)
+          }
+          .mergeSubstreamsWithParallelism(uploadParallelism)
+          .watchTermination() { (_, done) =>
+            done.onComplete { _ =>
+              lease.foreach(_.close())
+              spillFiles.foreach(_.close())
+            }(ExecutionContexts.parasitic)
+            NotUsed
           }
-          .mergeSubstreamsWithParallelism(parallelism)
       }
       .mapMaterializedValue(_ => NotUsed)
   }
 
+  /**
+   * Only lets the bytes of a part into its buffer once a permit for `partSize` bytes has been granted, so that the
+   * budget of an adaptive upload covers the parts being buffered as well as the parts being uploaded. The permit is
+   * adjusted to the size of the chunk once it is buffered, and released once its part has been uploaded.
+   */
+  private[impl] def permitted(concurrency: AdaptiveConcurrency, partSize: Int)(
+      buffer: Flow[ByteString, Chunk, NotUsed]): Flow[ByteString, Chunk, NotUsed] =
+    Flow
+      .futureFlow(concurrency.acquire(partSize).map { _ =>
+        buffer.map { chunk =>
+          concurrency.resize(partSize, chunk.size)
+          chunk
+        }
+      }(ExecutionContexts.parasitic))
+      .mapMaterializedValue(_ => NotUsed)
+
+  /**
+   * The size of part `partNumber` of an adaptive upload, which starts at `chunkSize` and doubles after every
+   * `partsPerSizeStep` parts, up to the maximum part size.
+   */
+  private[impl] def adaptivePartSize(chunkSize: Int, settings: AdaptiveUploadSettings)(partNumber: Int): Int = {
+    val doublings = math.min((partNumber - 1) / settings.partsPerSizeStep, 30)
+    math.max(chunkSize.toLong, math.min(settings.maxPartSize.toLong, chunkSize.toLong << doublings)).toInt
+  }
+
   private def chunkAndRequestWithContext[C](
       s3Location: S3Location,
       contentType: ContentType,
@@ -1237,6 +1826,7 @@ import scala.util.{ Failure, Success, Try }
         implicit val conf: S3Settings = resolveSettings(attr, mat.system)
         implicit val sys: ActorSystem = mat.system
         implicit val materializer: Materializer = mat
+        val instrumentation = Instrumented(attr)
 
         // Emits at a chunk if no chunks have been emitted. Ensures that we can upload empty files.
         val atLeastOne =
@@ -1263,15 +1853,26 @@ import scala.util.{ Failure, Success, Try }
             }
             .flatMapConcat {
               case ((req, info), allContext) =>
-                Signer.signedRequest(req, signingKey(), conf.signAnonymousRequests).zip(Source.single(info)).map {
-                  case (httpRequest, data) => (httpRequest, (data, allContext))
-                }
+                Instrumented
+                  .sign(instrumentation, req)(
+                    Signer.signedRequest(_, signingKey(), conf.signAnonymousRequests, conf.payloadSigning))
+                  .zip(Source.single(info))
+                  .map {
+                    case (httpRequest, data) => (httpRequest, (data, allContext))
+                  }
             }
-            .via(superPool[((MultipartUpload, Int), immutable.Iterable[C])])
+            .via(Instrumented.pool(instrumentation)(
+              superPool[(HttpRequest, Long, ((MultipartUpload, Int), immutable.Iterable[C]))]))
             .map {
               case (response, (info, allContext)) => ((response, info), allContext)
             }
 
+        def partRetried(chunkAndUploadInfo: (Chunk, (MultipartUpload, Int))): Unit =
+          instrumentation.foreach { i =>
+            val (chunk, (_, index)) = chunkAndUploadInfo
+            i.partRetried(index, chunk.size)
+          }
+
         import conf.multipartUploadSettings.retrySettings._
 
         val atLeastOneByteStringAndEmptyContext: Flow[(ByteString, C), (ByteString, C), NotUsed] =
@@ -1294,12 +1895,14 @@ import scala.util.{ Failure, Success, Try }
             case ((chunkAndUploadInfo, allContext), ((Success(r), _), _)) =>
               if (isTransientError(r.status)) {
                 r.entity.discardBytes()
+                partRetried(chunkAndUploadInfo)
                 Some((chunkAndUploadInfo, allContext))
               } else {
                 None
               }
             case ((chunkAndUploadInfo, allContext), ((Failure(_), _), _)) =>
               // Treat any exception as transient.
+              partRetried(chunkAndUploadInfo)
               Some((chunkAndUploadInfo, allContext))
           })
           .mapAsync(1) {
@@ -1432,11 +2035,15 @@ import scala.util.{ Failure, Success, Try }
     implicit val conf: S3Settings = resolveSettings(attr, sys)
     import conf.retrySettings._
     import mat.executionContext
+    val instrumentation = Instrumented(attr)
 
     val retriableFlow = Flow[HttpRequest]
-      .flatMapConcat(req => Signer.signedRequest(req, signingKey(overrideRegion), conf.signAnonymousRequests))
+      .flatMapConcat(req =>
+        Instrumented.sign(instrumentation, req)(
+          Signer.signedRequest(_, signingKey(overrideRegion), conf.signAnonymousRequests, conf.payloadSigning)))
       .mapAsync(parallelism = 1)(req =>
-        singleRequest(req)
+        Instrumented
+          .send(instrumentation, req)(singleRequest(_))
           .map(Success.apply)
           .recover[Try[HttpResponse]] {
             case t => Failure(t)
@@ -1447,9 +2054,11 @@ import scala.util.{ Failure, Success, Try }
       .via(RetryFlow.withBackoff(minBackoff, maxBackoff, randomFactor, maxRetries, retriableFlow) {
         case (request, Success(response)) if isTransientError(response.status) =>
           response.entity.discardBytes()
+          instrumentation.foreach(_.requestRetried(request))
           Some(request)
         case (request, Failure(_)) =>
           // Treat any exception as transient.
+          instrumentation.foreach(_.requestRetried(request))
           Some(request)
         case _ => None
       })
@@ -1506,7 +2115,9 @@ import scala.util.{ Failure, Success, Try }
           .mapConcat(identity)
           .flatMapConcat {
             case (req, info) =>
-              Signer.signedRequest(req, signingKey(), conf.signAnonymousRequests).zip(Source.single(info))
+              Instrumented
+                .sign(Instrumented(attr), req)(Signer.signedRequest(_, signingKey(), conf.signAnonymousRequests))
+                .zip(Source.single(info))
           }
       }
       .mapMaterializedValue(_ => NotUsed)
@@ -1522,7 +2133,7 @@ import scala.util.{ Failure, Success, Try }
         implicit val settings: S3Settings = resolveSettings(attr, mat.system)
 
         requests
-          .via(superPool[MultipartCopy])
+          .via(Instrumented.pool(Instrumented(attr))(superPool[(HttpRequest, Long, MultipartCopy)]))
           .map {
             case (Success(r), multipartCopy) =>
               val entity = r.entity
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.scaladsl.model.StatusCodes
+import pekko.stream.connectors.s3.{ S3Exception, SelectObjectContentStats }
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.util.ByteString
+
+import scala.concurrent.Promise
+import scala.xml.XML
+
+/**
+ * Internal Api
+ *
+ * Emits the payloads of the `Records` events of a SelectObjectContent response and completes `stats` with its `Stats`
+ * event. The stage completes with the `End` event, S3 reports errors found while scanning the object in `error`
+ * messages which fail the stage. As the response status has been sent before, a response without an `End` event is
+ * incomplete and fails the stage as well.
+ */
+@InternalApi private[impl] final class SelectEvents(resource: String, stats: Promise[SelectObjectContentStats])
+    extends GraphStage[FlowShape[EventStreamMessage, ByteString]] {
+  import SelectEvents._
+
+  val in = Inlet[EventStreamMessage]("SelectEvents.in")
+  val out = Outlet[ByteString]("SelectEvents.out")
+  override val shape = FlowShape.of(in, out)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+
+      override def onPush(): Unit = {
+        val message = grab(in)
+        message.headers.get(":message-type") match {
+          case Some("event") =>
+            message.headers.get(":event-type") match {
+              case Some("Records") if message.payload.nonEmpty => push(out, message.payload)
+              case Some("Stats") =>
+                stats.trySuccess(parseStats(message.payload))
+                pull(in)
+              case Some("End") => completeStage()
+              case _           => pull(in) // Progress and Cont(inuation) events
+            }
+          case Some("error") =>
+            fail(
+              new S3Exception(StatusCodes.OK,
+                message.headers.getOrElse(":error-code", "Unknown"),
+                message.headers.getOrElse(":error-message", ""),
+                "-",
+                resource))
+          case other =>
+            fail(new IllegalStateException(s"Unknown event stream message type $other"))
+        }
+      }
+
+      override def onPull(): Unit = pull(in)
+
+      override def onUpstreamFinish(): Unit =
+        fail(new IllegalStateException(s"The selection from $resource ended without an End event"))
+
+      override def onUpstreamFailure(ex: Throwable): Unit = fail(ex)
+
+      private def fail(ex: Throwable): Unit = {
+        stats.tryFailure(ex)
+        failStage(ex)
+      }
+
+      override def postStop(): Unit =
+        stats.tryFailure(new IllegalStateException(s"The selection from $resource ended before its statistics"))
+
+      setHandlers(in, out, this)
+    }
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object SelectEvents {
+  private[impl] def parseStats(payload: ByteString): SelectObjectContentStats = {
+    val xml = XML.loadString(payload.utf8String)
+    // S3 nests the values in a Details element
+    def value(name: String) = (xml \\ name).headOption.fold(0L)(_.text.trim.toLong)
+    SelectObjectContentStats(value("BytesScanned"), value("BytesProcessed"), value("BytesReturned"))
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import java.util.ArrayDeque
+import java.util.concurrent.TimeUnit
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+import pekko.stream.connectors.s3.BufferPoolMetrics
+
+import scala.collection.{ immutable, mutable }
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ Future, Promise }
+
+
+/**
+ * Internal Api
+ *
+ * A bounded pool of byte array slabs of `slabSize` bytes. Slabs are allocated on first use and kept for reuse once
+ * released. Slabs are requested a chunk's worth at a time and handed out all at once, so that a buffer never holds
+ * slabs while waiting for more. Requests which can't be served are queued and served in order as slabs are released.
+ */
+@InternalApi private[s3] final class SlabPool(val slabSize: Int, val maxSlabs: Int) extends BufferPoolMetrics {
+  import SlabPool._
+
+  private[this] val free = new ArrayDeque[Array[Byte]]()
+  private[this] val waiting = new ArrayDeque[Waiting]()
+  private[this] var inUse = 0
+  private[this] var waits = 0L
+  private[this] var waitNanos = 0L
+
+  def acquire(): Future[Array[Byte]] = acquire(1).map(_.head)(ExecutionContexts.parasitic)
+
+  /** Completes with `count` slabs once that many are available. */
+  def acquire(count: Int): Future[immutable.Seq[Array[Byte]]] = synchronized {
+    require(count <= maxSlabs, s"A buffer pool of $maxSlabs slabs can't hand out $count slabs at once")
+    if (waiting.isEmpty && inUse + count <= maxSlabs) Future.successful(take(count))
+    else {
+      val promise = Promise[immutable.Seq[Array[Byte]]]()
+      waiting.addLast(Waiting(promise, count, System.nanoTime()))
+      waits += 1
+      promise.future
+    }
+  }
+
+  def release(slab: Array[Byte]): Unit = release(slab :: Nil)
+
+  def release(slabs: immutable.Seq[Array[Byte]]): Unit = if (slabs.nonEmpty) {
+    var served = List.empty[(Promise[immutable.Seq[Array[Byte]]], immutable.Seq[Array[Byte]])]
+    synchronized {
+      inUse -= slabs.size
+      slabs.foreach(free.addLast)
+      var next = waiting.peekFirst()
+      while ((next ne null) && inUse + next.count <= maxSlabs) {
+        waiting.pollFirst()
+        waitNanos += System.nanoTime() - next.since
+        served ::= ((next.promise, take(next.count)))
+        next = waiting.peekFirst()
+      }
+    }
+    served.reverse.foreach { case (promise, taken) => promise.success(taken) }
+  }
+
+  private def take(count: Int): immutable.Seq[Array[Byte]] = {
+    inUse += count
+    Vector.fill(count)(if (free.isEmpty) new Array[Byte](slabSize) else free.pollLast())
+  }
+
+  override def slabsInUse: Int = synchronized(inUse)
+
+  override def waitingRequests: Int = synchronized(waiting.size)
+
+  override def waitCount: Long = synchronized(waits)
+
+  override def totalWaitTime: FiniteDuration = FiniteDuration(synchronized(waitNanos), TimeUnit.NANOSECONDS)
+
+  override def toString: String =
+    s"SlabPool(slabSize=$slabSize,maxSlabs=$maxSlabs,slabsInUse=$slabsInUse,waitingRequests=$waitingRequests)"
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[s3] object SlabPool {
+  private final case class Waiting(promise: Promise[immutable.Seq[Array[Byte]]], count: Int, since: Long)
+}
+
+/**
+ * Internal Api
+ *
+ * Keeps track of the slabs rented by one upload, so that all of them are returned to the pool once the upload has
+ * terminated, including slabs which are handed out after that.
+ *
+ * The slabs of a chunk are referred to by the entity of its part request while it is being sent, which may go on after
+ * the upload has failed or been cancelled. Such slabs are marked with [[sending]] and, once the upload has terminated,
+ * returned when they are marked [[sent]] instead of when the lease is closed.
+ */
+@InternalApi private[impl] final class SlabLease(pool: SlabPool) {
+  private[this] val rented = mutable.Set.empty[Array[Byte]]
+  private[this] val inFlight = mutable.Set.empty[Array[Byte]]
+  private[this] var closed = false
+
+  def slabSize: Int = pool.slabSize
+
+  def maxSlabs: Int = pool.maxSlabs
+
+  def acquire(): Future[Array[Byte]] = acquire(1).map(_.head)(ExecutionContexts.parasitic)
+
+  def acquire(count: Int): Future[immutable.Seq[Array[Byte]]] =
+    pool
+      .acquire(count)
+      .map { slabs =>
+        val keep = synchronized {
+          if (!closed) rented ++= slabs
+          !closed
+        }
+        if (keep) slabs
+        else {
+          pool.release(slabs)
+          throw new IllegalStateException("Upload terminated while waiting for buffer slabs")
+        }
+      }(ExecutionContexts.parasitic)
+
+  def release(slabs: immutable.Seq[Array[Byte]]): Unit =
+    pool.release(synchronized(slabs.filter(rented.remove)))
+
+  /**
+   * Marks slabs which are referred to by a request handed to the connection pool, they are kept until [[sent]].
+   */
+  def sending(slabs: immutable.Seq[Array[Byte]]): Unit = synchronized {
+    if (closed) throw new IllegalStateException("Upload terminated before its part was sent")
+    inFlight ++= slabs
+  }
+
+  def sent(slabs: immutable.Seq[Array[Byte]]): Unit =
+    pool.release(synchronized {
+      inFlight --= slabs
+      if (closed) slabs.filter(rented.remove) else Nil
+    })
+
+  /** Returns all rented slabs to the pool, except those of requests which are still being sent. */
+  def close(): Unit =
+    pool.release(synchronized {
+      closed = true
+      val idle = rented.filterNot(inFlight).toList
+      rented --= idle
+      idle
+    })
+}
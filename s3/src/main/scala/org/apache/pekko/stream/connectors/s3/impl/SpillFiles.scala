@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import java.nio.channels.FileChannel
+import java.nio.file.{ Files, Path, StandardOpenOption }
+import java.util.ArrayDeque
+import java.util.concurrent.atomic.AtomicBoolean
+
+import org.apache.pekko.annotation.InternalApi
+
+import scala.collection.mutable
+import scala.util.control.NonFatal
+
+/**
+ * Internal Api
+ *
+ * A ring of spill files in `directory` (or the default temp directory) used by [[DiskBuffer]]. Files are kept for
+ * reuse once released, up to `maxIdle` idle files, so that their disk blocks stay allocated and no file is created and
+ * deleted per part. On `close()` all idle files are deleted and the files still in use are closed and deleted, files
+ * acquired after that are deleted as soon as they are released.
+ */
+@InternalApi private[s3] final class SpillFiles(directory: Option[Path], maxIdle: Int) {
+  require(maxIdle >= 0, "maxIdle must not be negative")
+
+  private[this] val idle = new ArrayDeque[Path]()
+  private[this] val live = mutable.Set.empty[SpillFile]
+  private[this] var closed = false
+
+  /** Opens a spill file for writing from its start and reading. */
+  def acquire(): SpillFile = {
+    val reused = synchronized(idle.pollFirst())
+    val path =
+      if (reused ne null) reused
+      else directory.fold(Files.createTempFile("s3-buffer-", ".bin"))(Files.createTempFile(_, "s3-buffer-", ".bin"))
+    val file =
+      try new SpillFile(path, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE), this)
+      catch {
+        case NonFatal(e) =>
+          Files.deleteIfExists(path)
+          throw e
+      }
+    synchronized(live += file)
+    file
+  }
+
+  private[impl] def release(file: SpillFile): Unit = {
+    val keep = synchronized {
+      live -= file
+      val keep = !closed && idle.size < maxIdle
+      if (keep) idle.addFirst(file.path)
+      keep
+    }
+    if (!keep) Files.deleteIfExists(file.path)
+  }
+
+  def idleFiles: Int = synchronized(idle.size)
+
+  def liveFiles: Int = synchronized(live.size)
+
+  def close(): Unit = {
+    val (idleFiles, liveFiles) = synchronized {
+      closed = true
+      val files = idle.toArray(new Array[Path](idle.size))
+      idle.clear()
+      (files, live.toList)
+    }
+    idleFiles.foreach(Files.deleteIfExists)
+    liveFiles.foreach(_.release())
+  }
+}
+
+/**
+ * Internal Api
+ *
+ * A spill file rented from [[SpillFiles]]. The channel is shared by all readers, which only use positional reads.
+ */
+@InternalApi private[s3] final class SpillFile(val path: Path, val channel: FileChannel, files: SpillFiles) {
+  private[this] val released = new AtomicBoolean(false)
+
+  /** Closes the channel and returns the file to the ring, only the first call has an effect. */
+  def release(): Unit =
+    if (released.compareAndSet(false, true)) {
+      try channel.close()
+      finally files.release(this)
+    }
+}
+
+/**
+ * Internal Api
+ *
+ * Keeps track of the spill files rented by one upload, so that all of them are released once the upload has
+ * terminated, including files which are acquired after that.
+ *
+ * The file of a chunk is read by its part request while it is being sent, which may go on after the upload has failed
+ * or been cancelled. Such files are marked with [[sending]] and, once the upload has terminated, released when they are
+ * marked [[sent]] instead of when the lease is closed.
+ */
+@InternalApi private[impl] final class SpillFileLease(files: SpillFiles) {
+  private[this] val rented = mutable.Set.empty[SpillFile]
+  private[this] val inFlight = mutable.Set.empty[SpillFile]
+  private[this] var closed = false
+
+  def acquire(): SpillFile = {
+    val file = files.acquire()
+    val keep = synchronized {
+      if (!closed) rented += file
+      !closed
+    }
+    if (keep) file
+    else {
+      file.release()
+      throw new IllegalStateException("Upload terminated before its part was buffered")
+    }
+  }
+
+  def release(file: SpillFile): Unit = {
+    synchronized(rented -= file)
+    file.release()
+  }
+
+  /**
+   * Marks a file which is read by a request handed to the connection pool, it is kept until [[sent]].
+   */
+  def sending(file: SpillFile): Unit = synchronized {
+    if (closed) throw new IllegalStateException("Upload terminated before its part was sent")
+    inFlight += file
+  }
+
+  def sent(file: SpillFile): Unit = {
+    val terminated = synchronized {
+      inFlight -= file
+      closed && rented.remove(file)
+    }
+    if (terminated) file.release()
+  }
+
+  /** Releases all rented files, except those of requests which are still being sent. */
+  def close(): Unit = {
+    val idle = synchronized {
+      closed = true
+      val idle = rented.filterNot(inFlight).toList
+      rented --= idle
+      idle
+    }
+    idle.foreach(_.release())
+  }
+}
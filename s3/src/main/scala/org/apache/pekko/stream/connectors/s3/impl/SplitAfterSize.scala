@@ -38,14 +38,23 @@ import scala.annotation.tailrec
   def apply[I, M](minChunkSize: Int,
       maxChunkSize: Int)(in: Flow[I, ByteString, M]): SubFlow[ByteString, M, in.Repr, in.Closed] = {
     require(minChunkSize < maxChunkSize, "the min chunk size must be smaller than the max chunk size")
+    apply((_: Int) => minChunkSize, (_: Int) => maxChunkSize)(in)
+  }
+
+  /**
+   * Splits up a byte stream source into sub-flows whose minimum and maximum sizes depend on the index of the sub-flow,
+   * starting at 0.
+   */
+  def apply[I, M](minChunkSize: Int => Int,
+      maxChunkSize: Int => Int)(in: Flow[I, ByteString, M]): SubFlow[ByteString, M, in.Repr, in.Closed] =
     in.via(insertMarkers(minChunkSize, maxChunkSize))
       .splitWhen(_ == NewStream)
       .collect { case bs: ByteString => bs }
-  }
 
   private case object NewStream
 
-  private def insertMarkers(minChunkSize: Long, maxChunkSize: Int): GraphStage[FlowShape[ByteString, Any]] =
+  private def insertMarkers(minChunkSize: Int => Int,
+      maxChunkSize: Int => Int): GraphStage[FlowShape[ByteString, Any]] =
     new GraphStage[FlowShape[ByteString, Any]] {
       val in = Inlet[ByteString]("SplitAfterSize.in")
       val out = Outlet[Any]("SplitAfterSize.out")
@@ -54,15 +63,18 @@ import scala.annotation.tailrec
       override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
         new GraphStageLogic(shape) with OutHandler with InHandler {
           var count: Int = 0
+          var chunkIndex: Int = 0
           override def onPull(): Unit = pull(in)
 
           override def onPush(): Unit = {
             val elem = grab(in)
+            val max = maxChunkSize(chunkIndex)
             count += elem.size
-            if (count > maxChunkSize) {
-              splitElement(elem, elem.size - (count - maxChunkSize))
-            } else if (count >= minChunkSize) {
+            if (count > max) {
+              splitElement(elem, elem.size - (count - max))
+            } else if (count >= minChunkSize(chunkIndex)) {
               count = 0
+              chunkIndex += 1
               emitMultiple(out, elem :: NewStream :: Nil)
             } else emit(out, elem)
           }
@@ -71,7 +83,8 @@ import scala.annotation.tailrec
             if (elem.size > splitPos) {
               val (part1, rest) = elem.splitAt(splitPos)
               emitMultiple(out, part1 :: NewStream :: Nil)
-              splitElement(rest, maxChunkSize)
+              chunkIndex += 1
+              splitElement(rest, maxChunkSize(chunkIndex))
             } else {
               count = elem.size
               emit(out, elem)
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl.auth
+
+import java.security.MessageDigest
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import pekko.util.ByteString
+
+/**
+ * Internal Api: Encodes the payload with `aws-chunked` content encoding. Each chunk of `chunkSize` bytes is
+ * prefixed with its signature, which includes the signature of the previous chunk, starting with the
+ * signature of the request (seed signature). An empty chunk terminates the payload.
+ *
+ * See https://docs.aws.amazon.com/AmazonS3/latest/API/sigv4-streaming.html
+ */
+@InternalApi private[impl] final class ChunkSigningStage(key: SigningKey,
+    seedSignature: String,
+    chunkSize: Int = ChunkSigningStage.DefaultChunkSize)
+    extends GraphStage[FlowShape[ByteString, ByteString]] {
+  import ChunkSigningStage._
+
+  private val in = Inlet[ByteString]("ChunkSigning.in")
+  private val out = Outlet[ByteString]("ChunkSigning.out")
+  override val shape = FlowShape.of(in, out)
+
+  override protected def initialAttributes: Attributes = Attributes.name("ChunkSigning")
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val requestDate = key.requestDate.format(Signer.dateFormatter)
+      private[this] val scope = key.scope.scopeString
+      private[this] val digest = MessageDigest.getInstance("SHA-256")
+      private[this] var previousSignature = seedSignature
+      private[this] var buffer = ByteString.empty
+
+      setHandlers(in, out, this)
+
+      override def onPush(): Unit = {
+        buffer ++= grab(in)
+        if (buffer.length < chunkSize) pull(in)
+        else {
+          val chunks = ByteString.newBuilder
+          while (buffer.length >= chunkSize) {
+            val (data, rest) = buffer.splitAt(chunkSize)
+            chunks.append(signedChunk(data))
+            buffer = rest
+          }
+          push(out, chunks.result())
+        }
+      }
+
+      override def onPull(): Unit = pull(in)
+
+      override def onUpstreamFinish(): Unit = {
+        val last =
+          if (buffer.isEmpty) signedChunk(ByteString.empty)
+          else signedChunk(buffer) ++ signedChunk(ByteString.empty)
+        buffer = ByteString.empty
+        emit(out, last, () => completeStage())
+      }
+
+      private def signedChunk(data: ByteString): ByteString = {
+        data.asByteBuffers.foreach(bytes => digest.update(bytes))
+        val stringToSign =
+          s"$Algorithm\n$requestDate\n$scope\n$previousSignature\n$EmptyHash\n${encodeHex(digest.digest())}"
+        previousSignature = key.hexEncodedSignature(stringToSign.getBytes())
+        ByteString(s"${Integer.toHexString(data.length)}$SignaturePrefix$previousSignature\r\n") ++ data ++ CrLf
+      }
+    }
+}
+
+/**
+ * Internal Api
+ */
+@InternalApi private[impl] object ChunkSigningStage {
+  val DefaultChunkSize: Int = 64 * 1024
+
+  private val Algorithm = "AWS4-HMAC-SHA256-PAYLOAD"
+  private val EmptyHash = encodeHex(MessageDigest.getInstance("SHA-256").digest())
+  private val SignaturePrefix = ";chunk-signature="
+  private val CrLf = ByteString("\r\n")
+
+  /**
+   * The length of a payload of `decodedLength` bytes in `aws-chunked` encoding.
+   */
+  def encodedLength(decodedLength: Long, chunkSize: Int = DefaultChunkSize): Long = {
+    val remainder = decodedLength % chunkSize
+    (decodedLength / chunkSize) * chunkLength(chunkSize) +
+    (if (remainder > 0) chunkLength(remainder) else 0L) +
+    chunkLength(0)
+  }
+
+  // hex encoded size, signature prefix, signature of 64 hex digits, CRLF, data, CRLF
+  private def chunkLength(dataLength: Long): Long =
+    java.lang.Long.toHexString(dataLength).length + SignaturePrefix.length + 64 + 2 + dataLength + 2
+}
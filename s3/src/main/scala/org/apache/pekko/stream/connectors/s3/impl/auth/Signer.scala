@@ -21,47 +21,79 @@ import org.apache.pekko
 import pekko.NotUsed
 import pekko.annotation.InternalApi
 import pekko.http.scaladsl.model.headers.RawHeader
-import pekko.http.scaladsl.model.{ HttpHeader, HttpRequest }
+import pekko.http.scaladsl.model.{ HttpEntity, HttpHeader, HttpRequest }
+import pekko.stream.connectors.s3.PayloadSigning
+import pekko.stream.connectors.s3.PayloadSigning.{ FullPayloadSigning, StreamingPayloadSigning, UnsignedPayload }
 import pekko.stream.scaladsl.Source
 
 @InternalApi private[impl] object Signer {
-  private val dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssX")
+  private[auth] val dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssX")
+
+  private val UnsignedPayloadHash = "UNSIGNED-PAYLOAD"
+  private val StreamingPayloadHash = "STREAMING-AWS4-HMAC-SHA256-PAYLOAD"
 
   def signedRequest(request: HttpRequest,
       key: SigningKey,
-      signAnonymousRequests: Boolean): Source[HttpRequest, NotUsed] =
+      signAnonymousRequests: Boolean,
+      payloadSigning: PayloadSigning = FullPayloadSigning): Source[HttpRequest, NotUsed] =
     if (!signAnonymousRequests && key.anonymous) Source.single(request)
-    else {
-      val hashedBody = request.entity.dataBytes.via(digest()).map(hash => encodeHex(hash.toArray))
+    else
+      (payloadSigning, request.entity) match {
+        case (UnsignedPayload, entity) if !entity.isInstanceOf[HttpEntity.Strict] =>
+          Source.single(sign(request, key, UnsignedPayloadHash)._1)
+        case (StreamingPayloadSigning, entity: HttpEntity.Default) =>
+          Source.single(streamingSignedRequest(request, entity, key))
+        case _ =>
+          // strict entities are hashed without reading them twice, streamed entities of unknown length
+          // can't be signed chunk by chunk
+          val hashedBody = request.entity.dataBytes.via(digest()).map(hash => encodeHex(hash.toArray))
+
+          hashedBody
+            .map(hb => sign(request, key, hb)._1)
+            .mapMaterializedValue(_ => NotUsed)
+      }
+
+  /**
+   * Signs the request with `aws-chunked` content encoding, the entity is signed chunk by chunk while it is sent,
+   * see https://docs.aws.amazon.com/AmazonS3/latest/API/sigv4-streaming.html
+   */
+  private[this] def streamingSignedRequest(request: HttpRequest,
+      entity: HttpEntity.Default,
+      key: SigningKey): HttpRequest = {
+    val encodingHeaders = Vector(RawHeader("Content-Encoding", "aws-chunked"),
+      RawHeader("x-amz-decoded-content-length", entity.contentLength.toString))
+    val (signed, seedSignature) =
+      sign(request.withHeaders(request.headers ++ encodingHeaders), key, StreamingPayloadHash)
+    signed.withEntity(
+      HttpEntity(
+        entity.contentType,
+        ChunkSigningStage.encodedLength(entity.contentLength),
+        entity.data.via(new ChunkSigningStage(key, seedSignature))))
+  }
 
-      hashedBody
-        .map { hb =>
-          val headersToAdd = Vector(RawHeader("x-amz-date", key.requestDate.format(dateFormatter)),
-            RawHeader("x-amz-content-sha256", hb)) ++ sessionHeader(key)
-          val reqWithHeaders = request.withHeaders(request.headers ++ headersToAdd)
-          val cr = CanonicalRequest.from(reqWithHeaders)
-          val authHeader = authorizationHeader("AWS4-HMAC-SHA256", key, key.requestDate, cr)
-          reqWithHeaders.withHeaders(reqWithHeaders.headers :+ authHeader)
-        }
-        .mapMaterializedValue(_ => NotUsed)
-    }
+  /**
+   * Adds the date, content hash and authorization headers, returns the signed request and its signature.
+   */
+  private[this] def sign(request: HttpRequest, key: SigningKey, hashedPayload: String): (HttpRequest, String) = {
+    val headersToAdd = Vector(RawHeader("x-amz-date", key.requestDate.format(dateFormatter)),
+      RawHeader("x-amz-content-sha256", hashedPayload)) ++ sessionHeader(key)
+    val reqWithHeaders = request.withHeaders(request.headers ++ headersToAdd)
+    val cr = CanonicalRequest.from(reqWithHeaders)
+    val signature = key.hexEncodedSignature(stringToSign("AWS4-HMAC-SHA256", key, key.requestDate, cr).getBytes())
+    val authHeader = authorizationHeader("AWS4-HMAC-SHA256", key, cr, signature)
+    (reqWithHeaders.withHeaders(reqWithHeaders.headers :+ authHeader), signature)
+  }
 
   private[this] def sessionHeader(key: SigningKey): Option[HttpHeader] =
     key.sessionToken.map(RawHeader("X-Amz-Security-Token", _))
 
   private[this] def authorizationHeader(algorithm: String,
       key: SigningKey,
-      requestDate: ZonedDateTime,
-      canonicalRequest: CanonicalRequest): HttpHeader =
-    RawHeader("Authorization", authorizationString(algorithm, key, requestDate, canonicalRequest))
-
-  private[this] def authorizationString(algorithm: String,
-      key: SigningKey,
-      requestDate: ZonedDateTime,
-      canonicalRequest: CanonicalRequest): String = {
-    val sign = key.hexEncodedSignature(stringToSign(algorithm, key, requestDate, canonicalRequest).getBytes())
-    s"$algorithm Credential=${key.credentialString}, SignedHeaders=${canonicalRequest.signedHeaders}, Signature=$sign"
-  }
+      canonicalRequest: CanonicalRequest,
+      signature: String): HttpHeader =
+    RawHeader(
+      "Authorization",
+      s"$algorithm Credential=${key.credentialString}, SignedHeaders=${canonicalRequest.signedHeaders}, Signature=$signature")
 
   def stringToSign(algorithm: String,
       signingKey: SigningKey,
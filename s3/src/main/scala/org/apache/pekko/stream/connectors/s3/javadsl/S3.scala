@@ -28,7 +28,7 @@ import pekko.stream.{ Attributes, SystemMaterializer }
 import pekko.stream.connectors.s3.headers.{ CannedAcl, ServerSideEncryption }
 import pekko.stream.connectors.s3._
 import pekko.stream.connectors.s3.impl._
-import pekko.stream.javadsl.{ RunnableGraph, Sink, Source }
+import pekko.stream.javadsl.{ Flow, FlowWithContext, RunnableGraph, Sink, Source }
 import pekko.util.ccompat.JavaConverters._
 import pekko.util.ByteString
 
@@ -254,6 +254,35 @@ object S3 {
       .map(_ => Done.getInstance())
       .asJava
 
+  /**
+   * Deletes the incoming objects with the multi-object delete API, which removes up to 1000 objects per request. The
+   * batch size and parallelism are taken from the `delete-objects` settings.
+   *
+   * Keys S3 could not delete are reported in [[DeleteObjectsResult.getErrors]] and do not fail the stream.
+   *
+   * @param bucket the s3 bucket name
+   * @return A [[pekko.stream.javadsl.Flow Flow]] that emits the result of every batch of deleted objects
+   */
+  def deleteObjects(bucket: String): Flow[ObjectIdentifier, DeleteObjectsResult, NotUsed] =
+    S3Stream.deleteObjects(bucket, None, S3Headers.empty).asJava
+
+  /**
+   * Deletes the incoming objects with the multi-object delete API, which removes up to 1000 objects per request.
+   *
+   * Keys S3 could not delete are reported in [[DeleteObjectsResult.getErrors]] and do not fail the stream.
+   *
+   * @param bucket the s3 bucket name
+   * @param batchSize the number of objects to delete per request, at most 1000
+   * @param parallelism the number of delete requests in flight
+   * @param s3Headers any headers you want to add
+   * @return A [[pekko.stream.javadsl.Flow Flow]] that emits the result of every batch of deleted objects
+   */
+  def deleteObjects(bucket: String,
+      batchSize: Int,
+      parallelism: Int,
+      s3Headers: S3Headers): Flow[ObjectIdentifier, DeleteObjectsResult, NotUsed] =
+    S3Stream.deleteObjects(bucket, Some(DeleteObjectsSettings(batchSize, parallelism)), s3Headers).asJava
+
   /**
    * Deletes all S3 Objects within the given bucket
    *
@@ -333,6 +362,18 @@ object S3 {
       contentLength: Long): Source[ObjectMetadata, NotUsed] =
     putObject(bucket, key, data, contentLength, ContentTypes.APPLICATION_OCTET_STREAM)
 
+  /**
+   * Uploads many small objects held in memory, like [[putObject]] but with up to `parallelism` uploads in flight over
+   * the pooled connections of the S3 host. Every upload is retried on its own according to the `retry-settings`, and
+   * an upload which fails for good fails the stream.
+   *
+   * @param parallelism the number of uploads in flight
+   * @return a [[pekko.stream.javadsl.FlowWithContext FlowWithContext]] emitting the [[ObjectMetadata]] of every
+   *         uploaded object with its context, in the order of the incoming objects
+   */
+  def putObjects[C](parallelism: Int): FlowWithContext[PutObjectEntry, C, ObjectMetadata, C, NotUsed] =
+    pekko.stream.scaladsl.FlowWithContext.fromTuples(S3Stream.putObjects[C](parallelism)).asJava
+
   private def toJava[M](
       download: pekko.stream.scaladsl.Source[Option[
           (pekko.stream.scaladsl.Source[ByteString, M], ObjectMetadata)], NotUsed])
@@ -612,6 +653,111 @@ object S3 {
         .toCompletionStage())
   }
 
+  /**
+   * Gets a S3 Object by requesting ranges of `partSize` bytes concurrently. The object's size is read
+   * with a HEAD request first, the ranges are then requested with up to `parallelism` requests in flight
+   * and emitted in order, so that at most `parallelism` ranges are held in memory. Each range is retried
+   * according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]] of the S3 settings.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param partSize the size of each requested range in bytes
+   * @param parallelism the number of ranges requested concurrently
+   * @return A [[pekko.stream.javadsl.Source]] containing the objects data as a [[pekko.util.ByteString]] along with a materialized value containing the
+   *         [[pekko.stream.connectors.s3.ObjectMetadata]]
+   */
+  def getObjectParallel(
+      bucket: String,
+      key: String,
+      partSize: Long,
+      parallelism: Int): Source[ByteString, CompletionStage[ObjectMetadata]] =
+    getObjectParallel(bucket, key, partSize, parallelism, Optional.empty(), S3Headers.empty)
+
+  /**
+   * Gets a S3 Object by requesting ranges of `partSize` bytes concurrently. The object's size is read
+   * with a HEAD request first, the ranges are then requested with up to `parallelism` requests in flight
+   * and emitted in order, so that at most `parallelism` ranges are held in memory. Each range is retried
+   * according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]] of the S3 settings.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param partSize the size of each requested range in bytes
+   * @param parallelism the number of ranges requested concurrently
+   * @param versionId optional version id of the object
+   * @param s3Headers any headers you want to add
+   * @return A [[pekko.stream.javadsl.Source]] containing the objects data as a [[pekko.util.ByteString]] along with a materialized value containing the
+   *         [[pekko.stream.connectors.s3.ObjectMetadata]]
+   */
+  def getObjectParallel(
+      bucket: String,
+      key: String,
+      partSize: Long,
+      parallelism: Int,
+      versionId: Optional[String],
+      s3Headers: S3Headers): Source[ByteString, CompletionStage[ObjectMetadata]] =
+    new Source(
+      S3Stream
+        .getObjectParallel(S3Location(bucket, key), partSize, parallelism, Option(versionId.orElse(null)), s3Headers)
+        .toCompletionStage())
+
+  /**
+   * Filters a CSV, JSON or Parquet object on the server with an SQL expression (S3 Select) and emits the records
+   * matching it, in the output format. The response is decoded as it arrives, the materialized value completes with
+   * the statistics S3 sends at the end of the selection.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param expression the SQL expression, eg. `SELECT * FROM S3Object s WHERE s._1 = 'a'`
+   * @param inputSerialization the format of the object
+   * @param outputSerialization the format of the returned records
+   * @return A [[pekko.stream.javadsl.Source]] containing the returned records as [[pekko.util.ByteString]]s along with
+   *         a materialized value containing the [[pekko.stream.connectors.s3.SelectObjectContentStats]]
+   */
+  def selectObjectContent(
+      bucket: String,
+      key: String,
+      expression: String,
+      inputSerialization: SelectInputSerialization,
+      outputSerialization: SelectOutputSerialization): Source[ByteString, CompletionStage[SelectObjectContentStats]] =
+    selectObjectContent(bucket, key, expression, inputSerialization, outputSerialization, Optional.empty(),
+      S3Headers.empty)
+
+  /**
+   * Filters a CSV, JSON or Parquet object on the server with an SQL expression (S3 Select) and emits the records
+   * matching it, in the output format. The response is decoded as it arrives, the materialized value completes with
+   * the statistics S3 sends at the end of the selection.
+   *
+   * With a scan range, only the records starting within the range are processed, so that one (uncompressed CSV or
+   * JSON lines) object can be filtered by several requests in parallel.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param expression the SQL expression, eg. `SELECT * FROM S3Object s WHERE s._1 = 'a'`
+   * @param inputSerialization the format of the object
+   * @param outputSerialization the format of the returned records
+   * @param scanRange optional [[pekko.http.javadsl.model.headers.ByteRange ByteRange]] of the records to process
+   * @param s3Headers any headers you want to add
+   * @return A [[pekko.stream.javadsl.Source]] containing the returned records as [[pekko.util.ByteString]]s along with
+   *         a materialized value containing the [[pekko.stream.connectors.s3.SelectObjectContentStats]]
+   */
+  def selectObjectContent(
+      bucket: String,
+      key: String,
+      expression: String,
+      inputSerialization: SelectInputSerialization,
+      outputSerialization: SelectOutputSerialization,
+      scanRange: Optional[ByteRange],
+      s3Headers: S3Headers): Source[ByteString, CompletionStage[SelectObjectContentStats]] =
+    new Source(
+      S3Stream
+        .selectObjectContent(S3Location(bucket, key),
+          expression,
+          inputSerialization,
+          outputSerialization,
+          scanRange.asScala.map(_.asInstanceOf[ScalaByteRange]),
+          s3Headers)
+        .toCompletionStage())
+
   /**
    * Will return a list containing all of the buckets for the current AWS account
    *
@@ -666,6 +812,53 @@ object S3 {
       .listBucket(bucket, prefix.asScala, s3Headers)
       .asJava
 
+  /**
+   * Will return a source of object metadata for a given bucket with optional prefix, listing the "directories" under
+   * the prefix concurrently. The common prefixes of each level are discovered using the <code>/</code> delimiter and
+   * listed recursively, with at most <code>parallelism</code> list requests in flight.
+   *
+   * The keys are emitted in no particular order, see the overload with <code>sorted</code> to get them in key order.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html
+   * @param bucket Which bucket that you list object metadata for
+   * @param prefix Prefix of the keys you want to list under passed bucket
+   * @param parallelism Maximum number of list requests in flight
+   * @return Source of object metadata
+   */
+  def listBucketParallel(bucket: String,
+      prefix: Optional[String],
+      parallelism: Int): Source[ListBucketResultContents, NotUsed] =
+    scaladsl.S3
+      .listBucketParallel(bucket, prefix.asScala, parallelism)
+      .asJava
+
+  /**
+   * Will return a source of object metadata for a given bucket with optional prefix, listing the "directories" under
+   * the prefix concurrently. The common prefixes of each level are discovered using the <code>/</code> delimiter and
+   * listed recursively, with at most <code>parallelism</code> list requests in flight.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html
+   * @param bucket Which bucket that you list object metadata for
+   * @param prefix Prefix of the keys you want to list under passed bucket
+   * @param parallelism Maximum number of list requests in flight
+   * @param sorted Emit the keys in key order, listing ahead of the keys being emitted, otherwise keys are emitted as
+   *               they are listed
+   * @param splitFlatPrefixes Split the listing of a prefix without common prefixes which has more than one page of
+   *                          keys into key ranges starting at <code>0-9</code>, <code>A-Z</code> and <code>a-z</code>,
+   *                          which are listed concurrently
+   * @param s3Headers any headers you want to add
+   * @return Source of object metadata
+   */
+  def listBucketParallel(bucket: String,
+      prefix: Optional[String],
+      parallelism: Int,
+      sorted: Boolean,
+      splitFlatPrefixes: Boolean,
+      s3Headers: S3Headers): Source[ListBucketResultContents, NotUsed] =
+    scaladsl.S3
+      .listBucketParallel(bucket, prefix.asScala, parallelism, sorted, splitFlatPrefixes, s3Headers)
+      .asJava
+
   /**
    * Will return a source of object metadata for a given bucket with delimiter and optional prefix using version 2 of the List Bucket API.
    * This will automatically page through all keys with the given parameters.
@@ -1381,6 +1574,86 @@ object S3 {
       ContentTypes.APPLICATION_OCTET_STREAM,
       S3Headers.empty)
 
+  /**
+   * Copy a S3 Object with up to `parallelism` part copy requests in flight.
+   *
+   * The part size is chosen from the size of the source object, so that it is copied in at most 10000 parts of at
+   * least 5 MiB. All parts are pinned to the version of the source object seen when the copy started. Each part is
+   * retried according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]].
+   *
+   * @param sourceBucket the source s3 bucket name
+   * @param sourceKey the source s3 key
+   * @param targetBucket the target s3 bucket name
+   * @param targetKey the target s3 key
+   * @param parallelism the number of part copy requests in flight
+   * @return a [[pekko.stream.javadsl.Source Source]] of the number of bytes copied so far, which completes once the
+   *         upload is completed, along with a materialized value containing the results of the copy operation
+   */
+  def multipartCopyParallel(sourceBucket: String,
+      sourceKey: String,
+      targetBucket: String,
+      targetKey: String,
+      parallelism: Int): Source[java.lang.Long, CompletionStage[MultipartUploadResult]] =
+    multipartCopyParallel(sourceBucket,
+      sourceKey,
+      targetBucket,
+      targetKey,
+      Optional.empty(),
+      ContentTypes.APPLICATION_OCTET_STREAM,
+      S3Headers.empty,
+      S3Stream.MinChunkSize,
+      parallelism,
+      Optional.empty())
+
+  /**
+   * Copy a S3 Object with up to `parallelism` part copy requests in flight.
+   *
+   * The part size is chosen from the size of the source object, so that it is copied in at most 10000 parts of at
+   * least `minPartSize` bytes. All parts are pinned to the version of the source object seen when the copy started.
+   * Each part is retried according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]].
+   *
+   * A failed copy leaves its multipart upload in place. Passing its `uploadId` (see [[listMultipartUpload]]) resumes
+   * it, the parts listed by [[listParts]] with the expected size are not copied again, unless the source object has
+   * been modified since they were copied. A resumed copy must use the same source object and `minPartSize`.
+   *
+   * @param sourceBucket the source s3 bucket name
+   * @param sourceKey the source s3 key
+   * @param targetBucket the target s3 bucket name
+   * @param targetKey the target s3 key
+   * @param sourceVersionId version id of source object, if the versioning is enabled in source bucket
+   * @param contentType the [[pekko.http.javadsl.model.ContentType ContentType]] of a new upload
+   * @param s3Headers any headers you want to add
+   * @param minPartSize the smallest size of the copied parts, at least 5 MiB
+   * @param parallelism the number of part copy requests in flight
+   * @param uploadId the upload to resume, or empty to initiate a new one
+   * @return a [[pekko.stream.javadsl.Source Source]] of the number of bytes copied so far, starting with the bytes
+   *         copied before when resuming, which completes once the upload is completed, along with a materialized value
+   *         containing the results of the copy operation
+   */
+  def multipartCopyParallel(sourceBucket: String,
+      sourceKey: String,
+      targetBucket: String,
+      targetKey: String,
+      sourceVersionId: Optional[String],
+      contentType: ContentType,
+      s3Headers: S3Headers,
+      minPartSize: Int,
+      parallelism: Int,
+      uploadId: Optional[String]): Source[java.lang.Long, CompletionStage[MultipartUploadResult]] =
+    new Source(
+      S3Stream
+        .multipartCopyParallel(
+          S3Location(sourceBucket, sourceKey),
+          S3Location(targetBucket, targetKey),
+          Option(sourceVersionId.orElse(null)),
+          contentType.asInstanceOf[ScalaContentType],
+          s3Headers,
+          minPartSize,
+          parallelism,
+          Option(uploadId.orElse(null)))
+        .map(Long.box(_))
+        .toCompletionStage())
+
   /**
    * Create new bucket with a given name
    *
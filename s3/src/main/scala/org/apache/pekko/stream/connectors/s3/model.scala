@@ -16,10 +16,11 @@ package org.apache.pekko.stream.connectors.s3
 import java.time.Instant
 import java.util.{ Objects, Optional }
 import org.apache.pekko
-import pekko.http.scaladsl.model.{ DateTime, HttpHeader, IllegalUriException, Uri }
+import pekko.http.scaladsl.model.{ ContentType, ContentTypes, DateTime, HttpHeader, IllegalUriException, Uri }
 import pekko.http.scaladsl.model.headers._
 import pekko.stream.connectors.s3.AccessStyle.PathAccessStyle
 import pekko.util.ccompat.JavaConverters._
+import pekko.util.ByteString
 
 import scala.annotation.nowarn
 import scala.collection.immutable.Seq
@@ -1268,6 +1269,644 @@ object ListBucketResultCommonPrefixes {
     prefix)
 }
 
+/**
+ * Identifies an object (or one of its versions) to delete with [[scaladsl.S3.deleteObjects]].
+ *
+ * @param key The object's key
+ * @param versionId The version of the object to delete, the current version if empty
+ */
+final class ObjectIdentifier private (
+    val key: String,
+    val versionId: Option[String]) {
+
+  /** Java API */
+  def getKey: String = key
+
+  /** Java API */
+  def getVersionId: Optional[String] = versionId.asJava
+
+  def withKey(value: String): ObjectIdentifier = copy(key = value)
+  def withVersionId(value: String): ObjectIdentifier = copy(versionId = Option(value))
+
+  private def copy(
+      key: String = key,
+      versionId: Option[String] = versionId): ObjectIdentifier = new ObjectIdentifier(
+    key = key,
+    versionId = versionId)
+
+  override def toString: String =
+    "ObjectIdentifier(" +
+    s"key=$key," +
+    s"versionId=$versionId" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: ObjectIdentifier =>
+      Objects.equals(this.key, that.key) &&
+      Objects.equals(this.versionId, that.versionId)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(key, versionId)
+}
+
+object ObjectIdentifier {
+
+  /** Scala API */
+  def apply(key: String): ObjectIdentifier = new ObjectIdentifier(key, None)
+
+  /** Scala API */
+  def apply(key: String, versionId: Option[String]): ObjectIdentifier = new ObjectIdentifier(key, versionId)
+
+  /** Java API */
+  def create(key: String): ObjectIdentifier = apply(key)
+
+  /** Java API */
+  def create(key: String, versionId: Optional[String]): ObjectIdentifier = apply(key, versionId.asScala)
+}
+
+/**
+ * A small object to upload with [[scaladsl.S3.putObjects]], its data is held in memory.
+ *
+ * @param bucket The bucket to upload to
+ * @param key The object's key
+ * @param data The object's content
+ * @param contentType The object's content type
+ * @param s3Headers Any headers to add to the upload request, like user metadata
+ */
+final class PutObjectEntry private (
+    val bucket: String,
+    val key: String,
+    val data: ByteString,
+    val contentType: ContentType,
+    val s3Headers: S3Headers) {
+
+  /** Java API */
+  def getBucket: String = bucket
+
+  /** Java API */
+  def getKey: String = key
+
+  /** Java API */
+  def getData: ByteString = data
+
+  /** Java API */
+  def getContentType: pekko.http.javadsl.model.ContentType = contentType
+
+  /** Java API */
+  def getS3Headers: S3Headers = s3Headers
+
+  def withBucket(value: String): PutObjectEntry = copy(bucket = value)
+  def withKey(value: String): PutObjectEntry = copy(key = value)
+  def withData(value: ByteString): PutObjectEntry = copy(data = value)
+  def withContentType(value: ContentType): PutObjectEntry = copy(contentType = value)
+  def withS3Headers(value: S3Headers): PutObjectEntry = copy(s3Headers = value)
+
+  /** Java API */
+  def withContentType(value: pekko.http.javadsl.model.ContentType): PutObjectEntry =
+    copy(contentType = value.asInstanceOf[ContentType])
+
+  private def copy(
+      bucket: String = bucket,
+      key: String = key,
+      data: ByteString = data,
+      contentType: ContentType = contentType,
+      s3Headers: S3Headers = s3Headers): PutObjectEntry = new PutObjectEntry(
+    bucket = bucket,
+    key = key,
+    data = data,
+    contentType = contentType,
+    s3Headers = s3Headers)
+
+  override def toString: String =
+    "PutObjectEntry(" +
+    s"bucket=$bucket," +
+    s"key=$key," +
+    s"data=${data.size} bytes," +
+    s"contentType=$contentType," +
+    s"s3Headers=$s3Headers" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: PutObjectEntry =>
+      Objects.equals(this.bucket, that.bucket) &&
+      Objects.equals(this.key, that.key) &&
+      Objects.equals(this.data, that.data) &&
+      Objects.equals(this.contentType, that.contentType) &&
+      Objects.equals(this.s3Headers, that.s3Headers)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(bucket, key, data, contentType, s3Headers)
+}
+
+object PutObjectEntry {
+
+  /** Scala API */
+  def apply(bucket: String, key: String, data: ByteString): PutObjectEntry =
+    new PutObjectEntry(bucket, key, data, ContentTypes.`application/octet-stream`, S3Headers.empty)
+
+  /** Scala API */
+  def apply(bucket: String,
+      key: String,
+      data: ByteString,
+      contentType: ContentType,
+      s3Headers: S3Headers): PutObjectEntry =
+    new PutObjectEntry(bucket, key, data, contentType, s3Headers)
+
+  /** Java API */
+  def create(bucket: String, key: String, data: ByteString): PutObjectEntry = apply(bucket, key, data)
+
+  /** Java API */
+  def create(bucket: String,
+      key: String,
+      data: ByteString,
+      contentType: pekko.http.javadsl.model.ContentType,
+      s3Headers: S3Headers): PutObjectEntry =
+    apply(bucket, key, data, contentType.asInstanceOf[ContentType], s3Headers)
+}
+
+/**
+ * An object which could not be deleted by a multi-object delete request.
+ *
+ * @param key The object's key
+ * @param versionId The version of the object which should have been deleted
+ * @param code The error code, eg. `AccessDenied`
+ * @param message The error message
+ */
+final class DeleteObjectsError private (
+    val key: String,
+    val versionId: Option[String],
+    val code: String,
+    val message: String) {
+
+  /** Java API */
+  def getKey: String = key
+
+  /** Java API */
+  def getVersionId: Optional[String] = versionId.asJava
+
+  /** Java API */
+  def getCode: String = code
+
+  /** Java API */
+  def getMessage: String = message
+
+  override def toString: String =
+    "DeleteObjectsError(" +
+    s"key=$key," +
+    s"versionId=$versionId," +
+    s"code=$code," +
+    s"message=$message" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: DeleteObjectsError =>
+      Objects.equals(this.key, that.key) &&
+      Objects.equals(this.versionId, that.versionId) &&
+      Objects.equals(this.code, that.code) &&
+      Objects.equals(this.message, that.message)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(key, versionId, code, message)
+}
+
+object DeleteObjectsError {
+
+  /** Scala API */
+  def apply(key: String, versionId: Option[String], code: String, message: String): DeleteObjectsError =
+    new DeleteObjectsError(key, versionId, code, message)
+
+  /** Java API */
+  def create(key: String, versionId: Optional[String], code: String, message: String): DeleteObjectsError =
+    apply(key, versionId.asScala, code, message)
+}
+
+/**
+ * The result of one multi-object delete request.
+ *
+ * @param deleted The objects which were deleted
+ * @param errors The objects which could not be deleted
+ */
+final class DeleteObjectsResult private (
+    val deleted: immutable.Seq[ObjectIdentifier],
+    val errors: immutable.Seq[DeleteObjectsError]) {
+
+  /** Java API */
+  def getDeleted: java.util.List[ObjectIdentifier] = deleted.asJava
+
+  /** Java API */
+  def getErrors: java.util.List[DeleteObjectsError] = errors.asJava
+
+  override def toString: String =
+    "DeleteObjectsResult(" +
+    s"deleted=$deleted," +
+    s"errors=$errors" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: DeleteObjectsResult =>
+      Objects.equals(this.deleted, that.deleted) &&
+      Objects.equals(this.errors, that.errors)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(deleted, errors)
+}
+
+object DeleteObjectsResult {
+
+  /** Scala API */
+  def apply(deleted: immutable.Seq[ObjectIdentifier], errors: immutable.Seq[DeleteObjectsError]): DeleteObjectsResult =
+    new DeleteObjectsResult(deleted, errors)
+
+  /** Java API */
+  def create(deleted: java.util.List[ObjectIdentifier], errors: java.util.List[DeleteObjectsError])
+      : DeleteObjectsResult =
+    apply(deleted.asScala.toList, errors.asScala.toList)
+}
+
+/**
+ * Compression of the objects read by [[scaladsl.S3.selectObjectContent]].
+ */
+sealed trait SelectCompressionType
+
+object SelectCompressionType {
+  case object Uncompressed extends SelectCompressionType
+
+  case object Gzip extends SelectCompressionType
+
+  case object Bzip2 extends SelectCompressionType
+
+  /** Java API */
+  val uncompressed = Uncompressed
+
+  /** Java API */
+  val gzip = Gzip
+
+  /** Java API */
+  val bzip2 = Bzip2
+}
+
+/**
+ * How the first line of a CSV object read by [[scaladsl.S3.selectObjectContent]] is treated.
+ */
+sealed trait CsvFileHeaderInfo
+
+object CsvFileHeaderInfo {
+
+  /** The first line holds the column names, which can be used in the expression. */
+  case object Use extends CsvFileHeaderInfo
+
+  /** The first line holds the column names, which are skipped. */
+  case object Ignore extends CsvFileHeaderInfo
+
+  /** The first line is a record. */
+  case object NoHeader extends CsvFileHeaderInfo
+
+  /** Java API */
+  val use = Use
+
+  /** Java API */
+  val ignore = Ignore
+
+  /** Java API */
+  val noHeader = NoHeader
+}
+
+/**
+ * The layout of the JSON objects read by [[scaladsl.S3.selectObjectContent]].
+ */
+sealed trait JsonType
+
+object JsonType {
+
+  /** A single JSON document, which may span many lines. */
+  case object Document extends JsonType
+
+  /** One JSON document per line. */
+  case object Lines extends JsonType
+
+  /** Java API */
+  val document = Document
+
+  /** Java API */
+  val lines = Lines
+}
+
+/**
+ * The format of the objects read by [[scaladsl.S3.selectObjectContent]].
+ */
+sealed trait SelectInputSerialization
+
+object SelectInputSerialization {
+
+  /**
+   * CSV objects
+   *
+   * @param fileHeaderInfo How the first line is treated
+   * @param fieldDelimiter The character separating the fields of a record
+   * @param recordDelimiter The character separating the records
+   * @param quoteCharacter The character quoting fields which contain delimiters
+   * @param compressionType The compression of the object
+   */
+  final class Csv private (
+      val fileHeaderInfo: CsvFileHeaderInfo,
+      val fieldDelimiter: String,
+      val recordDelimiter: String,
+      val quoteCharacter: String,
+      val compressionType: SelectCompressionType) extends SelectInputSerialization {
+
+    /** Java API */
+    def getFileHeaderInfo: CsvFileHeaderInfo = fileHeaderInfo
+
+    /** Java API */
+    def getFieldDelimiter: String = fieldDelimiter
+
+    /** Java API */
+    def getRecordDelimiter: String = recordDelimiter
+
+    /** Java API */
+    def getQuoteCharacter: String = quoteCharacter
+
+    /** Java API */
+    def getCompressionType: SelectCompressionType = compressionType
+
+    def withFileHeaderInfo(value: CsvFileHeaderInfo): Csv = copy(fileHeaderInfo = value)
+    def withFieldDelimiter(value: String): Csv = copy(fieldDelimiter = value)
+    def withRecordDelimiter(value: String): Csv = copy(recordDelimiter = value)
+    def withQuoteCharacter(value: String): Csv = copy(quoteCharacter = value)
+    def withCompressionType(value: SelectCompressionType): Csv = copy(compressionType = value)
+
+    private def copy(
+        fileHeaderInfo: CsvFileHeaderInfo = fileHeaderInfo,
+        fieldDelimiter: String = fieldDelimiter,
+        recordDelimiter: String = recordDelimiter,
+        quoteCharacter: String = quoteCharacter,
+        compressionType: SelectCompressionType = compressionType): Csv = new Csv(
+      fileHeaderInfo = fileHeaderInfo,
+      fieldDelimiter = fieldDelimiter,
+      recordDelimiter = recordDelimiter,
+      quoteCharacter = quoteCharacter,
+      compressionType = compressionType)
+
+    override def toString: String =
+      "Csv(" +
+      s"fileHeaderInfo=$fileHeaderInfo," +
+      s"fieldDelimiter=$fieldDelimiter," +
+      s"recordDelimiter=$recordDelimiter," +
+      s"quoteCharacter=$quoteCharacter," +
+      s"compressionType=$compressionType" +
+      ")"
+
+    override def equals(other: Any): Boolean = other match {
+      case that: Csv =>
+        Objects.equals(this.fileHeaderInfo, that.fileHeaderInfo) &&
+        Objects.equals(this.fieldDelimiter, that.fieldDelimiter) &&
+        Objects.equals(this.recordDelimiter, that.recordDelimiter) &&
+        Objects.equals(this.quoteCharacter, that.quoteCharacter) &&
+        Objects.equals(this.compressionType, that.compressionType)
+      case _ => false
+    }
+
+    override def hashCode(): Int =
+      Objects.hash(fileHeaderInfo, fieldDelimiter, recordDelimiter, quoteCharacter, compressionType)
+  }
+
+  object Csv {
+
+    /** Scala API: comma separated, newline delimited, uncompressed records without a header line */
+    def apply(): Csv =
+      new Csv(CsvFileHeaderInfo.NoHeader, ",", "\n", "\"", SelectCompressionType.Uncompressed)
+
+    /** Scala API */
+    def apply(fileHeaderInfo: CsvFileHeaderInfo): Csv = apply().withFileHeaderInfo(fileHeaderInfo)
+
+    /** Java API: comma separated, newline delimited, uncompressed records without a header line */
+    def create(): Csv = apply()
+
+    /** Java API */
+    def create(fileHeaderInfo: CsvFileHeaderInfo): Csv = apply(fileHeaderInfo)
+  }
+
+  /**
+   * JSON objects
+   *
+   * @param jsonType Whether the object is a single document or holds one document per line
+   * @param compressionType The compression of the object
+   */
+  final class Json private (
+      val jsonType: JsonType,
+      val compressionType: SelectCompressionType) extends SelectInputSerialization {
+
+    /** Java API */
+    def getJsonType: JsonType = jsonType
+
+    /** Java API */
+    def getCompressionType: SelectCompressionType = compressionType
+
+    def withJsonType(value: JsonType): Json = copy(jsonType = value)
+    def withCompressionType(value: SelectCompressionType): Json = copy(compressionType = value)
+
+    private def copy(
+        jsonType: JsonType = jsonType,
+        compressionType: SelectCompressionType = compressionType): Json = new Json(
+      jsonType = jsonType,
+      compressionType = compressionType)
+
+    override def toString: String =
+      "Json(" +
+      s"jsonType=$jsonType," +
+      s"compressionType=$compressionType" +
+      ")"
+
+    override def equals(other: Any): Boolean = other match {
+      case that: Json =>
+        Objects.equals(this.jsonType, that.jsonType) &&
+        Objects.equals(this.compressionType, that.compressionType)
+      case _ => false
+    }
+
+    override def hashCode(): Int =
+      Objects.hash(jsonType, compressionType)
+  }
+
+  object Json {
+
+    /** Scala API */
+    def apply(jsonType: JsonType): Json = new Json(jsonType, SelectCompressionType.Uncompressed)
+
+    /** Java API */
+    def create(jsonType: JsonType): Json = apply(jsonType)
+  }
+
+  /** Parquet objects */
+  case object Parquet extends SelectInputSerialization
+
+  /** Java API */
+  val parquet = Parquet
+}
+
+/**
+ * The format of the records returned by [[scaladsl.S3.selectObjectContent]].
+ */
+sealed trait SelectOutputSerialization
+
+object SelectOutputSerialization {
+
+  /**
+   * CSV records
+   *
+   * @param fieldDelimiter The character separating the fields of a record
+   * @param recordDelimiter The character separating the records
+   * @param quoteCharacter The character quoting fields which contain delimiters
+   */
+  final class Csv private (
+      val fieldDelimiter: String,
+      val recordDelimiter: String,
+      val quoteCharacter: String) extends SelectOutputSerialization {
+
+    /** Java API */
+    def getFieldDelimiter: String = fieldDelimiter
+
+    /** Java API */
+    def getRecordDelimiter: String = recordDelimiter
+
+    /** Java API */
+    def getQuoteCharacter: String = quoteCharacter
+
+    def withFieldDelimiter(value: String): Csv = copy(fieldDelimiter = value)
+    def withRecordDelimiter(value: String): Csv = copy(recordDelimiter = value)
+    def withQuoteCharacter(value: String): Csv = copy(quoteCharacter = value)
+
+    private def copy(
+        fieldDelimiter: String = fieldDelimiter,
+        recordDelimiter: String = recordDelimiter,
+        quoteCharacter: String = quoteCharacter): Csv = new Csv(
+      fieldDelimiter = fieldDelimiter,
+      recordDelimiter = recordDelimiter,
+      quoteCharacter = quoteCharacter)
+
+    override def toString: String =
+      "Csv(" +
+      s"fieldDelimiter=$fieldDelimiter," +
+      s"recordDelimiter=$recordDelimiter," +
+      s"quoteCharacter=$quoteCharacter" +
+      ")"
+
+    override def equals(other: Any): Boolean = other match {
+      case that: Csv =>
+        Objects.equals(this.fieldDelimiter, that.fieldDelimiter) &&
+        Objects.equals(this.recordDelimiter, that.recordDelimiter) &&
+        Objects.equals(this.quoteCharacter, that.quoteCharacter)
+      case _ => false
+    }
+
+    override def hashCode(): Int =
+      Objects.hash(fieldDelimiter, recordDelimiter, quoteCharacter)
+  }
+
+  object Csv {
+
+    /** Scala API: comma separated, newline delimited records */
+    def apply(): Csv = new Csv(",", "\n", "\"")
+
+    /** Java API: comma separated, newline delimited records */
+    def create(): Csv = apply()
+  }
+
+  /**
+   * JSON records
+   *
+   * @param recordDelimiter The character separating the records
+   */
+  final class Json private (val recordDelimiter: String) extends SelectOutputSerialization {
+
+    /** Java API */
+    def getRecordDelimiter: String = recordDelimiter
+
+    def withRecordDelimiter(value: String): Json = new Json(value)
+
+    override def toString: String =
+      "Json(" +
+      s"recordDelimiter=$recordDelimiter" +
+      ")"
+
+    override def equals(other: Any): Boolean = other match {
+      case that: Json =>
+        Objects.equals(this.recordDelimiter, that.recordDelimiter)
+      case _ => false
+    }
+
+    override def hashCode(): Int = Objects.hash(recordDelimiter)
+  }
+
+  object Json {
+
+    /** Scala API: newline delimited records */
+    def apply(): Json = new Json("\n")
+
+    /** Java API: newline delimited records */
+    def create(): Json = apply()
+  }
+}
+
+/**
+ * The statistics S3 reports at the end of [[scaladsl.S3.selectObjectContent]].
+ *
+ * @param bytesScanned The bytes of the object which were scanned
+ * @param bytesProcessed The bytes which were processed, after decompression
+ * @param bytesReturned The bytes of the records returned
+ */
+final class SelectObjectContentStats private (
+    val bytesScanned: Long,
+    val bytesProcessed: Long,
+    val bytesReturned: Long) {
+
+  /** Java API */
+  def getBytesScanned: Long = bytesScanned
+
+  /** Java API */
+  def getBytesProcessed: Long = bytesProcessed
+
+  /** Java API */
+  def getBytesReturned: Long = bytesReturned
+
+  override def toString: String =
+    "SelectObjectContentStats(" +
+    s"bytesScanned=$bytesScanned," +
+    s"bytesProcessed=$bytesProcessed," +
+    s"bytesReturned=$bytesReturned" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: SelectObjectContentStats =>
+      this.bytesScanned == that.bytesScanned &&
+      this.bytesProcessed == that.bytesProcessed &&
+      this.bytesReturned == that.bytesReturned
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(Long.box(bytesScanned), Long.box(bytesProcessed), Long.box(bytesReturned))
+}
+
+object SelectObjectContentStats {
+
+  /** Scala API */
+  def apply(bytesScanned: Long, bytesProcessed: Long, bytesReturned: Long): SelectObjectContentStats =
+    new SelectObjectContentStats(bytesScanned, bytesProcessed, bytesReturned)
+
+  /** Java API */
+  def create(bytesScanned: Long, bytesProcessed: Long, bytesReturned: Long): SelectObjectContentStats =
+    apply(bytesScanned, bytesProcessed, bytesReturned)
+}
+
 /**
  * Modelled after com.amazonaws.services.s3.model.ObjectMetadata
  *
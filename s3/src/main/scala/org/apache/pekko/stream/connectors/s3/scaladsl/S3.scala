@@ -21,7 +21,7 @@ import pekko.stream.Attributes
 import pekko.stream.connectors.s3._
 import pekko.stream.connectors.s3.headers.{ CannedAcl, ServerSideEncryption }
 import pekko.stream.connectors.s3.impl._
-import pekko.stream.scaladsl.{ RunnableGraph, Sink, Source }
+import pekko.stream.scaladsl.{ Flow, FlowWithContext, RunnableGraph, Sink, Source }
 import pekko.util.ByteString
 import pekko.{ Done, NotUsed }
 
@@ -156,6 +156,35 @@ object S3 {
       s3Headers: S3Headers): Source[Done, NotUsed] =
     S3Stream.deleteObjectsByPrefix(bucket, prefix, deleteAllVersions, s3Headers)
 
+  /**
+   * Deletes the incoming objects with the multi-object delete API, which removes up to 1000 objects per request. The
+   * batch size and parallelism are taken from the `delete-objects` settings.
+   *
+   * Keys S3 could not delete are reported in [[DeleteObjectsResult.errors]] and do not fail the stream.
+   *
+   * @param bucket the s3 bucket name
+   * @return A [[pekko.stream.scaladsl.Flow Flow]] that emits the result of every batch of deleted objects
+   */
+  def deleteObjects(bucket: String): Flow[ObjectIdentifier, DeleteObjectsResult, NotUsed] =
+    S3Stream.deleteObjects(bucket, None, S3Headers.empty)
+
+  /**
+   * Deletes the incoming objects with the multi-object delete API, which removes up to 1000 objects per request.
+   *
+   * Keys S3 could not delete are reported in [[DeleteObjectsResult.errors]] and do not fail the stream.
+   *
+   * @param bucket the s3 bucket name
+   * @param batchSize the number of objects to delete per request, at most 1000
+   * @param parallelism the number of delete requests in flight
+   * @param s3Headers any headers you want to add
+   * @return A [[pekko.stream.scaladsl.Flow Flow]] that emits the result of every batch of deleted objects
+   */
+  def deleteObjects(bucket: String,
+      batchSize: Int,
+      parallelism: Int,
+      s3Headers: S3Headers): Flow[ObjectIdentifier, DeleteObjectsResult, NotUsed] =
+    S3Stream.deleteObjects(bucket, Some(DeleteObjectsSettings(batchSize, parallelism)), s3Headers)
+
   /**
    * Deletes all S3 Objects within the given bucket
    *
@@ -194,6 +223,18 @@ object S3 {
       s3Headers: S3Headers): Source[ObjectMetadata, NotUsed] =
     S3Stream.putObject(S3Location(bucket, key), contentType, data, contentLength, s3Headers)
 
+  /**
+   * Uploads many small objects held in memory, like [[putObject]] but with up to `parallelism` uploads in flight over
+   * the pooled connections of the S3 host. Every upload is retried on its own according to the `retry-settings`, and
+   * an upload which fails for good fails the stream.
+   *
+   * @param parallelism the number of uploads in flight
+   * @return a [[pekko.stream.scaladsl.FlowWithContext FlowWithContext]] emitting the [[ObjectMetadata]] of every
+   *         uploaded object with its context, in the order of the incoming objects
+   */
+  def putObjects[C](parallelism: Int): FlowWithContext[PutObjectEntry, C, ObjectMetadata, C, NotUsed] =
+    FlowWithContext.fromTuples(S3Stream.putObjects[C](parallelism))
+
   /**
    * Downloads a S3 Object
    *
@@ -269,6 +310,104 @@ object S3 {
       s3Headers: S3Headers): Source[ByteString, Future[ObjectMetadata]] =
     S3Stream.getObject(S3Location(bucket, key), range, versionId, s3Headers)
 
+  /**
+   * Gets a S3 Object by requesting ranges of `partSize` bytes concurrently. The object's size is read
+   * with a HEAD request first, the ranges are then requested with up to `parallelism` requests in flight
+   * and emitted in order, so that at most `parallelism` ranges are held in memory. Each range is retried
+   * according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]] of the S3 settings.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param partSize the size of each requested range in bytes
+   * @param parallelism the number of ranges requested concurrently
+   * @return A [[pekko.stream.scaladsl.Source]] containing the objects data as a [[pekko.util.ByteString]] along with a materialized value containing the
+   *         [[pekko.stream.connectors.s3.ObjectMetadata]]
+   */
+  def getObjectParallel(
+      bucket: String,
+      key: String,
+      partSize: Long,
+      parallelism: Int): Source[ByteString, Future[ObjectMetadata]] =
+    getObjectParallel(bucket, key, partSize, parallelism, None, S3Headers.empty)
+
+  /**
+   * Gets a S3 Object by requesting ranges of `partSize` bytes concurrently. The object's size is read
+   * with a HEAD request first, the ranges are then requested with up to `parallelism` requests in flight
+   * and emitted in order, so that at most `parallelism` ranges are held in memory. Each range is retried
+   * according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]] of the S3 settings.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param partSize the size of each requested range in bytes
+   * @param parallelism the number of ranges requested concurrently
+   * @param versionId [optional] the version id of the object
+   * @param s3Headers any headers you want to add
+   * @return A [[pekko.stream.scaladsl.Source]] containing the objects data as a [[pekko.util.ByteString]] along with a materialized value containing the
+   *         [[pekko.stream.connectors.s3.ObjectMetadata]]
+   */
+  def getObjectParallel(
+      bucket: String,
+      key: String,
+      partSize: Long,
+      parallelism: Int,
+      versionId: Option[String],
+      s3Headers: S3Headers): Source[ByteString, Future[ObjectMetadata]] =
+    S3Stream.getObjectParallel(S3Location(bucket, key), partSize, parallelism, versionId, s3Headers)
+
+  /**
+   * Filters a CSV, JSON or Parquet object on the server with an SQL expression (S3 Select) and emits the records
+   * matching it, in the output format. The response is decoded as it arrives, the materialized value completes with
+   * the statistics S3 sends at the end of the selection.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param expression the SQL expression, eg. `SELECT * FROM S3Object s WHERE s._1 = 'a'`
+   * @param inputSerialization the format of the object
+   * @param outputSerialization the format of the returned records
+   * @return A [[pekko.stream.scaladsl.Source]] containing the returned records as [[pekko.util.ByteString]]s along with
+   *         a materialized value containing the [[pekko.stream.connectors.s3.SelectObjectContentStats]]
+   */
+  def selectObjectContent(
+      bucket: String,
+      key: String,
+      expression: String,
+      inputSerialization: SelectInputSerialization,
+      outputSerialization: SelectOutputSerialization): Source[ByteString, Future[SelectObjectContentStats]] =
+    selectObjectContent(bucket, key, expression, inputSerialization, outputSerialization, None, S3Headers.empty)
+
+  /**
+   * Filters a CSV, JSON or Parquet object on the server with an SQL expression (S3 Select) and emits the records
+   * matching it, in the output format. The response is decoded as it arrives, the materialized value completes with
+   * the statistics S3 sends at the end of the selection.
+   *
+   * With a scan range, only the records starting within the range are processed, so that one (uncompressed CSV or
+   * JSON lines) object can be filtered by several requests in parallel.
+   *
+   * @param bucket the s3 bucket name
+   * @param key the s3 object key
+   * @param expression the SQL expression, eg. `SELECT * FROM S3Object s WHERE s._1 = 'a'`
+   * @param inputSerialization the format of the object
+   * @param outputSerialization the format of the returned records
+   * @param scanRange [optional] the [[pekko.http.scaladsl.model.headers.ByteRange ByteRange]] of the records to process
+   * @param s3Headers any headers you want to add
+   * @return A [[pekko.stream.scaladsl.Source]] containing the returned records as [[pekko.util.ByteString]]s along with
+   *         a materialized value containing the [[pekko.stream.connectors.s3.SelectObjectContentStats]]
+   */
+  def selectObjectContent(
+      bucket: String,
+      key: String,
+      expression: String,
+      inputSerialization: SelectInputSerialization,
+      outputSerialization: SelectOutputSerialization,
+      scanRange: Option[ByteRange],
+      s3Headers: S3Headers): Source[ByteString, Future[SelectObjectContentStats]] =
+    S3Stream.selectObjectContent(S3Location(bucket, key),
+      expression,
+      inputSerialization,
+      outputSerialization,
+      scanRange,
+      s3Headers)
+
   /**
    * Will return a list containing all of the buckets for the current AWS account
    *
@@ -342,6 +481,48 @@ object S3 {
       .listBucketAndCommonPrefixes(bucket, delimiter, prefix, s3Headers)
       .mapConcat(_._1)
 
+  /**
+   * Will return a source of object metadata for a given bucket with optional prefix, listing the "directories" under
+   * the prefix concurrently. The common prefixes of each level are discovered using the `/` delimiter and listed
+   * recursively, with at most `parallelism` list requests in flight.
+   *
+   * The keys are emitted in no particular order, see the overload with `sorted` to get them in key order.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html
+   * @param bucket Which bucket that you list object metadata for
+   * @param prefix Prefix of the keys you want to list under passed bucket
+   * @param parallelism Maximum number of list requests in flight
+   * @return [[pekko.stream.scaladsl.Source Source]] of [[ListBucketResultContents]]
+   */
+  def listBucketParallel(bucket: String,
+      prefix: Option[String],
+      parallelism: Int): Source[ListBucketResultContents, NotUsed] =
+    listBucketParallel(bucket, prefix, parallelism, sorted = false, splitFlatPrefixes = false, S3Headers.empty)
+
+  /**
+   * Will return a source of object metadata for a given bucket with optional prefix, listing the "directories" under
+   * the prefix concurrently. The common prefixes of each level are discovered using the `/` delimiter and listed
+   * recursively, with at most `parallelism` list requests in flight.
+   *
+   * @see https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html
+   * @param bucket Which bucket that you list object metadata for
+   * @param prefix Prefix of the keys you want to list under passed bucket
+   * @param parallelism Maximum number of list requests in flight
+   * @param sorted Emit the keys in key order, listing ahead of the keys being emitted, otherwise keys are emitted as
+   *               they are listed
+   * @param splitFlatPrefixes Split the listing of a prefix without common prefixes which has more than one page of
+   *                          keys into key ranges starting at `0-9`, `A-Z` and `a-z`, which are listed concurrently
+   * @param s3Headers any headers you want to add
+   * @return [[pekko.stream.scaladsl.Source Source]] of [[ListBucketResultContents]]
+   */
+  def listBucketParallel(bucket: String,
+      prefix: Option[String],
+      parallelism: Int,
+      sorted: Boolean,
+      splitFlatPrefixes: Boolean,
+      s3Headers: S3Headers): Source[ListBucketResultContents, NotUsed] =
+    S3Stream.listBucketParallel(bucket, prefix, parallelism, sorted, splitFlatPrefixes, s3Headers)
+
   /**
    * Will return a source of object metadata and common prefixes for a given bucket and delimiter with optional prefix using version 2 of the List Bucket API.
    * This will automatically page through all keys with the given parameters.
@@ -886,6 +1067,84 @@ object S3 {
         chunkSize,
         chunkingParallelism)
 
+  /**
+   * Copy an S3 object from source bucket to target bucket with up to `parallelism` part copy requests in flight.
+   *
+   * The part size is chosen from the size of the source object, so that it is copied in at most 10000 parts of at
+   * least [[MinChunkSize]] bytes. All parts are pinned to the version of the source object seen when the copy
+   * started. Each part is retried according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]].
+   *
+   * @param sourceBucket source s3 bucket name
+   * @param sourceKey    source s3 key
+   * @param targetBucket target s3 bucket name
+   * @param targetKey    target s3 key
+   * @param parallelism the number of part copy requests in flight
+   * @return a [[pekko.stream.scaladsl.Source Source]] of the number of bytes copied so far, which completes once the
+   *         upload is completed, along with a materialized value containing the results of the copy operation
+   */
+  def multipartCopyParallel(
+      sourceBucket: String,
+      sourceKey: String,
+      targetBucket: String,
+      targetKey: String,
+      parallelism: Int): Source[Long, Future[MultipartUploadResult]] =
+    multipartCopyParallel(sourceBucket,
+      sourceKey,
+      targetBucket,
+      targetKey,
+      None,
+      ContentTypes.`application/octet-stream`,
+      S3Headers.empty,
+      MinChunkSize,
+      parallelism,
+      None)
+
+  /**
+   * Copy an S3 object from source bucket to target bucket with up to `parallelism` part copy requests in flight.
+   *
+   * The part size is chosen from the size of the source object, so that it is copied in at most 10000 parts of at
+   * least `minPartSize` bytes. All parts are pinned to the version of the source object seen when the copy started.
+   * Each part is retried according to the [[pekko.stream.connectors.s3.RetrySettings RetrySettings]].
+   *
+   * A failed copy leaves its multipart upload in place. Passing its `uploadId` (see [[listMultipartUpload]]) resumes
+   * it, the parts listed by [[listParts]] with the expected size are not copied again, unless the source object has
+   * been modified since they were copied. A resumed copy must use the same source object and `minPartSize`.
+   *
+   * @param sourceBucket source s3 bucket name
+   * @param sourceKey    source s3 key
+   * @param targetBucket target s3 bucket name
+   * @param targetKey    target s3 key
+   * @param sourceVersionId optional version id of source object, if the versioning is enabled in source bucket
+   * @param contentType  the [[pekko.http.scaladsl.model.ContentType ContentType]] of a new upload
+   * @param s3Headers any headers you want to add
+   * @param minPartSize the smallest size of the copied parts, minimum [[MinChunkSize]]
+   * @param parallelism the number of part copy requests in flight
+   * @param uploadId the upload to resume, or `None` to initiate a new one
+   * @return a [[pekko.stream.scaladsl.Source Source]] of the number of bytes copied so far, starting with the bytes
+   *         copied before when resuming, which completes once the upload is completed, along with a materialized value
+   *         containing the results of the copy operation
+   */
+  def multipartCopyParallel(
+      sourceBucket: String,
+      sourceKey: String,
+      targetBucket: String,
+      targetKey: String,
+      sourceVersionId: Option[String],
+      contentType: ContentType,
+      s3Headers: S3Headers,
+      minPartSize: Int,
+      parallelism: Int,
+      uploadId: Option[String]): Source[Long, Future[MultipartUploadResult]] =
+    S3Stream.multipartCopyParallel(
+      S3Location(sourceBucket, sourceKey),
+      S3Location(targetBucket, targetKey),
+      sourceVersionId,
+      contentType,
+      s3Headers,
+      minPartSize,
+      parallelism,
+      uploadId)
+
   /**
    * Create new bucket with a given name
    *
@@ -234,6 +234,42 @@ object AccessStyle {
   def virtualHostAccessStyle: VirtualHostAccessStyle = VirtualHostAccessStyle
 }
 
+/**
+ * How the payload of uploads with a streamed entity (disk buffered parts and `putObject`) is signed.
+ * Payloads held in memory are always signed with their SHA-256 hash.
+ */
+sealed abstract class PayloadSigning
+object PayloadSigning {
+
+  /**
+   * The payload's SHA-256 hash is calculated before sending the request, which reads the payload twice.
+   */
+  sealed abstract class FullPayloadSigning extends PayloadSigning
+  case object FullPayloadSigning extends FullPayloadSigning
+
+  /** Java API */
+  def fullPayloadSigning: FullPayloadSigning = FullPayloadSigning
+
+  /**
+   * The payload is sent with `aws-chunked` content encoding and every chunk is signed while it is streamed
+   * (`STREAMING-AWS4-HMAC-SHA256-PAYLOAD`).
+   */
+  sealed abstract class StreamingPayloadSigning extends PayloadSigning
+  case object StreamingPayloadSigning extends StreamingPayloadSigning
+
+  /** Java API */
+  def streamingPayloadSigning: StreamingPayloadSigning = StreamingPayloadSigning
+
+  /**
+   * The payload is not signed (`UNSIGNED-PAYLOAD`), its integrity is left to TLS. Only use this with `https` endpoints.
+   */
+  sealed abstract class UnsignedPayload extends PayloadSigning
+  case object UnsignedPayload extends UnsignedPayload
+
+  /** Java API */
+  def unsignedPayload: UnsignedPayload = UnsignedPayload
+}
+
 final class RetrySettings private (val maxRetries: Int,
     val minBackoff: FiniteDuration,
     val maxBackoff: FiniteDuration,
@@ -319,33 +355,287 @@ object RetrySettings {
   }
 }
 
-final class MultipartUploadSettings private (val retrySettings: RetrySettings) {
+/**
+ * Settings of the adaptive mode of multipart uploads.
+ *
+ * The part size starts at the chunk size of the upload and doubles after every `partsPerSizeStep` parts, up to
+ * `maxPartSize`, so that uploads of unknown length stay within the limit of 10000 parts. The number of concurrent
+ * part uploads starts at the chunking parallelism of the upload and is tuned between `minParallelism` and
+ * `maxParallelism` from the throughput of the uploaded parts. It is reduced when part uploads have to be retried.
+ *
+ * @param partsPerSizeStep number of parts uploaded before the part size doubles
+ * @param maxPartSize largest part size, each part is buffered in up to twice its size, so a [[PooledBufferType]] must
+ *                    hold at least twice this size
+ * @param minParallelism smallest number of concurrent part uploads
+ * @param maxParallelism largest number of concurrent part uploads
+ * @param maxBytesInFlight largest number of bytes of the parts being buffered or uploaded at once, a single part is
+ *                         let through even if it is larger
+ */
+final class AdaptiveUploadSettings private (val partsPerSizeStep: Int,
+    val maxPartSize: Int,
+    val minParallelism: Int,
+    val maxParallelism: Int,
+    val maxBytesInFlight: Long) {
+  require(partsPerSizeStep > 0, s"partsPerSizeStep must be positive (was $partsPerSizeStep)")
+  require(maxPartSize <= Int.MaxValue / 2, s"maxPartSize must be at most ${Int.MaxValue / 2} (was $maxPartSize)")
+  require(minParallelism > 0, s"minParallelism must be positive (was $minParallelism)")
+  require(maxParallelism >= minParallelism,
+    s"maxParallelism must not be smaller than minParallelism (was $maxParallelism < $minParallelism)")
+  require(maxBytesInFlight > 0, s"maxBytesInFlight must be positive (was $maxBytesInFlight)")
+
+  /** Java API */
+  def getPartsPerSizeStep: Int = partsPerSizeStep
+
+  /** Java API */
+  def getMaxPartSize: Int = maxPartSize
+
+  /** Java API */
+  def getMinParallelism: Int = minParallelism
+
+  /** Java API */
+  def getMaxParallelism: Int = maxParallelism
+
+  /** Java API */
+  def getMaxBytesInFlight: Long = maxBytesInFlight
+
+  def withPartsPerSizeStep(value: Int): AdaptiveUploadSettings = copy(partsPerSizeStep = value)
+  def withMaxPartSize(value: Int): AdaptiveUploadSettings = copy(maxPartSize = value)
+  def withMinParallelism(value: Int): AdaptiveUploadSettings = copy(minParallelism = value)
+  def withMaxParallelism(value: Int): AdaptiveUploadSettings = copy(maxParallelism = value)
+  def withMaxBytesInFlight(value: Long): AdaptiveUploadSettings = copy(maxBytesInFlight = value)
+
+  private def copy(
+      partsPerSizeStep: Int = partsPerSizeStep,
+      maxPartSize: Int = maxPartSize,
+      minParallelism: Int = minParallelism,
+      maxParallelism: Int = maxParallelism,
+      maxBytesInFlight: Long = maxBytesInFlight): AdaptiveUploadSettings =
+    new AdaptiveUploadSettings(partsPerSizeStep, maxPartSize, minParallelism, maxParallelism, maxBytesInFlight)
+
+  override def toString: String =
+    "AdaptiveUploadSettings(" +
+    s"partsPerSizeStep=$partsPerSizeStep," +
+    s"maxPartSize=$maxPartSize," +
+    s"minParallelism=$minParallelism," +
+    s"maxParallelism=$maxParallelism," +
+    s"maxBytesInFlight=$maxBytesInFlight" +
+    ")"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: AdaptiveUploadSettings =>
+      this.partsPerSizeStep == that.partsPerSizeStep &&
+      this.maxPartSize == that.maxPartSize &&
+      this.minParallelism == that.minParallelism &&
+      this.maxParallelism == that.maxParallelism &&
+      this.maxBytesInFlight == that.maxBytesInFlight
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(Int.box(partsPerSizeStep),
+      Int.box(maxPartSize),
+      Int.box(minParallelism),
+      Int.box(maxParallelism),
+      Long.box(maxBytesInFlight))
+}
+
+object AdaptiveUploadSettings {
+  val default: AdaptiveUploadSettings = AdaptiveUploadSettings(1000, 512 * 1024 * 1024, 1, 16, 256L * 1024 * 1024)
+
+  /** Scala API */
+  def apply(partsPerSizeStep: Int,
+      maxPartSize: Int,
+      minParallelism: Int,
+      maxParallelism: Int,
+      maxBytesInFlight: Long): AdaptiveUploadSettings =
+    new AdaptiveUploadSettings(partsPerSizeStep, maxPartSize, minParallelism, maxParallelism, maxBytesInFlight)
+
+  /** Java API */
+  def create(partsPerSizeStep: Int,
+      maxPartSize: Int,
+      minParallelism: Int,
+      maxParallelism: Int,
+      maxBytesInFlight: Long): AdaptiveUploadSettings =
+    apply(partsPerSizeStep, maxPartSize, minParallelism, maxParallelism, maxBytesInFlight)
+
+  def apply(config: Config): AdaptiveUploadSettings =
+    AdaptiveUploadSettings(
+      config.getInt("parts-per-size-step"),
+      Math.toIntExact(config.getBytes("max-part-size")),
+      config.getInt("min-parallelism"),
+      config.getInt("max-parallelism"),
+      config.getBytes("max-bytes-in-flight"))
+}
+
+final class MultipartUploadSettings private (val retrySettings: RetrySettings,
+    val adaptiveUpload: Option[AdaptiveUploadSettings]) {
 
   /** Java API */
   def getRetrySettings: RetrySettings = retrySettings
 
-  def withRetrySettings(value: RetrySettings): MultipartUploadSettings = MultipartUploadSettings(value)
+  /** Java API */
+  def getAdaptiveUpload: Optional[AdaptiveUploadSettings] = adaptiveUpload.asJava
+
+  def withRetrySettings(value: RetrySettings): MultipartUploadSettings =
+    new MultipartUploadSettings(value, adaptiveUpload)
+
+  /** Enables the adaptive mode with the given settings, or disables it when passed `null`. */
+  def withAdaptiveUpload(value: AdaptiveUploadSettings): MultipartUploadSettings =
+    new MultipartUploadSettings(retrySettings, Option(value))
 
   override def toString =
-    s"MultipartUploadSettings(retrySettings=$retrySettings)"
+    s"MultipartUploadSettings(retrySettings=$retrySettings,adaptiveUpload=$adaptiveUpload)"
 
   override def equals(other: Any): Boolean = other match {
-    case that: MultipartUploadSettings => Objects.equals(this.retrySettings, that.retrySettings)
-    case _                             => false
+    case that: MultipartUploadSettings =>
+      Objects.equals(this.retrySettings, that.retrySettings) &&
+      Objects.equals(this.adaptiveUpload, that.adaptiveUpload)
+    case _ => false
   }
 
-  override def hashCode(): Int = Objects.hash(retrySettings)
+  override def hashCode(): Int = Objects.hash(retrySettings, adaptiveUpload)
 }
 
 object MultipartUploadSettings {
 
   /** Scala API */
   def apply(retrySettings: RetrySettings): MultipartUploadSettings =
-    new MultipartUploadSettings(retrySettings)
+    new MultipartUploadSettings(retrySettings, None)
+
+  /** Scala API */
+  def apply(retrySettings: RetrySettings, adaptiveUpload: Option[AdaptiveUploadSettings]): MultipartUploadSettings =
+    new MultipartUploadSettings(retrySettings, adaptiveUpload)
 
   /** Java API */
   def create(retrySettings: RetrySettings): MultipartUploadSettings =
     apply(retrySettings)
+
+  /** Java API */
+  def create(retrySettings: RetrySettings, adaptiveUpload: Optional[AdaptiveUploadSettings]): MultipartUploadSettings =
+    apply(retrySettings, adaptiveUpload.asScala)
+}
+
+/**
+ * Settings of batched deletes with the multi-object delete API.
+ *
+ * @param batchSize number of keys deleted with one request, at most 1000
+ * @param parallelism number of delete requests in flight
+ */
+final class DeleteObjectsSettings private (val batchSize: Int, val parallelism: Int) {
+  require(batchSize > 0 && batchSize <= 1000, s"batchSize must be between 1 and 1000 (was $batchSize)")
+  require(parallelism > 0, s"parallelism must be at least 1 (was $parallelism)")
+
+  /** Java API */
+  def getBatchSize: Int = batchSize
+
+  /** Java API */
+  def getParallelism: Int = parallelism
+
+  def withBatchSize(value: Int): DeleteObjectsSettings = DeleteObjectsSettings(value, parallelism)
+
+  def withParallelism(value: Int): DeleteObjectsSettings = DeleteObjectsSettings(batchSize, value)
+
+  override def toString =
+    s"DeleteObjectsSettings(batchSize=$batchSize,parallelism=$parallelism)"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: DeleteObjectsSettings => this.batchSize == that.batchSize && this.parallelism == that.parallelism
+    case _                           => false
+  }
+
+  override def hashCode(): Int = Objects.hash(Int.box(batchSize), Int.box(parallelism))
+}
+
+object DeleteObjectsSettings {
+  val default: DeleteObjectsSettings = DeleteObjectsSettings(1000, 4)
+
+  /** Scala API */
+  def apply(batchSize: Int, parallelism: Int): DeleteObjectsSettings =
+    new DeleteObjectsSettings(batchSize, parallelism)
+
+  /** Java API */
+  def create(batchSize: Int, parallelism: Int): DeleteObjectsSettings =
+    apply(batchSize, parallelism)
+
+  def apply(config: Config): DeleteObjectsSettings =
+    DeleteObjectsSettings(config.getInt("batch-size"), config.getInt("parallelism"))
+}
+
+/**
+ * Settings of an [[S3ObjectCache]].
+ *
+ * @param maxEntries number of objects whose metadata is kept, the least recently used ones are evicted first
+ * @param timeToLive time for which cached metadata is served without asking S3
+ * @param bodyDirectory directory to keep the bodies of small objects in, no bodies are kept if empty
+ * @param maxBodySize size of the largest body kept in `bodyDirectory`
+ */
+final class ObjectCacheSettings private (val maxEntries: Int,
+    val timeToLive: FiniteDuration,
+    val bodyDirectory: Option[Path],
+    val maxBodySize: Long) {
+  require(maxEntries > 0, s"maxEntries must be at least 1 (was $maxEntries)")
+  require(maxBodySize >= 0, s"maxBodySize must not be negative (was $maxBodySize)")
+
+  /** Java API */
+  def getMaxEntries: Int = maxEntries
+
+  /** Java API */
+  def getTimeToLive: JavaDuration = JavaDuration.ofNanos(timeToLive.toNanos)
+
+  /** Java API */
+  def getBodyDirectory: Optional[Path] = bodyDirectory.asJava
+
+  /** Java API */
+  def getMaxBodySize: Long = maxBodySize
+
+  def withMaxEntries(value: Int): ObjectCacheSettings = copy(maxEntries = value)
+
+  def withTimeToLive(value: FiniteDuration): ObjectCacheSettings = copy(timeToLive = value)
+
+  /** Java API */
+  def withTimeToLive(value: JavaDuration): ObjectCacheSettings =
+    copy(timeToLive = FiniteDuration(value.toNanos, TimeUnit.NANOSECONDS))
+
+  def withBodyDirectory(value: Path): ObjectCacheSettings = copy(bodyDirectory = Option(value))
+
+  def withMaxBodySize(value: Long): ObjectCacheSettings = copy(maxBodySize = value)
+
+  private def copy(maxEntries: Int = maxEntries,
+      timeToLive: FiniteDuration = timeToLive,
+      bodyDirectory: Option[Path] = bodyDirectory,
+      maxBodySize: Long = maxBodySize) =
+    new ObjectCacheSettings(maxEntries, timeToLive, bodyDirectory, maxBodySize)
+
+  override def toString: String =
+    "ObjectCacheSettings(" +
+    s"maxEntries=$maxEntries," +
+    s"timeToLive=$timeToLive," +
+    s"bodyDirectory=$bodyDirectory," +
+    s"maxBodySize=$maxBodySize)"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: ObjectCacheSettings =>
+      Objects.equals(this.maxEntries, that.maxEntries) &&
+      Objects.equals(this.timeToLive, that.timeToLive) &&
+      Objects.equals(this.bodyDirectory, that.bodyDirectory) &&
+      Objects.equals(this.maxBodySize, that.maxBodySize)
+    case _ => false
+  }
+
+  override def hashCode(): Int =
+    Objects.hash(Int.box(maxEntries), timeToLive, bodyDirectory, Long.box(maxBodySize))
+}
+
+object ObjectCacheSettings {
+  val default: ObjectCacheSettings = ObjectCacheSettings(10000, 1.minute)
+
+  /** Scala API */
+  def apply(maxEntries: Int, timeToLive: FiniteDuration): ObjectCacheSettings =
+    new ObjectCacheSettings(maxEntries, timeToLive, None, 1024 * 1024)
+
+  /** Java API */
+  def create(maxEntries: Int, timeToLive: JavaDuration): ObjectCacheSettings =
+    apply(maxEntries, FiniteDuration(timeToLive.toNanos, TimeUnit.NANOSECONDS))
 }
 
 final class S3Settings private (
@@ -359,7 +649,19 @@ final class S3Settings private (
     val validateObjectKey: Boolean,
     val retrySettings: RetrySettings,
     val multipartUploadSettings: MultipartUploadSettings,
-    val signAnonymousRequests: Boolean) {
+    val signAnonymousRequests: Boolean,
+    val payloadSigning: PayloadSigning,
+    val deleteObjectsSettings: DeleteObjectsSettings) {
+  bufferType match {
+    case pooled: PooledBufferType =>
+      multipartUploadSettings.adaptiveUpload.foreach { adaptive =>
+        require(
+          pooled.slabSize.toLong * pooled.maxSlabs >= 2L * adaptive.maxPartSize,
+          s"A buffer pool of ${pooled.maxSlabs} slabs of ${pooled.slabSize} bytes can't hold parts of the adaptive " +
+          s"upload mode, which are buffered in up to twice its maxPartSize of ${adaptive.maxPartSize} bytes")
+      }
+    case _ =>
+  }
 
   /** Java API */
   def getBufferType: BufferType = bufferType
@@ -396,6 +698,12 @@ final class S3Settings private (
   /** Java API */
   def isSignAnonymousRequests: Boolean = signAnonymousRequests
 
+  /** Java API */
+  def getPayloadSigning: PayloadSigning = payloadSigning
+
+  /** Java API */
+  def getDeleteObjectsSettings: DeleteObjectsSettings = deleteObjectsSettings
+
   def withBufferType(value: BufferType): S3Settings = copy(bufferType = value)
 
   def withCredentialsProvider(value: AwsCredentialsProvider): S3Settings =
@@ -420,6 +728,11 @@ final class S3Settings private (
   def withSignAnonymousRequests(value: Boolean): S3Settings =
     if (signAnonymousRequests == value) this else copy(signAnonymousRequests = value)
 
+  def withPayloadSigning(value: PayloadSigning): S3Settings =
+    if (payloadSigning == value) this else copy(payloadSigning = value)
+
+  def withDeleteObjectsSettings(value: DeleteObjectsSettings): S3Settings = copy(deleteObjectsSettings = value)
+
   private def copy(
       bufferType: BufferType = bufferType,
       credentialsProvider: AwsCredentialsProvider = credentialsProvider,
@@ -431,7 +744,9 @@ final class S3Settings private (
       validateObjectKey: Boolean = validateObjectKey,
       retrySettings: RetrySettings = retrySettings,
       multipartUploadSettings: MultipartUploadSettings = multipartUploadSettings,
-      signAnonymousRequests: Boolean = signAnonymousRequests): S3Settings = new S3Settings(
+      signAnonymousRequests: Boolean = signAnonymousRequests,
+      payloadSigning: PayloadSigning = payloadSigning,
+      deleteObjectsSettings: DeleteObjectsSettings = deleteObjectsSettings): S3Settings = new S3Settings(
     bufferType,
     credentialsProvider,
     s3RegionProvider,
@@ -442,7 +757,9 @@ final class S3Settings private (
     validateObjectKey,
     retrySettings,
     multipartUploadSettings,
-    signAnonymousRequests)
+    signAnonymousRequests,
+    payloadSigning,
+    deleteObjectsSettings)
 
   override def toString: String =
     "S3Settings(" +
@@ -456,7 +773,9 @@ final class S3Settings private (
     s"validateObjectKey=$validateObjectKey" +
     s"retrySettings=$retrySettings" +
     s"multipartUploadSettings=$multipartUploadSettings)" +
-    s"signAnonymousRequests=$signAnonymousRequests"
+    s"signAnonymousRequests=$signAnonymousRequests" +
+    s"payloadSigning=$payloadSigning" +
+    s"deleteObjectsSettings=$deleteObjectsSettings"
 
   override def equals(other: Any): Boolean = other match {
     case that: S3Settings =>
@@ -470,7 +789,9 @@ final class S3Settings private (
       this.validateObjectKey == that.validateObjectKey &&
       Objects.equals(this.retrySettings, that.retrySettings) &&
       Objects.equals(this.multipartUploadSettings, multipartUploadSettings) &&
-      this.signAnonymousRequests == that.signAnonymousRequests
+      this.signAnonymousRequests == that.signAnonymousRequests &&
+      Objects.equals(this.payloadSigning, that.payloadSigning) &&
+      Objects.equals(this.deleteObjectsSettings, that.deleteObjectsSettings)
     case _ => false
   }
 
@@ -486,7 +807,9 @@ final class S3Settings private (
       Boolean.box(validateObjectKey),
       retrySettings,
       multipartUploadSettings,
-      Boolean.box(signAnonymousRequests))
+      Boolean.box(signAnonymousRequests),
+      payloadSigning,
+      deleteObjectsSettings)
 }
 
 object S3Settings {
@@ -504,10 +827,15 @@ object S3Settings {
 
       case "disk" =>
         val diskBufferPath = c.getString("disk-buffer-path")
-        DiskBufferType(Paths.get(diskBufferPath))
+        DiskBufferType(Paths.get(diskBufferPath), c.getInt("disk-buffer-spill-files"))
+
+      case "pooled" =>
+        PooledBufferType(
+          Math.toIntExact(c.getBytes("pooled-buffer.slab-size")),
+          c.getInt("pooled-buffer.max-slabs"))
 
       case other =>
-        throw new IllegalArgumentException(s"Buffer type must be 'memory' or 'disk'. Got: [$other]")
+        throw new IllegalArgumentException(s"Buffer type must be 'memory', 'disk' or 'pooled'. Got: [$other]")
     }
 
     val maybeProxy = for {
@@ -624,10 +952,26 @@ object S3Settings {
 
     val multipartUploadConfig = c.getConfig("multipart-upload")
     val multipartUploadSettings = MultipartUploadSettings(
-      RetrySettings(multipartUploadConfig.getConfig("retry-settings")))
+      RetrySettings(multipartUploadConfig.getConfig("retry-settings")),
+      if (multipartUploadConfig.hasPath("adaptive.enabled") && multipartUploadConfig.getBoolean("adaptive.enabled"))
+        Some(AdaptiveUploadSettings(multipartUploadConfig.getConfig("adaptive")))
+      else None)
 
     val signAnonymousRequests = c.getBoolean("sign-anonymous-requests")
 
+    val payloadSigning = c.getString("payload-signing") match {
+      case "full"      => PayloadSigning.FullPayloadSigning
+      case "streaming" => PayloadSigning.StreamingPayloadSigning
+      case "unsigned"  => PayloadSigning.UnsignedPayload
+      case other =>
+        throw new IllegalArgumentException(
+          s"'payload-signing' must be 'full', 'streaming' or 'unsigned'. Got: [$other]")
+    }
+
+    val deleteObjectsSettings =
+      if (c.hasPath("delete-objects")) DeleteObjectsSettings(c.getConfig("delete-objects"))
+      else DeleteObjectsSettings.default
+
     new S3Settings(
       bufferType,
       credentialsProvider,
@@ -639,7 +983,9 @@ object S3Settings {
       validateObjectKey,
       retrySettings,
       multipartUploadSettings,
-      signAnonymousRequests)
+      signAnonymousRequests,
+      payloadSigning,
+      deleteObjectsSettings)
   }
 
   /**
@@ -663,7 +1009,9 @@ object S3Settings {
     validateObjectKey = true,
     RetrySettings.default,
     MultipartUploadSettings(RetrySettings.default),
-    signAnonymousRequests = true)
+    signAnonymousRequests = true,
+    PayloadSigning.FullPayloadSigning,
+    DeleteObjectsSettings.default)
 
   /** Java API */
   def create(
@@ -709,12 +1057,65 @@ case object MemoryBufferType extends BufferType {
   override def path: Option[Path] = None
 }
 
-final class DiskBufferType private (filePath: Path) extends BufferType {
+/**
+ * Buffers upload parts in spill files in `path` (or the default temp directory). Up to `spillFiles` files are kept
+ * for reuse by later parts instead of being deleted.
+ */
+final class DiskBufferType private (filePath: Path, val spillFiles: Int) extends BufferType {
+  require(spillFiles >= 0, s"spillFiles must not be negative (was $spillFiles)")
+
   override val path: Option[Path] = Some(filePath).filterNot(_.toString.isEmpty)
+
+  /** Java API */
+  def getSpillFiles: Int = spillFiles
+
+  def withSpillFiles(value: Int): DiskBufferType = new DiskBufferType(filePath, value)
 }
 case object DiskBufferType {
-  def apply(path: Path): DiskBufferType = new DiskBufferType(path)
+  val DefaultSpillFiles = 16
+
+  def apply(path: Path): DiskBufferType = new DiskBufferType(path, DefaultSpillFiles)
+
+  def apply(path: Path, spillFiles: Int): DiskBufferType = new DiskBufferType(path, spillFiles)
 
   /** Java API */
   def create(path: Path): DiskBufferType = DiskBufferType(path)
+
+  /** Java API */
+  def create(path: Path, spillFiles: Int): DiskBufferType = DiskBufferType(path, spillFiles)
+}
+
+/**
+ * Buffers upload parts in fixed-size slabs rented from a bounded pool, which is shared by all uploads with the same
+ * pooled buffer type in an actor system (see [[S3Ext.bufferPoolMetrics]]). Slabs are returned to the pool once their
+ * part has been acknowledged. When all slabs are in use, buffering waits for a slab to be returned.
+ */
+final class PooledBufferType private (val slabSize: Int, val maxSlabs: Int) extends BufferType {
+  require(slabSize > 0, s"slabSize must be positive (was $slabSize)")
+  require(maxSlabs > 0, s"maxSlabs must be positive (was $maxSlabs)")
+
+  override def path: Option[Path] = None
+
+  /** Java API */
+  def getSlabSize: Int = slabSize
+
+  /** Java API */
+  def getMaxSlabs: Int = maxSlabs
+
+  override def toString: String =
+    s"PooledBufferType(slabSize=$slabSize,maxSlabs=$maxSlabs)"
+
+  override def equals(other: Any): Boolean = other match {
+    case that: PooledBufferType => this.slabSize == that.slabSize && this.maxSlabs == that.maxSlabs
+    case _                      => false
+  }
+
+  override def hashCode(): Int = Objects.hash(Int.box(slabSize), Int.box(maxSlabs))
+}
+
+object PooledBufferType {
+  def apply(slabSize: Int, maxSlabs: Int): PooledBufferType = new PooledBufferType(slabSize, maxSlabs)
+
+  /** Java API */
+  def create(slabSize: Int, maxSlabs: Int): PooledBufferType = PooledBufferType(slabSize, maxSlabs)
 }
@@ -16,10 +16,11 @@ package docs.scaladsl
 import java.nio.file.Paths
 import org.apache.pekko
 import pekko.NotUsed
+import pekko.http.scaladsl.model.ContentTypes
 import pekko.stream.connectors.s3.headers.{ CannedAcl, ServerSideEncryption }
 import pekko.stream.connectors.s3.scaladsl.{ S3, S3ClientIntegrationSpec, S3WireMockBase }
 import pekko.stream.connectors.s3._
-import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.stream.scaladsl.{ Keep, RunnableGraph, Sink, Source, SourceWithContext }
 import pekko.util.ByteString
 import com.github.tomakehurst.wiremock.client.WireMock.{
   headRequestedFor,
@@ -32,6 +33,7 @@ import com.github.tomakehurst.wiremock.matching.EqualToPattern
 import org.scalatest.OptionValues
 import org.scalatest.exceptions.TestFailedException
 
+import scala.collection.immutable
 import scala.concurrent.Future
 import scala.concurrent.duration._
 
@@ -70,6 +72,24 @@ class S3SinkSpec extends S3WireMockBase with S3ClientIntegrationSpec with Option
     result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
   }
 
+  "S3Sink" should "upload a stream of bytes in adaptive mode" in {
+
+    mockUpload()
+
+    // #upload-adaptive
+    val adaptiveSettings: S3Settings =
+      S3Settings().withMultipartUploadSettings(
+        MultipartUploadSettings(RetrySettings.default).withAdaptiveUpload(AdaptiveUploadSettings.default))
+
+    val s3Sink: Sink[ByteString, Future[MultipartUploadResult]] =
+      S3.multipartUpload(bucket, bucketKey).withAttributes(S3Attributes.settings(adaptiveSettings))
+    // #upload-adaptive
+
+    val result: Future[MultipartUploadResult] = Source.single(ByteString(body)).runWith(s3Sink)
+
+    result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
+  }
+
   "S3Sink" should "retry multipart upload initiation after a transient internal server error" in {
 
     mockMultipartUploadInitiationWithTransientError(body, Right(500))
@@ -152,6 +172,50 @@ class S3SinkSpec extends S3WireMockBase with S3ClientIntegrationSpec with Option
     result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
   }
 
+  it should "report the requests of an upload to its instrumentation" in {
+
+    mockMultipartPartUploadWithTransient500Error(body, 2)
+
+    // #instrumentation
+    val instrumentation = new HdrHistogramInstrumentation()
+
+    val s3Sink: Sink[ByteString, Future[MultipartUploadResult]] = S3
+      .multipartUpload(bucket, bucketKey)
+      .withAttributes(S3Attributes.instrumentation(instrumentation))
+    // #instrumentation
+
+    val result: Future[MultipartUploadResult] = Source.single(ByteString(body)).runWith(s3Sink)
+
+    result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
+    instrumentation.retries shouldBe 2L
+    instrumentation.failures shouldBe 0L
+    instrumentation.requests should be >= 3L
+    instrumentation.signingTimes.getTotalCount shouldBe instrumentation.requests
+    instrumentation.waitTimes.getTotalCount shouldBe instrumentation.requests
+    instrumentation.bufferFillTimes.getTotalCount shouldBe 1L
+    instrumentation.sentBytes should be >= 3L * body.length
+  }
+
+  it should "retry a part upload buffered in pooled slabs and return the slabs to the pool" in {
+
+    val numFailures = 3
+    mockMultipartPartUploadWithTransient500Error(body, numFailures)
+
+    val bufferType = PooledBufferType(1024 * 1024, 16)
+    val s3Sink: Sink[ByteString, Future[MultipartUploadResult]] = S3
+      .multipartUpload(bucket, bucketKey)
+      .withAttributes(
+        S3Attributes.settings(
+          S3Settings()
+            .withMultipartUploadSettings(MultipartUploadSettings(RetrySettings(numFailures, 0.seconds, 0.seconds, 0.0)))
+            .withBufferType(bufferType)))
+
+    val result: Future[MultipartUploadResult] = Source.single(ByteString(body)).runWith(s3Sink)
+
+    result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
+    S3Ext(system).bufferPoolMetrics(bufferType).slabsInUse shouldBe 0
+  }
+
   it should "upload a stream of bytes to S3 with custom headers" in {
 
     mockUpload()
@@ -166,6 +230,35 @@ class S3SinkSpec extends S3WireMockBase with S3ClientIntegrationSpec with Option
     result.futureValue shouldBe MultipartUploadResult(url, bucket, bucketKey, etag, None)
   }
 
+  it should "upload many small objects and emit their metadata in order" in {
+    val keys = (1 to 20).map(n => s"small-$n")
+    mockPutObjects(keys)
+
+    // #put-objects
+    val objects: SourceWithContext[PutObjectEntry, String, NotUsed] =
+      SourceWithContext.fromTuples(
+        Source(keys).map(key => (PutObjectEntry(bucket, key, ByteString(s"content of $key")), key)))
+
+    val uploaded: Future[immutable.Seq[(ObjectMetadata, String)]] =
+      objects.via(S3.putObjects[String](parallelism = 64)).asSource.runWith(Sink.seq)
+    // #put-objects
+
+    val results = uploaded.futureValue
+    results.map(_._2) shouldBe keys
+    results.map(_._1.eTag) should contain only Some(etag)
+  }
+
+  it should "retry a small object upload on transient errors" in {
+    mockPutObjectWithTransientError("small-retried")
+
+    val uploaded = Source
+      .single((PutObjectEntry(bucket, "small-retried", ByteString("content of small-retried")), 1))
+      .via(S3.putObjects[Int](parallelism = 4))
+      .runWith(Sink.head)
+
+    uploaded.futureValue._1.eTag shouldBe Some(etag)
+  }
+
   it should "fail if request returns 404" in {
 
     mock404s()
@@ -305,6 +398,70 @@ class S3SinkSpec extends S3WireMockBase with S3ClientIntegrationSpec with Option
     result.futureValue shouldBe MultipartUploadResult(targetUrl, targetBucket, targetBucketKey, etag, None)
   }
 
+  it should "copy the parts of a file concurrently and report the bytes copied" in {
+    mockCopyMulti()
+
+    // #multipart-copy-parallel
+    val copy: RunnableGraph[(Future[MultipartUploadResult], Future[immutable.Seq[Long]])] =
+      S3.multipartCopyParallel(bucket, bucketKey, targetBucket, targetBucketKey, parallelism = 8)
+        .toMat(Sink.seq)(Keep.both)
+    val (result, progress) = copy.run()
+    // #multipart-copy-parallel
+
+    result.futureValue shouldBe MultipartUploadResult(targetUrl, targetBucket, targetBucketKey, etag, None)
+    progress.futureValue should have size 3
+    progress.futureValue.head shouldBe 0L
+    progress.futureValue.last shouldBe 7864320L
+    mock.verifyThat(
+      putRequestedFor(urlEqualTo(s"/$targetBucketKey?partNumber=1&uploadId=$uploadId"))
+        .withHeader("x-amz-copy-source-if-match", new EqualToPattern("\"" + etag + "\"")))
+  }
+
+  it should "resume a parallel copy without copying the parts copied before" in {
+    mockCopyMultiResumed()
+
+    val (result, progress) =
+      S3.multipartCopyParallel(bucket,
+        bucketKey,
+        targetBucket,
+        targetBucketKey,
+        sourceVersionId = None,
+        contentType = ContentTypes.`application/octet-stream`,
+        s3Headers = S3Headers.empty,
+        minPartSize = S3.MinChunkSize,
+        parallelism = 8,
+        uploadId = Some(uploadId))
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+
+    result.futureValue shouldBe MultipartUploadResult(targetUrl, targetBucket, targetBucketKey, etag, None)
+    // the first element counts the part copied before
+    progress.futureValue shouldBe List(5242880L, 7864320L)
+    mock.verifyThat(0, putRequestedFor(urlEqualTo(s"/$targetBucketKey?partNumber=1&uploadId=$uploadId")))
+  }
+
+  it should "copy the parts copied before again when the source was modified since" in {
+    mockCopyMultiResumed(sourceLastModified = "Wed, 28 Oct 2009 23:00:00 GMT")
+
+    val (result, progress) =
+      S3.multipartCopyParallel(bucket,
+        bucketKey,
+        targetBucket,
+        targetBucketKey,
+        sourceVersionId = None,
+        contentType = ContentTypes.`application/octet-stream`,
+        s3Headers = S3Headers.empty,
+        minPartSize = S3.MinChunkSize,
+        parallelism = 1,
+        uploadId = Some(uploadId))
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+
+    result.futureValue shouldBe MultipartUploadResult(targetUrl, targetBucket, targetBucketKey, etag, None)
+    progress.futureValue shouldBe List(0L, 5242880L, 7864320L)
+    mock.verifyThat(1, putRequestedFor(urlEqualTo(s"/$targetBucketKey?partNumber=1&uploadId=$uploadId")))
+  }
+
   it should "copy a file from source bucket to target bucket with source version id provided" in {
     mockCopyVersioned()
 
@@ -13,6 +13,8 @@
 
 package docs.scaladsl
 
+import java.nio.file.Files
+
 import org.apache.pekko
 import pekko.http.scaladsl.model.headers.ByteRange
 import pekko.http.scaladsl.model.{ ContentType, ContentTypes, HttpEntity, HttpResponse, IllegalUriException }
@@ -24,13 +26,16 @@ import pekko.stream.connectors.s3.scaladsl.{ S3, S3ClientIntegrationSpec, S3Wire
 import pekko.stream.scaladsl.{ Keep, Sink, Source }
 import pekko.util.ByteString
 import pekko.{ Done, NotUsed }
+import org.scalatest.concurrent.Eventually
 import software.amazon.awssdk.regions.Region
 import software.amazon.awssdk.regions.providers._
 
 import scala.annotation.nowarn
+import scala.collection.immutable
 import scala.concurrent.Future
+import scala.concurrent.duration._
 
-class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
+class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec with Eventually {
   private val sampleSettings = S3Ext(system).settings
 
   override protected def afterEach(): Unit =
@@ -64,6 +69,22 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     // #downloadToAkkaHttp
   }
 
+  "S3Source" should "report the bytes received to its instrumentation" in {
+
+    mockDownload()
+
+    val instrumentation = new HdrHistogramInstrumentation()
+    val data = S3
+      .getObject(bucket, bucketKey)
+      .withAttributes(S3Attributes.instrumentation(instrumentation))
+      .runWith(Sink.fold(ByteString.empty)(_ ++ _))
+
+    data.futureValue.utf8String shouldBe body
+    instrumentation.requests shouldBe 1L
+    instrumentation.receivedBytes shouldBe body.length.toLong
+    instrumentation.transferTimes.getTotalCount shouldBe 1L
+  }
+
   "S3Source" should "use custom settings when downloading a file" in {
 
     val region = Region.AP_NORTHEAST_1
@@ -99,6 +120,45 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     result.versionId shouldBe empty
   }
 
+  "S3Source" should "serve metadata from the object cache" in {
+
+    mockHead(8)
+
+    // #object-cache
+    val cache = S3ObjectCache(ObjectCacheSettings(maxEntries = 10000, timeToLive = 1.minute))
+
+    val metadata: Source[Option[ObjectMetadata], NotUsed] =
+      S3.getObjectMetadata(bucket, bucketKey).withAttributes(S3Attributes.objectCache(cache))
+    // #object-cache
+
+    metadata.runWith(Sink.head).futureValue.map(_.contentLength) shouldBe Some(8L)
+    mock.removeMappings()
+    metadata.runWith(Sink.head).futureValue.map(_.contentLength) shouldBe Some(8L)
+    cache.hits shouldBe 1L
+    cache.misses shouldBe 1L
+  }
+
+  "S3Source" should "revalidate an object body kept by the object cache" in {
+
+    mockConditionalDownload()
+
+    val directory = Files.createTempDirectory("s3-cache")
+    val cache = S3ObjectCache(ObjectCacheSettings.default.withBodyDirectory(directory))
+    def download() =
+      S3.getObject(bucket, bucketKey)
+        .withAttributes(S3Attributes.objectCache(cache))
+        .runWith(Sink.fold(ByteString.empty)(_ ++ _))
+
+    download().futureValue.utf8String shouldBe body
+    eventually(Files.list(directory).count() shouldBe 1L)
+
+    download().futureValue.utf8String shouldBe body
+    cache.revalidations shouldBe 1L
+
+    cache.clear()
+    Files.list(directory).count() shouldBe 0L
+  }
+
   "S3Source" should "download a metadata from S3 for a big file" in {
 
     val contentLength = Long.MaxValue
@@ -154,6 +214,76 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     result.futureValue shouldBe rangeOfBody
   }
 
+  it should "download ranges of a file concurrently and emit them in order" in {
+
+    mockParallelDownload(partSize = 10)
+
+    // #parallelDownload
+    val s3Source: Source[ByteString, Future[ObjectMetadata]] =
+      S3.getObjectParallel(bucket, bucketKey, partSize = 8 * 1024 * 1024, parallelism = 4)
+    // #parallelDownload
+
+    val (metadataFuture, dataFuture) = S3
+      .getObjectParallel(bucket, bucketKey, partSize = 10, parallelism = 4)
+      .toMat(Sink.fold(ByteString.empty)(_ ++ _))(Keep.both)
+      .run()
+
+    dataFuture.futureValue.utf8String shouldBe body
+    metadataFuture.futureValue.contentLength shouldBe body.length
+    metadataFuture.futureValue.eTag shouldBe Some(etag)
+  }
+
+  it should "retry a range of a concurrent download on transient errors" in {
+
+    mockParallelDownload(partSize = 10, failingRangeStart = Some(20))
+
+    val result = S3
+      .getObjectParallel(bucket, bucketKey, partSize = 10, parallelism = 2)
+      .runWith(Sink.fold(ByteString.empty)(_ ++ _))
+
+    result.futureValue.utf8String shouldBe body
+  }
+
+  it should "select the content of an object" in {
+
+    mockSelectObjectContent()
+
+    // #select-object-content
+    val records: Source[ByteString, Future[SelectObjectContentStats]] =
+      S3.selectObjectContent(
+        bucket,
+        bucketKey,
+        "SELECT s._1 FROM S3Object s",
+        SelectInputSerialization.Csv(CsvFileHeaderInfo.NoHeader),
+        SelectOutputSerialization.Csv())
+    // #select-object-content
+
+    val (statsFuture, dataFuture) = records.toMat(Sink.fold(ByteString.empty)(_ ++ _))(Keep.both).run()
+
+    dataFuture.futureValue.utf8String shouldBe "a\nb\nc\n"
+    statsFuture.futureValue shouldBe SelectObjectContentStats(12L, 12L, 6L)
+  }
+
+  it should "fail the selection when the object content can't be selected" in {
+
+    mockSelectObjectContentError()
+
+    val (statsFuture, dataFuture) = S3
+      .selectObjectContent(
+        bucket,
+        bucketKey,
+        "SELECT s._9 FROM S3Object s",
+        SelectInputSerialization.Csv(),
+        SelectOutputSerialization.Csv())
+      .toMat(Sink.seq)(Keep.both)
+      .run()
+
+    val error = dataFuture.failed.futureValue
+    error shouldBe a[S3Exception]
+    error.asInstanceOf[S3Exception].code shouldBe "InvalidColumnIndex"
+    statsFuture.failed.futureValue shouldBe error
+  }
+
   it should "download a stream of bytes using customer server side encryption" in {
 
     mockDownloadSSEC()
@@ -252,6 +382,44 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     result.futureValue.key shouldBe listKey
   }
 
+  it should "list the prefixes of a bucket concurrently" in {
+    mockParallelListing()
+
+    // #list-bucket-parallel
+    val keySource: Source[ListBucketResultContents, NotUsed] =
+      S3.listBucketParallel(bucket, Some("data/"), parallelism = 8)
+    // #list-bucket-parallel
+
+    val result = keySource.map(_.key).runWith(Sink.seq)
+
+    result.futureValue should contain theSameElementsAs Seq("data/a.txt", "data/x/1", "data/x/2", "data/x/3",
+      "data/y/1")
+  }
+
+  it should "list the prefixes of a bucket concurrently in key order" in {
+    mockParallelListing()
+
+    val result = S3
+      .listBucketParallel(bucket, Some("data/"), parallelism = 2, sorted = true, splitFlatPrefixes = false,
+        S3Headers.empty)
+      .map(_.key)
+      .runWith(Sink.seq)
+
+    result.futureValue shouldBe Seq("data/a.txt", "data/x/1", "data/x/2", "data/x/3", "data/y/1")
+  }
+
+  it should "split the listing of a flat prefix into key ranges" in {
+    mockParallelListing()
+
+    val result = S3
+      .listBucketParallel(bucket, Some("flat/"), parallelism = 4, sorted = true, splitFlatPrefixes = true,
+        S3Headers.empty)
+      .map(_.key)
+      .runWith(Sink.seq)
+
+    result.futureValue shouldBe Seq("flat/0", "flat/1", "flat/1x", "flat/b7")
+  }
+
   it should "list keys and common prefixes for a given bucket with a prefix and delimiter" in {
     mockListBucketAndCommonPrefixes()
 
@@ -348,6 +516,35 @@ class S3SourceSpec extends S3WireMockBase with S3ClientIntegrationSpec {
     deleteBucketSourceRequest.runWith(Sink.ignore).futureValue shouldBe Done
   }
 
+  it should "delete objects in batches and report the keys which could not be deleted" in {
+    mockDeletingObjects()
+
+    // #delete-objects
+    val results: Future[immutable.Seq[DeleteObjectsResult]] =
+      Source(List(bucketKey, "locked"))
+        .map(key => ObjectIdentifier(key))
+        .via(S3.deleteObjects(bucket))
+        .runWith(Sink.seq)
+    // #delete-objects
+
+    results.futureValue should have size 1
+    val result = results.futureValue.head
+    result.deleted shouldBe List(ObjectIdentifier(bucketKey))
+    result.errors shouldBe List(DeleteObjectsError("locked", None, "AccessDenied", "Access Denied"))
+  }
+
+  it should "fail deleting a prefix when a key could not be deleted" in {
+    mockListBucket()
+    mockDeletingObjects()
+
+    val deleted = S3.deleteObjectsByPrefix(bucket, Some(listPrefix)).runWith(Sink.ignore)
+
+    val e = deleted.failed.futureValue
+    e shouldBe a[S3Exception]
+    e.asInstanceOf[S3Exception].code should equal("AccessDenied")
+    e.asInstanceOf[S3Exception].resource should equal("locked")
+  }
+
   it should "check for non existing buckets" in {
     mockCheckingBucketStateForNonExistingBucket()
 
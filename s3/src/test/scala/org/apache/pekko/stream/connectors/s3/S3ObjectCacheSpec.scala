@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3
+
+import java.nio.file.Files
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.http.scaladsl.model.headers.{ `Content-Length`, ByteRange, ETag, EntityTag, Range }
+import pekko.stream.connectors.s3.headers.ServerSideEncryption
+import pekko.stream.connectors.s3.impl.GetObject
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.testkit.TestKit
+import pekko.util.ByteString
+import org.scalatest.{ BeforeAndAfterAll, OptionValues }
+import org.scalatest.concurrent.{ Eventually, ScalaFutures }
+import org.scalatest.flatspec.AnyFlatSpecLike
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{ Millis, Seconds, Span }
+
+import scala.concurrent.duration._
+
+class S3ObjectCacheSpec(_system: ActorSystem)
+    extends TestKit(_system)
+    with AnyFlatSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with ScalaFutures
+    with Eventually
+    with OptionValues
+    with LogCapturing {
+
+  def this() = this(ActorSystem("S3ObjectCacheSpec"))
+
+  implicit val defaultPatience: PatienceConfig =
+    PatienceConfig(timeout = Span(5, Seconds), interval = Span(30, Millis))
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private val metadata = ObjectMetadata(List(ETag(EntityTag("some-etag")), `Content-Length`(3)))
+
+  private def cacheWithBody(key: String) = {
+    val directory = Files.createTempDirectory("s3-cache")
+    val cache = S3ObjectCache(ObjectCacheSettings(1, 1.minute).withBodyDirectory(directory))
+    cache.store("bucket", key, None, metadata, Source.single(ByteString("abc"))).runWith(Sink.ignore).futureValue
+    (cache, eventually(cache.acquireBody("bucket", key, None).value._2))
+  }
+
+  "S3ObjectCache" should "keep a body which is read until it is released, even when its entry was evicted" in {
+    val (cache, body) = cacheWithBody("a")
+
+    cache.put("bucket", "b", None, metadata)
+    cache.acquireBody("bucket", "a", None) shouldBe empty
+    Files.exists(body.path) shouldBe true
+
+    cache.release(body)
+    Files.exists(body.path) shouldBe false
+  }
+
+  it should "delete the body of an evicted entry which isn't read" in {
+    val (cache, body) = cacheWithBody("a")
+    cache.release(body)
+    Files.exists(body.path) shouldBe true
+
+    cache.put("bucket", "b", None, metadata)
+    Files.exists(body.path) shouldBe false
+  }
+
+  it should "not serve requests with a range or a customer-provided encryption key" in {
+    S3ObjectCache.cacheable(Nil) shouldBe true
+    S3ObjectCache.cacheable(List(Range(ByteRange(0, 9)))) shouldBe false
+    val customerKeys = ServerSideEncryption.customerKeys("key").withMd5("md5")
+    S3ObjectCache.cacheable(customerKeys.headersFor(GetObject)) shouldBe false
+  }
+}
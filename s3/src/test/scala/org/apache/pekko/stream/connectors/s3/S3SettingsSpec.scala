@@ -41,6 +41,7 @@ class S3SettingsSpec extends S3WireMockBase with S3ClientIntegrationSpec with Op
           |}
           |multipart-upload.retry-settings = $${retry-settings}
           |sign-anonymous-requests = true
+          |payload-signing = full
           |$more
         """.stripMargin)
         .resolve)
@@ -273,4 +274,76 @@ class S3SettingsSpec extends S3WireMockBase with S3ClientIntegrationSpec with Op
     val settings = mkSettings("sign-anonymous-requests = false")
     settings.signAnonymousRequests shouldBe false
   }
+
+  it should "parse payload-signing" in {
+    mkSettings("").payloadSigning shouldBe PayloadSigning.FullPayloadSigning
+    mkSettings("payload-signing = streaming").payloadSigning shouldBe PayloadSigning.StreamingPayloadSigning
+    mkSettings("payload-signing = unsigned").payloadSigning shouldBe PayloadSigning.UnsignedPayload
+    an[IllegalArgumentException] should be thrownBy mkSettings("payload-signing = none")
+  }
+
+  it should "parse adaptive multipart upload settings" in {
+    mkSettings("").multipartUploadSettings.adaptiveUpload shouldBe None
+
+    val settings = mkSettings("""
+        |multipart-upload.adaptive {
+        |  enabled = true
+        |  parts-per-size-step = 500
+        |  max-part-size = 64 MiB
+        |  min-parallelism = 2
+        |  max-parallelism = 8
+        |  max-bytes-in-flight = 128 MiB
+        |}
+      """.stripMargin)
+
+    settings.multipartUploadSettings.adaptiveUpload shouldBe Some(
+      AdaptiveUploadSettings(500, 64 * 1024 * 1024, 2, 8, 128L * 1024 * 1024))
+  }
+
+  it should "parse pooled buffer settings" in {
+    val settings = mkSettings("""
+        |buffer = pooled
+        |pooled-buffer.slab-size = 2 MiB
+        |pooled-buffer.max-slabs = 16
+      """.stripMargin)
+
+    settings.bufferType shouldBe PooledBufferType(2 * 1024 * 1024, 16)
+    settings.bufferType.path shouldBe None
+  }
+
+  it should "reject a buffer pool too small for the parts of the adaptive upload mode" in {
+    val pooled = """
+        |buffer = pooled
+        |pooled-buffer.slab-size = 1 MiB
+        |pooled-buffer.max-slabs = 128
+        |multipart-upload.adaptive {
+        |  enabled = true
+        |  parts-per-size-step = 1000
+        |  min-parallelism = 1
+        |  max-parallelism = 16
+        |  max-bytes-in-flight = 256 MiB
+        |""".stripMargin
+
+    noException should be thrownBy mkSettings(pooled + "max-part-size = 64 MiB\n}")
+    an[IllegalArgumentException] should be thrownBy mkSettings(pooled + "max-part-size = 65 MiB\n}")
+  }
+
+  it should "default the settings of optional sections" in {
+    val settings = mkSettings("")
+
+    settings.multipartUploadSettings.adaptiveUpload shouldBe None
+    settings.deleteObjectsSettings shouldBe DeleteObjectsSettings.default
+  }
+
+  it should "parse disk buffer settings" in {
+    val settings = mkSettings("""
+        |buffer = disk
+        |disk-buffer-path = "/tmp/s3"
+        |disk-buffer-spill-files = 4
+      """.stripMargin)
+
+    settings.bufferType shouldBe a[DiskBufferType]
+    settings.bufferType.path.value.toString shouldBe "/tmp/s3"
+    settings.bufferType.asInstanceOf[DiskBufferType].spillFiles shouldBe 4
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import org.apache.pekko
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+class AdaptiveConcurrencySpec extends AnyFlatSpec with Matchers with LogCapturing {
+
+  private class Clock {
+    var now = 0L
+  }
+
+  private def round(concurrency: AdaptiveConcurrency, clock: Clock, parts: Int, bytes: Long, nanos: Long): Unit = {
+    val permits = (1 to parts).map(_ => concurrency.acquire(bytes))
+    all(permits.map(_.isCompleted)) shouldBe true
+    clock.now += nanos
+    permits.foreach(_ => concurrency.release(bytes))
+  }
+
+  "AdaptiveConcurrency" should "start within its bounds" in {
+    new AdaptiveConcurrency(2, 4, 10, Long.MaxValue).parallelism shouldBe 4
+    new AdaptiveConcurrency(2, 4, 1, Long.MaxValue).parallelism shouldBe 2
+    new AdaptiveConcurrency(2, 4, 3, Long.MaxValue).parallelism shouldBe 3
+  }
+
+  it should "let only as many parts through as its limit" in {
+    val concurrency = new AdaptiveConcurrency(1, 4, 2, Long.MaxValue)
+    val first = concurrency.acquire(10)
+    val second = concurrency.acquire(10)
+    val third = concurrency.acquire(10)
+    first.isCompleted shouldBe true
+    second.isCompleted shouldBe true
+    third.isCompleted shouldBe false
+
+    concurrency.release(10)
+    third.isCompleted shouldBe true
+  }
+
+  it should "keep the bytes in flight within the budget" in {
+    val concurrency = new AdaptiveConcurrency(1, 4, 4, 100)
+    val first = concurrency.acquire(80)
+    val second = concurrency.acquire(30)
+    val third = concurrency.acquire(10)
+    first.isCompleted shouldBe true
+    second.isCompleted shouldBe false
+    third.isCompleted shouldBe false
+
+    concurrency.release(80)
+    second.isCompleted shouldBe true
+    third.isCompleted shouldBe true
+  }
+
+  it should "always let a single part through" in {
+    val concurrency = new AdaptiveConcurrency(1, 4, 4, 100)
+    concurrency.acquire(500).isCompleted shouldBe true
+  }
+
+  it should "raise the limit while the throughput improves and turn around when it drops" in {
+    val clock = new Clock
+    val concurrency = new AdaptiveConcurrency(1, 8, 2, Long.MaxValue, () => clock.now)
+
+    round(concurrency, clock, parts = 2, bytes = 100, nanos = 10)
+    concurrency.parallelism shouldBe 3
+    round(concurrency, clock, parts = 3, bytes = 100, nanos = 10)
+    concurrency.parallelism shouldBe 4
+    round(concurrency, clock, parts = 4, bytes = 100, nanos = 10)
+    concurrency.parallelism shouldBe 5
+
+    // the throughput drops from 40 to 10 bytes per nanosecond
+    round(concurrency, clock, parts = 5, bytes = 100, nanos = 50)
+    concurrency.parallelism shouldBe 4
+  }
+
+  it should "keep the limit when the throughput doesn't change" in {
+    val clock = new Clock
+    val concurrency = new AdaptiveConcurrency(1, 8, 2, Long.MaxValue, () => clock.now)
+
+    round(concurrency, clock, parts = 2, bytes = 100, nanos = 10)
+    concurrency.parallelism shouldBe 3
+    round(concurrency, clock, parts = 3, bytes = 100, nanos = 15)
+    concurrency.parallelism shouldBe 3
+  }
+
+  it should "halve the limit on congestion" in {
+    val concurrency = new AdaptiveConcurrency(1, 8, 8, Long.MaxValue)
+    concurrency.congested()
+    concurrency.parallelism shouldBe 4
+    concurrency.congested()
+    concurrency.congested()
+    concurrency.congested()
+    concurrency.parallelism shouldBe 1
+  }
+}
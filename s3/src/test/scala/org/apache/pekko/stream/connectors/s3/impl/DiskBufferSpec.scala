@@ -13,6 +13,7 @@
 
 package org.apache.pekko.stream.connectors.s3.impl
 
+import java.io.File
 import java.nio.BufferOverflowException
 import java.nio.file.Files
 
@@ -47,7 +48,7 @@ class DiskBufferSpec(_system: ActorSystem)
   "DiskBuffer" should
   "emit a chunk on its output containing the concatenation of all input values" in {
     val result = Source(Vector(ByteString(1, 2, 3, 4, 5), ByteString(6, 7, 8, 9, 10, 11, 12), ByteString(13, 14)))
-      .via(new DiskBuffer(1, 200, None))
+      .via(new DiskBuffer(1, 200, new SpillFileLease(new SpillFiles(None, 0))))
       .runWith(Sink.seq)
       .futureValue
 
@@ -64,7 +65,7 @@ class DiskBufferSpec(_system: ActorSystem)
     EventFilter[BufferOverflowException](occurrences = 1).intercept {
       whenReady(
         Source(Vector(ByteString(1, 2, 3, 4, 5), ByteString(6, 7, 8, 9, 10, 11, 12), ByteString(13, 14)))
-          .via(new DiskBuffer(1, 10, None))
+          .via(new DiskBuffer(1, 10, new SpillFileLease(new SpillFiles(None, 0))))
           .runWith(Sink.seq)
           .failed) { e =>
         e shouldBe a[BufferOverflowException]
@@ -76,7 +77,7 @@ class DiskBufferSpec(_system: ActorSystem)
     val tmpDir = Files.createTempDirectory("DiskBufferSpec").toFile()
     val before = tmpDir.list().size
     val chunk = Source(Vector(ByteString(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14)))
-      .via(new DiskBuffer(2, 200, Some(tmpDir.toPath)))
+      .via(new DiskBuffer(2, 200, new SpillFileLease(new SpillFiles(Some(tmpDir.toPath), 0))))
       .runWith(Sink.seq)
       .futureValue
       .head
@@ -95,4 +96,83 @@ class DiskBufferSpec(_system: ActorSystem)
     }
 
   }
+
+  it should "reuse its spill file for the next chunk once released" in {
+    val tmpDir = Files.createTempDirectory("DiskBufferSpec").toFile()
+    val spillFiles = new SpillFiles(Some(tmpDir.toPath), 1)
+    def buffer(bytes: ByteString): DiskChunk =
+      Source
+        .single(bytes)
+        .via(new DiskBuffer(1, 200, new SpillFileLease(spillFiles)))
+        .runWith(Sink.head)
+        .futureValue
+        .asInstanceOf[DiskChunk]
+
+    val first = buffer(ByteString(1, 2, 3, 4, 5, 6, 7, 8, 9, 10))
+    first.release()
+    spillFiles.idleFiles should be(1)
+
+    val second = buffer(ByteString(11, 12, 13))
+    spillFiles.idleFiles should be(0)
+    tmpDir.list().size should be(1)
+    second.data.runWith(Sink.seq).futureValue should be(Seq(ByteString(11, 12, 13)))
+    eventually {
+      spillFiles.idleFiles should be(1)
+    }
+
+    spillFiles.close()
+    tmpDir.list().size should be(0)
+  }
+
+  private def bufferWithLease(tmpDir: File) = {
+    val spillFiles = new SpillFiles(Some(tmpDir.toPath), 1)
+    val lease = new SpillFileLease(spillFiles)
+    val chunk = Source
+      .single(ByteString(1, 2, 3))
+      .via(new DiskBuffer(2, 200, lease))
+      .runWith(Sink.head)
+      .futureValue
+    (spillFiles, lease, chunk)
+  }
+
+  "SpillFileLease" should "release the files of chunks which weren't acknowledged when closed" in {
+    val tmpDir = Files.createTempDirectory("DiskBufferSpec").toFile()
+    val (spillFiles, lease, _) = bufferWithLease(tmpDir)
+    spillFiles.liveFiles should be(1)
+
+    lease.close()
+    spillFiles.liveFiles should be(0)
+    spillFiles.idleFiles should be(1)
+    an[IllegalStateException] should be thrownBy lease.acquire()
+    spillFiles.liveFiles should be(0)
+
+    spillFiles.close()
+    tmpDir.list().size should be(0)
+  }
+
+  it should "keep the file of a chunk which is being sent until it is sent, even when closed before" in {
+    val tmpDir = Files.createTempDirectory("DiskBufferSpec").toFile()
+    val (spillFiles, lease, chunk) = bufferWithLease(tmpDir)
+
+    chunk.sending()
+    lease.close()
+    spillFiles.liveFiles should be(1)
+    chunk.asInstanceOf[DiskChunk].data.runWith(Sink.seq).futureValue should be(Seq(ByteString(1, 2, 3)))
+
+    chunk.sent()
+    spillFiles.liveFiles should be(0)
+    an[IllegalStateException] should be thrownBy chunk.sending()
+  }
+
+  "SpillFiles" should "close and delete the files still in use when closed" in {
+    val tmpDir = Files.createTempDirectory("DiskBufferSpec").toFile()
+    val (spillFiles, _, chunk) = bufferWithLease(tmpDir)
+    tmpDir.list().size should be(1)
+
+    spillFiles.close()
+    spillFiles.liveFiles should be(0)
+    tmpDir.list().size should be(0)
+    chunk.release()
+    tmpDir.list().size should be(0)
+  }
 }
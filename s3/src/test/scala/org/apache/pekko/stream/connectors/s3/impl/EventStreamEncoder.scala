@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import java.nio.ByteOrder
+
+import org.apache.pekko.util.ByteString
+
+/**
+ * Encodes messages of the AWS event stream encoding with string headers, to stand in for S3 Select responses.
+ */
+object EventStreamEncoder {
+  private implicit val byteOrder: ByteOrder = ByteOrder.BIG_ENDIAN
+
+  def message(headers: Seq[(String, String)], payload: ByteString): ByteString = {
+    val headerBytes = headers.foldLeft(ByteString.empty) {
+      case (bytes, (name, value)) =>
+        val nameBytes = ByteString(name)
+        val valueBytes = ByteString(value)
+        bytes ++ ByteString.newBuilder
+          .putByte(nameBytes.size.toByte)
+          .append(nameBytes)
+          .putByte(7)
+          .putShort(valueBytes.size)
+          .append(valueBytes)
+          .result()
+    }
+    val totalLength = EventStreamParser.PreludeLength + headerBytes.size + payload.size + EventStreamParser.ChecksumLength
+    val prelude = ByteString.newBuilder.putInt(totalLength).putInt(headerBytes.size).result()
+    val withoutChecksum = prelude ++ int(EventStreamParser.checksum(prelude)) ++ headerBytes ++ payload
+    withoutChecksum ++ int(EventStreamParser.checksum(withoutChecksum))
+  }
+
+  def event(eventType: String, payload: ByteString = ByteString.empty): ByteString =
+    message(Seq(":message-type" -> "event", ":event-type" -> eventType), payload)
+
+  def records(payload: String): ByteString =
+    message(
+      Seq(":message-type" -> "event", ":event-type" -> "Records", ":content-type" -> "application/octet-stream"),
+      ByteString(payload))
+
+  def stats(bytesScanned: Long, bytesProcessed: Long, bytesReturned: Long): ByteString =
+    event(
+      "Stats",
+      ByteString(
+        s"""<?xml version="1.0" encoding="UTF-8"?><Stats><Details><BytesScanned>$bytesScanned</BytesScanned>""" +
+        s"<BytesProcessed>$bytesProcessed</BytesProcessed><BytesReturned>$bytesReturned</BytesReturned>" +
+        "</Details></Stats>"))
+
+  val end: ByteString = event("End")
+
+  def error(code: String, message: String): ByteString =
+    this.message(Seq(":message-type" -> "error", ":error-code" -> code, ":error-message" -> message), ByteString.empty)
+
+  private def int(value: Int): ByteString = ByteString.newBuilder.putInt(value).result()
+}
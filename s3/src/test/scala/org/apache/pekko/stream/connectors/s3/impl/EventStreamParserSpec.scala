@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.connectors.s3.{ S3Exception, SelectObjectContentStats }
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.stream.testkit.scaladsl.StreamTestKit.assertAllStagesStopped
+import pekko.testkit.TestKit
+import pekko.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.{ IntegrationPatience, ScalaFutures }
+import org.scalatest.flatspec.AnyFlatSpecLike
+import org.scalatest.matchers.should.Matchers
+
+import scala.concurrent.Promise
+
+class EventStreamParserSpec(_system: ActorSystem)
+    extends TestKit(_system)
+    with AnyFlatSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with ScalaFutures
+    with IntegrationPatience
+    with LogCapturing {
+
+  def this() = this(ActorSystem("EventStreamParserSpec"))
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  import EventStreamEncoder._
+
+  private val response = records("a,1\n") ++ event("Progress") ++ records("b,2\n") ++ stats(100, 100, 8) ++ end
+
+  "EventStreamParser" should "compute the CRC32 checksum" in {
+    EventStreamParser.checksum(ByteString("123456789")) shouldBe 0xCBF43926
+  }
+
+  it should "decode messages split at any byte" in assertAllStagesStopped {
+    val messages = Source(response.grouped(3).toList)
+      .via(new EventStreamParser)
+      .runWith(Sink.seq)
+      .futureValue
+
+    messages.map(_.headers(":event-type")) shouldBe Seq("Records", "Progress", "Records", "Stats", "End")
+    messages.head.payload shouldBe ByteString("a,1\n")
+    messages.head.headers(":content-type") shouldBe "application/octet-stream"
+  }
+
+  it should "decode several messages in one element" in assertAllStagesStopped {
+    Source
+      .single(response)
+      .via(new EventStreamParser)
+      .runWith(Sink.seq)
+      .futureValue should have size 5
+  }
+
+  it should "fail on a corrupted message" in assertAllStagesStopped {
+    val message = records("a,1\n")
+    val corrupted = message.take(message.size - 6) ++ ByteString("x") ++ message.drop(message.size - 5)
+
+    Source
+      .single(corrupted)
+      .via(new EventStreamParser)
+      .runWith(Sink.seq)
+      .failed
+      .futureValue
+      .getMessage shouldBe "Event stream message checksum mismatch"
+  }
+
+  it should "fail when the stream ends within a message" in assertAllStagesStopped {
+    Source
+      .single(records("a,1\n").dropRight(1))
+      .via(new EventStreamParser)
+      .runWith(Sink.seq)
+      .failed
+      .futureValue shouldBe an[IllegalStateException]
+  }
+
+  "SelectEvents" should "emit the records and complete the statistics" in assertAllStagesStopped {
+    val statistics = Promise[SelectObjectContentStats]()
+    val emitted = Source
+      .single(response)
+      .via(new EventStreamParser)
+      .via(new SelectEvents("key", statistics))
+      .runWith(Sink.seq)
+      .futureValue
+
+    emitted shouldBe Seq(ByteString("a,1\n"), ByteString("b,2\n"))
+    statistics.future.futureValue shouldBe SelectObjectContentStats(100, 100, 8)
+  }
+
+  it should "fail with the error sent by S3" in assertAllStagesStopped {
+    val statistics = Promise[SelectObjectContentStats]()
+    val e = Source
+      .single(records("a,1\n") ++ error("CSVParsingError", "Encountered an error parsing the CSV file."))
+      .via(new EventStreamParser)
+      .via(new SelectEvents("key", statistics))
+      .runWith(Sink.ignore)
+      .failed
+      .futureValue
+
+    e shouldBe a[S3Exception]
+    e.asInstanceOf[S3Exception].code shouldBe "CSVParsingError"
+    statistics.future.failed.futureValue shouldBe e
+  }
+
+  it should "fail when the response ends without an End event" in assertAllStagesStopped {
+    val statistics = Promise[SelectObjectContentStats]()
+    Source
+      .single(records("a,1\n") ++ stats(100, 100, 4))
+      .via(new EventStreamParser)
+      .via(new SelectEvents("key", statistics))
+      .runWith(Sink.ignore)
+      .failed
+      .futureValue shouldBe an[IllegalStateException]
+  }
+}
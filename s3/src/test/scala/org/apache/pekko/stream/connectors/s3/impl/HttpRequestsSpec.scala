@@ -13,7 +13,8 @@
 
 package org.apache.pekko.stream.connectors.s3.impl
 
-import java.util.UUID
+import java.security.MessageDigest
+import java.util.{ Base64, UUID }
 
 import org.apache.pekko
 import pekko.actor.ActorSystem
@@ -489,6 +490,48 @@ class HttpRequestsSpec extends AnyFlatSpec with Matchers with ScalaFutures with
     request.method should equal(HttpMethods.DELETE)
   }
 
+  it should "create delete objects request" in {
+    implicit val settings: S3Settings = getSettings()
+
+    val request = HttpRequests.deleteObjectsRequest(
+      "bucket",
+      List(ObjectIdentifier("a&b"), ObjectIdentifier("c", Some("v1"))),
+      Nil)
+
+    request.method should equal(HttpMethods.POST)
+    request.uri.authority.host.toString should equal("bucket.s3.us-east-1.amazonaws.com")
+    request.uri.queryString() should equal(Some("delete"))
+
+    val body = request.entity.asInstanceOf[HttpEntity.Strict].data
+    body.utf8String should include("<Object><Key>a&amp;b</Key></Object>")
+    body.utf8String should include("<Object><Key>c</Key><VersionId>v1</VersionId></Object>")
+    val md5 = Base64.getEncoder.encodeToString(MessageDigest.getInstance("MD5").digest(body.toArray))
+    request.headers should contain(RawHeader("Content-MD5", md5))
+  }
+
+  it should "create select object content request" in {
+    implicit val settings: S3Settings = getSettings()
+
+    val request = HttpRequests.selectObjectContentRequest(
+      location,
+      "SELECT * FROM S3Object s WHERE s._2 < 10",
+      SelectInputSerialization.Csv(CsvFileHeaderInfo.Use).withRecordDelimiter("\r\n"),
+      SelectOutputSerialization.Json(),
+      Some(ByteRange(100, 199)),
+      Nil)
+
+    request.method should equal(HttpMethods.POST)
+    request.uri.queryString() should equal(Some("select&select-type=2"))
+
+    val body = request.entity.asInstanceOf[HttpEntity.Strict].data.utf8String
+    body should include("<Expression>SELECT * FROM S3Object s WHERE s._2 &lt; 10</Expression>")
+    body should include("<CompressionType>NONE</CompressionType>")
+    body should include("<FileHeaderInfo>USE</FileHeaderInfo>")
+    body should include("<RecordDelimiter>&#13;&#10;</RecordDelimiter>")
+    body should include("<JSON><RecordDelimiter>&#10;</RecordDelimiter></JSON>")
+    body should include("<ScanRange><Start>100</Start><End>199</End></ScanRange>")
+  }
+
   it should "create checkIfExits bucket request" in {
     implicit val settings: S3Settings = getSettings()
 
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.connectors.s3.impl
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.http.scaladsl.model.HttpEntity
+import pekko.stream.connectors.testkit.scaladsl.LogCapturing
+import pekko.stream.scaladsl.{ Keep, Sink, Source }
+import pekko.stream.testkit.scaladsl.TestSource
+import pekko.testkit.TestKit
+import pekko.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.{ Eventually, ScalaFutures }
+import org.scalatest.flatspec.AnyFlatSpecLike
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{ Millis, Seconds, Span }
+
+class PooledBufferSpec(_system: ActorSystem)
+    extends TestKit(_system)
+    with AnyFlatSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with ScalaFutures
+    with Eventually
+    with LogCapturing {
+
+  def this() = this(ActorSystem("PooledBufferSpec"))
+
+  implicit val defaultPatience: PatienceConfig =
+    PatienceConfig(timeout = Span(5, Seconds), interval = Span(30, Millis))
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private val input = Vector(ByteString(1, 2, 3, 4, 5), ByteString(6, 7, 8, 9, 10, 11, 12), ByteString(13, 14))
+
+  "PooledBuffer" should "emit a chunk on its output containing the concatenation of all input values" in {
+    val pool = new SlabPool(4, 8)
+    val result = Source(input)
+      .via(new PooledBuffer(20, new SlabLease(pool)))
+      .runWith(Sink.seq)
+      .futureValue
+
+    result should have size 1
+    val chunk = result.head
+    chunk.size should be(14)
+    chunk shouldBe a[PooledChunk]
+    chunk.asEntity().asInstanceOf[HttpEntity.Strict].data should be(
+      ByteString(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14))
+    pool.slabsInUse should be(4)
+
+    chunk.asInstanceOf[PooledChunk].release()
+    pool.slabsInUse should be(0)
+  }
+
+  it should "fail if more than maxSize bytes are fed into it and return its slabs" in {
+    val pool = new SlabPool(4, 8)
+    whenReady(
+      Source(input)
+        .via(new PooledBuffer(10, new SlabLease(pool)))
+        .runWith(Sink.seq)
+        .failed) { e =>
+      e shouldBe a[IllegalStateException]
+    }
+    pool.slabsInUse should be(0)
+  }
+
+  it should "wait for a slab to be returned when the pool is exhausted" in {
+    val pool = new SlabPool(4, 4)
+    val taken = pool.acquire().futureValue
+
+    val result = Source(input)
+      .via(new PooledBuffer(16, new SlabLease(pool)))
+      .runWith(Sink.seq)
+
+    eventually(pool.waitingRequests should be(1))
+    result.isCompleted should be(false)
+
+    pool.release(taken)
+    result.futureValue.head.size should be(14)
+    pool.waitCount should be(1)
+    pool.waitingRequests should be(0)
+  }
+
+  it should "reserve the slabs of a whole chunk at once, so that competing buffers don't deadlock" in {
+    val pool = new SlabPool(4, 4)
+    def buffer() =
+      TestSource.probe[ByteString].via(new PooledBuffer(16, new SlabLease(pool))).toMat(Sink.head)(Keep.both).run()
+    val (firstProbe, firstChunk) = buffer()
+    val (secondProbe, secondChunk) = buffer()
+
+    firstProbe.sendNext(input.head)
+    eventually(pool.slabsInUse should be(4))
+    secondProbe.sendNext(input.head)
+    eventually(pool.waitingRequests should be(1))
+
+    input.tail.foreach(firstProbe.sendNext)
+    firstProbe.sendComplete()
+    val chunk = firstChunk.futureValue
+    chunk.size should be(14)
+    secondChunk.isCompleted should be(false)
+
+    chunk.release()
+    input.tail.foreach(secondProbe.sendNext)
+    secondProbe.sendComplete()
+    secondChunk.futureValue.size should be(14)
+    pool.slabsInUse should be(4)
+  }
+
+  "SlabLease" should "return all rented slabs to the pool when closed" in {
+    val pool = new SlabPool(4, 4)
+    val lease = new SlabLease(pool)
+    Source(input).via(new PooledBuffer(16, lease)).runWith(Sink.seq).futureValue
+    pool.slabsInUse should be(4)
+
+    lease.close()
+    pool.slabsInUse should be(0)
+    lease.acquire().failed.futureValue shouldBe an[IllegalStateException]
+    pool.slabsInUse should be(0)
+  }
+
+  it should "keep the slabs of a chunk which is being sent until it is sent, even when closed before" in {
+    val pool = new SlabPool(4, 4)
+    val lease = new SlabLease(pool)
+    val chunk = Source(input).via(new PooledBuffer(16, lease)).runWith(Sink.head).futureValue
+    pool.slabsInUse should be(4)
+
+    chunk.sending()
+    lease.close()
+    pool.slabsInUse should be(4)
+
+    chunk.sent()
+    pool.slabsInUse should be(0)
+    chunk.release()
+    pool.slabsInUse should be(0)
+    an[IllegalStateException] should be thrownBy chunk.sending()
+  }
+}
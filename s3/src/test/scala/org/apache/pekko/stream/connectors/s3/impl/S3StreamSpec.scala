@@ -13,6 +13,8 @@
 
 package org.apache.pekko.stream.connectors.s3.impl
 
+import java.util.concurrent.atomic.AtomicInteger
+
 import org.apache.pekko
 import pekko.actor.ActorSystem
 import pekko.http.scaladsl.model.headers.ByteRange
@@ -20,7 +22,7 @@ import pekko.http.scaladsl.model.{ HttpRequest, HttpResponse, StatusCodes }
 import pekko.stream.connectors.s3.BucketAccess.{ AccessDenied, AccessGranted, NotExists }
 import pekko.stream.connectors.s3.{ ApiVersion, BucketAccess, MemoryBufferType, S3Settings }
 import pekko.stream.connectors.testkit.scaladsl.LogCapturing
-import pekko.stream.scaladsl.{ Keep, Sink, Source }
+import pekko.stream.scaladsl.{ Flow, Keep, Sink, Source }
 import pekko.stream.{ Attributes, SystemMaterializer }
 import pekko.testkit.TestKit
 import pekko.util.ByteString
@@ -158,6 +160,77 @@ class S3StreamSpec(_system: ActorSystem)
     partitions should equal(List(CopyPartition(1, sourceLocation)))
   }
 
+  it should "choose copy part sizes which stay within the maximum number of parts" in {
+    val MiB = 1024 * 1024
+    S3Stream.copyPartSize(0L, S3Stream.MinChunkSize) should equal(S3Stream.MinChunkSize)
+    S3Stream.copyPartSize(10000L * 5 * MiB, S3Stream.MinChunkSize) should equal(S3Stream.MinChunkSize)
+    S3Stream.copyPartSize(10000L * 5 * MiB + 1, S3Stream.MinChunkSize) should equal(6 * MiB)
+    S3Stream.copyPartSize(5L * 1024 * 1024 * MiB, S3Stream.MinChunkSize) should equal(525 * MiB)
+    S3Stream.copyPartSize(MiB.toLong, 64 * MiB) should equal(64 * MiB)
+
+    val objectSize = 3L * 1024 * 1024 * MiB
+    S3Stream
+      .createPartitions(S3Stream.copyPartSize(objectSize, S3Stream.MinChunkSize), S3Location("bucket", "key"))(
+        objectSize)
+      .length should be <= S3Stream.MaxParts
+  }
+
+  it should "double the part size of adaptive uploads after every step of parts" in {
+    val MiB = 1024 * 1024
+    val settings = AdaptiveUploadSettings(1000, 512 * MiB, 1, 16, 256L * MiB)
+    val partSize = S3Stream.adaptivePartSize(S3Stream.MinChunkSize, settings) _
+    partSize(1) should equal(5 * MiB)
+    partSize(1000) should equal(5 * MiB)
+    partSize(1001) should equal(10 * MiB)
+    partSize(7001) should equal(512 * MiB)
+    partSize(10000) should equal(512 * MiB)
+
+    (1 to S3Stream.MaxParts).map(partSize(_).toLong).sum should be > 2L * 1000 * 1000 * 1000 * 1000
+  }
+
+  it should "only buffer the parts of an adaptive upload which fit into its budget" in {
+    val concurrency = new AdaptiveConcurrency(1, 4, 4, 100)
+    // a part being uploaded
+    concurrency.acquire(80).isCompleted shouldBe true
+
+    val buffered = new AtomicInteger()
+    val buffer = Flow[ByteString].map { bytes => buffered.addAndGet(bytes.size); bytes }.via(new MemoryBuffer(60))
+    val chunk = Source(List(ByteString(new Array[Byte](20)), ByteString(new Array[Byte](15))))
+      .via(S3Stream.permitted(concurrency, 30)(buffer))
+      .runWith(Sink.head)
+    Thread.sleep(100)
+    buffered.get shouldBe 0
+
+    concurrency.release(80)
+    chunk.futureValue.size shouldBe 35
+    buffered.get shouldBe 35
+    // the permit was adjusted to the size of the buffered part
+    concurrency.acquire(65).isCompleted shouldBe true
+    concurrency.acquire(1).isCompleted shouldBe false
+  }
+
+  it should "create inclusive ranges covering the whole object" in {
+    S3Stream.createRanges(25)(69L).toList should equal(
+      List(ByteRange(0, 24), ByteRange(25, 49), ByteRange(50, 68)))
+    S3Stream.createRanges(25)(50L).toList should equal(List(ByteRange(0, 24), ByteRange(25, 49)))
+    S3Stream.createRanges(25)(0L).toList shouldBe empty
+  }
+
+  it should "split the keys following a listed key into ranges covering the rest of the prefix" in {
+    val ranges = S3Stream.listKeyRanges("p/", "p/x")
+    ranges should equal(
+      List(
+        ListKeyRange("p/x", "p/x" + Char.MinValue, Some("p/y")),
+        ListKeyRange("p/x", "p/y", Some("p/z")),
+        ListKeyRange("p/y", "p/z", None)))
+
+    ranges.count(_.contains("p/x")) shouldBe 0
+    ranges.count(_.contains("p/x1")) shouldBe 1
+    ranges.count(_.contains("p/y")) shouldBe 1
+    ranges.count(_.contains("p/z~")) shouldBe 1
+    ranges.count(_.contains("q")) shouldBe 1
+  }
+
   "processCheckIfExistsResponse" should "convert head response to BucketAccess" in {
     def bucketStatusPreparation(response: HttpResponse): Future[BucketAccess] = {
       val testedMethod = PrivateMethod[Future[BucketAccess]](Symbol("processCheckIfExistsResponse"))
@@ -121,6 +121,23 @@ class SplitAfterSizeSpec(_system: ActorSystem)
         Seq(ByteString(16), ByteString(17, 18))))
   }
 
+  it should "use the sizes of the substream index" in assertAllStagesStopped {
+    val minChunkSize = (index: Int) => 4 << index
+    Source(Vector(ByteString(bytes(1, 30)), ByteString(bytes(31, 40)), ByteString(41, 42)))
+      .via(
+        SplitAfterSize(minChunkSize, (index: Int) => minChunkSize(index) * 2)(Flow[ByteString])
+          .prefixAndTail(10)
+          .map { case (prefix, tail) => prefix }
+          .concatSubstreams)
+      .runWith(Sink.seq)
+      .futureValue should be(
+      Seq(
+        Seq(ByteString(bytes(1, 8))),
+        Seq(ByteString(bytes(9, 24))),
+        Seq(ByteString(bytes(25, 30)), ByteString(bytes(31, 40))),
+        Seq(ByteString(41, 42))))
+  }
+
   def bytes(start: Byte, end: Byte): Array[Byte] = (start to end).map(_.toByte).toArray[Byte]
 
 }
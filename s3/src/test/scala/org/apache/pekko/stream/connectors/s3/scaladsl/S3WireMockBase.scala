@@ -17,7 +17,7 @@ import org.apache.pekko
 import pekko.actor.ActorSystem
 import pekko.stream.connectors.s3.S3Settings
 import pekko.stream.connectors.s3.headers.ServerSideEncryption
-import pekko.stream.connectors.s3.impl.S3Stream
+import pekko.stream.connectors.s3.impl.{ EventStreamEncoder, S3Stream }
 import pekko.stream.connectors.s3.scaladsl.S3WireMockBase._
 import pekko.testkit.TestKit
 import com.github.tomakehurst.wiremock.WireMockServer
@@ -98,6 +98,18 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
             .withHeader("Content-Length", body.length.toString)
             .withBody(body)))
 
+  def mockConditionalDownload(): Unit = {
+    mockDownload()
+    mock.register(
+      get(urlEqualTo(s"/$bucketKey"))
+        .withHeader("If-None-Match", new EqualToPattern(""""fba9dede5f27731c9771645a39863328""""))
+        .atPriority(1)
+        .willReturn(
+          aResponse()
+            .withStatus(304)
+            .withHeader("ETag", """"fba9dede5f27731c9771645a39863328"""")))
+  }
+
   def mockDownload(region: Region): Unit =
     mock
       .register(
@@ -191,6 +203,89 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
               .withHeader("ETag", """"fba9dede5f27731c9771645a39863328"""")
               .withBody(rangeOfBodySSE)))
 
+  def mockParallelDownload(partSize: Int, failingRangeStart: Option[Int] = None): Unit = {
+    mockHead(body.length)
+    body.getBytes.grouped(partSize).zipWithIndex.foreach {
+      case (part, index) =>
+        val first = index * partSize
+        def ranged = get(urlEqualTo(s"/$bucketKey"))
+          .withHeader("Range", new EqualToPattern(s"bytes=$first-${first + part.length - 1}"))
+          .withHeader("If-Match", new EqualToPattern(s""""$etag""""))
+        val response = aResponse().withStatus(206).withHeader("ETag", s""""$etag"""").withBody(part)
+        if (failingRangeStart.contains(first)) {
+          val scenarioName = "ParallelDownloadWithTransientError"
+          mock.register(
+            ranged
+              .inScenario(scenarioName)
+              .whenScenarioStateIs(Scenario.STARTED)
+              .willReturn(aResponse().withStatus(500))
+              .willSetStateTo("RecoverFromErrorOnRange"))
+          mock.register(
+            ranged.inScenario(scenarioName).whenScenarioStateIs("RecoverFromErrorOnRange").willReturn(response))
+        } else mock.register(ranged.willReturn(response))
+    }
+  }
+
+  def mockParallelListing(): Unit = {
+    def listing(prefix: String) =
+      get(urlPathEqualTo("/"))
+        .withQueryParam("list-type", new EqualToPattern("2"))
+        .withQueryParam("prefix", new EqualToPattern(prefix))
+        .withQueryParam("delimiter", new EqualToPattern("/"))
+    def page(keys: Seq[String], commonPrefixes: Seq[String] = Nil, token: Option[String] = None) =
+      aResponse()
+        .withStatus(200)
+        .withHeader("Content-Type", "application/xml")
+        .withBody(s"""|<?xml version="1.0" encoding="UTF-8"?>
+                      |<ListBucketResult xmlns="http://s3.us-east-1.amazonaws.com/doc/2006-03-01/">
+                      |    <Name>$bucket</Name>
+                      |    <IsTruncated>${token.isDefined}</IsTruncated>
+                      |    ${token.fold("")(t => s"<NextContinuationToken>$t</NextContinuationToken>")}
+                      |    ${keys.map(key => s"""<Contents>
+                      |        <Key>$key</Key>
+                      |        <LastModified>2009-10-12T17:50:30.000Z</LastModified>
+                      |        <ETag>&quot;fba9dede5f27731c9771645a39863328&quot;</ETag>
+                      |        <Size>434234</Size>
+                      |        <StorageClass>STANDARD</StorageClass>
+                      |    </Contents>""").mkString}
+                      |    ${commonPrefixes.map(p => s"<CommonPrefixes><Prefix>$p</Prefix></CommonPrefixes>").mkString}
+                      |</ListBucketResult>""".stripMargin)
+
+    mock.register(
+      listing("data/")
+        .withQueryParam("continuation-token", absent())
+        .willReturn(page(Seq("data/a.txt"), Seq("data/x/", "data/y/"))))
+    mock.register(
+      listing("data/x/")
+        .withQueryParam("continuation-token", absent())
+        .willReturn(page(Seq("data/x/1", "data/x/2"), token = Some("x-2"))))
+    mock.register(
+      listing("data/x/")
+        .withQueryParam("continuation-token", new EqualToPattern("x-2"))
+        .willReturn(page(Seq("data/x/3"))))
+    mock.register(
+      listing("data/y/")
+        .withQueryParam("continuation-token", absent())
+        .willReturn(page(Seq("data/y/1"))))
+
+    // a flat prefix, split into key ranges after its first page
+    mock.register(
+      listing("flat/")
+        .withQueryParam("continuation-token", absent())
+        .withQueryParam("start-after", absent())
+        .willReturn(page(Seq("flat/0", "flat/1"), token = Some("flat-1"))))
+    mock.register(
+      listing("flat/").withQueryParam("start-after", matching(".*")).atPriority(10).willReturn(page(Nil)))
+    mock.register(
+      listing("flat/")
+        .withQueryParam("start-after", new EqualToPattern("flat/1"))
+        .willReturn(page(Seq("flat/1x"))))
+    mock.register(
+      listing("flat/")
+        .withQueryParam("start-after", new EqualToPattern("flat/a"))
+        .willReturn(page(Seq("flat/a9", "flat/b7", "flat/c1"))))
+  }
+
   def mockListBucket(): Unit =
     mock
       .register(
@@ -299,6 +394,40 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
     mockMultipartCompletion()
   }
 
+  def mockPutObjects(keys: Seq[String]): Unit = {
+    keys.foreach { key =>
+      mock.register(
+        put(urlEqualTo(s"/$key"))
+          .withRequestBody(equalTo(s"content of $key"))
+          .willReturn(
+            aResponse()
+              .withStatus(200)
+              .withHeader("x-amz-request-id", "5A37448A37622243")
+              .withHeader("ETag", "\"" + etag + "\"")))
+    }
+  }
+
+  def mockPutObjectWithTransientError(key: String): Unit = {
+    val scenarioName = "PutObjectWithTransientError"
+
+    mock.register(
+      put(urlEqualTo(s"/$key"))
+        .inScenario(scenarioName)
+        .whenScenarioStateIs(Scenario.STARTED)
+        .willReturn(aResponse().withStatus(503))
+        .willSetStateTo("RecoverFromErrorOnPut"))
+
+    mock.register(
+      put(urlEqualTo(s"/$key"))
+        .inScenario(scenarioName)
+        .whenScenarioStateIs("RecoverFromErrorOnPut")
+        .withRequestBody(equalTo(s"content of $key"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("ETag", "\"" + etag + "\"")))
+  }
+
   def mockMultipartInitiation(): Unit = {
     mock
       .register(
@@ -807,6 +936,41 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
                          |</CompleteMultipartUploadResult>""".stripMargin)))
   }
 
+  def mockCopyMultiResumed(sourceLastModified: String = "Wed, 28 Oct 2009 22:00:00 GMT"): Unit = {
+    mockCopyMulti()
+
+    mock.register(
+      head(urlEqualTo(s"/$bucketKey"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("ETag", "\"" + etag + "\"")
+            .withHeader("Last-Modified", sourceLastModified)
+            .withHeader("Content-Length", s"${(5242880 * 1.5).toInt}")))
+
+    // the first part was copied before
+    mock.register(
+      get(urlEqualTo(s"/$targetBucketKey?uploadId=$uploadId"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml; charset=UTF-8")
+            .withBody(s"""<?xml version="1.0" encoding="UTF-8"?>
+                         |<ListPartsResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                         |  <Bucket>$targetBucket</Bucket>
+                         |  <Key>$targetBucketKey</Key>
+                         |  <UploadId>$uploadId</UploadId>
+                         |  <MaxParts>1000</MaxParts>
+                         |  <IsTruncated>false</IsTruncated>
+                         |  <Part>
+                         |    <PartNumber>1</PartNumber>
+                         |    <LastModified>2009-10-28T22:32:00.000Z</LastModified>
+                         |    <ETag>"$etag"</ETag>
+                         |    <Size>5242880</Size>
+                         |  </Part>
+                         |</ListPartsResult>""".stripMargin)))
+  }
+
   def mockMakingBucket(): Unit =
     mock.register(
       put(urlEqualTo("/")).willReturn(
@@ -818,6 +982,47 @@ abstract class S3WireMockBase(_system: ActorSystem, val _wireMockServer: WireMoc
       aResponse()
         .withStatus(200)))
 
+  def mockDeletingObjects(): Unit =
+    mock.register(
+      post(urlEqualTo("/?delete"))
+        .withHeader("Content-MD5", matching(".+"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml")
+            .withBody(s"""<?xml version="1.0" encoding="UTF-8"?>
+                         |<DeleteResult xmlns="http://s3.amazonaws.com/doc/2006-03-01/">
+                         |  <Deleted>
+                         |    <Key>$bucketKey</Key>
+                         |  </Deleted>
+                         |  <Error>
+                         |    <Key>locked</Key>
+                         |    <Code>AccessDenied</Code>
+                         |    <Message>Access Denied</Message>
+                         |  </Error>
+                         |</DeleteResult>""".stripMargin)))
+
+  def mockSelectObjectContent(): Unit =
+    mock.register(
+      post(urlEqualTo(s"/$bucketKey?select&select-type=2"))
+        .withRequestBody(containing("<Expression>SELECT s._1 FROM S3Object s</Expression>"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withBody(
+              (EventStreamEncoder.records("a\nb\n") ++ EventStreamEncoder.records("c\n") ++
+              EventStreamEncoder.stats(12, 12, 6) ++ EventStreamEncoder.end).toArray)))
+
+  def mockSelectObjectContentError(): Unit =
+    mock.register(
+      post(urlEqualTo(s"/$bucketKey?select&select-type=2"))
+        .withRequestBody(containing("<Expression>SELECT s._9 FROM S3Object s</Expression>"))
+        .willReturn(
+          aResponse()
+            .withStatus(200)
+            .withBody((EventStreamEncoder.records("a\n") ++
+            EventStreamEncoder.error("InvalidColumnIndex", "The column index at line 1, column 8 is invalid.")).toArray)))
+
   def mockCheckingBucketStateForNonExistingBucket(): Unit =
     mock.register(
       head(urlEqualTo("/")).willReturn(aResponse().withStatus(404)))